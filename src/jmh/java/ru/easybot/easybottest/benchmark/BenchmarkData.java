@@ -0,0 +1,92 @@
+package ru.easybot.easybottest.benchmark;
+
+import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.dto.HddDTO;
+import ru.easybot.easybottest.dto.LaptopDTO;
+import ru.easybot.easybottest.dto.MonitorDTO;
+import ru.easybot.easybottest.model.Computer;
+import ru.easybot.easybottest.model.Hdd;
+import ru.easybot.easybottest.model.Laptop;
+import ru.easybot.easybottest.model.Monitor;
+import ru.easybot.easybottest.model.Type;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Тестовые данные для бенчмарков
+ *
+ * @author Ilya Kaltygin
+ */
+public final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    public static Computer computer(int i) {
+        var computer = new Computer();
+        computer.setId(i);
+        computer.setSerialNumber("SERIAL-" + i);
+        computer.setManufacturer("MANUFACTURER");
+        computer.setPrice(10000 + i);
+        computer.setQuantity(10);
+        computer.setType(Type.NETTOP);
+        return computer;
+    }
+
+    public static Hdd hdd(int i) {
+        var hdd = new Hdd();
+        hdd.setId(i);
+        hdd.setSerialNumber("SERIAL-" + i);
+        hdd.setManufacturer("MANUFACTURER");
+        hdd.setPrice(5000 + i);
+        hdd.setQuantity(10);
+        hdd.setCapacity(1024);
+        return hdd;
+    }
+
+    public static Laptop laptop(int i) {
+        var laptop = new Laptop();
+        laptop.setId(i);
+        laptop.setSerialNumber("SERIAL-" + i);
+        laptop.setManufacturer("MANUFACTURER");
+        laptop.setPrice(50000 + i);
+        laptop.setQuantity(10);
+        laptop.setSize(15);
+        return laptop;
+    }
+
+    public static Monitor monitor(int i) {
+        var monitor = new Monitor();
+        monitor.setId(i);
+        monitor.setSerialNumber("SERIAL-" + i);
+        monitor.setManufacturer("MANUFACTURER");
+        monitor.setPrice(15000 + i);
+        monitor.setQuantity(10);
+        monitor.setDiagonal(27);
+        return monitor;
+    }
+
+    public static ComputerDTO computerDTO(int i) {
+        return new ComputerDTO("SERIAL-" + i, "MANUFACTURER", 10000 + i, 10, "NETTOP");
+    }
+
+    public static HddDTO hddDTO(int i) {
+        return new HddDTO("SERIAL-" + i, "MANUFACTURER", 5000 + i, 10, 1024);
+    }
+
+    public static LaptopDTO laptopDTO(int i) {
+        return new LaptopDTO("SERIAL-" + i, "MANUFACTURER", 50000 + i, 10, 15);
+    }
+
+    public static MonitorDTO monitorDTO(int i) {
+        return new MonitorDTO("SERIAL-" + i, "MANUFACTURER", 15000 + i, 10, 27);
+    }
+
+    public static List<ComputerDTO> computerDTOs(int size) {
+        return IntStream.range(0, size)
+                .mapToObj(BenchmarkData::computerDTO)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,83 @@
+package ru.easybot.easybottest.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.pagination.CursorPage;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение JSON, CBOR и Smile на странице из size компьютеров: пропускная способность сериализации
+ * ответа и десериализации тела пакетного запроса. Размер сериализованной страницы в байтах
+ * выводится при подготовке каждого формата
+ *
+ * @author Ilya Kaltygin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+
+    private CursorPage<ComputerDTO> page;
+
+    private byte[] serializedPage;
+
+    private byte[] serializedItems;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory(format)).build();
+        var computers = BenchmarkData.computerDTOs(size);
+        page = new CursorPage<>(computers, "NEXT");
+        serializedPage = objectMapper.writeValueAsBytes(page);
+        serializedItems = objectMapper.writeValueAsBytes(computers);
+        System.out.printf("%n%s: %d items, page %d bytes%n", format, size, serializedPage.length);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public List<ComputerDTO> deserializeBulk() throws IOException {
+        return objectMapper.readValue(serializedItems, new TypeReference<List<ComputerDTO>>() { });
+    }
+
+    private static JsonFactory factory(String format) {
+        return switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+    }
+}
@@ -0,0 +1,110 @@
+package ru.easybot.easybottest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.easybot.easybottest.EasybotTestApplication;
+import ru.easybot.easybottest.bloom.SerialNumberFilter;
+import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.handler.ProblemException;
+import ru.easybot.easybottest.repository.ComputerRepository;
+import ru.easybot.easybottest.service.ComputerService;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка серийного номера при создании компьютера. Дубликат: отклонение сервисом после фильтра Блума
+ * и запроса по индексу против INSERT, нарушающего ограничение уникальности (исключение и откат транзакции).
+ * Новый серийный номер: ответ фильтра без запроса против запроса по индексу, который выполнялся бы без фильтра
+ *
+ * @author Ilya Kaltygin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BloomFilterBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private ComputerService computerService;
+
+    private ComputerRepository computerRepository;
+
+    private SerialNumberFilter computerSerialNumbers;
+
+    private ComputerDTO duplicate;
+
+    private int created;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(EasybotTestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bloom-filter-benchmark",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=warn")
+                .run();
+        computerService = context.getBean(ComputerService.class);
+        computerRepository = context.getBean(ComputerRepository.class);
+        computerSerialNumbers = context.getBean("computerSerialNumbers", SerialNumberFilter.class);
+        duplicate = BenchmarkData.computerDTO(1);
+        computerService.create(duplicate);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object duplicateThroughFilter() {
+        try {
+            return computerService.create(duplicate);
+        } catch (ProblemException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object duplicateThroughConstraint() {
+        var computer = BenchmarkData.computer(1);
+        computer.setId(0);
+        try {
+            return computerRepository.save(computer);
+        } catch (DataIntegrityViolationException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Set<String> newThroughFilter() {
+        return computerSerialNumbers.findExisting(List.of(newSerialNumber()), computerRepository::findExistingSerialNumbers);
+    }
+
+    @Benchmark
+    public Set<String> newThroughLookup() {
+        return computerRepository.findExistingSerialNumbers(List.of(newSerialNumber()));
+    }
+
+    private String newSerialNumber() {
+        return "NEW-" + created++;
+    }
+}
@@ -0,0 +1,90 @@
+package ru.easybot.easybottest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.easybot.easybottest.EasybotTestApplication;
+import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.handler.ProblemException;
+import ru.easybot.easybottest.idempotency.IdempotencyStore;
+import ru.easybot.easybottest.service.ComputerService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость повтора запроса создания компьютера: повтор без ключа идемпотентности доходит до базы данных
+ * и отклоняется со статусом CONFLICT после проверки серийного номера (транзакция и запрос по индексу),
+ * а повтор с Idempotency-Key получает сохраненный ответ первого запроса
+ *
+ * @author Ilya Kaltygin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdempotencyBenchmark {
+
+    private static final String KEY = "benchmark-retry";
+
+    private ConfigurableApplicationContext context;
+
+    private ComputerService computerService;
+
+    private IdempotencyStore idempotencyStore;
+
+    private ComputerDTO computer;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(EasybotTestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:idempotency-benchmark",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=warn")
+                .run();
+        computerService = context.getBean(ComputerService.class);
+        idempotencyStore = context.getBean(IdempotencyStore.class);
+        computer = BenchmarkData.computerDTO(1);
+        create();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object retryWithoutKey() {
+        try {
+            return computerService.create(computer);
+        } catch (ProblemException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ComputerDTO> retryWithKey() {
+        return create();
+    }
+
+    private ResponseEntity<ComputerDTO> create() {
+        return idempotencyStore.execute("computer", KEY, computer,
+                () -> new ResponseEntity<>(computerService.create(computer), HttpStatus.CREATED));
+    }
+}
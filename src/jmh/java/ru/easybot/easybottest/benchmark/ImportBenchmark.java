@@ -0,0 +1,90 @@
+package ru.easybot.easybottest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.easybot.easybottest.EasybotTestApplication;
+import ru.easybot.easybottest.dto.ImportResultDTO;
+import ru.easybot.easybottest.service.ComputerService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Импорт ROWS компьютеров из CSV в пустую таблицу. Время выводится в пересчете на одну строку,
+ * поэтому кол-во строк в секунду равно 1 / score
+ *
+ * @author Ilya Kaltygin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OperationsPerInvocation(ImportBenchmark.ROWS)
+@Fork(1)
+public class ImportBenchmark {
+
+    static final int ROWS = 200_000;
+
+    private ConfigurableApplicationContext context;
+
+    private ComputerService computerService;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private byte[] csv;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(EasybotTestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:import-benchmark",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=warn")
+                .run();
+        computerService = context.getBean(ComputerService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        var builder = new StringBuilder("serialNumber,manufacturer,price,quantity,type\n");
+        for (int i = 1; i <= ROWS; i++) {
+            var computer = BenchmarkData.computerDTO(i);
+            builder.append(computer.getSerialNumber()).append(',')
+                    .append(computer.getManufacturer()).append(',')
+                    .append(computer.getPrice()).append(',')
+                    .append(computer.getQuantity()).append(',')
+                    .append(computer.getType()).append('\n');
+        }
+        csv = builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Invocation)
+    public void clear() {
+        jdbcTemplate.update("DELETE FROM computer");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ImportResultDTO importCsv() {
+        return computerService.importCsv(new ByteArrayInputStream(csv));
+    }
+}
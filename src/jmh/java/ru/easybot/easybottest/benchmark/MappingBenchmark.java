@@ -0,0 +1,77 @@
+package ru.easybot.easybottest.benchmark;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.easybot.easybottest.config.ModelMapperConfig;
+import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.dto.HddDTO;
+import ru.easybot.easybottest.dto.LaptopDTO;
+import ru.easybot.easybottest.dto.MonitorDTO;
+import ru.easybot.easybottest.model.Computer;
+import ru.easybot.easybottest.model.Hdd;
+import ru.easybot.easybottest.model.Laptop;
+import ru.easybot.easybottest.model.Monitor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность преобразования сущностей в DTO для всех категорий товаров
+ *
+ * @author Ilya Kaltygin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    private ModelMapper modelMapper;
+
+    private Computer computer;
+
+    private Hdd hdd;
+
+    private Laptop laptop;
+
+    private Monitor monitor;
+
+    @Setup
+    public void setUp() {
+        modelMapper = ModelMapperConfig.configure(new ModelMapper());
+        computer = BenchmarkData.computer(1);
+        hdd = BenchmarkData.hdd(1);
+        laptop = BenchmarkData.laptop(1);
+        monitor = BenchmarkData.monitor(1);
+    }
+
+    @Benchmark
+    public ComputerDTO computerToDto() {
+        return modelMapper.map(computer, ComputerDTO.class);
+    }
+
+    @Benchmark
+    public HddDTO hddToDto() {
+        return modelMapper.map(hdd, HddDTO.class);
+    }
+
+    @Benchmark
+    public LaptopDTO laptopToDto() {
+        return modelMapper.map(laptop, LaptopDTO.class);
+    }
+
+    @Benchmark
+    public MonitorDTO monitorToDto() {
+        return modelMapper.map(monitor, MonitorDTO.class);
+    }
+}
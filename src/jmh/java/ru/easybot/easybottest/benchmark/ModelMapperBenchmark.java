@@ -0,0 +1,83 @@
+package ru.easybot.easybottest.benchmark;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.easybot.easybottest.config.ModelMapperConfig;
+import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.model.Computer;
+import ru.easybot.easybottest.model.Type;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение создания ModelMapper на каждое преобразование с общим ModelMapper,
+ * карты преобразований которого построены при старте приложения.
+ * Время - ns/op, выделенная память на одно преобразование - gc.alloc.rate.norm профилировщика gc
+ *
+ * @author Ilya Kaltygin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelMapperBenchmark {
+
+    /**
+     * Общий ModelMapper, настроенный так же, как в приложении
+     */
+    private ModelMapper sharedModelMapper;
+
+    /**
+     * Сущность компьютера
+     */
+    private Computer computer;
+
+    /**
+     * DTO компьютера
+     */
+    private ComputerDTO computerDTO;
+
+    @Setup
+    public void setUp() {
+        sharedModelMapper = ModelMapperConfig.configure(new ModelMapper());
+        computer = new Computer();
+        computer.setId(1);
+        computer.setSerialNumber("SERIAL");
+        computer.setManufacturer("MANUFACTURER");
+        computer.setPrice(10000);
+        computer.setQuantity(10);
+        computer.setType(Type.NETTOP);
+        computerDTO = new ComputerDTO("SERIAL", "MANUFACTURER", 10000, 10, "NETTOP");
+    }
+
+    @Benchmark
+    public ComputerDTO entityToDtoNewMapperPerCall() {
+        return new ModelMapper().map(computer, ComputerDTO.class);
+    }
+
+    @Benchmark
+    public ComputerDTO entityToDtoSharedMapper() {
+        return sharedModelMapper.map(computer, ComputerDTO.class);
+    }
+
+    @Benchmark
+    public Computer dtoToEntityNewMapperPerCall() {
+        return new ModelMapper().map(computerDTO, Computer.class);
+    }
+
+    @Benchmark
+    public Computer dtoToEntitySharedMapper() {
+        return sharedModelMapper.map(computerDTO, Computer.class);
+    }
+}
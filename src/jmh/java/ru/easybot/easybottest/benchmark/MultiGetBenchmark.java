@@ -0,0 +1,129 @@
+package ru.easybot.easybottest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.easybot.easybottest.EasybotTestApplication;
+import ru.easybot.easybottest.cache.Versioned;
+import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.dto.MultiGetResultDTO;
+import ru.easybot.easybottest.repository.ProductJdbcReader;
+import ru.easybot.easybottest.service.ComputerService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Получение keys компьютеров: отдельным запросом на каждый идентификатор, как при N вызовах
+ * GET /api/v1/computer/{id}, одним запросом WHERE id IN (...) и через сервис с кэшем.
+ * Таблица заполняется ROWS строками, идентификаторы выбираются случайно, поэтому большая часть
+ * обращений к кэшу - промахи
+ *
+ * @author Ilya Kaltygin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiGetBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    private static final int BATCH_SIZE = 1_000;
+
+    @Param({"20", "50"})
+    private int keys;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductJdbcReader<ComputerDTO> computerReader;
+
+    private ComputerService computerService;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        context = new SpringApplicationBuilder(EasybotTestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:multi-get-benchmark",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=warn")
+                .run();
+        computerReader = (ProductJdbcReader<ComputerDTO>) context.getBeanProvider(
+                ResolvableType.forClassWithGenerics(ProductJdbcReader.class, ComputerDTO.class)).getObject();
+        computerService = context.getBean(ComputerService.class);
+        insertComputers(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Optional<Versioned<ComputerDTO>>> queryPerId() {
+        var products = new ArrayList<Optional<Versioned<ComputerDTO>>>(keys);
+        for (var id : randomIds()) {
+            products.add(computerReader.findById(id));
+        }
+        return products;
+    }
+
+    @Benchmark
+    public Map<Integer, Versioned<ComputerDTO>> inQuery() {
+        return computerReader.findAllByIds(randomIds());
+    }
+
+    @Benchmark
+    public MultiGetResultDTO<ComputerDTO> serviceFindMany() {
+        return computerService.findMany(randomIds(), null);
+    }
+
+    private List<Integer> randomIds() {
+        var random = ThreadLocalRandom.current();
+        var ids = new ArrayList<Integer>(keys);
+        for (var i = 0; i < keys; i++) {
+            ids.add(random.nextInt(1, ROWS + 1));
+        }
+        return ids;
+    }
+
+    private static void insertComputers(JdbcTemplate jdbcTemplate) {
+        var sql = "INSERT INTO computer (id, serial_number, manufacturer, price, quantity, type) VALUES (?, ?, ?, ?, ?, ?)";
+        for (int from = 1; from <= ROWS; from += BATCH_SIZE) {
+            var batch = new ArrayList<Object[]>(BATCH_SIZE);
+            for (int i = from; i < from + BATCH_SIZE && i <= ROWS; i++) {
+                var computer = BenchmarkData.computer(i);
+                batch.add(new Object[]{
+                        computer.getId(),
+                        computer.getSerialNumber(),
+                        computer.getManufacturer(),
+                        computer.getPrice(),
+                        computer.getQuantity(),
+                        computer.getType().name()});
+            }
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+}
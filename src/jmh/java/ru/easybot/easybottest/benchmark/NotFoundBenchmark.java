@@ -0,0 +1,118 @@
+package ru.easybot.easybottest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import ru.easybot.easybottest.EasybotTestApplication;
+import ru.easybot.easybottest.controller.ComputerController;
+import ru.easybot.easybottest.handler.GlobalExceptionHandler;
+import ru.easybot.easybottest.service.ComputerService;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Запросы в секунду на GET /api/v1/computer/{id} для несуществующих компьютеров через DispatcherServlet (MockMvc):
+ * прежний обработчик, создающий на каждый запрос ResponseStatusException со стеком вызовов,
+ * и ComputerController, возвращающий заранее созданный ответ. MockMvc не перенаправляет ошибку на /error,
+ * поэтому стоимость прежнего пути в сервлет-контейнере выше измеренной
+ *
+ * @author Ilya Kaltygin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotFoundBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    private int requests;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(EasybotTestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:not-found-benchmark",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=warn")
+                .run();
+        var computerService = context.getBean(ComputerService.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                        context.getBean(ComputerController.class),
+                        new ExceptionNotFoundController(computerService))
+                .setControllerAdvice(context.getBean(GlobalExceptionHandler.class))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult exceptionNotFound() throws Exception {
+        return mockMvc.perform(get("/exception/computer/{id}", missingId())).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult problemNotFound() throws Exception {
+        return mockMvc.perform(get("/api/v1/computer/{id}", missingId())).andReturn();
+    }
+
+    private int missingId() {
+        return 1_000_000 + requests++ % 1_000_000;
+    }
+
+    /**
+     * Прежний обработчик GET по идентификатору: ненайденный товар выбрасывает новый ResponseStatusException
+     */
+    @RestController
+    @RequestMapping("exception/computer")
+    static class ExceptionNotFoundController {
+
+        private final ComputerService computerService;
+
+        ExceptionNotFoundController(ComputerService computerService) {
+            this.computerService = computerService;
+        }
+
+        @GetMapping("/{id}")
+        public ResponseEntity<?> findById(@PathVariable int id) {
+            var computerDTO = computerService.findById(id);
+            if (computerDTO.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The computer with the specified ID was not found.");
+            }
+            return ResponseEntity.ok()
+                    .eTag(String.valueOf(computerDTO.get().getVersion()))
+                    .body(computerDTO.get().getValue());
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package ru.easybot.easybottest.benchmark;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.easybot.easybottest.EasybotTestApplication;
+import ru.easybot.easybottest.cache.Versioned;
+import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.filter.ComputerFilter;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
+import ru.easybot.easybottest.pagination.PageCursor;
+import ru.easybot.easybottest.pagination.SortField;
+import ru.easybot.easybottest.repository.ComputerRepository;
+import ru.easybot.easybottest.repository.ProductJdbcReader;
+
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение чтения компьютеров через JPA (сущности в контексте персистентности и ModelMapper)
+ * с чтением через JDBC сразу в DTO. Таблица заполняется ROWS строками, страницы и товары выбираются
+ * со случайной позиции, чтобы не читать все время одни и те же блоки
+ *
+ * @author Ilya Kaltygin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadPathBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    private static final int BATCH_SIZE = 1_000;
+
+    @Param({"50", "500"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+
+    private ComputerRepository computerRepository;
+
+    private ProductJdbcReader<ComputerDTO> computerReader;
+
+    private ModelMapper modelMapper;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private final ComputerFilter filter = new ComputerFilter();
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        context = new SpringApplicationBuilder(EasybotTestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:read-path-benchmark",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=warn")
+                .run();
+        computerRepository = context.getBean(ComputerRepository.class);
+        computerReader = (ProductJdbcReader<ComputerDTO>) context.getBeanProvider(
+                ResolvableType.forClassWithGenerics(ProductJdbcReader.class, ComputerDTO.class)).getObject();
+        modelMapper = context.getBean(ModelMapper.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        insertComputers(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CursorPage<ComputerDTO> jpaPage() {
+        var request = randomPageRequest();
+        return readOnlyTransaction.execute(status -> computerRepository.findPage(request, filter.toSpecification())
+                .map(computer -> modelMapper.map(computer, ComputerDTO.class)));
+    }
+
+    @Benchmark
+    public CursorPage<ComputerDTO> jdbcPage() {
+        return computerReader.findPage(randomPageRequest(), filter);
+    }
+
+    @Benchmark
+    public Optional<ComputerDTO> jpaDetail() {
+        var id = randomId();
+        return readOnlyTransaction.execute(status -> computerRepository.findById(id)
+                .map(computer -> modelMapper.map(computer, ComputerDTO.class)));
+    }
+
+    @Benchmark
+    public Optional<Versioned<ComputerDTO>> jdbcDetail() {
+        return computerReader.findById(randomId());
+    }
+
+    private KeysetPageRequest randomPageRequest() {
+        var after = randomId();
+        var cursor = new PageCursor(SortField.ID, Sort.Direction.ASC, after, after);
+        return new KeysetPageRequest(cursor.encode(), pageSize, SortField.ID.getAttribute(), Sort.Direction.ASC.name());
+    }
+
+    private static int randomId() {
+        return ThreadLocalRandom.current().nextInt(1, ROWS + 1);
+    }
+
+    private static void insertComputers(JdbcTemplate jdbcTemplate) {
+        var sql = "INSERT INTO computer (id, serial_number, manufacturer, price, quantity, type) VALUES (?, ?, ?, ?, ?, ?)";
+        for (int from = 1; from <= ROWS; from += BATCH_SIZE) {
+            var batch = new ArrayList<Object[]>(BATCH_SIZE);
+            for (int i = from; i < from + BATCH_SIZE && i <= ROWS; i++) {
+                var computer = BenchmarkData.computer(i);
+                batch.add(new Object[]{
+                        computer.getId(),
+                        computer.getSerialNumber(),
+                        computer.getManufacturer(),
+                        computer.getPrice(),
+                        computer.getQuantity(),
+                        computer.getType().name()});
+            }
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+}
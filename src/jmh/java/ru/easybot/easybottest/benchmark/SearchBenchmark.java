@@ -0,0 +1,75 @@
+package ru.easybot.easybottest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.easybot.easybottest.dto.SearchResultDTO;
+import ru.easybot.easybottest.search.SearchIndex;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Задержка подсказок при вводе по индексу поиска из size товаров: поиск по части серийного номера
+ * (триграммы), по началу серийного номера из двух символов, по началу производителя с ранжированием
+ * по частоте и изменение серийного номера товара в индексе. Серийные номера псевдослучайные,
+ * частота производителей неравномерная
+ *
+ * @author Ilya Kaltygin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"100000"})
+    private int size;
+
+    private SearchIndex index;
+
+    private int updates;
+
+    @Setup
+    public void setUp() {
+        index = new SearchIndex("computer", null);
+        for (var i = 1; i <= size; i++) {
+            index.put(i, serialNumber(i), "VENDOR-" + (int) Math.sqrt(i % 10_000));
+        }
+    }
+
+    @Benchmark
+    public SearchResultDTO serialNumberSubstring() {
+        return index.search("3f7a", 10);
+    }
+
+    @Benchmark
+    public SearchResultDTO serialNumberPrefix() {
+        return index.search("sn", 10);
+    }
+
+    @Benchmark
+    public SearchResultDTO manufacturerPrefix() {
+        return index.search("vendor-9", 10);
+    }
+
+    @Benchmark
+    public int update() {
+        var id = updates++ % size + 1;
+        index.put(id, serialNumber(id + updates), null);
+        return id;
+    }
+
+    private static String serialNumber(int i) {
+        return "SN-" + Integer.toHexString(i * 0x9E3779B1);
+    }
+}
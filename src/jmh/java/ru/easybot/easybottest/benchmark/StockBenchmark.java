@@ -0,0 +1,82 @@
+package ru.easybot.easybottest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.easybot.easybottest.EasybotTestApplication;
+import ru.easybot.easybottest.service.StockService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Списание остатка одного популярного товара из всех доступных потоков: одним запросом UPDATE
+ * на каждое списание (reservation=false) и из резерва в памяти (reservation=true).
+ * Без резерва все потоки ждут блокировку одной строки, с резервом пропускная способность
+ * должна расти с кол-вом ядер
+ *
+ * @author Ilya Kaltygin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(1)
+public class StockBenchmark {
+
+    private static final int ID = 1;
+
+    private static final int STOCK = 1_000_000_000;
+
+    @Param({"false", "true"})
+    private boolean reservation;
+
+    private ConfigurableApplicationContext context;
+
+    private StockService stockService;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(EasybotTestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:stock-benchmark",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=warn",
+                        "easybot.stock.reservation-enabled=" + reservation,
+                        "easybot.stock.hot-threshold=1",
+                        "easybot.stock.flush-interval-ms=100")
+                .run();
+        var computer = BenchmarkData.computer(ID);
+        context.getBean(JdbcTemplate.class).update(
+                "INSERT INTO computer (id, serial_number, manufacturer, price, quantity, type) VALUES (?, ?, ?, ?, ?, ?)",
+                computer.getId(), computer.getSerialNumber(), computer.getManufacturer(), computer.getPrice(),
+                STOCK, computer.getType().name());
+        stockService = context.getBean(StockService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void decrement() {
+        stockService.decrement("computer", ID, 1);
+    }
+}
@@ -0,0 +1,131 @@
+package ru.easybot.easybottest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.easybot.easybottest.EasybotTestApplication;
+import ru.easybot.easybottest.cache.Versioned;
+import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.repository.ProductJdbcReader;
+import ru.easybot.easybottest.service.ComputerService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Цена постоянного хранения: чтение компьютера по идентификатору мимо кэша и создание компьютера
+ * (транзакция с INSERT и увеличением версии категории) в базе данных в памяти и в файле H2 профиля prod
+ * с настройками easybot.storage.* по умолчанию. Таблица заполняется ROWS строками,
+ * файл базы данных создается во временном каталоге и удаляется после бенчмарка
+ *
+ * @author Ilya Kaltygin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StorageBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    private static final int FIRST_ID = 10_000_001;
+
+    private static final int BATCH_SIZE = 1_000;
+
+    @Param({"memory", "file"})
+    private String storage;
+
+    private Path directory;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductJdbcReader<ComputerDTO> computerReader;
+
+    private ComputerService computerService;
+
+    private int created;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        var builder = new SpringApplicationBuilder(EasybotTestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=warn");
+        if ("file".equals(storage)) {
+            directory = Files.createTempDirectory("easybot-storage-benchmark");
+            builder.profiles("prod")
+                    .properties("easybot.storage.file=" + directory.resolve("easybot"));
+        } else {
+            builder.properties("spring.datasource.url=jdbc:h2:mem:storage-benchmark");
+        }
+        context = builder.run();
+        computerReader = (ProductJdbcReader<ComputerDTO>) context.getBeanProvider(
+                ResolvableType.forClassWithGenerics(ProductJdbcReader.class, ComputerDTO.class)).getObject();
+        computerService = context.getBean(ComputerService.class);
+        insertComputers(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        if (directory != null) {
+            try (var paths = Files.walk(directory)) {
+                for (var path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public Optional<Versioned<ComputerDTO>> read() {
+        return computerReader.findById(ThreadLocalRandom.current().nextInt(FIRST_ID, FIRST_ID + ROWS));
+    }
+
+    @Benchmark
+    public ComputerDTO write() {
+        return computerService.create(BenchmarkData.computerDTO(++created));
+    }
+
+    private static void insertComputers(JdbcTemplate jdbcTemplate) {
+        var sql = "INSERT INTO computer (id, serial_number, manufacturer, price, quantity, type) VALUES (?, ?, ?, ?, ?, ?)";
+        for (int from = FIRST_ID; from < FIRST_ID + ROWS; from += BATCH_SIZE) {
+            var batch = new ArrayList<Object[]>(BATCH_SIZE);
+            for (int i = from; i < from + BATCH_SIZE && i < FIRST_ID + ROWS; i++) {
+                var computer = BenchmarkData.computer(i);
+                batch.add(new Object[]{
+                        computer.getId(),
+                        computer.getSerialNumber(),
+                        computer.getManufacturer(),
+                        computer.getPrice(),
+                        computer.getQuantity(),
+                        computer.getType().name()});
+            }
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package ru.easybot.easybottest.benchmark;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.easybot.easybottest.EasybotTestApplication;
+import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.model.Computer;
+import ru.easybot.easybottest.repository.ComputerRepository;
+import ru.easybot.easybottest.service.ComputerService;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение обновления товара одним запросом UPDATE ... WHERE id = ? с прежней схемой
+ * existsById + save (SELECT на проверку, SELECT при merge и UPDATE).
+ * Помимо пропускной способности в конце прогона выводится среднее кол-во SQL запросов на одно обновление
+ * по статистике Hibernate
+ *
+ * @author Ilya Kaltygin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpdateBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private ComputerService computerService;
+
+    private ComputerRepository computerRepository;
+
+    private ModelMapper modelMapper;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    private ComputerDTO computer;
+
+    private int id;
+
+    private long invocations;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(EasybotTestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:update-benchmark",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.generate_statistics=true",
+                        "logging.level.root=warn")
+                .run();
+        computerService = context.getBean(ComputerService.class);
+        computerRepository = context.getBean(ComputerRepository.class);
+        modelMapper = context.getBean(ModelMapper.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        computer = BenchmarkData.computerDTO(1);
+        computerService.create(computer);
+        id = computerRepository.findAll().get(0).getId();
+        statistics.clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%nSQL statements per update: %.2f%n",
+                (double) statistics.getPrepareStatementCount() / invocations);
+        context.close();
+    }
+
+    @Benchmark
+    public boolean conditionalUpdate() {
+        computer.setPrice(10000 + (int) (invocations++ % 2));
+        return computerService.update(computer, id);
+    }
+
+    @Benchmark
+    public Boolean existsThenSave() {
+        computer.setPrice(10000 + (int) (invocations++ % 2));
+        return transactionTemplate.execute(status -> {
+            var computerFromDTO = modelMapper.map(computer, Computer.class);
+            computerFromDTO.setId(id);
+            if (!computerRepository.existsById(id)) {
+                return false;
+            }
+            computerRepository.save(computerFromDTO);
+            return true;
+        });
+    }
+}
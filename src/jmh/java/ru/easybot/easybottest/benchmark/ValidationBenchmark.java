@@ -0,0 +1,94 @@
+package ru.easybot.easybottest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.dto.HddDTO;
+import ru.easybot.easybottest.dto.LaptopDTO;
+import ru.easybot.easybottest.dto.MonitorDTO;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность Bean Validation для DTO всех категорий товаров.
+ * Отдельно измеряется невалидный DTO: построение нарушений и интерполяция сообщений заметно дороже
+ *
+ * @author Ilya Kaltygin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+
+    private Validator validator;
+
+    private ComputerDTO computerDTO;
+
+    private ComputerDTO invalidComputerDTO;
+
+    private HddDTO hddDTO;
+
+    private LaptopDTO laptopDTO;
+
+    private MonitorDTO monitorDTO;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        computerDTO = BenchmarkData.computerDTO(1);
+        invalidComputerDTO = new ComputerDTO("", "", -1, -1, "");
+        hddDTO = BenchmarkData.hddDTO(1);
+        laptopDTO = BenchmarkData.laptopDTO(1);
+        monitorDTO = BenchmarkData.monitorDTO(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ComputerDTO>> validComputer() {
+        return validator.validate(computerDTO);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ComputerDTO>> invalidComputer() {
+        return validator.validate(invalidComputerDTO);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<HddDTO>> validHdd() {
+        return validator.validate(hddDTO);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<LaptopDTO>> validLaptop() {
+        return validator.validate(laptopDTO);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<MonitorDTO>> validMonitor() {
+        return validator.validate(monitorDTO);
+    }
+}
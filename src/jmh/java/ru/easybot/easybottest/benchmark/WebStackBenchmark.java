@@ -0,0 +1,122 @@
+package ru.easybot.easybottest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.easybot.easybottest.EasybotTestApplication;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузочное сравнение обычного режима (Tomcat, JDBC) с реактивным (Netty, R2DBC, профиль reactive).
+ * Приложение запускается на случайном порту, 64 потока одновременно отправляют HTTP запросы
+ * страницы списка и товара по идентификатору. Режим SampleTime дает распределение времени ответа,
+ * поэтому в результатах видны p99 и p99.9 при одинаковой конкурентности
+ *
+ * @author Ilya Kaltygin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(64)
+@Fork(1)
+public class WebStackBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private static final int BATCH_SIZE = 1_000;
+
+    @Param({"servlet", "reactive"})
+    private String stack;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient httpClient;
+
+    private String baseUrl;
+
+    @Setup
+    public void setUp() {
+        var builder = new SpringApplicationBuilder(EasybotTestApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:web-stack-benchmark",
+                        "spring.r2dbc.url=r2dbc:h2:mem:///web-stack-benchmark",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=warn");
+        if ("reactive".equals(stack)) {
+            builder.profiles("reactive");
+        }
+        context = builder.run();
+        insertComputers(context.getBean(JdbcTemplate.class));
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/v1/computer/";
+        httpClient = HttpClient.newHttpClient();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String page() throws IOException, InterruptedException {
+        return get(baseUrl + "?size=50&sort=price");
+    }
+
+    @Benchmark
+    public String detail() throws IOException, InterruptedException {
+        return get(baseUrl + ThreadLocalRandom.current().nextInt(1, ROWS + 1));
+    }
+
+    private String get(String url) throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder(URI.create(url))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode() + " for " + url);
+        }
+        return response.body();
+    }
+
+    private static void insertComputers(JdbcTemplate jdbcTemplate) {
+        var sql = "INSERT INTO computer (id, serial_number, manufacturer, price, quantity, type) VALUES (?, ?, ?, ?, ?, ?)";
+        for (int from = 1; from <= ROWS; from += BATCH_SIZE) {
+            var batch = new ArrayList<Object[]>(BATCH_SIZE);
+            for (int i = from; i < from + BATCH_SIZE && i <= ROWS; i++) {
+                var computer = BenchmarkData.computer(i);
+                batch.add(new Object[]{
+                        computer.getId(),
+                        computer.getSerialNumber(),
+                        computer.getManufacturer(),
+                        computer.getPrice(),
+                        computer.getQuantity(),
+                        computer.getType().name()});
+            }
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ru.easybot.easybottest.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.easybot.easybottest.benchmark.BenchmarkData;
+import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.handler.ProblemException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность проверки типа компьютера ComputerTypeValidator.check.
+ * Бенчмарк лежит в пакете сервиса, так как проверка доступна только внутри пакета
+ *
+ * @author Ilya Kaltygin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComputerTypeCheckBenchmark {
+
+    private ComputerDTO validComputer;
+
+    private ComputerDTO invalidComputer;
+
+    @Setup
+    public void setUp() {
+        validComputer = BenchmarkData.computerDTO(1);
+        invalidComputer = BenchmarkData.computerDTO(2);
+        invalidComputer.setType("SERVER");
+    }
+
+    @Benchmark
+    public ComputerDTO validType() {
+        ComputerTypeValidator.check(validComputer);
+        return validComputer;
+    }
+
+    @Benchmark
+    public Object invalidType() {
+        try {
+            ComputerTypeValidator.check(invalidComputer);
+            return invalidComputer;
+        } catch (ProblemException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package ru.easybot.easybottest.bloom;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Фильтр Блума строк: битовый массив и k хэш-функций. Ответ "нет" точный, ответ "возможно есть"
+ * ложноположителен с заданной вероятностью. Номера битов строятся из двух 64-битных хэшей
+ * как h1 + i * h2 (схема Кирша-Митценмахера). Биты хранятся в AtomicLongArray, поэтому добавление
+ * и проверка могут выполняться параллельно без блокировок
+ *
+ * @author Ilya Kaltygin
+ */
+public class BloomFilter {
+
+    /**
+     * Слова битового массива
+     */
+    private final AtomicLongArray words;
+
+    /**
+     * Кол-во битов
+     */
+    private final long bitCount;
+
+    /**
+     * Кол-во хэш-функций
+     */
+    private final int hashCount;
+
+    /**
+     * Создать фильтр оптимального размера
+     *
+     * @param expectedInsertions ожидаемое кол-во строк
+     * @param falsePositiveRate  допустимая доля ложноположительных ответов при ожидаемом кол-ве строк
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        var insertions = Math.max(1, expectedInsertions);
+        var bits = (long) Math.ceil(-insertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        var wordCount = (int) Math.max(1, (bits + Long.SIZE - 1) / Long.SIZE);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * Long.SIZE;
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / insertions * Math.log(2)));
+    }
+
+    /**
+     * Добавить строку
+     *
+     * @param value строка
+     */
+    public void put(String value) {
+        var h1 = hash(value);
+        var h2 = mix(h1 ^ 0x9E3779B97F4A7C15L);
+        for (var i = 0; i < hashCount; i++) {
+            var bit = Math.floorMod(h1 + i * h2, bitCount);
+            var mask = 1L << bit;
+            var index = (int) (bit >>> 6);
+            if ((words.get(index) & mask) == 0) {
+                words.getAndUpdate(index, word -> word | mask);
+            }
+        }
+    }
+
+    /**
+     * Проверить, могла ли строка быть добавлена
+     *
+     * @param value строка
+     * @return false если строка точно не добавлялась, true если возможно добавлялась
+     */
+    public boolean mightContain(String value) {
+        var h1 = hash(value);
+        var h2 = mix(h1 ^ 0x9E3779B97F4A7C15L);
+        for (var i = 0; i < hashCount; i++) {
+            var bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & 1L << bit) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Получить кол-во битов
+     *
+     * @return кол-во битов
+     */
+    public long bitCount() {
+        return bitCount;
+    }
+
+    /**
+     * 64-битный хэш строки: FNV-1a по символам с перемешиванием результата
+     *
+     * @param value строка
+     * @return хэш
+     */
+    private static long hash(String value) {
+        var hash = 0xCBF29CE484222325L;
+        for (var i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Перемешать биты числа (финализатор MurmurHash3)
+     *
+     * @param value число
+     * @return перемешанное число
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
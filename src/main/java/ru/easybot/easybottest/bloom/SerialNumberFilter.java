@@ -0,0 +1,200 @@
+package ru.easybot.easybottest.bloom;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.easybot.easybottest.config.SerialNumberFilterProperties;
+import ru.easybot.easybottest.handler.Problem;
+import ru.easybot.easybottest.handler.ProblemException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Фильтр Блума серийных номеров товаров одной категории для быстрого отклонения дубликатов при создании.
+ * <p>
+ * Серийный номер, которого точно нет в фильтре, считается новым без запроса к базе данных.
+ * Серийные номера, которые возможно есть, проверяются запросом по уникальному индексу, и дубликат
+ * отклоняется со статусом CONFLICT до INSERT, без нарушения ограничения уникальности, отката транзакции
+ * и разбора сообщения об ошибке. Если фильтр ошибся в сторону "точно нет" (например, серийный номер был закоммичен
+ * во время загрузки фильтра), то дубликат по-прежнему отклоняет ограничение уникальности базы данных.
+ * <p>
+ * Фильтр загружается из базы данных при старте приложения, а серийные номера добавляются после коммита
+ * транзакций, создающих и изменяющих товары. Серийные номера, которые больше не используются, из фильтра
+ * не удаляются и дают только лишнюю проверку по индексу. Ответы фильтра учитываются в счетчике
+ * easybot.serial.filter с тегами category и result (new, duplicate, false_positive)
+ *
+ * @author Ilya Kaltygin
+ */
+public class SerialNumberFilter {
+
+    /**
+     * Имя счетчика ответов фильтра
+     */
+    public static final String COUNTER_NAME = "easybot.serial.filter";
+
+    /**
+     * Категория товаров (имя таблицы)
+     */
+    private final String category;
+
+    /**
+     * Шаблон JDBC запросов для загрузки фильтра
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Настройки фильтров
+     */
+    private final SerialNumberFilterProperties properties;
+
+    /**
+     * Серийные номера, которые точно новые
+     */
+    private final Counter newCounter;
+
+    /**
+     * Подтвержденные дубликаты
+     */
+    private final Counter duplicateCounter;
+
+    /**
+     * Ложноположительные ответы фильтра
+     */
+    private final Counter falsePositiveCounter;
+
+    /**
+     * Ответ на дубликат серийного номера
+     */
+    private final Problem duplicate;
+
+    /**
+     * Текущий фильтр, заменяется целиком при загрузке
+     */
+    private volatile BloomFilter filter;
+
+    public SerialNumberFilter(String category, JdbcTemplate jdbcTemplate, SerialNumberFilterProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.category = category;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.newCounter = counter(meterRegistry, category, "new");
+        this.duplicateCounter = counter(meterRegistry, category, "duplicate");
+        this.falsePositiveCounter = counter(meterRegistry, category, "false_positive");
+        this.duplicate = Problem.of(HttpStatus.CONFLICT,
+                String.format("The %s with the specified serial number already exists", category));
+        this.filter = new BloomFilter(properties.getExpectedInsertions(), properties.getFalsePositiveRate());
+    }
+
+    /**
+     * Заново загрузить фильтр из таблицы категории. Добавления после коммита ждут окончания загрузки,
+     * поэтому серийный номер, закоммиченный после чтения таблицы, попадает в новый фильтр
+     */
+    public synchronized void load() {
+        var rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + category, Long.class);
+        var loaded = new BloomFilter(Math.max(properties.getExpectedInsertions(), rows * 2),
+                properties.getFalsePositiveRate());
+        jdbcTemplate.query("SELECT serial_number FROM " + category,
+                (RowCallbackHandler) rs -> loaded.put(rs.getString(1)));
+        filter = loaded;
+    }
+
+    /**
+     * Добавить серийный номер после коммита текущей транзакции, или сразу, если транзакции нет
+     *
+     * @param serialNumber серийный номер, null если не изменился
+     */
+    public void putAfterCommit(String serialNumber) {
+        if (serialNumber == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(serialNumber);
+                }
+            });
+        } else {
+            put(serialNumber);
+        }
+    }
+
+    /**
+     * Добавить серийный номер
+     *
+     * @param serialNumber серийный номер
+     */
+    public synchronized void put(String serialNumber) {
+        filter.put(serialNumber);
+    }
+
+    /**
+     * Проверить, мог ли серийный номер быть добавлен
+     *
+     * @param serialNumber серийный номер
+     * @return false если серийного номера точно нет, true если возможно есть
+     */
+    public boolean mightContain(String serialNumber) {
+        return filter.mightContain(serialNumber);
+    }
+
+    /**
+     * Найти серийные номера из заданных, которые уже есть в базе данных.
+     * В запрос попадают только серийные номера, которые возможно есть в фильтре, и если таких нет, запрос не выполняется
+     *
+     * @param serialNumbers серийные номера
+     * @param lookup        поиск существующих серийных номеров по уникальному индексу
+     * @return существующие серийные номера
+     */
+    public Set<String> findExisting(Collection<String> serialNumbers, Function<Collection<String>, Set<String>> lookup) {
+        var current = filter;
+        var candidates = serialNumbers.stream()
+                .filter(serialNumber -> serialNumber != null && current.mightContain(serialNumber))
+                .collect(Collectors.toList());
+        newCounter.increment(serialNumbers.size() - candidates.size());
+        if (candidates.isEmpty()) {
+            return Set.of();
+        }
+        var existing = lookup.apply(candidates);
+        duplicateCounter.increment(existing.size());
+        falsePositiveCounter.increment(candidates.size() - existing.size());
+        return existing;
+    }
+
+    /**
+     * Проверить, что серийного номера еще нет в базе данных
+     *
+     * @param serialNumber серийный номер
+     * @param lookup       поиск существующих серийных номеров по уникальному индексу
+     * @throws ProblemException со статусом CONFLICT, если товар с таким серийным номером уже есть
+     */
+    public void checkNew(String serialNumber, Function<Collection<String>, Set<String>> lookup) {
+        if (serialNumber != null && !findExisting(List.of(serialNumber), lookup).isEmpty()) {
+            throw duplicate.getException();
+        }
+    }
+
+    /**
+     * Зарегистрировать счетчик ответов фильтра
+     *
+     * @param meterRegistry реестр метрик
+     * @param category      категория товаров
+     * @param result        ответ фильтра
+     * @return счетчик
+     */
+    private static Counter counter(MeterRegistry meterRegistry, String category, String result) {
+        return Counter.builder(COUNTER_NAME)
+                .description("Serial number checks on create by Bloom filter outcome")
+                .tag("category", category)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,31 @@
+package ru.easybot.easybottest.bloom;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Загрузка фильтров серийных номеров всех категорий при старте приложения, когда схема базы данных уже создана
+ *
+ * @author Ilya Kaltygin
+ */
+@Component
+@AllArgsConstructor
+public class SerialNumberFilterLoader {
+
+    /**
+     * Фильтры серийных номеров всех категорий
+     */
+    private final List<SerialNumberFilter> filters;
+
+    /**
+     * Загрузить фильтры из базы данных
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        filters.forEach(SerialNumberFilter::load);
+    }
+}
@@ -0,0 +1,36 @@
+package ru.easybot.easybottest.cache;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author Ilya Kaltygin
+ */
+@Schema(description = "Статистика кэша товаров")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheStats {
+
+    @Schema(description = "Имя кэша")
+    private String name;
+
+    @Schema(description = "Кол-во записей в кэше")
+    private int size;
+
+    @Schema(description = "Максимальное кол-во записей")
+    private int maxSize;
+
+    @Schema(description = "Кол-во попаданий")
+    private long hits;
+
+    @Schema(description = "Кол-во промахов")
+    private long misses;
+
+    @Schema(description = "Кол-во вытеснений по размеру")
+    private long evictions;
+}
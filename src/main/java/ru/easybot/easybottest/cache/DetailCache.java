@@ -0,0 +1,284 @@
+package ru.easybot.easybottest.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Ограниченный по размеру кэш уже преобразованных DTO товаров, читающий значения через загрузчик (read-through).
+ * Кэшируются только найденные товары.
+ * <p>
+ * Записи хранятся в ConcurrentHashMap, поэтому попадания не берут общих блокировок. Вытеснение приблизительное
+ * LRU: при превышении размера один поток удаляет записи с самым давним временем обращения, пока размер
+ * не опустится на 10% ниже максимального.
+ * <p>
+ * Чтобы после успешного обновления никогда не отдавалось устаревшее значение, перед загрузкой по ключу
+ * кладется метка загрузки, а загруженное значение заменяет только ее. Инвалидация удаляет запись или метку
+ * этого ключа, поэтому загрузка, прочитавшая строку до коммита обновления, уже не сможет положить старое
+ * значение, а загрузки других ключей инвалидация не затрагивает.
+ * Инвалидация выполняется после коммита транзакции, изменившей товар
+ *
+ * @param <K> тип ключа
+ * @param <V> тип значения
+ * @author Ilya Kaltygin
+ */
+public class DetailCache<K, V> {
+
+    /**
+     * Имя кэша
+     */
+    private final String name;
+
+    /**
+     * Максимальное кол-во записей
+     */
+    private final int maxSize;
+
+    /**
+     * Записи и метки загрузки по ключу
+     */
+    private final ConcurrentHashMap<K, Node<V>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Блокировка вытеснения, берется без ожидания только потоком, обнаружившим превышение размера
+     */
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    /**
+     * Кол-во попаданий
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Кол-во промахов
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Кол-во вытеснений
+     */
+    private final LongAdder evictions = new LongAdder();
+
+    public DetailCache(String name, int maxSize) {
+        this.name = name;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Получить значение из кэша или загрузить его
+     *
+     * @param key    ключ
+     * @param loader загрузчик значения
+     * @return значение или Optional.empty(), если загрузчик его не нашел
+     */
+    public Optional<V> get(K key, Function<K, Optional<V>> loader) {
+        var node = entries.get(key);
+        if (node != null && node.value != null) {
+            hits.increment();
+            return Optional.of(node.access());
+        }
+        misses.increment();
+        var mark = mark(key);
+        if (mark.value != null) {
+            return Optional.of(mark.access());
+        }
+        Optional<V> loaded = Optional.empty();
+        try {
+            loaded = loader.apply(key);
+        } finally {
+            if (loaded.isEmpty() || !entries.replace(key, mark, new Node<>(loaded.get()))) {
+                entries.remove(key, mark);
+            }
+        }
+        evictIfFull();
+        return loaded;
+    }
+
+    /**
+     * Получить значения нескольких ключей из кэша, а отсутствующие загрузить одним вызовом загрузчика.
+     * Загруженные значения кладутся в кэш по тем же правилам, что и в {@link #get(Object, Function)}
+     *
+     * @param keys   ключи без повторов
+     * @param loader загрузчик значений отсутствующих в кэше ключей
+     * @return найденные значения по ключу, ключей, которых нет ни в кэше, ни у загрузчика, в результате нет
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<Collection<K>, Map<K, V>> loader) {
+        var found = new HashMap<K, V>(keys.size() * 2);
+        var marks = new HashMap<K, Node<V>>();
+        for (var key : keys) {
+            var node = entries.get(key);
+            if (node != null && node.value != null) {
+                found.put(key, node.access());
+            } else {
+                marks.put(key, null);
+            }
+        }
+        hits.add(found.size());
+        misses.add(marks.size());
+        if (marks.isEmpty()) {
+            return found;
+        }
+        var missing = new ArrayList<K>(marks.size());
+        for (var key : marks.keySet()) {
+            var mark = mark(key);
+            if (mark.value != null) {
+                found.put(key, mark.access());
+            } else {
+                marks.put(key, mark);
+                missing.add(key);
+            }
+        }
+        Map<K, V> loaded = Map.of();
+        try {
+            loaded = missing.isEmpty() ? Map.of() : loader.apply(missing);
+            found.putAll(loaded);
+        } finally {
+            for (var key : missing) {
+                var mark = marks.get(key);
+                var value = loaded.get(key);
+                if (value == null || !entries.replace(key, mark, new Node<>(value))) {
+                    entries.remove(key, mark);
+                }
+            }
+        }
+        evictIfFull();
+        return found;
+    }
+
+    /**
+     * Удалить запись из кэша после коммита текущей транзакции, или сразу, если транзакции нет
+     *
+     * @param key ключ
+     */
+    public void invalidateAfterCommit(K key) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(key);
+                }
+            });
+        } else {
+            invalidate(key);
+        }
+    }
+
+    /**
+     * Удалить запись из кэша. Если значение ключа сейчас загружается, оно не попадет в кэш
+     *
+     * @param key ключ
+     */
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Получить имя кэша (категорию товаров)
+     *
+     * @return имя кэша
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Получить статистику кэша
+     *
+     * @return статистика
+     */
+    public CacheStats stats() {
+        return CacheStats.builder()
+                .name(name)
+                .size(entries.size())
+                .maxSize(maxSize)
+                .hits(hits.sum())
+                .misses(misses.sum())
+                .evictions(evictions.sum())
+                .build();
+    }
+
+    /**
+     * Положить метку загрузки ключа, если по нему еще ничего нет
+     *
+     * @param key ключ
+     * @return своя или уже лежащая метка загрузки, либо запись, загруженная другим потоком
+     */
+    private Node<V> mark(K key) {
+        var mark = new Node<V>(null);
+        var existing = entries.putIfAbsent(key, mark);
+        return existing != null ? existing : mark;
+    }
+
+    /**
+     * Вытеснить записи с самым давним обращением, если размер превышен.
+     * Если вытеснение уже выполняет другой поток, текущий поток не ждет
+     */
+    private void evictIfFull() {
+        if (entries.size() <= maxSize || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            var excess = entries.size() - (maxSize - maxSize / 10);
+            if (excess <= 0) {
+                return;
+            }
+            var oldest = new ArrayList<Map.Entry<K, Node<V>>>(entries.size());
+            for (var entry : entries.entrySet()) {
+                if (entry.getValue().value != null) {
+                    oldest.add(Map.entry(entry.getKey(), entry.getValue()));
+                }
+            }
+            oldest.sort(Comparator.comparingLong(entry -> entry.getValue().accessed));
+            for (var i = 0; i < oldest.size() && excess > 0; i++) {
+                if (entries.remove(oldest.get(i).getKey(), oldest.get(i).getValue())) {
+                    evictions.increment();
+                    excess--;
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Запись кэша или, если значение не задано, метка загрузки. Метки сравниваются по ссылке
+     *
+     * @param <V> тип значения
+     */
+    private static final class Node<V> {
+
+        /**
+         * Значение, null у метки загрузки
+         */
+        private final V value;
+
+        /**
+         * Время последнего обращения, System.nanoTime()
+         */
+        private volatile long accessed = System.nanoTime();
+
+        private Node(V value) {
+            this.value = value;
+        }
+
+        /**
+         * Отметить обращение к записи
+         *
+         * @return значение
+         */
+        private V access() {
+            accessed = System.nanoTime();
+            return value;
+        }
+    }
+}
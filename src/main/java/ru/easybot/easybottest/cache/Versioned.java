@@ -0,0 +1,43 @@
+package ru.easybot.easybottest.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Значение вместе с версией строки, из которой оно прочитано. Кэшируется целиком,
+ * поэтому ETag ответа строится без отдельного запроса версии
+ *
+ * @param <V> тип значения
+ * @author Ilya Kaltygin
+ */
+@Getter
+@AllArgsConstructor
+public final class Versioned<V> {
+
+    /**
+     * Значение
+     */
+    private final V value;
+
+    /**
+     * Версия строки
+     */
+    private final long version;
+
+    /**
+     * Получить значения без версий
+     *
+     * @param versioned значения с версиями по ключу
+     * @param <K>       тип ключа
+     * @param <V>       тип значения
+     * @return значения по ключу
+     */
+    public static <K, V> Map<K, V> values(Map<K, Versioned<V>> versioned) {
+        var values = new HashMap<K, V>(versioned.size() * 2);
+        versioned.forEach((key, value) -> values.put(key, value.getValue()));
+        return values;
+    }
+}
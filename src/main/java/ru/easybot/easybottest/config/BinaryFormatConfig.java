@@ -0,0 +1,40 @@
+package ru.easybot.easybottest.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * BinaryFormatConfig - конфигурационный класс двоичных форматов CBOR (application/cbor)
+ * и Smile (application/x-jackson-smile). Контроллеры выбирают формат ответа по заголовку Accept,
+ * а формат тела запроса - по заголовку Content-Type. Сериализаторы строятся тем же построителем,
+ * что и JSON сериализатор Spring Boot, поэтому DTO во всех форматах содержат одинаковые поля.
+ * Зависимости форматов необязательные: если их нет в сборке, конфигурация не создается и остается только JSON.
+ * Кодеки реактивного режима задаются в ReactiveCodecConfig
+ *
+ * @author Ilya Kaltygin
+ */
+@Configuration
+@ConditionalOnClass({CBORFactory.class, SmileFactory.class})
+public class BinaryFormatConfig {
+
+    /**
+     * Тип содержимого Smile
+     */
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,48 @@
+package ru.easybot.easybottest.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.easybot.easybottest.cache.DetailCache;
+import ru.easybot.easybottest.cache.Versioned;
+import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.dto.HddDTO;
+import ru.easybot.easybottest.dto.LaptopDTO;
+import ru.easybot.easybottest.dto.MonitorDTO;
+
+/**
+ * CacheConfig - конфигурационный класс кэшей товаров по идентификатору.
+ * Для каждой категории создается свой кэш товаров вместе с версиями строк,
+ * размер которого задается свойством easybot.cache.detail.max-size
+ *
+ * @author Ilya Kaltygin
+ */
+@Configuration
+public class CacheConfig {
+
+    /**
+     * Максимальное кол-во записей в кэше одной категории
+     */
+    @Value("${easybot.cache.detail.max-size:10000}")
+    private int maxSize;
+
+    @Bean
+    public DetailCache<Integer, Versioned<ComputerDTO>> computerCache() {
+        return new DetailCache<>("computer", maxSize);
+    }
+
+    @Bean
+    public DetailCache<Integer, Versioned<HddDTO>> hddCache() {
+        return new DetailCache<>("hdd", maxSize);
+    }
+
+    @Bean
+    public DetailCache<Integer, Versioned<LaptopDTO>> laptopCache() {
+        return new DetailCache<>("laptop", maxSize);
+    }
+
+    @Bean
+    public DetailCache<Integer, Versioned<MonitorDTO>> monitorCache() {
+        return new DetailCache<>("monitor", maxSize);
+    }
+}
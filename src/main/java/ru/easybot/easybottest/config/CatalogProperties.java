@@ -0,0 +1,31 @@
+package ru.easybot.easybottest.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * CatalogProperties - настройки сводного каталога из свойств easybot.catalog.*
+ *
+ * @author Ilya Kaltygin
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "easybot.catalog")
+public class CatalogProperties {
+
+    /**
+     * Кол-во потоков пула, в котором запрашиваются страницы категорий
+     */
+    private int poolSize = 8;
+
+    /**
+     * Размер очереди пула. Если очередь заполнена, каталог отвечает статусом SERVICE_UNAVAILABLE
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * Время, отведенное на ответ одной категории, в миллисекундах
+     */
+    private long categoryTimeoutMs = 2000;
+}
@@ -0,0 +1,46 @@
+package ru.easybot.easybottest.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * DurableStorageConfig - конфигурационный класс постоянного хранилища (профиль prod).
+ * Каталог хранится в файле H2 или на отдельном сервере H2 и не теряется при перезапуске, поэтому
+ * индексы и фильтры загружаются из базы данных при старте без повторного импорта.
+ * Пул соединений и настройки H2 задаются через {@link StorageProperties},
+ * имя пользователя, пароль и драйвер - через spring.datasource.*
+ *
+ * @author Ilya Kaltygin
+ */
+@Profile("prod")
+@Configuration
+public class DurableStorageConfig {
+
+    /**
+     * Создает пул соединений к постоянной базе данных
+     *
+     * @param dataSourceProperties настройки источника данных spring.datasource.*
+     * @param storageProperties    настройки хранилища и пула
+     * @return пул соединений
+     */
+    @Bean
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties, StorageProperties storageProperties) {
+        var pool = storageProperties.getPool();
+        var config = new HikariConfig();
+        config.setPoolName("easybot");
+        config.setJdbcUrl(storageProperties.jdbcUrl());
+        config.setDriverClassName(dataSourceProperties.getDriverClassName());
+        config.setUsername(dataSourceProperties.getUsername());
+        config.setPassword(dataSourceProperties.getPassword());
+        config.setMaximumPoolSize(pool.getMaximumPoolSize());
+        config.setMinimumIdle(pool.getMinimumIdle());
+        config.setConnectionTimeout(pool.getConnectionTimeoutMs());
+        config.setIdleTimeout(pool.getIdleTimeoutMs());
+        config.setMaxLifetime(pool.getMaxLifetimeMs());
+        return new HikariDataSource(config);
+    }
+}
@@ -0,0 +1,32 @@
+package ru.easybot.easybottest.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * IdempotencyProperties - настройки хранилища ответов на запросы с заголовком Idempotency-Key
+ * из свойств easybot.idempotency.*
+ *
+ * @author Ilya Kaltygin
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "easybot.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * Время хранения ответа в секундах с момента первого запроса
+     */
+    private long ttlSeconds = 86400;
+
+    /**
+     * Максимальное кол-во хранимых ответов, самые старые удаляются
+     */
+    private int maxEntries = 10000;
+
+    /**
+     * Максимальное время ожидания повтором ответа выполняющегося первого запроса в миллисекундах
+     */
+    private long waitTimeoutMs = 30000;
+}
@@ -0,0 +1,36 @@
+package ru.easybot.easybottest.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * ImportProperties - настройки импорта товаров из CSV из свойств easybot.import.*
+ *
+ * @author Ilya Kaltygin
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "easybot.import")
+public class ImportProperties {
+
+    /**
+     * Кол-во строк в одном JDBC batch'е и в одной порции валидации
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Кол-во потоков валидации, 0 - по кол-ву процессоров
+     */
+    private int poolSize = 0;
+
+    /**
+     * Максимальное кол-во прочитанных, но еще не записанных порций одного импорта
+     */
+    private int maxInFlightBatches = 8;
+
+    /**
+     * Максимальное кол-во хранимых отчетов об ошибках, самые старые удаляются
+     */
+    private int maxReports = 100;
+}
@@ -0,0 +1,66 @@
+package ru.easybot.easybottest.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.dto.HddDTO;
+import ru.easybot.easybottest.dto.LaptopDTO;
+import ru.easybot.easybottest.dto.MonitorDTO;
+import ru.easybot.easybottest.repository.ProductJdbcReader;
+
+/**
+ * JdbcReadConfig - конфигурационный класс чтения товаров через JDBC.
+ * Для каждой категории задается преобразователь строки в DTO, который читает столбцы по номерам
+ * (id, serial_number, manufacturer, price, quantity, атрибут категории, version) без рефлексии
+ *
+ * @author Ilya Kaltygin
+ */
+@Configuration
+public class JdbcReadConfig {
+
+    @Bean
+    public ProductJdbcReader<ComputerDTO> computerReader(NamedParameterJdbcTemplate jdbcTemplate,
+                                                         MeterRegistry meterRegistry) {
+        return new ProductJdbcReader<>(jdbcTemplate, meterRegistry, "computer", "type", (rs, rowNum) -> new ComputerDTO(
+                rs.getString(2),
+                rs.getString(3),
+                rs.getInt(4),
+                rs.getInt(5),
+                rs.getString(6)));
+    }
+
+    @Bean
+    public ProductJdbcReader<HddDTO> hddReader(NamedParameterJdbcTemplate jdbcTemplate,
+                                               MeterRegistry meterRegistry) {
+        return new ProductJdbcReader<>(jdbcTemplate, meterRegistry, "hdd", "capacity", (rs, rowNum) -> new HddDTO(
+                rs.getString(2),
+                rs.getString(3),
+                rs.getInt(4),
+                rs.getInt(5),
+                rs.getLong(6)));
+    }
+
+    @Bean
+    public ProductJdbcReader<LaptopDTO> laptopReader(NamedParameterJdbcTemplate jdbcTemplate,
+                                                     MeterRegistry meterRegistry) {
+        return new ProductJdbcReader<>(jdbcTemplate, meterRegistry, "laptop", "size", (rs, rowNum) -> new LaptopDTO(
+                rs.getString(2),
+                rs.getString(3),
+                rs.getInt(4),
+                rs.getInt(5),
+                rs.getInt(6)));
+    }
+
+    @Bean
+    public ProductJdbcReader<MonitorDTO> monitorReader(NamedParameterJdbcTemplate jdbcTemplate,
+                                                       MeterRegistry meterRegistry) {
+        return new ProductJdbcReader<>(jdbcTemplate, meterRegistry, "monitor", "diagonal", (rs, rowNum) -> new MonitorDTO(
+                rs.getString(2),
+                rs.getString(3),
+                rs.getInt(4),
+                rs.getInt(5),
+                rs.getInt(6)));
+    }
+}
@@ -0,0 +1,18 @@
+package ru.easybot.easybottest.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import ru.easybot.easybottest.repository.KeysetRepositoryImpl;
+
+/**
+ * JpaConfig - конфигурационный класс для Spring Data JPA.
+ * Подключает базовую реализацию хранилищ с постраничным просмотром по ключу
+ *
+ * @author Ilya Kaltygin
+ */
+@Configuration
+@EnableJpaRepositories(
+        basePackages = "ru.easybot.easybottest.repository",
+        repositoryBaseClass = KeysetRepositoryImpl.class)
+public class JpaConfig {
+}
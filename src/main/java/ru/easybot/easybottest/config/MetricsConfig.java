@@ -0,0 +1,24 @@
+package ru.easybot.easybottest.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * MetricsConfig - конфигурационный класс реестра метрик для сборки без Actuator.
+ * Actuator и экспорт в Prometheus - необязательные зависимости: если они есть, реестр создает Spring Boot,
+ * иначе метрики приложения собираются в памяти и не публикуются
+ *
+ * @author Ilya Kaltygin
+ */
+@Configuration
+@ConditionalOnMissingClass("org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration")
+public class MetricsConfig {
+
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
@@ -0,0 +1,79 @@
+package ru.easybot.easybottest.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.dto.HddDTO;
+import ru.easybot.easybottest.dto.LaptopDTO;
+import ru.easybot.easybottest.dto.MonitorDTO;
+import ru.easybot.easybottest.metrics.TimedModelMapper;
+import ru.easybot.easybottest.model.Computer;
+import ru.easybot.easybottest.model.Hdd;
+import ru.easybot.easybottest.model.Laptop;
+import ru.easybot.easybottest.model.Monitor;
+
+/**
+ * ModelMapperConfig - конфигурационный класс для ModelMapper.
+ * Карты преобразований всех пар сущность-DTO строятся и проверяются один раз при старте приложения,
+ * после чего ModelMapper потокобезопасен и используется всеми сервисами совместно
+ *
+ * @author Ilya Kaltygin
+ */
+@Configuration
+public class ModelMapperConfig {
+
+    /**
+     * Создает и конфигурирует ModelMapper, измеряющий время преобразований
+     *
+     * @param meterRegistry реестр метрик
+     * @return объект типа ModelMapper с заранее построенными картами преобразований
+     */
+    @Bean
+    public ModelMapper modelMapper(MeterRegistry meterRegistry) {
+        return configure(new TimedModelMapper(meterRegistry));
+    }
+
+    /**
+     * Строит и проверяет карты преобразований всех пар сущность-DTO
+     *
+     * @param modelMapper ModelMapper, который нужно сконфигурировать
+     * @return тот же ModelMapper
+     */
+    public static ModelMapper configure(ModelMapper modelMapper) {
+        modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.STRICT);
+
+        modelMapper.createTypeMap(Computer.class, ComputerDTO.class);
+        modelMapper.createTypeMap(ComputerDTO.class, Computer.class)
+                .addMappings(mapping -> {
+                    mapping.skip(Computer::setId);
+                    mapping.skip(Computer::setVersion);
+                });
+
+        modelMapper.createTypeMap(Hdd.class, HddDTO.class);
+        modelMapper.createTypeMap(HddDTO.class, Hdd.class)
+                .addMappings(mapping -> {
+                    mapping.skip(Hdd::setId);
+                    mapping.skip(Hdd::setVersion);
+                });
+
+        modelMapper.createTypeMap(Laptop.class, LaptopDTO.class);
+        modelMapper.createTypeMap(LaptopDTO.class, Laptop.class)
+                .addMappings(mapping -> {
+                    mapping.skip(Laptop::setId);
+                    mapping.skip(Laptop::setVersion);
+                });
+
+        modelMapper.createTypeMap(Monitor.class, MonitorDTO.class);
+        modelMapper.createTypeMap(MonitorDTO.class, Monitor.class)
+                .addMappings(mapping -> {
+                    mapping.skip(Monitor::setId);
+                    mapping.skip(Monitor::setVersion);
+                });
+
+        modelMapper.validate();
+        return modelMapper;
+    }
+}
@@ -0,0 +1,14 @@
+package ru.easybot.easybottest.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * SchedulingConfig - конфигурационный класс, включающий выполнение периодических задач (@Scheduled)
+ *
+ * @author Ilya Kaltygin
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,36 @@
+package ru.easybot.easybottest.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.easybot.easybottest.search.SearchIndex;
+
+/**
+ * SearchConfig - конфигурационный класс индексов поиска товаров в памяти.
+ * Для каждой категории создается свой индекс по серийным номерам и производителям
+ *
+ * @author Ilya Kaltygin
+ */
+@Configuration
+public class SearchConfig {
+
+    @Bean
+    public SearchIndex computerIndex(JdbcTemplate jdbcTemplate) {
+        return new SearchIndex("computer", jdbcTemplate);
+    }
+
+    @Bean
+    public SearchIndex hddIndex(JdbcTemplate jdbcTemplate) {
+        return new SearchIndex("hdd", jdbcTemplate);
+    }
+
+    @Bean
+    public SearchIndex laptopIndex(JdbcTemplate jdbcTemplate) {
+        return new SearchIndex("laptop", jdbcTemplate);
+    }
+
+    @Bean
+    public SearchIndex monitorIndex(JdbcTemplate jdbcTemplate) {
+        return new SearchIndex("monitor", jdbcTemplate);
+    }
+}
@@ -0,0 +1,41 @@
+package ru.easybot.easybottest.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.easybot.easybottest.bloom.SerialNumberFilter;
+
+/**
+ * SerialNumberFilterConfig - конфигурационный класс фильтров Блума серийных номеров.
+ * Для каждой категории создается свой фильтр, размер которого задается свойствами easybot.serial-filter.*
+ *
+ * @author Ilya Kaltygin
+ */
+@Configuration
+public class SerialNumberFilterConfig {
+
+    @Bean
+    public SerialNumberFilter computerSerialNumbers(JdbcTemplate jdbcTemplate, SerialNumberFilterProperties properties,
+                                                    MeterRegistry meterRegistry) {
+        return new SerialNumberFilter("computer", jdbcTemplate, properties, meterRegistry);
+    }
+
+    @Bean
+    public SerialNumberFilter hddSerialNumbers(JdbcTemplate jdbcTemplate, SerialNumberFilterProperties properties,
+                                               MeterRegistry meterRegistry) {
+        return new SerialNumberFilter("hdd", jdbcTemplate, properties, meterRegistry);
+    }
+
+    @Bean
+    public SerialNumberFilter laptopSerialNumbers(JdbcTemplate jdbcTemplate, SerialNumberFilterProperties properties,
+                                                  MeterRegistry meterRegistry) {
+        return new SerialNumberFilter("laptop", jdbcTemplate, properties, meterRegistry);
+    }
+
+    @Bean
+    public SerialNumberFilter monitorSerialNumbers(JdbcTemplate jdbcTemplate, SerialNumberFilterProperties properties,
+                                                   MeterRegistry meterRegistry) {
+        return new SerialNumberFilter("monitor", jdbcTemplate, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,27 @@
+package ru.easybot.easybottest.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * SerialNumberFilterProperties - настройки фильтров Блума серийных номеров из свойств easybot.serial-filter.*
+ *
+ * @author Ilya Kaltygin
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "easybot.serial-filter")
+public class SerialNumberFilterProperties {
+
+    /**
+     * Ожидаемое кол-во товаров одной категории. Если при загрузке товаров больше,
+     * то размер фильтра рассчитывается на удвоенное кол-во товаров
+     */
+    private long expectedInsertions = 1_000_000;
+
+    /**
+     * Допустимая доля ложноположительных ответов при ожидаемом кол-ве товаров
+     */
+    private double falsePositiveRate = 0.01;
+}
@@ -0,0 +1,46 @@
+package ru.easybot.easybottest.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * StockProperties - настройки изменения остатков товаров из свойств easybot.stock.*
+ *
+ * @author Ilya Kaltygin
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "easybot.stock")
+public class StockProperties {
+
+    /**
+     * Включить резервирование остатков самых популярных товаров в памяти
+     */
+    private boolean reservationEnabled = false;
+
+    /**
+     * Кол-во списаний товара через базу данных за интервал сброса, после которого товар резервируется в памяти
+     */
+    private int hotThreshold = 50;
+
+    /**
+     * Максимальное кол-во товаров, зарезервированных в памяти одновременно
+     */
+    private int maxHotItems = 1000;
+
+    /**
+     * Кол-во единиц, которое резервируется в базе данных за один запрос
+     */
+    private int reservationChunk = 100;
+
+    /**
+     * Кол-во ячеек счетчика резерва одного товара, 0 - по кол-ву процессоров
+     */
+    private int stripes = 0;
+
+    /**
+     * Интервал возврата неизрасходованного резерва в базу данных, в миллисекундах
+     */
+    private long flushIntervalMs = 1000;
+}
@@ -0,0 +1,129 @@
+package ru.easybot.easybottest.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * StorageProperties - настройки постоянного хранилища H2 и пула соединений HikariCP профиля prod
+ * из свойств easybot.storage.*. Адреса базы данных JDBC и R2DBC собираются из этих настроек, поэтому
+ * spring.datasource.url и spring.r2dbc.url в профиле prod не используются
+ *
+ * @author Ilya Kaltygin
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "easybot.storage")
+public class StorageProperties {
+
+    /**
+     * Способ подключения к базе данных
+     */
+    private Mode mode = Mode.FILE;
+
+    /**
+     * Путь к файлу базы данных без расширения. В режиме TCP - путь относительно каталога сервера H2
+     */
+    private String file = "./data/easybot";
+
+    /**
+     * Адрес сервера H2 в режиме TCP
+     */
+    private String tcpAddress = "localhost:9092";
+
+    /**
+     * Размер кэша страниц H2 в килобайтах (CACHE_SIZE)
+     */
+    private int cacheSizeKb = 65536;
+
+    /**
+     * Кол-во разобранных запросов, кэшируемых H2 на каждое соединение (QUERY_CACHE_SIZE)
+     */
+    private int queryCacheSize = 64;
+
+    /**
+     * Задержка записи закоммиченных изменений на диск в миллисекундах (WRITE_DELAY).
+     * При аварийной остановке теряются изменения последних write-delay-ms миллисекунд, 0 - запись при каждом коммите
+     */
+    private int writeDelayMs = 500;
+
+    /**
+     * Настройки пула соединений
+     */
+    private Pool pool = new Pool();
+
+    /**
+     * Собрать адрес базы данных с настройками H2
+     *
+     * @return JDBC URL
+     */
+    public String jdbcUrl() {
+        var settings = String.format(";CACHE_SIZE=%d;QUERY_CACHE_SIZE=%d;WRITE_DELAY=%d",
+                cacheSizeKb, queryCacheSize, writeDelayMs);
+        if (mode == Mode.TCP) {
+            return "jdbc:h2:tcp://" + tcpAddress + "/" + file + settings;
+        }
+        return "jdbc:h2:file:" + file + settings + ";DB_CLOSE_ON_EXIT=FALSE";
+    }
+
+    /**
+     * Собрать адрес той же базы данных для R2DBC (профили prod и reactive). Настройки H2 задаются
+     * соединениями JDBC, которые открывают базу данных первыми
+     *
+     * @return R2DBC URL
+     */
+    public String r2dbcUrl() {
+        if (mode == Mode.TCP) {
+            return "r2dbc:h2:tcp://" + tcpAddress + "/" + file;
+        }
+        return "r2dbc:h2:file:///" + file;
+    }
+
+    /**
+     * Способ подключения к базе данных
+     */
+    public enum Mode {
+
+        /**
+         * Встроенная база данных в файле
+         */
+        FILE,
+
+        /**
+         * Отдельно запущенный сервер H2
+         */
+        TCP
+    }
+
+    /**
+     * Настройки пула соединений HikariCP
+     */
+    @Data
+    public static class Pool {
+
+        /**
+         * Максимальное кол-во соединений
+         */
+        private int maximumPoolSize = 16;
+
+        /**
+         * Кол-во простаивающих соединений, которые пул держит открытыми
+         */
+        private int minimumIdle = 4;
+
+        /**
+         * Время ожидания свободного соединения в миллисекундах
+         */
+        private long connectionTimeoutMs = 3000;
+
+        /**
+         * Время, после которого простаивающее соединение сверх minimum-idle закрывается, в миллисекундах
+         */
+        private long idleTimeoutMs = 600000;
+
+        /**
+         * Максимальное время жизни соединения в миллисекундах
+         */
+        private long maxLifetimeMs = 1800000;
+    }
+}
@@ -0,0 +1,42 @@
+package ru.easybot.easybottest.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.easybot.easybottest.cache.CacheStats;
+import ru.easybot.easybottest.cache.DetailCache;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * @author Ilya Kaltygin
+ */
+@Tag(name = "CacheController", description = "Контроллер, выполняющий обработку входящих запросов связанных с кэшами товаров")
+@RestController
+@RequestMapping("api/v1/cache")
+@AllArgsConstructor
+public class CacheController {
+
+    /**
+     * Кэши товаров по идентификатору
+     */
+    private final List<DetailCache<?, ?>> caches;
+
+    @Operation(
+            summary = "Получить статистику кэшей товаров",
+            description = """
+                    Метод возвращает для кэша каждой категории товаров текущий и максимальный размер,
+                    кол-во попаданий, промахов и вытеснений по размеру
+                    """
+    )
+    @GetMapping("/stats")
+    public List<CacheStats> stats() {
+        return caches.stream()
+                .map(DetailCache::stats)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,48 @@
+package ru.easybot.easybottest.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springdoc.api.annotations.ParameterObject;
+import org.springframework.context.annotation.Profile;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.easybot.easybottest.dto.CatalogPageDTO;
+import ru.easybot.easybottest.filter.ProductFilter;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
+import ru.easybot.easybottest.service.CatalogService;
+
+/**
+ * @author Ilya Kaltygin
+ */
+@Tag(name = "CatalogController", description = "Контроллер, выполняющий обработку входящих запросов к сводному каталогу товаров")
+@Profile("!reactive")
+@RestController
+@RequestMapping("api/v1/catalog")
+@AllArgsConstructor
+public class CatalogController {
+
+    /**
+     * Сервис сводного каталога
+     */
+    private final CatalogService catalogService;
+
+    @Operation(
+            summary = "Получить страницу сводного каталога",
+            description = """
+                    Метод возвращает одну страницу товаров всех категорий (computer, hdd, laptop, monitor),
+                    отсортированную по полю sort (id, price, manufacturer) в направлении direction (asc, desc),
+                    и курсор следующей страницы nextCursor. Категории запрашиваются параллельно.
+                    Список можно отфильтровать по производителю manufacturer, диапазону цен minPrice и maxPrice
+                    и наличию на складе inStock. Категории, не ответившие за отведенное время, перечисляются
+                    в поле timedOut, а их товары будут запрошены снова на следующей странице. Такая страница
+                    помечается полем partial: товары этих категорий, которые стояли бы на ней, придут позже.
+                    """)
+    @GetMapping
+    public CatalogPageDTO findAll(@ParameterObject @Validated KeysetPageRequest pageRequest,
+                                  @ParameterObject @Validated ProductFilter filter) {
+        return catalogService.findAll(pageRequest, filter);
+    }
+}
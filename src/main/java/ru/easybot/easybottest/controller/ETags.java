@@ -0,0 +1,35 @@
+package ru.easybot.easybottest.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Objects;
+
+/**
+ * Построение ETag ответов с товарами. Один и тот же URL отдает разные представления в зависимости
+ * от заголовка Accept (JSON, CBOR, Smile) и параметра fields, поэтому кроме версии ETag содержит хэш
+ * обоих значений, а ответы содержат заголовок Vary: Accept
+ *
+ * @author Ilya Kaltygin
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Построить ETag представления
+     *
+     * @param version версия товара или категории
+     * @param fields  список полей через запятую или null
+     * @param request запрос
+     * @return версия, если не переданы ни fields, ни Accept, иначе версия и хэш этих значений
+     */
+    static String of(long version, String fields, WebRequest request) {
+        var accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (fields == null && accept == null) {
+            return String.valueOf(version);
+        }
+        return version + "-" + Integer.toHexString(Objects.hash(fields, accept));
+    }
+}
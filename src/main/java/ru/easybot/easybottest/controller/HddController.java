@@ -1,38 +1,170 @@
 package ru.easybot.easybottest.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
+import org.springdoc.api.annotations.ParameterObject;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import ru.easybot.easybottest.dto.BulkResultDTO;
 import ru.easybot.easybottest.dto.HddDTO;
+import ru.easybot.easybottest.dto.ImportResultDTO;
+import ru.easybot.easybottest.dto.MultiGetResultDTO;
+import ru.easybot.easybottest.dto.SearchResultDTO;
+import ru.easybot.easybottest.export.ExportFormat;
+import ru.easybot.easybottest.export.JsonExportWriter;
+import ru.easybot.easybottest.filter.HddFilter;
+import ru.easybot.easybottest.handler.Problem;
+import ru.easybot.easybottest.idempotency.IdempotencyStore;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
+import ru.easybot.easybottest.projection.FieldSelection;
 import ru.easybot.easybottest.service.HddService;
+import ru.easybot.easybottest.service.StockService;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Ilya Kaltygin
  */
 @Tag(name = "HddController", description = "Контроллер, выполняющий обработку входящих запросов связанных с жесткими дисками")
+@Profile("!reactive")
 @RestController
 @RequestMapping("api/v1/hdd")
 @AllArgsConstructor
 public class HddController {
 
+    /**
+     * Ответ на запрос товара, которого нет
+     */
+    private static final Problem NOT_FOUND = Problem.of(
+            HttpStatus.NOT_FOUND, "The hdd with the specified ID was not found.");
+
     /**
      * Сервис по работе с жесткими дисками
      */
     private final HddService hddService;
 
+    /**
+     * Сервис изменения остатков товаров
+     */
+    private final StockService stockService;
+
+    /**
+     * Хранилище ответов на запросы с заголовком Idempotency-Key
+     */
+    private final IdempotencyStore idempotencyStore;
+
+    /**
+     * Сериализатор JSON
+     */
+    private final ObjectMapper objectMapper;
+
     @Operation(
-            summary = "Получить список всех жестких дисков",
-            description = "Метод возвращает список всех жестких дисков, имеющихся в базе данных")
+            summary = "Получить страницу списка жестких дисков",
+            description = """
+                    Метод возвращает страницу списка жестких дисков, отсортированного по полю sort (id, price, manufacturer)
+                    в направлении direction (asc, desc), и курсор следующей страницы nextCursor.
+                    Чтобы получить следующую страницу, курсор передается в параметре cursor.
+                    Размер страницы задается параметром size: от 1 до 500, по умолчанию 50.
+                    Список можно отфильтровать по производителю manufacturer, диапазону цен minPrice и maxPrice,
+                    наличию на складе inStock и атрибуту категории capacity (объем).
+                    Фильтр не входит в курсор, поэтому при запросе следующей страницы его нужно передать повторно.
+                    Параметр fields (например, fields=serialNumber,manufacturer,price) ограничивает поля товаров в ответе,
+                    при этом из базы данных выбираются только соответствующие им столбцы.
+                    Ответ содержит заголовок ETag, построенный из версии категории, параметра fields и заголовка Accept,
+                    и заголовок Vary: Accept. Если ETag совпадает с заголовком If-None-Match, то метод возвращает
+                    статус NOT_MODIFIED без тела.
+                    Ответ может быть получен в двоичном формате CBOR (Accept: application/cbor)
+                    или Smile (Accept: application/x-jackson-smile), в тех же форматах принимаются тела запросов
+                    создания и обновления.
+                    """)
     @GetMapping("/")
-    public List<HddDTO> findAll() {
-        return hddService.findAll();
+    public ResponseEntity<CursorPage<?>> findAll(@ParameterObject @Validated KeysetPageRequest pageRequest,
+                                                 @ParameterObject @Validated HddFilter filter,
+                                                 @RequestParam(required = false) String fields,
+                                                 WebRequest request,
+                                                 HttpServletResponse response) {
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        var etag = ETags.of(hddService.getCategoryVersion(), fields, request);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(fields == null
+                        ? hddService.findAll(pageRequest, filter)
+                        : hddService.findAll(pageRequest, filter, fields));
+    }
+
+    @Operation(
+            summary = "Выгрузить все жесткие диски",
+            description = """
+                    Метод потоково выгружает все жесткие диски в порядке возрастания идентификатора,
+                    не собирая их в память: в формате JSON массива (format=json, по умолчанию)
+                    или по одному JSON объекту на строку (format=ndjson)
+                    """
+    )
+    @GetMapping("/export")
+    public void export(@RequestParam(defaultValue = "json") String format, HttpServletResponse response)
+            throws IOException {
+        var exportFormat = ExportFormat.of(format);
+        response.setContentType(exportFormat.getContentType());
+        try (var writer = new JsonExportWriter<HddDTO>(objectMapper, response.getOutputStream(), exportFormat)) {
+            hddService.export(writer);
+        }
+    }
+
+    @Operation(
+            summary = "Получить несколько жестких дисков",
+            description = """
+                    Метод возвращает до 100 жестких дисков по списку идентификаторов ids (например, ids=1,2,3)
+                    или по списку серийных номеров serialNumbers, передается ровно один из списков.
+                    Товары читаются одним запросом к базе данных, а по идентификаторам - сначала из кэша.
+                    Ответ содержит результат по каждому ключу в порядке запроса: найденный товар
+                    или found=false, если товар не найден. Повторяющиеся ключи загружаются один раз.
+                    Если не передан ни один из списков, переданы оба или ключей больше 100,
+                    то возвращается статус BAD_REQUEST
+                    """
+    )
+    @GetMapping("/batch")
+    public ResponseEntity<MultiGetResultDTO<HddDTO>> findMany(@RequestParam(required = false) List<Integer> ids,
+                                                              @RequestParam(required = false) List<String> serialNumbers) {
+        return new ResponseEntity<>(
+                hddService.findMany(ids, serialNumbers),
+                HttpStatus.OK
+        );
+    }
+
+    @Operation(
+            summary = "Найти жесткие диски для подсказок при вводе",
+            description = """
+                    Метод ищет жесткие диски, серийный номер которых содержит строку q без учета регистра
+                    (строка короче трех символов ищется как начало серийного номера), и производителей,
+                    название которых начинается с q, от самых частых. Поиск выполняется по индексу в памяти
+                    без запросов к базе данных. Параметр limit (от 1 до 100, по умолчанию 10) ограничивает
+                    кол-во результатов каждого вида. Если строка q пустая или limit вне диапазона,
+                    то возвращается статус BAD_REQUEST
+                    """
+    )
+    @GetMapping("/search")
+    public ResponseEntity<SearchResultDTO> search(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        return new ResponseEntity<>(
+                hddService.search(q, limit),
+                HttpStatus.OK
+        );
     }
 
     @Operation(
@@ -40,31 +172,94 @@ public class HddController {
             description = """
                     Если жесткий диск по заданному идентификатору найден, то метод возвращает объект типа
                     ResponseEntity<HddDTO>, содержащий объект типа HddDTO, и статус ответа OK.
-                    Если по заданному идентификатору жесткий диск не найден, то выбрасывается исключение
-                    ResponseStatusException со статусом NOT_FOUND и сообщением, что жесткий диск с таким идентификатором не найден.
+                    Если по заданному идентификатору жесткий диск не найден, то возвращается заранее созданный ответ
+                    со статусом NOT_FOUND и телом ошибки ProblemDTO, без создания исключения.
+                    Товар читается из кэша вместе с версией строки. Ответ содержит заголовок ETag, построенный
+                    из версии товара, параметра fields и заголовка Accept, и заголовок Vary: Accept.
+                    Если ETag совпадает с заголовком If-None-Match, то метод возвращает статус NOT_MODIFIED без тела.
+                    Параметр fields ограничивает поля товара в ответе.
                     """
     )
     @GetMapping("/{id}")
-    public ResponseEntity<HddDTO> findById(@PathVariable int id) {
+    public ResponseEntity<?> findById(@PathVariable int id,
+                                      @RequestParam(required = false) String fields,
+                                      WebRequest request,
+                                      HttpServletResponse response) {
+        var selection = fields == null ? null : FieldSelection.parse(fields, HddDTO.class);
         var hddDTO = hddService.findById(id);
         if (hddDTO.isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The hdd with the specified ID was not found.");
+            return NOT_FOUND.getResponse();
         }
-        return new ResponseEntity<>(hddDTO.get(), HttpStatus.OK);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        var etag = ETags.of(hddDTO.get().getVersion(), fields, request);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        var value = hddDTO.get().getValue();
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(selection == null ? value : FieldSelection.project(value, selection));
     }
 
     @Operation(
             summary = "Сохранить жесткий диск",
             description = """
                     Метод сохранят жесткий диск в базу данных и возвращает объект типа
-                    ResponseEntity<HddDTO>, содержащий созданный объект типа HddDTO и статус ответа CREATED
+                    ResponseEntity<HddDTO>, содержащий созданный объект типа HddDTO и статус ответа CREATED.
+                    Если передан заголовок Idempotency-Key, то повтор запроса с тем же ключом возвращает сохраненный ответ
+                    первого запроса с заголовком Idempotent-Replayed, не обращаясь к базе данных, а повтор, пришедший
+                    во время выполнения первого запроса, ждет его ответа. Тот же ключ с другим телом запроса
+                    отклоняется со статусом UNPROCESSABLE_ENTITY. Если товар с таким серийным номером уже есть,
+                    то возвращается статус CONFLICT
                     """
     )
     @PostMapping("/")
-    public ResponseEntity<HddDTO> create(@Validated @RequestBody HddDTO hddDTO) {
-        return new ResponseEntity<>(
+    public ResponseEntity<HddDTO> create(@Validated @RequestBody HddDTO hddDTO,
+                                         @RequestHeader(value = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("hdd", idempotencyKey, hddDTO, () -> new ResponseEntity<>(
                 hddService.create(hddDTO),
                 HttpStatus.CREATED
+        ));
+    }
+
+    @Operation(
+            summary = "Сохранить жесткие диски пакетом",
+            description = """
+                    Метод сохраняет до 1000 товаров за один запрос и возвращает объект типа BulkResultDTO
+                    с результатом по каждому элементу: CREATED, INVALID (не прошел валидацию)
+                    или DUPLICATE (серийный номер уже существует или повторяется в запросе).
+                    Если передан заголовок Idempotency-Key, то повтор запроса с тем же ключом возвращает сохраненный ответ
+                    первого запроса с заголовком Idempotent-Replayed, не обращаясь к базе данных, а повтор, пришедший
+                    во время выполнения первого запроса, ждет его ответа. Тот же ключ с другим телом запроса
+                    отклоняется со статусом UNPROCESSABLE_ENTITY
+                    """
+    )
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkResultDTO<HddDTO>> createAll(@RequestBody List<HddDTO> hdds,
+                                                           @RequestHeader(value = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("hdd", idempotencyKey, hdds, () -> new ResponseEntity<>(
+                hddService.createAll(hdds),
+                HttpStatus.OK
+        ));
+    }
+
+    @Operation(
+            summary = "Импортировать жесткие диски из CSV",
+            description = """
+                    Метод читает тело запроса (Content-Type: text/csv) потоково, не загружая файл в память.
+                    Первая строка - заголовок из имен полей в любом порядке: serialNumber,manufacturer,price,quantity,capacity.
+                    Строки валидируются параллельно теми же ограничениями, что и HddDTO,
+                    и сохраняются JDBC batch'ами. Невалидные строки и дубликаты серийных номеров не сохраняются.
+                    Метод возвращает объект типа ImportResultDTO с кол-вом сохраненных и несохраненных строк
+                    и идентификатором отчета об ошибках reportId, который можно скачать методом
+                    GET /api/v1/import/{reportId}/report
+                    """
+    )
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<ImportResultDTO> importCsv(InputStream body) {
+        return new ResponseEntity<>(
+                hddService.importCsv(body),
+                HttpStatus.OK
         );
     }
 
@@ -84,4 +279,49 @@ public class HddController {
         }
         return new ResponseEntity<>(HttpStatus.OK);
     }
+
+    @Operation(
+            summary = "Частично обновить жесткий диск",
+            description = """
+                    Метод изменяет только переданные в теле запроса поля, например только цену или остаток на складе.
+                    Валидируются только переданные поля, а в базу данных записываются только соответствующие им столбцы.
+                    Если обновление будет успешным, то метод вернет объект типа ResponseEntity<Void>,
+                    содержащий статус ответа OK. Иначе метод выбросит исключение ResponseStatusException
+                    со статусом ответа BAD_REQUEST и сообщением о том, что не удалось обновить жесткий диск"""
+    )
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patch(@PathVariable int id, @RequestBody Map<String, Object> fields) {
+        var update = hddService.patch(fields, id);
+        if (!update) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Failed to update hdd");
+        }
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    @Operation(
+            summary = "Списать остаток жесткого диска",
+            description = """
+                    Метод атомарно списывает amount единиц жесткого диска (по умолчанию 1) одним запросом
+                    UPDATE ... SET quantity = quantity - amount WHERE quantity >= amount, без чтения и перезаписи строки,
+                    поэтому одновременные списания не теряются и остаток не становится отрицательным.
+                    Если товар не найден, то возвращается статус NOT_FOUND,
+                    если остатка недостаточно - статус CONFLICT"""
+    )
+    @PostMapping("/{id}/stock/decrement")
+    public ResponseEntity<Void> decrementStock(@PathVariable int id, @RequestParam(defaultValue = "1") int amount) {
+        stockService.decrement("hdd", id, amount);
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    @Operation(
+            summary = "Пополнить остаток жесткого диска",
+            description = """
+                    Метод атомарно добавляет amount единиц жесткого диска (по умолчанию 1) одним запросом UPDATE.
+                    Если товар не найден, то возвращается статус NOT_FOUND"""
+    )
+    @PostMapping("/{id}/stock/increment")
+    public ResponseEntity<Void> incrementStock(@PathVariable int id, @RequestParam(defaultValue = "1") int amount) {
+        stockService.increment("hdd", id, amount);
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
 }
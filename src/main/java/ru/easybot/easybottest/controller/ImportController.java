@@ -0,0 +1,51 @@
+package ru.easybot.easybottest.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import ru.easybot.easybottest.csv.ImportReports;
+
+/**
+ * @author Ilya Kaltygin
+ */
+@Tag(name = "ImportController", description = "Контроллер, выполняющий обработку входящих запросов связанных с отчетами импорта товаров")
+@RestController
+@RequestMapping("api/v1/import")
+@AllArgsConstructor
+public class ImportController {
+
+    /**
+     * Хранилище отчетов об ошибках импорта
+     */
+    private final ImportReports importReports;
+
+    @Operation(
+            summary = "Скачать отчет об ошибках импорта",
+            description = """
+                    Метод возвращает CSV файл со столбцами line (номер строки файла импорта), serialNumber и errors.
+                    Хранятся только последние easybot.import.max-reports отчетов. Если отчет с заданным идентификатором
+                    не найден, то выбрасывается исключение ResponseStatusException со статусом NOT_FOUND
+                    """
+    )
+    @GetMapping("/{id}/report")
+    public ResponseEntity<Resource> report(@PathVariable String id) {
+        var path = importReports.find(id)
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND, "The import report with the specified ID was not found."));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"import-" + id + ".csv\"")
+                .body(new FileSystemResource(path));
+    }
+}
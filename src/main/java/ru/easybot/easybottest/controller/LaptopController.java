@@ -1,38 +1,170 @@
 package ru.easybot.easybottest.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
+import org.springdoc.api.annotations.ParameterObject;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import ru.easybot.easybottest.dto.BulkResultDTO;
+import ru.easybot.easybottest.dto.ImportResultDTO;
 import ru.easybot.easybottest.dto.LaptopDTO;
+import ru.easybot.easybottest.dto.MultiGetResultDTO;
+import ru.easybot.easybottest.dto.SearchResultDTO;
+import ru.easybot.easybottest.export.ExportFormat;
+import ru.easybot.easybottest.export.JsonExportWriter;
+import ru.easybot.easybottest.filter.LaptopFilter;
+import ru.easybot.easybottest.handler.Problem;
+import ru.easybot.easybottest.idempotency.IdempotencyStore;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
+import ru.easybot.easybottest.projection.FieldSelection;
 import ru.easybot.easybottest.service.LaptopService;
+import ru.easybot.easybottest.service.StockService;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Ilya Kaltygin
  */
 @Tag(name = "LaptopController", description = "Контроллер, выполняющий обработку входящих запросов связанных с ноутбуками")
+@Profile("!reactive")
 @RestController
 @RequestMapping("api/v1/laptop")
 @AllArgsConstructor
 public class LaptopController {
 
+    /**
+     * Ответ на запрос товара, которого нет
+     */
+    private static final Problem NOT_FOUND = Problem.of(
+            HttpStatus.NOT_FOUND, "The laptop with the specified ID was not found.");
+
     /**
      * Сервис по работе с жесткими дисками
      */
     private final LaptopService laptopService;
 
+    /**
+     * Сервис изменения остатков товаров
+     */
+    private final StockService stockService;
+
+    /**
+     * Хранилище ответов на запросы с заголовком Idempotency-Key
+     */
+    private final IdempotencyStore idempotencyStore;
+
+    /**
+     * Сериализатор JSON
+     */
+    private final ObjectMapper objectMapper;
+
     @Operation(
-            summary = "Получить список всех ноутбуков",
-            description = "Метод возвращает список всех ноутбуков, имеющихся в базе данных")
+            summary = "Получить страницу списка ноутбуков",
+            description = """
+                    Метод возвращает страницу списка ноутбуков, отсортированного по полю sort (id, price, manufacturer)
+                    в направлении direction (asc, desc), и курсор следующей страницы nextCursor.
+                    Чтобы получить следующую страницу, курсор передается в параметре cursor.
+                    Размер страницы задается параметром size: от 1 до 500, по умолчанию 50.
+                    Список можно отфильтровать по производителю manufacturer, диапазону цен minPrice и maxPrice,
+                    наличию на складе inStock и атрибуту категории screenSize (размер ноутбука).
+                    Фильтр не входит в курсор, поэтому при запросе следующей страницы его нужно передать повторно.
+                    Параметр fields (например, fields=serialNumber,manufacturer,price) ограничивает поля товаров в ответе,
+                    при этом из базы данных выбираются только соответствующие им столбцы.
+                    Ответ содержит заголовок ETag, построенный из версии категории, параметра fields и заголовка Accept,
+                    и заголовок Vary: Accept. Если ETag совпадает с заголовком If-None-Match, то метод возвращает
+                    статус NOT_MODIFIED без тела.
+                    Ответ может быть получен в двоичном формате CBOR (Accept: application/cbor)
+                    или Smile (Accept: application/x-jackson-smile), в тех же форматах принимаются тела запросов
+                    создания и обновления.
+                    """)
     @GetMapping("/")
-    public List<LaptopDTO> findAll() {
-        return laptopService.findAll();
+    public ResponseEntity<CursorPage<?>> findAll(@ParameterObject @Validated KeysetPageRequest pageRequest,
+                                                 @ParameterObject @Validated LaptopFilter filter,
+                                                 @RequestParam(required = false) String fields,
+                                                 WebRequest request,
+                                                 HttpServletResponse response) {
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        var etag = ETags.of(laptopService.getCategoryVersion(), fields, request);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(fields == null
+                        ? laptopService.findAll(pageRequest, filter)
+                        : laptopService.findAll(pageRequest, filter, fields));
+    }
+
+    @Operation(
+            summary = "Выгрузить все ноутбуки",
+            description = """
+                    Метод потоково выгружает все ноутбуки в порядке возрастания идентификатора,
+                    не собирая их в память: в формате JSON массива (format=json, по умолчанию)
+                    или по одному JSON объекту на строку (format=ndjson)
+                    """
+    )
+    @GetMapping("/export")
+    public void export(@RequestParam(defaultValue = "json") String format, HttpServletResponse response)
+            throws IOException {
+        var exportFormat = ExportFormat.of(format);
+        response.setContentType(exportFormat.getContentType());
+        try (var writer = new JsonExportWriter<LaptopDTO>(objectMapper, response.getOutputStream(), exportFormat)) {
+            laptopService.export(writer);
+        }
+    }
+
+    @Operation(
+            summary = "Получить несколько ноутбуков",
+            description = """
+                    Метод возвращает до 100 ноутбуков по списку идентификаторов ids (например, ids=1,2,3)
+                    или по списку серийных номеров serialNumbers, передается ровно один из списков.
+                    Товары читаются одним запросом к базе данных, а по идентификаторам - сначала из кэша.
+                    Ответ содержит результат по каждому ключу в порядке запроса: найденный товар
+                    или found=false, если товар не найден. Повторяющиеся ключи загружаются один раз.
+                    Если не передан ни один из списков, переданы оба или ключей больше 100,
+                    то возвращается статус BAD_REQUEST
+                    """
+    )
+    @GetMapping("/batch")
+    public ResponseEntity<MultiGetResultDTO<LaptopDTO>> findMany(@RequestParam(required = false) List<Integer> ids,
+                                                                 @RequestParam(required = false) List<String> serialNumbers) {
+        return new ResponseEntity<>(
+                laptopService.findMany(ids, serialNumbers),
+                HttpStatus.OK
+        );
+    }
+
+    @Operation(
+            summary = "Найти ноутбуки для подсказок при вводе",
+            description = """
+                    Метод ищет ноутбуки, серийный номер которых содержит строку q без учета регистра
+                    (строка короче трех символов ищется как начало серийного номера), и производителей,
+                    название которых начинается с q, от самых частых. Поиск выполняется по индексу в памяти
+                    без запросов к базе данных. Параметр limit (от 1 до 100, по умолчанию 10) ограничивает
+                    кол-во результатов каждого вида. Если строка q пустая или limit вне диапазона,
+                    то возвращается статус BAD_REQUEST
+                    """
+    )
+    @GetMapping("/search")
+    public ResponseEntity<SearchResultDTO> search(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        return new ResponseEntity<>(
+                laptopService.search(q, limit),
+                HttpStatus.OK
+        );
     }
 
     @Operation(
@@ -40,31 +172,94 @@ public class LaptopController {
             description = """
                     Если ноутбук по заданному идентификатору найден, то метод возвращает объект типа
                     ResponseEntity<LaptopDTO>, содержащий объект типа LaptopDTO, и статус ответа OK.
-                    Если по заданному идентификатору ноутбук не найден, то выбрасывается исключение
-                    ResponseStatusException со статусом NOT_FOUND и сообщением, что ноутбук с таким идентификатором не найден.
+                    Если по заданному идентификатору ноутбук не найден, то возвращается заранее созданный ответ
+                    со статусом NOT_FOUND и телом ошибки ProblemDTO, без создания исключения.
+                    Товар читается из кэша вместе с версией строки. Ответ содержит заголовок ETag, построенный
+                    из версии товара, параметра fields и заголовка Accept, и заголовок Vary: Accept.
+                    Если ETag совпадает с заголовком If-None-Match, то метод возвращает статус NOT_MODIFIED без тела.
+                    Параметр fields ограничивает поля товара в ответе.
                     """
     )
     @GetMapping("/{id}")
-    public ResponseEntity<LaptopDTO> findById(@PathVariable int id) {
+    public ResponseEntity<?> findById(@PathVariable int id,
+                                      @RequestParam(required = false) String fields,
+                                      WebRequest request,
+                                      HttpServletResponse response) {
+        var selection = fields == null ? null : FieldSelection.parse(fields, LaptopDTO.class);
         var laptopDTO = laptopService.findById(id);
         if (laptopDTO.isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The hdd with the specified ID was not found.");
+            return NOT_FOUND.getResponse();
         }
-        return new ResponseEntity<>(laptopDTO.get(), HttpStatus.OK);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        var etag = ETags.of(laptopDTO.get().getVersion(), fields, request);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        var value = laptopDTO.get().getValue();
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(selection == null ? value : FieldSelection.project(value, selection));
     }
 
     @Operation(
             summary = "Сохранить ноутбук",
             description = """
                     Метод сохранят ноутбук в базу данных и возвращает объект типа
-                    ResponseEntity<LaptopDTO>, содержащий созданный объект типа LaptopDTO и статус ответа CREATED"
+                    ResponseEntity<LaptopDTO>, содержащий созданный объект типа LaptopDTO и статус ответа CREATED".
+                    Если передан заголовок Idempotency-Key, то повтор запроса с тем же ключом возвращает сохраненный ответ
+                    первого запроса с заголовком Idempotent-Replayed, не обращаясь к базе данных, а повтор, пришедший
+                    во время выполнения первого запроса, ждет его ответа. Тот же ключ с другим телом запроса
+                    отклоняется со статусом UNPROCESSABLE_ENTITY. Если товар с таким серийным номером уже есть,
+                    то возвращается статус CONFLICT
                     """
     )
     @PostMapping("/")
-    public ResponseEntity<LaptopDTO> create(@Validated @RequestBody LaptopDTO laptopDTO) {
-        return new ResponseEntity<>(
+    public ResponseEntity<LaptopDTO> create(@Validated @RequestBody LaptopDTO laptopDTO,
+                                            @RequestHeader(value = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("laptop", idempotencyKey, laptopDTO, () -> new ResponseEntity<>(
                 laptopService.create(laptopDTO),
                 HttpStatus.CREATED
+        ));
+    }
+
+    @Operation(
+            summary = "Сохранить ноутбуки пакетом",
+            description = """
+                    Метод сохраняет до 1000 товаров за один запрос и возвращает объект типа BulkResultDTO
+                    с результатом по каждому элементу: CREATED, INVALID (не прошел валидацию)
+                    или DUPLICATE (серийный номер уже существует или повторяется в запросе).
+                    Если передан заголовок Idempotency-Key, то повтор запроса с тем же ключом возвращает сохраненный ответ
+                    первого запроса с заголовком Idempotent-Replayed, не обращаясь к базе данных, а повтор, пришедший
+                    во время выполнения первого запроса, ждет его ответа. Тот же ключ с другим телом запроса
+                    отклоняется со статусом UNPROCESSABLE_ENTITY
+                    """
+    )
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkResultDTO<LaptopDTO>> createAll(@RequestBody List<LaptopDTO> laptops,
+                                                              @RequestHeader(value = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("laptop", idempotencyKey, laptops, () -> new ResponseEntity<>(
+                laptopService.createAll(laptops),
+                HttpStatus.OK
+        ));
+    }
+
+    @Operation(
+            summary = "Импортировать ноутбуки из CSV",
+            description = """
+                    Метод читает тело запроса (Content-Type: text/csv) потоково, не загружая файл в память.
+                    Первая строка - заголовок из имен полей в любом порядке: serialNumber,manufacturer,price,quantity,size.
+                    Строки валидируются параллельно теми же ограничениями, что и LaptopDTO,
+                    и сохраняются JDBC batch'ами. Невалидные строки и дубликаты серийных номеров не сохраняются.
+                    Метод возвращает объект типа ImportResultDTO с кол-вом сохраненных и несохраненных строк
+                    и идентификатором отчета об ошибках reportId, который можно скачать методом
+                    GET /api/v1/import/{reportId}/report
+                    """
+    )
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<ImportResultDTO> importCsv(InputStream body) {
+        return new ResponseEntity<>(
+                laptopService.importCsv(body),
+                HttpStatus.OK
         );
     }
 
@@ -85,4 +280,49 @@ public class LaptopController {
         }
         return new ResponseEntity<>(HttpStatus.OK);
     }
+
+    @Operation(
+            summary = "Частично обновить ноутбук",
+            description = """
+                    Метод изменяет только переданные в теле запроса поля, например только цену или остаток на складе.
+                    Валидируются только переданные поля, а в базу данных записываются только соответствующие им столбцы.
+                    Если обновление будет успешным, то метод вернет объект типа ResponseEntity<Void>,
+                    содержащий статус ответа OK. Иначе метод выбросит исключение ResponseStatusException
+                    со статусом ответа BAD_REQUEST и сообщением о том, что не удалось обновить ноутбук"""
+    )
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patch(@PathVariable int id, @RequestBody Map<String, Object> fields) {
+        var update = laptopService.patch(fields, id);
+        if (!update) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Failed to update hdd");
+        }
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    @Operation(
+            summary = "Списать остаток ноутбука",
+            description = """
+                    Метод атомарно списывает amount единиц ноутбука (по умолчанию 1) одним запросом
+                    UPDATE ... SET quantity = quantity - amount WHERE quantity >= amount, без чтения и перезаписи строки,
+                    поэтому одновременные списания не теряются и остаток не становится отрицательным.
+                    Если товар не найден, то возвращается статус NOT_FOUND,
+                    если остатка недостаточно - статус CONFLICT"""
+    )
+    @PostMapping("/{id}/stock/decrement")
+    public ResponseEntity<Void> decrementStock(@PathVariable int id, @RequestParam(defaultValue = "1") int amount) {
+        stockService.decrement("laptop", id, amount);
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    @Operation(
+            summary = "Пополнить остаток ноутбука",
+            description = """
+                    Метод атомарно добавляет amount единиц ноутбука (по умолчанию 1) одним запросом UPDATE.
+                    Если товар не найден, то возвращается статус NOT_FOUND"""
+    )
+    @PostMapping("/{id}/stock/increment")
+    public ResponseEntity<Void> incrementStock(@PathVariable int id, @RequestParam(defaultValue = "1") int amount) {
+        stockService.increment("laptop", id, amount);
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
 }
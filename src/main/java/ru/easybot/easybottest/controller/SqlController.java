@@ -0,0 +1,38 @@
+package ru.easybot.easybottest.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.easybot.easybottest.sql.SqlObserver;
+import ru.easybot.easybottest.sql.SqlStats;
+
+/**
+ * @author Ilya Kaltygin
+ */
+@Tag(name = "SqlController", description = "Контроллер, выполняющий обработку входящих запросов связанных со статистикой SQL запросов")
+@RestController
+@RequestMapping("api/v1/sql")
+@AllArgsConstructor
+public class SqlController {
+
+    /**
+     * Наблюдатель за SQL запросами
+     */
+    private final SqlObserver sqlObserver;
+
+    @Operation(
+            summary = "Получить статистику SQL запросов",
+            description = """
+                    Метод возвращает общее кол-во выполненных SQL запросов и до easybot.sql.slow-log-size самых медленных
+                    запросов (дольше easybot.sql.slow-threshold-ms) от самого медленного. Для каждого запроса возвращаются
+                    текст, типы параметров без значений, размер пакета и время выполнения
+                    """
+    )
+    @GetMapping("/stats")
+    public SqlStats stats() {
+        return sqlObserver.stats();
+    }
+}
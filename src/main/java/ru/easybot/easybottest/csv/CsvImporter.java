@@ -0,0 +1,530 @@
+package ru.easybot.easybottest.csv;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import ru.easybot.easybottest.config.ImportProperties;
+import ru.easybot.easybottest.dto.ImportResultDTO;
+import ru.easybot.easybottest.handler.ProblemException;
+import ru.easybot.easybottest.repository.CategoryVersionRepository;
+
+import javax.annotation.PreDestroy;
+import javax.validation.Validator;
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Общая логика потокового импорта товаров из CSV файла.
+ * <p>
+ * Первая строка файла - заголовок с именами полей DTO в любом порядке. Запрос читается по порциям
+ * из easybot.import.batch-size записей: каждая порция валидируется в пуле потоков теми же ограничениями,
+ * что и DTO при создании товара, а поток запроса записывает провалидированные порции в исходном порядке,
+ * по одному JDBC batch'у в отдельной транзакции на порцию. Одновременно в памяти находится
+ * не больше easybot.import.max-in-flight-batches порций, поэтому чтение файла ждет записи (backpressure),
+ * а потребление памяти не зависит от размера файла.
+ * <p>
+ * Идентификаторы берутся из последовательности категории блоками по {@link #ID_BLOCK_SIZE}, как у Hibernate
+ * (pooled-lo): одно значение последовательности дает идентификаторы всего блока, поэтому импорт не тратит
+ * по блоку на строку и не пересекается с идентификаторами, выданными приложением.
+ * <p>
+ * Строки с ошибками и дубликаты серийных номеров (в файле или в базе данных) не сохраняются
+ * и записываются в отчет {@link ImportReport}. Если база данных отклонила порцию, ее строки записываются
+ * по одной, и в отчет попадают только отклоненные строки. О каждой закоммиченной порции сообщается получателю
+ * сохраненных товаров, а версия категории увеличивается, даже если импорт прервался после сохранения части порций
+ *
+ * @author Ilya Kaltygin
+ */
+@Component
+public class CsvImporter {
+
+    /**
+     * Кол-во идентификаторов в блоке, который дает одно значение последовательности.
+     * Совпадает с INCREMENT BY последовательностей категорий и allocationSize сущностей
+     */
+    static final int ID_BLOCK_SIZE = 50;
+
+    /**
+     * Валидатор DTO
+     */
+    private final Validator validator;
+
+    /**
+     * Преобразователь значений полей в DTO
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Шаблон JDBC с именованными параметрами
+     */
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Шаблон транзакций записи порций
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Хранилище отчетов об ошибках
+     */
+    private final ImportReports reports;
+
+    /**
+     * Хранилище версий категорий товаров
+     */
+    private final CategoryVersionRepository categoryVersionRepository;
+
+    /**
+     * Настройки импорта
+     */
+    private final ImportProperties properties;
+
+    /**
+     * Пул потоков валидации
+     */
+    private final ExecutorService executor;
+
+    public CsvImporter(Validator validator,
+                       ObjectMapper objectMapper,
+                       NamedParameterJdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate,
+                       ImportReports reports,
+                       CategoryVersionRepository categoryVersionRepository,
+                       ImportProperties properties) {
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.reports = reports;
+        this.categoryVersionRepository = categoryVersionRepository;
+        this.properties = properties;
+        this.executor = Executors.newFixedThreadPool(
+                properties.getPoolSize() > 0 ? properties.getPoolSize() : Runtime.getRuntime().availableProcessors(),
+                new CustomizableThreadFactory("import-"));
+    }
+
+    /**
+     * Импортировать товары из CSV
+     *
+     * @param input    содержимое CSV файла
+     * @param category категория (таблица) товаров
+     * @param dtoClass класс DTO товара
+     * @param saved    получатель идентификаторов и товаров каждой закоммиченной порции
+     * @param <T>      тип DTO товара
+     * @return результат импорта
+     */
+    public <T> ImportResultDTO importCsv(InputStream input, String category, Class<T> dtoClass,
+                                         BiConsumer<Integer, T> saved) {
+        return importCsv(input, category, dtoClass, item -> { }, saved);
+    }
+
+    /**
+     * Импортировать товары из CSV с дополнительной проверкой каждого товара
+     *
+     * @param input    содержимое CSV файла
+     * @param category категория (таблица) товаров
+     * @param dtoClass класс DTO товара
+     * @param check    дополнительная проверка, выбрасывает ResponseStatusException или ProblemException для невалидного товара
+     * @param saved    получатель идентификаторов и товаров каждой закоммиченной порции
+     * @param <T>      тип DTO товара
+     * @return результат импорта
+     */
+    public <T> ImportResultDTO importCsv(InputStream input, String category, Class<T> dtoClass, Consumer<T> check,
+                                         BiConsumer<Integer, T> saved) {
+        var started = System.nanoTime();
+        try (var reader = new CsvReader(input)) {
+            var header = reader.next();
+            if (header == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The file must contain a header line");
+            }
+            var columns = columns(header.getValues(), dtoClass);
+            var insert = insertSql(category, columns);
+            long total = 0;
+            long imported = 0;
+            try (var report = reports.create()) {
+                var inFlight = new ArrayDeque<Future<List<Row<T>>>>();
+                try {
+                    var batch = readBatch(reader);
+                    while (!batch.isEmpty() || !inFlight.isEmpty()) {
+                        if (!batch.isEmpty()) {
+                            total += batch.size();
+                            var records = batch;
+                            inFlight.add(executor.submit(() -> validate(records, columns, dtoClass, check)));
+                        }
+                        if (batch.isEmpty() || inFlight.size() >= properties.getMaxInFlightBatches()) {
+                            imported += write(await(inFlight.poll()), category, columns, insert, report, saved);
+                        }
+                        batch = batch.isEmpty() ? batch : readBatch(reader);
+                    }
+                } finally {
+                    inFlight.forEach(future -> future.cancel(true));
+                    if (imported > 0) {
+                        categoryVersionRepository.increment(category);
+                    }
+                }
+                if (report.getFailed() == 0) {
+                    reports.remove(report.getId());
+                }
+                return ImportResultDTO.builder()
+                        .total(total)
+                        .imported(imported)
+                        .failed(report.getFailed())
+                        .durationMs((System.nanoTime() - started) / 1_000_000)
+                        .reportId(report.getFailed() == 0 ? null : report.getId())
+                        .build();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Остановить пул потоков при остановке приложения
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Проверить заголовок: каждое поле DTO должно встречаться в нем ровно один раз
+     *
+     * @param header   имена полей из заголовка
+     * @param dtoClass класс DTO
+     * @return имена полей в порядке заголовка
+     */
+    private static List<String> columns(String[] header, Class<?> dtoClass) {
+        var expected = Arrays.stream(BeanUtils.getPropertyDescriptors(dtoClass))
+                .filter(descriptor -> descriptor.getWriteMethod() != null)
+                .map(PropertyDescriptor::getName)
+                .collect(Collectors.toSet());
+        var columns = Arrays.stream(header).map(String::trim).collect(Collectors.toList());
+        if (columns.size() != expected.size() || !expected.equals(new HashSet<>(columns))) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    String.format("The header must contain the fields %s. Actual header: %s",
+                            expected.stream().sorted().collect(Collectors.joining(",")), String.join(",", header)));
+        }
+        return columns;
+    }
+
+    /**
+     * Построить запрос вставки товара. Идентификатор передается параметром :id, версия берется из значения
+     * столбца по умолчанию
+     *
+     * @param category категория (таблица) товаров
+     * @param columns  имена полей DTO
+     * @return запрос INSERT с именованными параметрами
+     */
+    private static String insertSql(String category, List<String> columns) {
+        return String.format("INSERT INTO %s (id, %s) VALUES (:id, %s)",
+                category,
+                columns.stream().map(CsvImporter::column).collect(Collectors.joining(", ")),
+                columns.stream().map(name -> ":" + name).collect(Collectors.joining(", ")));
+    }
+
+    /**
+     * Имя столбца по имени поля DTO: serialNumber -> serial_number
+     *
+     * @param field имя поля
+     * @return имя столбца
+     */
+    private static String column(String field) {
+        return field.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Прочитать следующую порцию записей
+     *
+     * @param reader чтение CSV
+     * @return записи, пустой список если файл закончился
+     * @throws IOException ошибка чтения
+     */
+    private List<CsvRecord> readBatch(CsvReader reader) throws IOException {
+        var batch = new ArrayList<CsvRecord>(properties.getBatchSize());
+        CsvRecord record;
+        while (batch.size() < properties.getBatchSize() && (record = reader.next()) != null) {
+            batch.add(record);
+        }
+        return batch;
+    }
+
+    /**
+     * Провалидировать порцию записей
+     *
+     * @param records  записи
+     * @param columns  имена полей в порядке заголовка
+     * @param dtoClass класс DTO
+     * @param check    дополнительная проверка
+     * @param <T>      тип DTO товара
+     * @return строки с товарами или ошибками в порядке записей
+     */
+    private <T> List<Row<T>> validate(List<CsvRecord> records, List<String> columns, Class<T> dtoClass, Consumer<T> check) {
+        var serialIndex = columns.indexOf("serialNumber");
+        var rows = new ArrayList<Row<T>>(records.size());
+        for (var record : records) {
+            var values = record.getValues();
+            var serial = serialIndex < values.length ? values[serialIndex] : null;
+            if (record.getError() != null) {
+                rows.add(new Row<>(record.getLine(), serial, null, List.of(record.getError())));
+            } else if (values.length != columns.size()) {
+                rows.add(new Row<>(record.getLine(), serial, null, List.of(String.format(
+                        "Expected %d values, but found %d", columns.size(), values.length))));
+            } else {
+                var fields = new HashMap<String, String>(columns.size() * 2);
+                for (int i = 0; i < values.length; i++) {
+                    fields.put(columns.get(i), values[i]);
+                }
+                rows.add(validate(record.getLine(), serial, fields, dtoClass, check));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Преобразовать значения полей в DTO и провалидировать его
+     *
+     * @param line     номер строки
+     * @param serial   серийный номер
+     * @param fields   значения полей по именам
+     * @param dtoClass класс DTO
+     * @param check    дополнительная проверка
+     * @param <T>      тип DTO товара
+     * @return строка с товаром или ошибками
+     */
+    private <T> Row<T> validate(long line, String serial, Map<String, String> fields, Class<T> dtoClass,
+                                Consumer<T> check) {
+        T item;
+        try {
+            item = objectMapper.convertValue(fields, dtoClass);
+        } catch (IllegalArgumentException e) {
+            var error = e.getCause() instanceof JsonMappingException mappingException && !mappingException.getPath().isEmpty()
+                    ? String.format("Invalid value of field: %s",
+                            mappingException.getPath().get(mappingException.getPath().size() - 1).getFieldName())
+                    : "Invalid field value";
+            return new Row<>(line, serial, null, List.of(error));
+        }
+        var violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            return new Row<>(line, serial, null, violations.stream()
+                    .map(v -> String.format("%s: %s. Actual value: %s", v.getPropertyPath(), v.getMessage(), v.getInvalidValue()))
+                    .sorted()
+                    .collect(Collectors.toList()));
+        }
+        try {
+            check.accept(item);
+        } catch (ResponseStatusException e) {
+            return new Row<>(line, serial, null, List.of(e.getReason()));
+        } catch (ProblemException e) {
+            return new Row<>(line, serial, null, List.of(e.getMessage()));
+        }
+        return new Row<>(line, serial, item, List.of());
+    }
+
+    /**
+     * Записать провалидированную порцию одним JDBC batch'ем. Строки с ошибками и дубликаты
+     * серийных номеров записываются в отчет. Если база данных отклонила batch, строки записываются по одной
+     * и в отчет попадают только отклоненные
+     *
+     * @param rows     строки порции
+     * @param category категория (таблица) товаров
+     * @param columns  имена полей
+     * @param insert   запрос вставки
+     * @param report   отчет об ошибках
+     * @param saved    получатель сохраненных товаров
+     * @param <T>      тип DTO товара
+     * @return кол-во сохраненных товаров
+     * @throws IOException ошибка записи отчета
+     */
+    private <T> int write(List<Row<T>> rows, String category, List<String> columns, String insert, ImportReport report,
+                          BiConsumer<Integer, T> saved) throws IOException {
+        var candidates = new ArrayList<Row<T>>(rows.size());
+        var serials = new HashSet<String>();
+        for (var row : rows) {
+            if (row.getItem() == null) {
+                report.add(row.getLine(), row.getSerialNumber(), row.getErrors());
+            } else if (!serials.add(row.getSerialNumber())) {
+                report.add(row.getLine(), row.getSerialNumber(), List.of("Serial number is repeated in the file"));
+            } else {
+                candidates.add(row);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        var existing = existingSerialNumbers(category, serials);
+        var toSave = new ArrayList<Row<T>>(candidates.size());
+        for (var row : candidates) {
+            if (existing.contains(row.getSerialNumber())) {
+                report.add(row.getLine(), row.getSerialNumber(), List.of("Serial number already exists"));
+            } else {
+                toSave.add(row);
+            }
+        }
+        if (toSave.isEmpty()) {
+            return 0;
+        }
+        var ids = allocateIds(category, toSave.size());
+        var parameters = new ArrayList<Map<String, Object>>(toSave.size());
+        for (int i = 0; i < toSave.size(); i++) {
+            var item = new BeanWrapperImpl(toSave.get(i).getItem());
+            var values = new HashMap<String, Object>(columns.size() * 2 + 2);
+            values.put("id", ids[i]);
+            columns.forEach(name -> values.put(name, item.getPropertyValue(name)));
+            parameters.add(values);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(insert, parameters.toArray(Map[]::new)));
+        } catch (DataIntegrityViolationException e) {
+            return writeOneByOne(toSave, ids, parameters, insert, report, saved);
+        }
+        for (int i = 0; i < toSave.size(); i++) {
+            saved.accept(ids[i], toSave.get(i).getItem());
+        }
+        return toSave.size();
+    }
+
+    /**
+     * Записать строки отклоненной порции по одной, каждую в своей транзакции
+     *
+     * @param rows       строки
+     * @param ids        идентификаторы строк
+     * @param parameters параметры вставки строк
+     * @param insert     запрос вставки
+     * @param report     отчет об ошибках
+     * @param saved      получатель сохраненных товаров
+     * @param <T>        тип DTO товара
+     * @return кол-во сохраненных товаров
+     * @throws IOException ошибка записи отчета
+     */
+    private <T> int writeOneByOne(List<Row<T>> rows, int[] ids, List<Map<String, Object>> parameters, String insert,
+                                  ImportReport report, BiConsumer<Integer, T> saved) throws IOException {
+        var count = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            var row = rows.get(i);
+            var values = parameters.get(i);
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(insert, values));
+            } catch (DataIntegrityViolationException e) {
+                report.add(row.getLine(), row.getSerialNumber(), List.of("The row was rejected by the database"));
+                continue;
+            }
+            saved.accept(ids[i], row.getItem());
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Выделить идентификаторы для новых строк. Каждое значение последовательности категории дает блок
+     * из {@link #ID_BLOCK_SIZE} идентификаторов, начиная с самого значения
+     *
+     * @param category категория (таблица) товаров
+     * @param count    кол-во идентификаторов
+     * @return идентификаторы
+     */
+    private int[] allocateIds(String category, int count) {
+        var blocks = jdbcTemplate.getJdbcTemplate().queryForList(
+                String.format("SELECT NEXT VALUE FOR %s_seq FROM SYSTEM_RANGE(1, ?)", category),
+                Integer.class,
+                (count + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE);
+        var ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = blocks.get(i / ID_BLOCK_SIZE) + i % ID_BLOCK_SIZE;
+        }
+        return ids;
+    }
+
+    /**
+     * Найти серийные номера из заданных, которые уже есть в базе данных
+     *
+     * @param category      категория (таблица) товаров
+     * @param serialNumbers серийные номера
+     * @return существующие серийные номера
+     */
+    private Set<String> existingSerialNumbers(String category, Set<String> serialNumbers) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                String.format("SELECT serial_number FROM %s WHERE serial_number IN (:serialNumbers)", category),
+                Map.of("serialNumbers", serialNumbers),
+                String.class));
+    }
+
+    /**
+     * Дождаться результата валидации порции
+     *
+     * @param future результат валидации
+     * @param <T>    тип DTO товара
+     * @return строки порции
+     */
+    private static <T> List<Row<T>> await(Future<List<Row<T>>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "The import was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Строка файла после валидации
+     *
+     * @param <T> тип DTO товара
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class Row<T> {
+
+        /**
+         * Номер строки файла
+         */
+        private final long line;
+
+        /**
+         * Серийный номер
+         */
+        private final String serialNumber;
+
+        /**
+         * Товар или null, если строка содержит ошибки
+         */
+        private final T item;
+
+        /**
+         * Ошибки
+         */
+        private final List<String> errors;
+    }
+}
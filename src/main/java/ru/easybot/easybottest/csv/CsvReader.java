@@ -0,0 +1,105 @@
+package ru.easybot.easybottest.csv;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * Потоковое чтение CSV файла (RFC 4180) по одной записи без загрузки файла в память.
+ * Разделитель - запятая, значения в двойных кавычках могут содержать запятые, переводы строк
+ * и экранированные кавычки (""). Пустые строки пропускаются
+ *
+ * @author Ilya Kaltygin
+ */
+public class CsvReader implements Closeable {
+
+    /**
+     * Метка порядка байтов UTF-8, которую добавляют некоторые редакторы таблиц
+     */
+    private static final char BOM = '﻿';
+
+    /**
+     * Источник строк
+     */
+    private final BufferedReader reader;
+
+    /**
+     * Кол-во прочитанных строк файла
+     */
+    private long line;
+
+    public CsvReader(InputStream input) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    /**
+     * Прочитать следующую запись
+     *
+     * @return запись или null, если файл закончился
+     * @throws IOException ошибка чтения
+     */
+    public CsvRecord next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+            if (line == 1 && !text.isEmpty() && text.charAt(0) == BOM) {
+                text = text.substring(1);
+            }
+        } while (text.isEmpty());
+
+        var start = line;
+        var values = new ArrayList<String>();
+        var field = new StringBuilder();
+        var quoted = false;
+        var i = 0;
+        while (true) {
+            if (i == text.length()) {
+                if (!quoted) {
+                    break;
+                }
+                text = reader.readLine();
+                if (text == null) {
+                    values.add(field.toString());
+                    return new CsvRecord(start, values.toArray(new String[0]), "Unterminated quoted value");
+                }
+                line++;
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+            var c = text.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < text.length() && text.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        values.add(field.toString());
+        return new CsvRecord(start, values.toArray(new String[0]), null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
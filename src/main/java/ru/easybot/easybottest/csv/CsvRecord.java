@@ -0,0 +1,29 @@
+package ru.easybot.easybottest.csv;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Запись CSV файла
+ *
+ * @author Ilya Kaltygin
+ */
+@Getter
+@AllArgsConstructor
+public class CsvRecord {
+
+    /**
+     * Номер строки файла, с которой начинается запись
+     */
+    private final long line;
+
+    /**
+     * Значения полей
+     */
+    private final String[] values;
+
+    /**
+     * Ошибка разбора записи или null, если запись разобрана успешно
+     */
+    private final String error;
+}
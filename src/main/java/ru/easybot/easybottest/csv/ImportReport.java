@@ -0,0 +1,87 @@
+package ru.easybot.easybottest.csv;
+
+import lombok.Getter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Отчет об ошибках импорта в CSV файле со столбцами line, serialNumber, errors.
+ * Строки пишутся в файл по мере обработки, поэтому размер отчета не ограничен памятью
+ *
+ * @author Ilya Kaltygin
+ */
+public class ImportReport implements Closeable {
+
+    /**
+     * Идентификатор отчета
+     */
+    @Getter
+    private final String id;
+
+    /**
+     * Файл отчета
+     */
+    @Getter
+    private final Path path;
+
+    /**
+     * Запись в файл отчета
+     */
+    private final BufferedWriter writer;
+
+    /**
+     * Кол-во строк с ошибками
+     */
+    @Getter
+    private long failed;
+
+    public ImportReport(String id, Path path) throws IOException {
+        this.id = id;
+        this.path = path;
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        writer.write("line,serialNumber,errors");
+        writer.newLine();
+    }
+
+    /**
+     * Добавить строку с ошибками
+     *
+     * @param line         номер строки файла импорта
+     * @param serialNumber серийный номер или null, если он не был прочитан
+     * @param errors       ошибки
+     * @throws IOException ошибка записи
+     */
+    public void add(long line, String serialNumber, List<String> errors) throws IOException {
+        failed++;
+        writer.write(Long.toString(line));
+        writer.write(',');
+        writer.write(quote(serialNumber == null ? "" : serialNumber));
+        writer.write(',');
+        writer.write(quote(String.join("; ", errors)));
+        writer.newLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * Заключить значение в кавычки, если оно содержит запятую, кавычку или перевод строки
+     *
+     * @param value значение
+     * @return значение поля CSV
+     */
+    private static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,113 @@
+package ru.easybot.easybottest.csv;
+
+import org.springframework.stereotype.Component;
+import ru.easybot.easybottest.config.ImportProperties;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Хранилище отчетов об ошибках импорта во временных файлах.
+ * Хранится не больше easybot.import.max-reports отчетов: при создании нового самый старый удаляется.
+ * Все отчеты удаляются при остановке приложения
+ *
+ * @author Ilya Kaltygin
+ */
+@Component
+public class ImportReports {
+
+    /**
+     * Файлы отчетов по идентификаторам в порядке создания
+     */
+    private final LinkedHashMap<String, Path> reports;
+
+    public ImportReports(ImportProperties properties) {
+        this.reports = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Path> eldest) {
+                var evict = size() > properties.getMaxReports();
+                if (evict) {
+                    delete(eldest.getValue());
+                }
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * Создать пустой отчет
+     *
+     * @return отчет, открытый для записи
+     */
+    public ImportReport create() {
+        try {
+            var id = UUID.randomUUID().toString();
+            var report = new ImportReport(id, Files.createTempFile("easybot-import-", ".csv"));
+            synchronized (this) {
+                reports.put(id, report.getPath());
+            }
+            return report;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Найти файл отчета
+     *
+     * @param id идентификатор отчета
+     * @return Optional.of(path) если отчет существует, иначе Optional.empty()
+     */
+    public synchronized Optional<Path> find(String id) {
+        return Optional.ofNullable(reports.get(id));
+    }
+
+    /**
+     * Удалить отчет, например, если в импорте не было ошибок
+     *
+     * @param id идентификатор отчета
+     */
+    public void remove(String id) {
+        Path path;
+        synchronized (this) {
+            path = reports.remove(id);
+        }
+        if (path != null) {
+            delete(path);
+        }
+    }
+
+    /**
+     * Удалить все отчеты при остановке приложения
+     */
+    @PreDestroy
+    public void clear() {
+        ArrayList<Path> paths;
+        synchronized (this) {
+            paths = new ArrayList<>(reports.values());
+            reports.clear();
+        }
+        paths.forEach(ImportReports::delete);
+    }
+
+    /**
+     * Удалить файл отчета, а если файл сейчас не удается удалить - удалить его при завершении JVM
+     *
+     * @param path файл
+     */
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            path.toFile().deleteOnExit();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ru.easybot.easybottest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * @param <T> тип DTO товара
+ * @author Ilya Kaltygin
+ */
+@Schema(description = "Результат обработки одного элемента пакетного создания товаров")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkItemResultDTO<T> {
+
+    @Schema(description = "Позиция элемента в запросе")
+    private int index;
+
+    @Schema(description = "Результат: CREATED, INVALID, DUPLICATE")
+    private BulkItemStatus status;
+
+    @Schema(description = "Сохраненный товар, если результат CREATED")
+    private T item;
+
+    @Schema(description = "Ошибки, если товар не сохранен")
+    private List<String> errors;
+}
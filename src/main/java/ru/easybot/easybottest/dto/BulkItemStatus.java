@@ -0,0 +1,24 @@
+package ru.easybot.easybottest.dto;
+
+/**
+ * Результат обработки одного элемента пакетного создания товаров
+ *
+ * @author Ilya Kaltygin
+ */
+public enum BulkItemStatus {
+
+    /**
+     * Товар сохранен
+     */
+    CREATED,
+
+    /**
+     * Товар не прошел валидацию
+     */
+    INVALID,
+
+    /**
+     * Товар с таким серийным номером уже существует или повторяется в запросе
+     */
+    DUPLICATE
+}
@@ -0,0 +1,30 @@
+package ru.easybot.easybottest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * @param <T> тип DTO товара
+ * @author Ilya Kaltygin
+ */
+@Schema(description = "Результат пакетного создания товаров")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkResultDTO<T> {
+
+    @Schema(description = "Кол-во сохраненных товаров")
+    private int created;
+
+    @Schema(description = "Кол-во несохраненных товаров")
+    private int failed;
+
+    @Schema(description = "Результаты по каждому элементу в порядке запроса")
+    private List<BulkItemResultDTO<T>> items;
+}
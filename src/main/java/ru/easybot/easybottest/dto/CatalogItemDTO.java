@@ -0,0 +1,24 @@
+package ru.easybot.easybottest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author Ilya Kaltygin
+ */
+@Schema(description = "Товар сводного каталога")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CatalogItemDTO {
+
+    @Schema(description = "Категория товара: computer, hdd, laptop, monitor")
+    private String category;
+
+    @Schema(description = "Товар: ComputerDTO, HddDTO, LaptopDTO или MonitorDTO в зависимости от категории")
+    private Object product;
+}
@@ -0,0 +1,33 @@
+package ru.easybot.easybottest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * @author Ilya Kaltygin
+ */
+@Schema(description = "Страница сводного каталога товаров")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CatalogPageDTO {
+
+    @Schema(description = "Товары страницы")
+    private List<CatalogItemDTO> content;
+
+    @Schema(description = "Курсор следующей страницы, null если страница последняя")
+    private String nextCursor;
+
+    @Schema(description = "Категории, не ответившие за отведенное время. Их товары будут запрошены на следующей странице")
+    private List<String> timedOut;
+
+    @Schema(description = "Страница неполная: в ней нет товаров категорий из timedOut, "
+            + "которые по порядку сортировки стояли бы на этой странице")
+    private boolean partial;
+}
@@ -0,0 +1,33 @@
+package ru.easybot.easybottest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author Ilya Kaltygin
+ */
+@Schema(description = "Результат импорта товаров из CSV")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportResultDTO {
+
+    @Schema(description = "Кол-во прочитанных строк с товарами")
+    private long total;
+
+    @Schema(description = "Кол-во сохраненных товаров")
+    private long imported;
+
+    @Schema(description = "Кол-во несохраненных товаров")
+    private long failed;
+
+    @Schema(description = "Время импорта в миллисекундах")
+    private long durationMs;
+
+    @Schema(description = "Идентификатор отчета об ошибках, null если ошибок нет")
+    private String reportId;
+}
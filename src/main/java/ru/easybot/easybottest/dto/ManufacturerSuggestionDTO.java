@@ -0,0 +1,24 @@
+package ru.easybot.easybottest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author Ilya Kaltygin
+ */
+@Schema(description = "Подсказка производителя")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ManufacturerSuggestionDTO {
+
+    @Schema(description = "Производитель")
+    private String manufacturer;
+
+    @Schema(description = "Кол-во товаров производителя в категории")
+    private int count;
+}
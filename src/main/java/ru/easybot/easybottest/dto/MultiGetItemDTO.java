@@ -0,0 +1,31 @@
+package ru.easybot.easybottest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @param <T> тип DTO товара
+ * @author Ilya Kaltygin
+ */
+@Schema(description = "Результат поиска одного товара из запроса нескольких товаров")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MultiGetItemDTO<T> {
+
+    @Schema(description = "Позиция ключа в запросе")
+    private int index;
+
+    @Schema(description = "Ключ из запроса: идентификатор или серийный номер")
+    private String key;
+
+    @Schema(description = "true если товар найден")
+    private boolean found;
+
+    @Schema(description = "Найденный товар, null если товар не найден")
+    private T item;
+}
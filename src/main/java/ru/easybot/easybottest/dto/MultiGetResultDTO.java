@@ -0,0 +1,30 @@
+package ru.easybot.easybottest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * @param <T> тип DTO товара
+ * @author Ilya Kaltygin
+ */
+@Schema(description = "Результат запроса нескольких товаров по идентификаторам или серийным номерам")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MultiGetResultDTO<T> {
+
+    @Schema(description = "Кол-во найденных товаров")
+    private int found;
+
+    @Schema(description = "Кол-во ненайденных товаров")
+    private int missing;
+
+    @Schema(description = "Результаты по каждому ключу в порядке запроса")
+    private List<MultiGetItemDTO<T>> items;
+}
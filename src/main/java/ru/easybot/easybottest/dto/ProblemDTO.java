@@ -0,0 +1,29 @@
+package ru.easybot.easybottest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Тело ответа с ошибкой в формате RFC 7807 (application/problem+json).
+ * Объект неизменяемый, так как один экземпляр отдается во всех ответах с этой ошибкой
+ *
+ * @author Ilya Kaltygin
+ */
+@Schema(description = "Описание ошибки")
+@Getter
+@AllArgsConstructor
+public class ProblemDTO {
+
+    @Schema(description = "Тип ошибки")
+    private final String type;
+
+    @Schema(description = "Краткое описание статуса ответа")
+    private final String title;
+
+    @Schema(description = "Статус ответа")
+    private final int status;
+
+    @Schema(description = "Описание ошибки")
+    private final String detail;
+}
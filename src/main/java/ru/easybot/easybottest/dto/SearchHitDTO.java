@@ -0,0 +1,27 @@
+package ru.easybot.easybottest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author Ilya Kaltygin
+ */
+@Schema(description = "Товар, найденный по части серийного номера")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchHitDTO {
+
+    @Schema(description = "Идентификатор товара")
+    private int id;
+
+    @Schema(description = "Серийный номер")
+    private String serialNumber;
+
+    @Schema(description = "Производитель")
+    private String manufacturer;
+}
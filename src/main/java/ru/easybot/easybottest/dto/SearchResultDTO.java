@@ -0,0 +1,26 @@
+package ru.easybot.easybottest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * @author Ilya Kaltygin
+ */
+@Schema(description = "Результат поиска товаров категории для подсказок при вводе")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchResultDTO {
+
+    @Schema(description = "Товары, серийный номер которых содержит строку поиска")
+    private List<SearchHitDTO> products;
+
+    @Schema(description = "Производители, название которых начинается со строки поиска, от самых частых")
+    private List<ManufacturerSuggestionDTO> manufacturers;
+}
@@ -0,0 +1,48 @@
+package ru.easybot.easybottest.export;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Формат выгрузки товаров
+ *
+ * @author Ilya Kaltygin
+ */
+@Getter
+@AllArgsConstructor
+public enum ExportFormat {
+
+    /**
+     * JSON массив
+     */
+    JSON("application/json"),
+
+    /**
+     * Один JSON объект на строку (newline delimited JSON)
+     */
+    NDJSON("application/x-ndjson");
+
+    /**
+     * Тип содержимого ответа
+     */
+    private final String contentType;
+
+    /**
+     * Получить формат выгрузки по имени
+     *
+     * @param name имя формата (json, ndjson)
+     * @return формат выгрузки
+     */
+    public static ExportFormat of(String name) {
+        for (var format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new ResponseStatusException(
+                HttpStatus.BAD_REQUEST,
+                String.format("Export format must be json or ndjson. But you indicated %s", name));
+    }
+}
@@ -0,0 +1,72 @@
+package ru.easybot.easybottest.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Потоковая запись DTO в выходной поток в формате JSON массива или NDJSON.
+ * Каждый объект сериализуется сразу при получении, поэтому память не зависит от количества объектов.
+ * Принудительный flush после каждого объекта не выполняется: данные уходят клиенту по мере заполнения буфера
+ *
+ * @param <T> тип DTO
+ * @author Ilya Kaltygin
+ */
+public class JsonExportWriter<T> implements Consumer<T>, Closeable {
+
+    /**
+     * Генератор JSON поверх выходного потока ответа
+     */
+    private final JsonGenerator generator;
+
+    /**
+     * Формат выгрузки
+     */
+    private final ExportFormat format;
+
+    public JsonExportWriter(ObjectMapper objectMapper, OutputStream out, ExportFormat format) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(out);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.format = format;
+        if (format == ExportFormat.JSON) {
+            generator.writeStartArray();
+        } else {
+            generator.setRootValueSeparator(null);
+        }
+    }
+
+    /**
+     * Записать объект в выходной поток
+     *
+     * @param value DTO
+     */
+    @Override
+    public void accept(T value) {
+        try {
+            generator.writeObject(value);
+            if (format == ExportFormat.NDJSON) {
+                generator.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Завершить выгрузку и сбросить буфер генератора в выходной поток
+     *
+     * @throws IOException ошибка записи
+     */
+    @Override
+    public void close() throws IOException {
+        if (format == ExportFormat.JSON) {
+            generator.writeEndArray();
+        }
+        generator.close();
+    }
+}
@@ -0,0 +1,39 @@
+package ru.easybot.easybottest.filter;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import ru.easybot.easybottest.model.Type;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Параметры фильтрации списка компьютеров
+ *
+ * @author Ilya Kaltygin
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class ComputerFilter extends ProductFilter {
+
+    @Schema(description = "Тип компьютера: MONOBLOCK, NETTOP, DESKTOP")
+    private String type;
+
+    @Override
+    protected Map<String, Object> categoryAttributes() {
+        if (type == null) {
+            return Map.of();
+        }
+        var computerType = Arrays.stream(Type.values())
+                .filter(value -> value.name().equals(type))
+                .findFirst()
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.BAD_REQUEST,
+                        String.format("The computer must be of type: MONOBLOCK, NETTOP, DESKTOP. But you indicated %s",
+                                type)));
+        return Map.of("type", computerType);
+    }
+}
@@ -0,0 +1,25 @@
+package ru.easybot.easybottest.filter;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.Map;
+
+/**
+ * Параметры фильтрации списка жестких дисков
+ *
+ * @author Ilya Kaltygin
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class HddFilter extends ProductFilter {
+
+    @Schema(description = "Объем жесткого диска")
+    private Long capacity;
+
+    @Override
+    protected Map<String, Object> categoryAttributes() {
+        return capacity == null ? Map.of() : Map.of("capacity", capacity);
+    }
+}
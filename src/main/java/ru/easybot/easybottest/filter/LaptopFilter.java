@@ -0,0 +1,25 @@
+package ru.easybot.easybottest.filter;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.Map;
+
+/**
+ * Параметры фильтрации списка ноутбуков
+ *
+ * @author Ilya Kaltygin
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class LaptopFilter extends ProductFilter {
+
+    @Schema(description = "Размер ноутбука. Называется не size, чтобы не совпадать с размером страницы")
+    private Integer screenSize;
+
+    @Override
+    protected Map<String, Object> categoryAttributes() {
+        return screenSize == null ? Map.of() : Map.of("size", screenSize);
+    }
+}
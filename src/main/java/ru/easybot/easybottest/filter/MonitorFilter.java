@@ -0,0 +1,25 @@
+package ru.easybot.easybottest.filter;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.Map;
+
+/**
+ * Параметры фильтрации списка мониторов
+ *
+ * @author Ilya Kaltygin
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class MonitorFilter extends ProductFilter {
+
+    @Schema(description = "Диагональ монитора")
+    private Integer diagonal;
+
+    @Override
+    protected Map<String, Object> categoryAttributes() {
+        return diagonal == null ? Map.of() : Map.of("diagonal", diagonal);
+    }
+}
@@ -0,0 +1,103 @@
+package ru.easybot.easybottest.filter;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import javax.persistence.criteria.Predicate;
+import javax.validation.constraints.PositiveOrZero;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Общие параметры фильтрации списка товаров. Незаданные параметры не ограничивают выборку.
+ * Фильтр не входит в курсор страницы, поэтому при запросе следующей страницы его нужно передавать повторно
+ *
+ * @author Ilya Kaltygin
+ */
+@Data
+public class ProductFilter {
+
+    @Schema(description = "Производитель")
+    private String manufacturer;
+
+    @Schema(description = "Минимальная цена включительно")
+    @PositiveOrZero(message = "Min price cannot be less than 0")
+    private Integer minPrice;
+
+    @Schema(description = "Максимальная цена включительно")
+    @PositiveOrZero(message = "Max price cannot be less than 0")
+    private Integer maxPrice;
+
+    @Schema(description = "true - только товары в наличии, false - только отсутствующие на складе")
+    private Boolean inStock;
+
+    /**
+     * Построить условие выборки по заданным параметрам
+     *
+     * @param <T> тип сущности товара
+     * @return условие выборки
+     */
+    public <T> Specification<T> toSpecification() {
+        return (root, query, cb) -> {
+            var predicates = new ArrayList<Predicate>();
+            if (manufacturer != null) {
+                predicates.add(cb.equal(root.get("manufacturer"), manufacturer));
+            }
+            if (minPrice != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), minPrice));
+            }
+            if (maxPrice != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), maxPrice));
+            }
+            if (inStock != null) {
+                predicates.add(inStock
+                        ? cb.greaterThan(root.get("quantity"), 0)
+                        : cb.lessThanOrEqualTo(root.get("quantity"), 0));
+            }
+            categoryAttributes().forEach((attribute, value) -> predicates.add(cb.equal(root.get(attribute), value)));
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Построить условия SQL запроса по заданным параметрам. Имена столбцов совпадают с именами атрибутов
+     *
+     * @param parameters параметры запроса, в которые добавляются значения условий
+     * @return условия, которые нужно объединить через AND
+     */
+    public List<String> toSqlConditions(MapSqlParameterSource parameters) {
+        var conditions = new ArrayList<String>();
+        if (manufacturer != null) {
+            conditions.add("manufacturer = :manufacturer");
+            parameters.addValue("manufacturer", manufacturer);
+        }
+        if (minPrice != null) {
+            conditions.add("price >= :minPrice");
+            parameters.addValue("minPrice", minPrice);
+        }
+        if (maxPrice != null) {
+            conditions.add("price <= :maxPrice");
+            parameters.addValue("maxPrice", maxPrice);
+        }
+        if (inStock != null) {
+            conditions.add(inStock ? "quantity > 0" : "quantity <= 0");
+        }
+        categoryAttributes().forEach((attribute, value) -> {
+            conditions.add(String.format("%s = :%s", attribute, attribute));
+            parameters.addValue(attribute, value instanceof Enum<?> constant ? constant.name() : value);
+        });
+        return conditions;
+    }
+
+    /**
+     * Получить заданные значения атрибутов категории товаров, по которым выборка ограничивается на равенство
+     *
+     * @return значения по именам атрибутов
+     */
+    protected Map<String, Object> categoryAttributes() {
+        return Map.of();
+    }
+}
@@ -1,30 +1,70 @@
 package ru.easybot.easybottest.handler;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.validation.BindException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ResponseStatusException;
+import ru.easybot.easybottest.dto.ProblemDTO;
 
+import java.sql.SQLException;
 import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.Locale;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
- * GlobalExceptionHandler - глобальный обработчик исключений, возникших в контроллерах
+ * GlobalExceptionHandler - глобальный обработчик исключений, возникших в контроллерах.
+ * Каждое обработанное исключение учитывается в счетчике easybot.errors с тегами exception и status
  *
  * @author Ilya Kaltygin
  */
 @ControllerAdvice
+@AllArgsConstructor
 public class GlobalExceptionHandler {
 
     /**
-     * Обрабатывает все исключения MethodArgumentNotValidException, которые возникают в контроллере
+     * Имя счетчика ошибок
+     */
+    public static final String COUNTER_NAME = "easybot.errors";
+
+    /**
+     * Ответ на нарушение уникальности серийного номера, обнаруженное базой данных
+     */
+    private static final Problem DUPLICATE_SERIAL_NUMBER = Problem.of(HttpStatus.CONFLICT,
+            "A product with the specified serial number already exists");
+
+    /**
+     * Ответ на нарушение остальных ограничений целостности (например, NOT NULL) данными запроса
+     */
+    private static final Problem CONSTRAINT_VIOLATION = Problem.of(HttpStatus.BAD_REQUEST,
+            "The product violates a database constraint");
+
+    /**
+     * SQLState нарушения уникальности
+     */
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    /**
+     * Реестр метрик
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Обрабатывает все исключения MethodArgumentNotValidException, которые возникают в контроллере,
+     * а также BindException, возникающие при валидации параметров запроса (например, размера страницы)
      *
      * @param e исключение, которые было сгенерировано и перехваченоданным методом
      * @return возвращает ResponseEntity со статусом 400 и телом ответа, которое содержит список ошибок валидаций полей
      */
-    @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<?> handleMethodArgumentNotValidExceptionHandle(MethodArgumentNotValidException e) {
+    @ExceptionHandler(BindException.class)
+    public ResponseEntity<?> handleMethodArgumentNotValidExceptionHandle(BindException e) {
+        count(e, HttpStatus.BAD_REQUEST);
         return ResponseEntity.badRequest().body(
                 e.getFieldErrors().stream()
                         .map(f -> Map.of(
@@ -34,13 +74,78 @@ public class GlobalExceptionHandler {
                         .collect(Collectors.toList()));
     }
 
-    @ExceptionHandler(value = {SQLIntegrityConstraintViolationException.class})
-    protected ResponseEntity<Object> handleSQLIntegrityConstraintViolationException(SQLIntegrityConstraintViolationException e) {
-        String message = e.getMessage();
-        String[] parts = message.split("\'");
-        String fieldName = parts[1];
-        String value = parts[3];
-        String bodyOfResponse = "Значение параметра " + fieldName + " (" + value + ") вызвало нарушение ограничения целостности базы данных.";
-        return ResponseEntity.badRequest().body(bodyOfResponse);
+    /**
+     * Обрабатывает нарушения ограничений целостности базы данных. Нарушение уникальности серийного номера
+     * возвращает заранее созданный ответ CONFLICT о дубликате, остальные нарушения (например, NOT NULL) -
+     * ответ BAD_REQUEST. Сообщение базы данных в ответ не попадает
+     *
+     * @param e исключение
+     * @return ответ на ошибку с телом в формате application/problem+json
+     */
+    @ExceptionHandler({DataIntegrityViolationException.class, SQLIntegrityConstraintViolationException.class})
+    public ResponseEntity<ProblemDTO> handleIntegrityViolation(Exception e) {
+        var problem = isSerialNumberViolation(e) ? DUPLICATE_SERIAL_NUMBER : CONSTRAINT_VIOLATION;
+        count(e, problem.getStatus());
+        return problem.getResponse();
+    }
+
+    /**
+     * Обрабатывает исключения ProblemException заранее созданных ответов на ожидаемые ошибки,
+     * возвращая готовый ответ без создания тела и сообщения
+     *
+     * @param e исключение
+     * @return ответ на ошибку с телом в формате application/problem+json
+     */
+    @ExceptionHandler(ProblemException.class)
+    public ResponseEntity<ProblemDTO> handleProblemException(ProblemException e) {
+        var problem = e.getProblem();
+        count(e, problem.getStatus());
+        return problem.getResponse();
+    }
+
+    /**
+     * Обрабатывает исключения ResponseStatusException, выброшенные сервисами и контроллерами.
+     * Ответ содержит статус, причину и заголовки исключения в формате application/problem+json
+     *
+     * @param e исключение
+     * @return ответ с телом ProblemDTO
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ProblemDTO> handleResponseStatusException(ResponseStatusException e) {
+        count(e, e.getStatus());
+        return Problem.response(e.getStatus(), e.getReason(), e.getResponseHeaders());
+    }
+
+    /**
+     * Проверяет, что причина исключения - нарушение уникальности (SQLState 23505) по столбцу serial_number.
+     * Ограничения уникальности в схеме не имеют имен, поэтому столбец ищется в сообщении базы данных
+     *
+     * @param e исключение
+     * @return true если нарушена уникальность серийного номера
+     */
+    private static boolean isSerialNumberViolation(Throwable e) {
+        for (var cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                return UNIQUE_VIOLATION.equals(sqlException.getSQLState())
+                        && sqlException.getMessage() != null
+                        && sqlException.getMessage().toLowerCase(Locale.ROOT).contains("serial_number");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Увеличивает счетчик ошибок
+     *
+     * @param e      исключение
+     * @param status статус ответа
+     */
+    private void count(Exception e, HttpStatus status) {
+        Counter.builder(COUNTER_NAME)
+                .description("Errors handled by GlobalExceptionHandler")
+                .tag("exception", e.getClass().getSimpleName())
+                .tag("status", String.valueOf(status.value()))
+                .register(meterRegistry)
+                .increment();
     }
 }
@@ -0,0 +1,85 @@
+package ru.easybot.easybottest.handler;
+
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import ru.easybot.easybottest.dto.ProblemDTO;
+
+/**
+ * Заранее созданный ответ на ожидаемую ошибку: товар не найден, неверный тип компьютера, дубликат серийного номера.
+ * <p>
+ * Тело ответа, сам ответ и исключение создаются один раз при создании объекта, поэтому ожидаемая ошибка
+ * не создает на каждый запрос ни исключение со стеком вызовов, ни сообщение через String.format.
+ * Контроллер, который может вернуть ответ, возвращает готовый ответ без исключения. Сервисы и реактивные
+ * контроллеры выбрасывают общее для всех запросов исключение ProblemException без стека вызовов,
+ * которое GlobalExceptionHandler превращает в тот же ответ. Поэтому описание ошибки не содержит
+ * значений из запроса
+ *
+ * @author Ilya Kaltygin
+ */
+@Getter
+public final class Problem {
+
+    /**
+     * Тип ошибки, когда ее смысл полностью передается статусом ответа
+     */
+    private static final String TYPE = "about:blank";
+
+    /**
+     * Статус ответа
+     */
+    private final HttpStatus status;
+
+    /**
+     * Тело ответа
+     */
+    private final ProblemDTO body;
+
+    /**
+     * Готовый ответ с типом содержимого application/problem+json
+     */
+    private final ResponseEntity<ProblemDTO> response;
+
+    /**
+     * Исключение без стека вызовов для мест, где ответ вернуть нельзя
+     */
+    private final ProblemException exception;
+
+    private Problem(HttpStatus status, String detail) {
+        this.status = status;
+        this.body = new ProblemDTO(TYPE, status.getReasonPhrase(), status.value(), detail);
+        this.response = ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(body);
+        this.exception = new ProblemException(this);
+    }
+
+    /**
+     * Создать ответ на ожидаемую ошибку. Вызывается один раз, результат хранится в константе или поле
+     *
+     * @param status статус ответа
+     * @param detail описание ошибки
+     * @return ответ на ошибку
+     */
+    public static Problem of(HttpStatus status, String detail) {
+        return new Problem(status, detail);
+    }
+
+    /**
+     * Создать ответ на ошибку, описание и заголовки которой известны только при ее возникновении.
+     * В отличие от {@link #of(HttpStatus, String)}, ответ создается на каждую ошибку
+     *
+     * @param status  статус ответа
+     * @param detail  описание ошибки, null если описания нет
+     * @param headers заголовки ответа
+     * @return ответ с типом содержимого application/problem+json
+     */
+    static ResponseEntity<ProblemDTO> response(HttpStatus status, String detail, HttpHeaders headers) {
+        return ResponseEntity.status(status)
+                .headers(headers)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(new ProblemDTO(TYPE, status.getReasonPhrase(), status.value(), detail));
+    }
+}
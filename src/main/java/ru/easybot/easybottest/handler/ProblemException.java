@@ -0,0 +1,29 @@
+package ru.easybot.easybottest.handler;
+
+/**
+ * Исключение заранее созданного ответа на ожидаемую ошибку. Один экземпляр выбрасывается во всех запросах
+ * с этой ошибкой, поэтому стек вызовов не заполняется, а добавление подавленных исключений отключено
+ *
+ * @author Ilya Kaltygin
+ */
+public class ProblemException extends RuntimeException {
+
+    /**
+     * Ответ на ошибку
+     */
+    private final transient Problem problem;
+
+    ProblemException(Problem problem) {
+        super(problem.getBody().getDetail(), null, false, false);
+        this.problem = problem;
+    }
+
+    /**
+     * Получить ответ на ошибку
+     *
+     * @return ответ на ошибку
+     */
+    public Problem getProblem() {
+        return problem;
+    }
+}
@@ -0,0 +1,209 @@
+package ru.easybot.easybottest.idempotency;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import ru.easybot.easybottest.config.IdempotencyProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Хранилище ответов на запросы создания с заголовком Idempotency-Key.
+ * <p>
+ * Первый запрос с ключом выполняется, а его ответ сохраняется. Повтор запроса с тем же ключом получает сохраненный
+ * ответ без обращения к базе данных и с заголовком Idempotent-Replayed. Повтор, пришедший, пока первый запрос
+ * еще выполняется, ждет его ответа, а не выполняется второй раз, но не дольше easybot.idempotency.wait-timeout-ms:
+ * по истечении времени ожидания повтор отклоняется со статусом CONFLICT. Если первый запрос завершился любой
+ * ошибкой, в том числе Error, ответ не сохраняется: ожидавшие повторы получают ту же ошибку,
+ * а следующий повтор выполняется заново.
+ * Ключ, повторно переданный с другим телом запроса, отклоняется со статусом UNPROCESSABLE_ENTITY.
+ * <p>
+ * Ответы хранятся easybot.idempotency.ttl-seconds с момента первого запроса, при превышении
+ * easybot.idempotency.max-entries удаляются самые старые. Ключи разных категорий независимы
+ *
+ * @author Ilya Kaltygin
+ */
+@Component
+public class IdempotencyStore {
+
+    /**
+     * Имя заголовка с ключом идемпотентности
+     */
+    public static final String KEY_HEADER = "Idempotency-Key";
+
+    /**
+     * Имя заголовка, которым помечается сохраненный ответ
+     */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    /**
+     * Максимальная длина ключа
+     */
+    private static final int MAX_KEY_LENGTH = 255;
+
+    /**
+     * Настройки хранилища
+     */
+    private final IdempotencyProperties properties;
+
+    /**
+     * Записи в порядке первого запроса, поэтому истекшие записи всегда в начале
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    public IdempotencyStore(IdempotencyProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Выполнить запрос создания с учетом ключа идемпотентности
+     *
+     * @param category категория товаров
+     * @param key      ключ из заголовка Idempotency-Key, null если заголовок не передан
+     * @param request  тело запроса, с которым сравниваются повторы
+     * @param action   выполнение запроса
+     * @param <T>      тип тела ответа
+     * @return ответ первого запроса с этим ключом
+     */
+    public <T> ResponseEntity<T> execute(String category, String key, Object request,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    String.format("%s must be 1 to %d characters long", KEY_HEADER, MAX_KEY_LENGTH));
+        }
+        var storeKey = category + ':' + key;
+        Entry entry;
+        boolean first;
+        synchronized (this) {
+            evictExpired(System.nanoTime());
+            entry = entries.get(storeKey);
+            first = entry == null;
+            if (first) {
+                entry = new Entry(request, System.nanoTime() + TimeUnit.SECONDS.toNanos(properties.getTtlSeconds()));
+                entries.put(storeKey, entry);
+                evictOverflow();
+            }
+        }
+        if (!first) {
+            return replay(entry, request, properties.getWaitTimeoutMs());
+        }
+        try {
+            var response = action.get();
+            entry.response.complete(response);
+            return response;
+        } catch (Throwable e) {
+            synchronized (this) {
+                entries.remove(storeKey, entry);
+            }
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Получить кол-во хранимых ответов, включая ответы выполняющихся запросов
+     *
+     * @return кол-во записей
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Вернуть ответ первого запроса, дождавшись его, если он еще выполняется
+     *
+     * @param entry         запись первого запроса
+     * @param request       тело повторного запроса
+     * @param waitTimeoutMs максимальное время ожидания ответа в миллисекундах
+     * @param <T>           тип тела ответа
+     * @return копия ответа с заголовком Idempotent-Replayed
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> ResponseEntity<T> replay(Entry entry, Object request, long waitTimeoutMs) {
+        if (!Objects.equals(entry.request, request)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    String.format("%s has already been used with a different request", KEY_HEADER));
+        }
+        ResponseEntity<?> response;
+        try {
+            response = entry.response.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    String.format("A request with this %s is still in progress", KEY_HEADER));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    String.format("Interrupted while waiting for the request with this %s", KEY_HEADER));
+        }
+        return (ResponseEntity<T>) ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(response.getBody());
+    }
+
+    /**
+     * Удалить записи, время хранения которых истекло
+     *
+     * @param now текущее время в наносекундах
+     */
+    private void evictExpired(long now) {
+        var iterator = entries.values().iterator();
+        while (iterator.hasNext() && iterator.next().expiresAt - now <= 0) {
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Удалить самые старые записи сверх максимального кол-ва.
+     * Повторы, уже ожидающие удаленный выполняющийся запрос, все равно получат его ответ
+     */
+    private void evictOverflow() {
+        var iterator = entries.values().iterator();
+        while (entries.size() > properties.getMaxEntries() && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Запись о запросе с ключом идемпотентности
+     */
+    private static final class Entry {
+
+        /**
+         * Тело первого запроса
+         */
+        private final Object request;
+
+        /**
+         * Момент истечения времени хранения в наносекундах
+         */
+        private final long expiresAt;
+
+        /**
+         * Ответ первого запроса, не завершен, пока запрос выполняется
+         */
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+
+        private Entry(Object request, long expiresAt) {
+            this.request = request;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package ru.easybot.easybottest.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.modelmapper.ModelMapper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ModelMapper, измеряющий время каждого преобразования объекта в объект заданного класса.
+ * Время пишется в таймер easybot.mapping с тегами source и destination (простые имена классов).
+ * Таймеры создаются один раз для каждой пары классов, так что на преобразование приходится только поиск в карте
+ *
+ * @author Ilya Kaltygin
+ */
+public class TimedModelMapper extends ModelMapper {
+
+    /**
+     * Имя таймера преобразований
+     */
+    public static final String TIMER_NAME = "easybot.mapping";
+
+    /**
+     * Реестр метрик
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Таймеры по классу источника и классу результата
+     */
+    private final Map<Class<?>, Map<Class<?>, Timer>> timers = new ConcurrentHashMap<>();
+
+    public TimedModelMapper(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Преобразовать объект в объект заданного класса, измерив время преобразования
+     *
+     * @param source          исходный объект
+     * @param destinationType класс результата
+     * @param <D>             тип результата
+     * @return результат преобразования
+     */
+    @Override
+    public <D> D map(Object source, Class<D> destinationType) {
+        if (source == null) {
+            return super.map(source, destinationType);
+        }
+        return timer(source.getClass(), destinationType).record(() -> super.map(source, destinationType));
+    }
+
+    /**
+     * Получить таймер преобразований пары классов
+     *
+     * @param sourceType      класс источника
+     * @param destinationType класс результата
+     * @return таймер
+     */
+    private Timer timer(Class<?> sourceType, Class<?> destinationType) {
+        return timers.computeIfAbsent(sourceType, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(destinationType, key -> Timer.builder(TIMER_NAME)
+                        .description("Time spent mapping between entities and DTOs")
+                        .tag("source", sourceType.getSimpleName())
+                        .tag("destination", destinationType.getSimpleName())
+                        .register(meterRegistry));
+    }
+}
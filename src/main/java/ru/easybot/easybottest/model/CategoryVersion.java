@@ -0,0 +1,32 @@
+package ru.easybot.easybottest.model;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * Модель данных, описывающая версию категории товаров.
+ * Версия увеличивается при каждом создании или изменении товара категории и используется как ETag списков
+ *
+ * @author Ilya Kaltygin
+ */
+@Entity
+@Table(name = "category_version")
+@EqualsAndHashCode(of = "category")
+@NoArgsConstructor
+@Data
+public class CategoryVersion {
+
+    /**
+     * Категория товаров
+     */
+    @Id
+    private String category;
+
+    /**
+     * Версия категории
+     */
+    private long version;
+}
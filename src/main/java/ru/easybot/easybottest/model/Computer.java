@@ -16,10 +16,15 @@ import javax.persistence.*;
 @EqualsAndHashCode(of = "id")
 @NoArgsConstructor
 @Data
-public class Computer {
+public class Computer implements Product {
 
+    /**
+     * Идентификатор. Выдается из последовательности блоками по 50 значений,
+     * что позволяет Hibernate объединять вставки в JDBC batch
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "computer_seq")
+    @SequenceGenerator(name = "computer_seq", sequenceName = "computer_seq", allocationSize = 50)
     private int id;
 
     /**
@@ -47,4 +52,10 @@ public class Computer {
      */
     @Enumerated(EnumType.STRING)
     private Type type;
+
+    /**
+     * Версия строки, увеличивается при каждом изменении. Используется как ETag товара
+     */
+    @Version
+    private long version;
 }
@@ -16,10 +16,15 @@ import javax.persistence.*;
 @EqualsAndHashCode(of = "id")
 @NoArgsConstructor
 @Data
-public class Hdd {
+public class Hdd implements Product {
 
+    /**
+     * Идентификатор. Выдается из последовательности блоками по 50 значений,
+     * что позволяет Hibernate объединять вставки в JDBC batch
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hdd_seq")
+    @SequenceGenerator(name = "hdd_seq", sequenceName = "hdd_seq", allocationSize = 50)
     private int id;
 
     /**
@@ -46,4 +51,10 @@ public class Hdd {
      * Объем
      */
     private long capacity;
+
+    /**
+     * Версия строки, увеличивается при каждом изменении. Используется как ETag товара
+     */
+    @Version
+    private long version;
 }
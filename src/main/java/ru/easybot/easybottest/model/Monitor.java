@@ -8,6 +8,8 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Version;
 
 
 /**
@@ -19,10 +21,15 @@ import javax.persistence.Id;
 @EqualsAndHashCode(of = "id")
 @NoArgsConstructor
 @Data
-public class Monitor {
+public class Monitor implements Product {
 
+    /**
+     * Идентификатор. Выдается из последовательности блоками по 50 значений,
+     * что позволяет Hibernate объединять вставки в JDBC batch
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "monitor_seq")
+    @SequenceGenerator(name = "monitor_seq", sequenceName = "monitor_seq", allocationSize = 50)
     private int id;
 
     /**
@@ -49,4 +56,10 @@ public class Monitor {
      * Диагональ
      */
     private int diagonal;
+
+    /**
+     * Версия строки, увеличивается при каждом изменении. Используется как ETag товара
+     */
+    @Version
+    private long version;
 }
@@ -0,0 +1,44 @@
+package ru.easybot.easybottest.model;
+
+/**
+ * Общие атрибуты товаров всех категорий
+ *
+ * @author Ilya Kaltygin
+ */
+public interface Product {
+
+    /**
+     * Получить идентификатор
+     *
+     * @return идентификатор
+     */
+    int getId();
+
+    /**
+     * Получить серийный номер
+     *
+     * @return серийный номер
+     */
+    String getSerialNumber();
+
+    /**
+     * Получить производителя
+     *
+     * @return производитель
+     */
+    String getManufacturer();
+
+    /**
+     * Получить цену
+     *
+     * @return цена
+     */
+    int getPrice();
+
+    /**
+     * Получить кол-во единиц продукции на складе
+     *
+     * @return кол-во единиц продукции на складе
+     */
+    int getQuantity();
+}
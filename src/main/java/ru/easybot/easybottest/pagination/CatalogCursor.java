@@ -0,0 +1,119 @@
+package ru.easybot.easybottest.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Курсор сводного каталога - позиции просмотра в каждой категории товаров.
+ * Позиция категории - это курсор PageCursor последнего отданного товара категории,
+ * пустая строка, если из категории еще ничего не отдано, или "~", если категория просмотрена до конца.
+ * Кодируется в непрозрачный для клиента токен вида base64url("sort|direction|позиция1|...|позицияN")
+ *
+ * @author Ilya Kaltygin
+ */
+@Getter
+@AllArgsConstructor
+public class CatalogCursor {
+
+    /**
+     * Позиция категории, просмотренной до конца
+     */
+    public static final String EXHAUSTED = "~";
+
+    /**
+     * Разделитель частей курсора
+     */
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Поле сортировки
+     */
+    private final SortField sortField;
+
+    /**
+     * Направление сортировки
+     */
+    private final Sort.Direction direction;
+
+    /**
+     * Позиции категорий
+     */
+    private final List<String> positions;
+
+    /**
+     * Создать курсор начала каталога
+     *
+     * @param sortField  поле сортировки
+     * @param direction  направление сортировки
+     * @param categories кол-во категорий
+     * @return курсор
+     */
+    public static CatalogCursor start(SortField sortField, Sort.Direction direction, int categories) {
+        return new CatalogCursor(sortField, direction, Collections.nCopies(categories, ""));
+    }
+
+    /**
+     * Проверить, просмотрены ли до конца все категории
+     *
+     * @return true если все категории просмотрены до конца
+     */
+    public boolean isExhausted() {
+        return positions.stream().allMatch(EXHAUSTED::equals);
+    }
+
+    /**
+     * Закодировать курсор в токен
+     *
+     * @return токен курсора
+     */
+    public String encode() {
+        var parts = new ArrayList<String>(positions.size() + 2);
+        parts.add(sortField.name());
+        parts.add(direction.name());
+        parts.addAll(positions);
+        var raw = String.join(SEPARATOR, parts);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Раскодировать токен курсора. Позиция каждой категории должна быть курсором
+     * с той же сортировкой, что и у всего каталога
+     *
+     * @param token      токен курсора
+     * @param categories кол-во категорий
+     * @return курсор
+     */
+    public static CatalogCursor decode(String token, int categories) {
+        try {
+            var raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            var parts = raw.split("\\|", -1);
+            if (parts.length != categories + 2) {
+                throw new IllegalArgumentException();
+            }
+            var sortField = SortField.valueOf(parts[0]);
+            var direction = Sort.Direction.valueOf(parts[1]);
+            var positions = Arrays.asList(parts).subList(2, parts.length);
+            for (var position : positions) {
+                if (!position.isEmpty() && !EXHAUSTED.equals(position)) {
+                    var cursor = PageCursor.decode(position);
+                    if (cursor.getSortField() != sortField || cursor.getDirection() != direction) {
+                        throw new IllegalArgumentException();
+                    }
+                }
+            }
+            return new CatalogCursor(sortField, direction, positions);
+        } catch (IllegalArgumentException | ResponseStatusException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid catalog cursor");
+        }
+    }
+}
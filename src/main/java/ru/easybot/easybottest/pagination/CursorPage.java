@@ -0,0 +1,42 @@
+package ru.easybot.easybottest.pagination;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Страница списка товаров
+ *
+ * @param <T> тип элементов страницы
+ * @author Ilya Kaltygin
+ */
+@Schema(description = "Страница списка товаров")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+
+    @Schema(description = "Элементы страницы")
+    private List<T> content;
+
+    @Schema(description = "Курсор следующей страницы, null если страница последняя")
+    private String nextCursor;
+
+    /**
+     * Преобразовать элементы страницы, сохранив курсор
+     *
+     * @param mapper функция преобразования
+     * @param <R>    тип элементов новой страницы
+     * @return новая страница
+     */
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(
+                content.stream().map(mapper).collect(Collectors.toList()),
+                nextCursor);
+    }
+}
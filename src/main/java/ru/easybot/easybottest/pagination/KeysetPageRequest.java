@@ -0,0 +1,78 @@
+package ru.easybot.easybottest.pagination;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+/**
+ * Параметры запроса страницы списка товаров.
+ * Если передан курсор, то сортировка берется из него, а параметры sort и direction игнорируются
+ *
+ * @author Ilya Kaltygin
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class KeysetPageRequest {
+
+    /**
+     * Размер страницы по умолчанию
+     */
+    public static final int DEFAULT_SIZE = 50;
+
+    /**
+     * Максимальный размер страницы
+     */
+    public static final int MAX_SIZE = 500;
+
+    @Schema(description = "Курсор следующей страницы из ответа на предыдущий запрос")
+    private String cursor;
+
+    @Schema(description = "Размер страницы", defaultValue = "50")
+    @Min(value = 1, message = "Page size cannot be less than 1")
+    @Max(value = MAX_SIZE, message = "Page size cannot be greater than 500")
+    private int size = DEFAULT_SIZE;
+
+    @Schema(description = "Поле сортировки: id, price, manufacturer", defaultValue = "id")
+    private String sort = SortField.ID.getAttribute();
+
+    @Schema(description = "Направление сортировки: asc, desc", defaultValue = "asc")
+    private String direction = Sort.Direction.ASC.name();
+
+    /**
+     * Раскодировать курсор
+     *
+     * @return курсор или null, если запрашивается первая страница
+     */
+    public PageCursor decodeCursor() {
+        return cursor == null || cursor.isBlank() ? null : PageCursor.decode(cursor);
+    }
+
+    /**
+     * Получить поле сортировки
+     *
+     * @return поле сортировки
+     */
+    public SortField sortField() {
+        return SortField.of(sort);
+    }
+
+    /**
+     * Получить направление сортировки
+     *
+     * @return направление сортировки
+     */
+    public Sort.Direction sortDirection() {
+        return Sort.Direction.fromOptionalString(direction)
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.BAD_REQUEST,
+                        String.format("Direction must be asc or desc. But you indicated %s", direction)));
+    }
+}
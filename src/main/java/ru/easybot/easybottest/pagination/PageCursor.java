@@ -0,0 +1,78 @@
+package ru.easybot.easybottest.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Курсор постраничного просмотра - позиция последней строки, отданной клиенту.
+ * Кодируется в непрозрачный для клиента токен вида base64url("sort|direction|id|value")
+ *
+ * @author Ilya Kaltygin
+ */
+@Getter
+@AllArgsConstructor
+public class PageCursor {
+
+    /**
+     * Разделитель частей курсора
+     */
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Поле сортировки
+     */
+    private final SortField sortField;
+
+    /**
+     * Направление сортировки
+     */
+    private final Sort.Direction direction;
+
+    /**
+     * Идентификатор последней строки страницы
+     */
+    private final int id;
+
+    /**
+     * Значение поля сортировки последней строки страницы
+     */
+    private final Comparable<?> value;
+
+    /**
+     * Закодировать курсор в токен
+     *
+     * @return токен курсора
+     */
+    public String encode() {
+        var raw = String.join(SEPARATOR, sortField.name(), direction.name(), String.valueOf(id), String.valueOf(value));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Раскодировать токен курсора. Значение поля сортировки идет последним,
+     * поэтому оно может содержать символ разделителя
+     *
+     * @param token токен курсора
+     * @return курсор
+     */
+    public static PageCursor decode(String token) {
+        try {
+            var raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            var parts = raw.split("\\|", 4);
+            var sortField = SortField.valueOf(parts[0]);
+            return new PageCursor(
+                    sortField,
+                    Sort.Direction.valueOf(parts[1]),
+                    Integer.parseInt(parts[2]),
+                    sortField.parse(parts[3]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page cursor");
+        }
+    }
+}
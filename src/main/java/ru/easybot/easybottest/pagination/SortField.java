@@ -0,0 +1,62 @@
+package ru.easybot.easybottest.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.function.Function;
+
+/**
+ * Поля, по которым допускается сортировка при постраничном (keyset) просмотре товаров.
+ * Для каждого поля, кроме идентификатора, в базе данных есть составной индекс (поле, id)
+ *
+ * @author Ilya Kaltygin
+ */
+@Getter
+@AllArgsConstructor
+public enum SortField {
+
+    ID("id", Integer::valueOf),
+
+    PRICE("price", Integer::valueOf),
+
+    MANUFACTURER("manufacturer", Function.identity());
+
+    /**
+     * Имя атрибута сущности
+     */
+    private final String attribute;
+
+    /**
+     * Преобразование строкового значения из курсора в значение атрибута
+     */
+    private final Function<String, ? extends Comparable<?>> parser;
+
+    /**
+     * Получить поле сортировки по имени атрибута
+     *
+     * @param attribute имя атрибута (id, price, manufacturer)
+     * @return поле сортировки
+     */
+    public static SortField of(String attribute) {
+        for (var field : values()) {
+            if (field.attribute.equalsIgnoreCase(attribute)) {
+                return field;
+            }
+        }
+        throw new ResponseStatusException(
+                HttpStatus.BAD_REQUEST,
+                String.format("Sorting is supported only by: id, price, manufacturer. But you indicated %s", attribute));
+    }
+
+    /**
+     * Восстановить значение атрибута из строки
+     *
+     * @param value строковое значение
+     * @return значение атрибута
+     */
+    public Comparable<?> parse(String value) {
+        return parser.apply(value);
+    }
+}
@@ -0,0 +1,64 @@
+package ru.easybot.easybottest.projection;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Разбор параметра fields - списка полей DTO через запятую, которые нужно вернуть клиенту
+ *
+ * @author Ilya Kaltygin
+ */
+public final class FieldSelection {
+
+    private FieldSelection() {
+    }
+
+    /**
+     * Разобрать список полей и проверить, что каждое из них есть в DTO
+     *
+     * @param fields   список полей через запятую
+     * @param dtoClass класс DTO
+     * @return имена полей в порядке запроса без повторов
+     */
+    public static Set<String> parse(String fields, Class<?> dtoClass) {
+        var names = new LinkedHashSet<String>();
+        Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .forEach(field -> {
+                    var descriptor = BeanUtils.getPropertyDescriptor(dtoClass, field);
+                    if (descriptor == null || descriptor.getWriteMethod() == null) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.format("Unknown field: %s", field));
+                    }
+                    names.add(field);
+                });
+        if (names.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The fields parameter must contain at least one field");
+        }
+        return names;
+    }
+
+    /**
+     * Оставить у уже загруженного DTO только заданные поля
+     *
+     * @param dto    DTO
+     * @param fields имена полей, проверенные {@link #parse(String, Class)}
+     * @return значения полей по их именам в порядке запроса
+     */
+    public static Map<String, Object> project(Object dto, Set<String> fields) {
+        var values = new LinkedHashMap<String, Object>(fields.size() * 2);
+        for (var field : fields) {
+            var descriptor = BeanUtils.getPropertyDescriptor(dto.getClass(), field);
+            values.put(field, ReflectionUtils.invokeMethod(descriptor.getReadMethod(), dto));
+        }
+        return values;
+    }
+}
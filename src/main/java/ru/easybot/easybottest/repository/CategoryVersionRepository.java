@@ -0,0 +1,36 @@
+package ru.easybot.easybottest.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import ru.easybot.easybottest.model.CategoryVersion;
+
+/**
+ * Хранилище версий категорий товаров
+ *
+ * @author Ilya Kaltygin
+ */
+public interface CategoryVersionRepository extends JpaRepository<CategoryVersion, String> {
+
+    /**
+     * Получить версию категории
+     *
+     * @param category категория
+     * @return версия категории
+     */
+    @Query("select v.version from CategoryVersion v where v.category = :category")
+    long findVersion(@Param("category") String category);
+
+    /**
+     * Увеличить версию категории. Вызывается в транзакции, изменяющей товары категории,
+     * поэтому новая версия становится видна одновременно с изменениями
+     *
+     * @param category категория
+     */
+    @Transactional
+    @Modifying
+    @Query("update CategoryVersion v set v.version = v.version + 1 where v.category = :category")
+    void increment(@Param("category") String category);
+}
@@ -1,12 +1,67 @@
 package ru.easybot.easybottest.repository;
 
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.easybot.easybottest.model.Computer;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 /**
  * Хранилище компьютеров
  *
  * @author Ilya Kaltygin
  */
-public interface ComputerRepository extends JpaRepository<Computer, Integer> {
+public interface ComputerRepository extends KeysetRepository<Computer, Integer> {
+
+    /**
+     * Получить поток всех компьютеров, упорядоченных по идентификатору.
+     * Строки читаются из курсора базы данных порциями по 500,
+     * сущности загружаются только для чтения (без снимков для dirty checking).
+     * Поток должен быть закрыт и использоваться внутри транзакции
+     *
+     * @return поток компьютеров
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    Stream<Computer> streamAllByOrderByIdAsc();
+
+    /**
+     * Найти серийные номера из заданных, которые уже есть в базе данных
+     *
+     * @param serialNumbers серийные номера
+     * @return существующие серийные номера
+     */
+    @Query("select c.serialNumber from Computer c where c.serialNumber in :serialNumbers")
+    Set<String> findExistingSerialNumbers(@Param("serialNumbers") Collection<String> serialNumbers);
+
+    /**
+     * Обновить компьютер одним запросом UPDATE ... WHERE id = ?, без предварительной загрузки строки
+     *
+     * @param computer новые значения полей
+     * @param id       идентификатор
+     * @return кол-во обновленных строк: 1 если компьютер найден, иначе 0
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update Computer c
+            set c.serialNumber = :#{#computer.serialNumber},
+                c.manufacturer = :#{#computer.manufacturer},
+                c.price = :#{#computer.price},
+                c.quantity = :#{#computer.quantity},
+                c.type = :#{#computer.type},
+                c.version = c.version + 1
+            where c.id = :id""")
+    int updateById(@Param("computer") Computer computer, @Param("id") int id);
 }
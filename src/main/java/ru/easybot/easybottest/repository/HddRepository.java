@@ -1,12 +1,67 @@
 package ru.easybot.easybottest.repository;
 
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.easybot.easybottest.model.Hdd;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 /**
  * Хранилище жестких дисков
  *
  * @author Ilya Kaltygin
  */
-public interface HddRepository extends JpaRepository<Hdd, Integer> {
+public interface HddRepository extends KeysetRepository<Hdd, Integer> {
+
+    /**
+     * Получить поток всех жестких дисков, упорядоченных по идентификатору.
+     * Строки читаются из курсора базы данных порциями по 500,
+     * сущности загружаются только для чтения (без снимков для dirty checking).
+     * Поток должен быть закрыт и использоваться внутри транзакции
+     *
+     * @return поток жестких дисков
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    Stream<Hdd> streamAllByOrderByIdAsc();
+
+    /**
+     * Найти серийные номера из заданных, которые уже есть в базе данных
+     *
+     * @param serialNumbers серийные номера
+     * @return существующие серийные номера
+     */
+    @Query("select h.serialNumber from Hdd h where h.serialNumber in :serialNumbers")
+    Set<String> findExistingSerialNumbers(@Param("serialNumbers") Collection<String> serialNumbers);
+
+    /**
+     * Обновить жесткий диск одним запросом UPDATE ... WHERE id = ?, без предварительной загрузки строки
+     *
+     * @param hdd новые значения полей
+     * @param id  идентификатор
+     * @return кол-во обновленных строк: 1 если жесткий диск найден, иначе 0
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update Hdd h
+            set h.serialNumber = :#{#hdd.serialNumber},
+                h.manufacturer = :#{#hdd.manufacturer},
+                h.price = :#{#hdd.price},
+                h.quantity = :#{#hdd.quantity},
+                h.capacity = :#{#hdd.capacity},
+                h.version = h.version + 1
+            where h.id = :id""")
+    int updateById(@Param("hdd") Hdd hdd, @Param("id") int id);
 }
@@ -0,0 +1,62 @@
+package ru.easybot.easybottest.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Хранилище с постраничным просмотром по ключу (keyset pagination).
+ * В отличие от OFFSET, время получения страницы не зависит от ее номера:
+ * каждая страница начинается с индексного поиска позиции из курсора
+ *
+ * @param <T>  тип сущности
+ * @param <ID> тип идентификатора
+ * @author Ilya Kaltygin
+ */
+@NoRepositoryBean
+public interface KeysetRepository<T, ID> extends JpaRepository<T, ID> {
+
+    /**
+     * Получить страницу сущностей, следующих за позицией курсора
+     *
+     * @param request параметры запроса страницы
+     * @return страница сущностей и курсор следующей страницы
+     */
+    CursorPage<T> findPage(KeysetPageRequest request);
+
+    /**
+     * Получить страницу сущностей, удовлетворяющих условию и следующих за позицией курсора
+     *
+     * @param request       параметры запроса страницы
+     * @param specification условие выборки, null если выборка не ограничена
+     * @return страница сущностей и курсор следующей страницы
+     */
+    CursorPage<T> findPage(KeysetPageRequest request, Specification<T> specification);
+
+    /**
+     * Получить страницу сущностей, удовлетворяющих условию и следующих за позицией курсора,
+     * с ограничением времени выполнения запроса в базе данных
+     *
+     * @param request       параметры запроса страницы
+     * @param specification условие выборки, null если выборка не ограничена
+     * @param timeoutMillis время выполнения запроса в миллисекундах, 0 если время не ограничено
+     * @return страница сущностей и курсор следующей страницы
+     */
+    CursorPage<T> findPage(KeysetPageRequest request, Specification<T> specification, long timeoutMillis);
+
+    /**
+     * Получить страницу только заданных полей сущностей, удовлетворяющих условию и следующих за позицией курсора
+     *
+     * @param request       параметры запроса страницы
+     * @param specification условие выборки, null если выборка не ограничена
+     * @param fields        имена полей
+     * @return страница значений полей по их именам и курсор следующей страницы
+     */
+    CursorPage<Map<String, Object>> findPage(KeysetPageRequest request, Specification<T> specification,
+                                             Collection<String> fields);
+}
@@ -0,0 +1,245 @@
+package ru.easybot.easybottest.repository;
+
+import org.hibernate.annotations.QueryHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.data.util.DirectFieldAccessFallbackBeanWrapper;
+import org.springframework.transaction.annotation.Transactional;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
+import ru.easybot.easybottest.pagination.PageCursor;
+import ru.easybot.easybottest.pagination.SortField;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Базовая реализация хранилищ, поддерживающая постраничный просмотр по ключу.
+ * Страница выбирается запросом вида
+ * WHERE (sort > :value) OR (sort = :value AND id > :id) ORDER BY sort, id LIMIT size + 1,
+ * лишняя строка нужна только для того, чтобы узнать, есть ли следующая страница
+ *
+ * @param <T>  тип сущности
+ * @param <ID> тип идентификатора
+ * @author Ilya Kaltygin
+ */
+public class KeysetRepositoryImpl<T, ID> extends SimpleJpaRepository<T, ID> implements KeysetRepository<T, ID> {
+
+    /**
+     * Метаданные сущности
+     */
+    private final JpaEntityInformation<T, ?> entityInformation;
+
+    /**
+     * Менеджер сущностей
+     */
+    private final EntityManager entityManager;
+
+    public KeysetRepositoryImpl(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+        super(entityInformation, entityManager);
+        this.entityInformation = entityInformation;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Получить страницу сущностей, следующих за позицией курсора
+     *
+     * @param request параметры запроса страницы
+     * @return страница сущностей и курсор следующей страницы
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<T> findPage(KeysetPageRequest request) {
+        return findPage(request, null);
+    }
+
+    /**
+     * Получить страницу сущностей, удовлетворяющих условию и следующих за позицией курсора.
+     * Условие добавляется к условию курсора через AND
+     *
+     * @param request       параметры запроса страницы
+     * @param specification условие выборки, null если выборка не ограничена
+     * @return страница сущностей и курсор следующей страницы
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<T> findPage(KeysetPageRequest request, Specification<T> specification) {
+        return findPage(request, specification, 0);
+    }
+
+    /**
+     * Получить страницу сущностей, удовлетворяющих условию и следующих за позицией курсора,
+     * с ограничением времени выполнения запроса. Время передается драйверу JDBC как таймаут запроса
+     * и округляется вверх до секунд, поэтому по его истечении база данных отменяет запрос
+     * и освобождает соединение
+     *
+     * @param request       параметры запроса страницы
+     * @param specification условие выборки, null если выборка не ограничена
+     * @param timeoutMillis время выполнения запроса в миллисекундах, 0 если время не ограничено
+     * @return страница сущностей и курсор следующей страницы
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<T> findPage(KeysetPageRequest request, Specification<T> specification, long timeoutMillis) {
+        var after = request.decodeCursor();
+        var sortField = after == null ? request.sortField() : after.getSortField();
+        var direction = after == null ? request.sortDirection() : after.getDirection();
+        var cb = entityManager.getCriteriaBuilder();
+        var query = cb.createQuery(getDomainClass());
+        var root = query.from(getDomainClass());
+        applyKeyset(cb, query, root, specification, after, sortField, direction);
+        var typedQuery = entityManager.createQuery(query)
+                .setMaxResults(request.getSize() + 1);
+        if (timeoutMillis > 0) {
+            typedQuery.setHint(QueryHints.TIMEOUT_HIBERNATE, (int) TimeUnit.MILLISECONDS.toSeconds(timeoutMillis + 999));
+        }
+        List<T> rows = typedQuery.getResultList();
+        return page(rows, request.getSize(), last -> new PageCursor(
+                sortField,
+                direction,
+                (Integer) entityInformation.getId(last),
+                (Comparable<?>) new DirectFieldAccessFallbackBeanWrapper(last).getPropertyValue(sortField.getAttribute())));
+    }
+
+    /**
+     * Получить страницу только заданных полей сущностей, удовлетворяющих условию и следующих за позицией курсора.
+     * Запрос выбирает только столбцы заданных полей, идентификатора и поля сортировки,
+     * а строки не загружаются в контекст персистентности как сущности
+     *
+     * @param request       параметры запроса страницы
+     * @param specification условие выборки, null если выборка не ограничена
+     * @param fields        имена полей
+     * @return страница значений полей по их именам и курсор следующей страницы
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Map<String, Object>> findPage(KeysetPageRequest request, Specification<T> specification,
+                                                    Collection<String> fields) {
+        var after = request.decodeCursor();
+        var sortField = after == null ? request.sortField() : after.getSortField();
+        var direction = after == null ? request.sortDirection() : after.getDirection();
+        var cb = entityManager.getCriteriaBuilder();
+        var query = cb.createTupleQuery();
+        var root = query.from(getDomainClass());
+        var selections = new ArrayList<Selection<?>>();
+        selections.add(root.get(entityInformation.getIdAttribute().getName()));
+        selections.add(root.get(sortField.getAttribute()));
+        fields.forEach(field -> selections.add(root.get(field)));
+        query.multiselect(selections);
+        applyKeyset(cb, query, root, specification, after, sortField, direction);
+        var rows = entityManager.createQuery(query)
+                .setMaxResults(request.getSize() + 1)
+                .getResultList();
+        return page(rows, request.getSize(), last -> new PageCursor(
+                sortField,
+                direction,
+                (Integer) last.get(0),
+                (Comparable<?>) last.get(1)))
+                .map(row -> toMap(row, fields, 2));
+    }
+
+    /**
+     * Добавить к запросу условие выборки, условие курсора и сортировку
+     *
+     * @param cb            построитель условий
+     * @param query         запрос
+     * @param root          корень запроса
+     * @param specification условие выборки, null если выборка не ограничена
+     * @param after         курсор или null, если запрашивается первая страница
+     * @param sortField     поле сортировки
+     * @param direction     направление сортировки
+     */
+    private void applyKeyset(CriteriaBuilder cb, CriteriaQuery<?> query, Root<T> root, Specification<T> specification,
+                             PageCursor after, SortField sortField, Sort.Direction direction) {
+        var ascending = direction.isAscending();
+        Expression<Comparable<Object>> id = root.get(entityInformation.getIdAttribute().getName());
+        Expression<Comparable<Object>> sort = root.get(sortField.getAttribute());
+        var predicates = new ArrayList<Predicate>();
+        if (specification != null) {
+            var predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        if (after != null) {
+            var afterId = after(cb, id, after.getId(), ascending);
+            predicates.add(sortField == SortField.ID
+                    ? afterId
+                    : cb.or(
+                            after(cb, sort, after.getValue(), ascending),
+                            cb.and(cb.equal(sort, after.getValue()), afterId)));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        var orders = new ArrayList<Order>();
+        if (sortField != SortField.ID) {
+            orders.add(ascending ? cb.asc(sort) : cb.desc(sort));
+        }
+        orders.add(ascending ? cb.asc(id) : cb.desc(id));
+        query.orderBy(orders);
+    }
+
+    /**
+     * Собрать страницу из size + 1 выбранных строк: лишняя строка отбрасывается и означает, что есть следующая страница
+     *
+     * @param rows   выбранные строки
+     * @param size   размер страницы
+     * @param cursor построение курсора по последней строке страницы
+     * @param <R>    тип строки
+     * @return страница
+     */
+    private <R> CursorPage<R> page(List<R> rows, int size, Function<R, PageCursor> cursor) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        var content = rows.subList(0, size);
+        return new CursorPage<>(content, cursor.apply(content.get(content.size() - 1)).encode());
+    }
+
+    /**
+     * Преобразовать строку в значения полей по их именам
+     *
+     * @param row    строка
+     * @param fields имена полей
+     * @param offset позиция первого поля в строке
+     * @return значения полей по их именам в порядке полей
+     */
+    private Map<String, Object> toMap(Tuple row, Collection<String> fields, int offset) {
+        var values = new LinkedHashMap<String, Object>();
+        var index = offset;
+        for (var field : fields) {
+            values.put(field, row.get(index++));
+        }
+        return values;
+    }
+
+    /**
+     * Условие "значение выражения идет после заданного" с учетом направления сортировки
+     *
+     * @param cb        построитель условий
+     * @param path      выражение
+     * @param value     значение из курсора
+     * @param ascending true если сортировка по возрастанию
+     * @return условие
+     */
+    @SuppressWarnings("unchecked")
+    private Predicate after(CriteriaBuilder cb, Expression<Comparable<Object>> path, Object value, boolean ascending) {
+        var bound = (Comparable<Object>) value;
+        return ascending ? cb.greaterThan(path, bound) : cb.lessThan(path, bound);
+    }
+}
@@ -1,12 +1,67 @@
 package ru.easybot.easybottest.repository;
 
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.easybot.easybottest.model.Laptop;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 /**
  * Хранилище ноутбуков
  *
  * @author Ilya Kaltygin
  */
-public interface LaptopRepository extends JpaRepository<Laptop, Integer> {
+public interface LaptopRepository extends KeysetRepository<Laptop, Integer> {
+
+    /**
+     * Получить поток всех ноутбуков, упорядоченных по идентификатору.
+     * Строки читаются из курсора базы данных порциями по 500,
+     * сущности загружаются только для чтения (без снимков для dirty checking).
+     * Поток должен быть закрыт и использоваться внутри транзакции
+     *
+     * @return поток ноутбуков
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    Stream<Laptop> streamAllByOrderByIdAsc();
+
+    /**
+     * Найти серийные номера из заданных, которые уже есть в базе данных
+     *
+     * @param serialNumbers серийные номера
+     * @return существующие серийные номера
+     */
+    @Query("select l.serialNumber from Laptop l where l.serialNumber in :serialNumbers")
+    Set<String> findExistingSerialNumbers(@Param("serialNumbers") Collection<String> serialNumbers);
+
+    /**
+     * Обновить ноутбук одним запросом UPDATE ... WHERE id = ?, без предварительной загрузки строки
+     *
+     * @param laptop новые значения полей
+     * @param id     идентификатор
+     * @return кол-во обновленных строк: 1 если ноутбук найден, иначе 0
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update Laptop l
+            set l.serialNumber = :#{#laptop.serialNumber},
+                l.manufacturer = :#{#laptop.manufacturer},
+                l.price = :#{#laptop.price},
+                l.quantity = :#{#laptop.quantity},
+                l.size = :#{#laptop.size},
+                l.version = l.version + 1
+            where l.id = :id""")
+    int updateById(@Param("laptop") Laptop laptop, @Param("id") int id);
 }
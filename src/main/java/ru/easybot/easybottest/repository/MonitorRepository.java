@@ -1,12 +1,67 @@
 package ru.easybot.easybottest.repository;
 
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.easybot.easybottest.model.Monitor;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 /**
  * Хранилище мониторов
  *
  * @author Ilya Kaltygin
  */
-public interface MonitorRepository extends JpaRepository<Monitor, Integer> {
+public interface MonitorRepository extends KeysetRepository<Monitor, Integer> {
+
+    /**
+     * Получить поток всех мониторов, упорядоченных по идентификатору.
+     * Строки читаются из курсора базы данных порциями по 500,
+     * сущности загружаются только для чтения (без снимков для dirty checking).
+     * Поток должен быть закрыт и использоваться внутри транзакции
+     *
+     * @return поток мониторов
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    Stream<Monitor> streamAllByOrderByIdAsc();
+
+    /**
+     * Найти серийные номера из заданных, которые уже есть в базе данных
+     *
+     * @param serialNumbers серийные номера
+     * @return существующие серийные номера
+     */
+    @Query("select m.serialNumber from Monitor m where m.serialNumber in :serialNumbers")
+    Set<String> findExistingSerialNumbers(@Param("serialNumbers") Collection<String> serialNumbers);
+
+    /**
+     * Обновить монитор одним запросом UPDATE ... WHERE id = ?, без предварительной загрузки строки
+     *
+     * @param monitor новые значения полей
+     * @param id      идентификатор
+     * @return кол-во обновленных строк: 1 если монитор найден, иначе 0
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update Monitor m
+            set m.serialNumber = :#{#monitor.serialNumber},
+                m.manufacturer = :#{#monitor.manufacturer},
+                m.price = :#{#monitor.price},
+                m.quantity = :#{#monitor.quantity},
+                m.diagonal = :#{#monitor.diagonal},
+                m.version = m.version + 1
+            where m.id = :id""")
+    int updateById(@Param("monitor") Monitor monitor, @Param("id") int id);
 }
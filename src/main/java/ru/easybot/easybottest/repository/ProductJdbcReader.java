@@ -0,0 +1,229 @@
+package ru.easybot.easybottest.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import ru.easybot.easybottest.cache.Versioned;
+import ru.easybot.easybottest.filter.ProductFilter;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Чтение товаров одной категории через JDBC в обход контекста персистентности.
+ * Строки сразу преобразуются в DTO заранее заданным преобразователем, без создания сущностей,
+ * снимков для dirty checking и ModelMapper. Используется только для чтения, изменения идут через JPA.
+ * Запрос строится {@link ProductQuery}, и преобразователь строки читает столбцы по номерам.
+ * Товары по идентификатору читаются вместе с версией строки для ETag ответа.
+ * Время запросов вместе с преобразованием строк пишется в таймер easybot.jdbc.read с тегами category и query
+ *
+ * @param <D> тип DTO товара
+ * @author Ilya Kaltygin
+ */
+public class ProductJdbcReader<D> {
+
+    /**
+     * Имя таймера запросов
+     */
+    public static final String TIMER_NAME = "easybot.jdbc.read";
+
+    /**
+     * Шаблон запросов с именованными параметрами
+     */
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Начало запроса: выбираемые столбцы и таблица
+     */
+    private final String select;
+
+    /**
+     * Преобразователь строки в DTO
+     */
+    private final RowMapper<D> rowMapper;
+
+    /**
+     * Таймер запросов страниц
+     */
+    private final Timer pageTimer;
+
+    /**
+     * Таймер запросов по идентификатору
+     */
+    private final Timer detailTimer;
+
+    /**
+     * Таймер запросов нескольких товаров по списку ключей
+     */
+    private final Timer batchTimer;
+
+    public ProductJdbcReader(NamedParameterJdbcTemplate jdbcTemplate, MeterRegistry meterRegistry, String table,
+                             String attribute, RowMapper<D> rowMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.select = ProductQuery.select(table, attribute);
+        this.rowMapper = rowMapper;
+        this.pageTimer = timer(meterRegistry, table, "page");
+        this.detailTimer = timer(meterRegistry, table, "detail");
+        this.batchTimer = timer(meterRegistry, table, "batch");
+    }
+
+    /**
+     * Получить страницу товаров, удовлетворяющих фильтру и следующих за позицией курсора.
+     * Порядок и курсоры совпадают с {@link KeysetRepositoryImpl#findPage(KeysetPageRequest)}
+     *
+     * @param request параметры запроса страницы
+     * @param filter  параметры фильтрации
+     * @return страница товаров и курсор следующей страницы
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<D> findPage(KeysetPageRequest request, ProductFilter filter) {
+        var query = ProductQuery.page(select, request, filter);
+        ResultSetExtractor<CursorPage<D>> extractor = rs -> extractPage(rs, query);
+        return pageTimer.record(() -> jdbcTemplate.query(query.getSql(), query.getParameters(), extractor));
+    }
+
+    /**
+     * Получить товар с версией по идентификатору
+     *
+     * @param id идентификатор
+     * @return Optional.of(товар с версией) если товар найден, иначе Optional.empty()
+     */
+    @Transactional(readOnly = true)
+    public Optional<Versioned<D>> findById(int id) {
+        RowMapper<Versioned<D>> versionedMapper = this::mapVersioned;
+        return detailTimer.record(() -> jdbcTemplate.query(select + " WHERE id = :id", Map.of("id", id), versionedMapper)
+                .stream()
+                .findFirst());
+    }
+
+    /**
+     * Получить товары с версиями по идентификаторам одним запросом WHERE id IN (...)
+     *
+     * @param ids идентификаторы без повторов
+     * @return найденные товары с версиями по идентификатору, ненайденных идентификаторов в результате нет
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, Versioned<D>> findAllByIds(Collection<Integer> ids) {
+        return findAllBy("id", ids, rs -> rs.getInt(1), this::mapVersioned);
+    }
+
+    /**
+     * Получить товары по серийным номерам одним запросом WHERE serial_number IN (...)
+     *
+     * @param serialNumbers серийные номера без повторов
+     * @return найденные товары по серийному номеру, ненайденных серийных номеров в результате нет
+     */
+    @Transactional(readOnly = true)
+    public Map<String, D> findAllBySerialNumbers(Collection<String> serialNumbers) {
+        return findAllBy("serial_number", serialNumbers, rs -> rs.getString(2), rowMapper);
+    }
+
+    /**
+     * Получить товары, значение столбца которых входит в список, одним запросом
+     *
+     * @param column столбец ключа
+     * @param keys   значения ключа без повторов
+     * @param key    чтение ключа из строки результата
+     * @param mapper преобразователь строки
+     * @param <K>    тип ключа
+     * @param <T>    тип результата по ключу
+     * @return найденные товары по ключу
+     */
+    private <K, T> Map<K, T> findAllBy(String column, Collection<K> keys, KeyReader<K> key, RowMapper<T> mapper) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        ResultSetExtractor<Map<K, T>> extractor = rs -> {
+            var products = new HashMap<K, T>(keys.size() * 2);
+            while (rs.next()) {
+                products.put(key.read(rs), mapper.mapRow(rs, products.size()));
+            }
+            return products;
+        };
+        return batchTimer.record(() -> jdbcTemplate.query(
+                select + " WHERE " + column + " IN (:keys)", Map.of("keys", keys), extractor));
+    }
+
+    /**
+     * Преобразовать строку в DTO вместе с версией строки из последнего столбца
+     *
+     * @param rs     результат запроса
+     * @param rowNum номер строки
+     * @return товар с версией
+     * @throws SQLException при ошибке чтения результата
+     */
+    private Versioned<D> mapVersioned(ResultSet rs, int rowNum) throws SQLException {
+        return new Versioned<>(rowMapper.mapRow(rs, rowNum), rs.getLong(7));
+    }
+
+    /**
+     * Собрать страницу из size + 1 выбранных строк: лишняя строка не преобразуется и означает,
+     * что есть следующая страница. Значения для курсора читаются только из последней строки страницы
+     *
+     * @param rs    результат запроса
+     * @param query запрос страницы
+     * @return страница
+     * @throws SQLException при ошибке чтения результата
+     */
+    private CursorPage<D> extractPage(ResultSet rs, ProductQuery query) throws SQLException {
+        var size = query.getSize();
+        var content = new ArrayList<D>(size);
+        var lastId = 0;
+        Comparable<?> lastValue = null;
+        while (rs.next()) {
+            if (content.size() == size) {
+                return new CursorPage<>(content, query.nextCursor(lastId, lastValue));
+            }
+            content.add(rowMapper.mapRow(rs, content.size()));
+            if (content.size() == size) {
+                lastId = rs.getInt(1);
+                lastValue = (Comparable<?>) rs.getObject(query.sortColumn() + 1);
+            }
+        }
+        return new CursorPage<>(content, null);
+    }
+
+    /**
+     * Зарегистрировать таймер запросов
+     *
+     * @param meterRegistry реестр метрик
+     * @param category      категория товаров
+     * @param query         вид запроса
+     * @return таймер
+     */
+    private static Timer timer(MeterRegistry meterRegistry, String category, String query) {
+        return Timer.builder(TIMER_NAME)
+                .description("Time spent reading products through JDBC, including row mapping")
+                .tag("category", category)
+                .tag("query", query)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Чтение ключа товара из текущей строки результата
+     *
+     * @param <K> тип ключа
+     */
+    @FunctionalInterface
+    private interface KeyReader<K> {
+
+        /**
+         * Прочитать ключ
+         *
+         * @param rs результат запроса
+         * @return ключ
+         * @throws SQLException при ошибке чтения результата
+         */
+        K read(ResultSet rs) throws SQLException;
+    }
+}
@@ -0,0 +1,160 @@
+package ru.easybot.easybottest.repository;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import ru.easybot.easybottest.filter.ProductFilter;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
+import ru.easybot.easybottest.pagination.PageCursor;
+import ru.easybot.easybottest.pagination.SortField;
+
+/**
+ * SQL запрос товаров одной категории с именованными параметрами, общий для чтения через JDBC и R2DBC.
+ * Запрос выбирает столбцы в порядке: id, serial_number, manufacturer, price, quantity, атрибут категории.
+ * Страница выбирается так же, как в {@link KeysetRepositoryImpl}: size + 1 строк после позиции курсора
+ *
+ * @author Ilya Kaltygin
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+final class ProductQuery {
+
+    /**
+     * Текст запроса
+     */
+    private final String sql;
+
+    /**
+     * Значения параметров по именам
+     */
+    private final MapSqlParameterSource parameters;
+
+    /**
+     * Поле сортировки
+     */
+    private final SortField sortField;
+
+    /**
+     * Направление сортировки
+     */
+    private final Sort.Direction direction;
+
+    /**
+     * Размер страницы, 0 если выбираются все строки
+     */
+    private final int size;
+
+    /**
+     * Построить начало запроса: выбираемые столбцы и таблицу. Версия строки выбирается последним столбцом,
+     * чтобы номера остальных столбцов не зависели от нее
+     *
+     * @param table     таблица категории
+     * @param attribute столбец атрибута категории
+     * @return начало запроса без условий
+     */
+    static String select(String table, String attribute) {
+        return String.format("SELECT id, serial_number, manufacturer, price, quantity, %s, version FROM %s", attribute, table);
+    }
+
+    /**
+     * Построить запрос страницы товаров, удовлетворяющих фильтру и следующих за позицией курсора
+     *
+     * @param select  начало запроса
+     * @param request параметры запроса страницы
+     * @param filter  параметры фильтрации
+     * @return запрос size + 1 строк
+     */
+    static ProductQuery page(String select, KeysetPageRequest request, ProductFilter filter) {
+        var after = request.decodeCursor();
+        var sortField = after == null ? request.sortField() : after.getSortField();
+        var direction = after == null ? request.sortDirection() : after.getDirection();
+        var parameters = new MapSqlParameterSource();
+        var conditions = filter.toSqlConditions(parameters);
+        if (after != null) {
+            conditions.add(after(sortField, direction));
+            parameters.addValue("afterId", after.getId());
+            parameters.addValue("afterValue", after.getValue());
+        }
+        var sql = new StringBuilder(select);
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY ").append(orderBy(sortField, direction)).append(" LIMIT :limit");
+        parameters.addValue("limit", request.getSize() + 1);
+        return new ProductQuery(sql.toString(), parameters, sortField, direction, request.getSize());
+    }
+
+    /**
+     * Построить запрос всех товаров, удовлетворяющих фильтру, по возрастанию идентификатора
+     *
+     * @param select начало запроса
+     * @param filter параметры фильтрации
+     * @return запрос всех строк
+     */
+    static ProductQuery all(String select, ProductFilter filter) {
+        var parameters = new MapSqlParameterSource();
+        var conditions = filter.toSqlConditions(parameters);
+        var sql = new StringBuilder(select);
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY ").append(orderBy(SortField.ID, Sort.Direction.ASC));
+        return new ProductQuery(sql.toString(), parameters, SortField.ID, Sort.Direction.ASC, 0);
+    }
+
+    /**
+     * Получить номер столбца поля сортировки среди выбираемых столбцов, начиная с нулевого
+     *
+     * @return номер столбца
+     */
+    int sortColumn() {
+        return switch (sortField) {
+            case PRICE -> 3;
+            case MANUFACTURER -> 2;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Построить курсор следующей страницы по последней строке страницы
+     *
+     * @param lastId    идентификатор последней строки
+     * @param lastValue значение поля сортировки последней строки
+     * @return токен курсора
+     */
+    String nextCursor(int lastId, Comparable<?> lastValue) {
+        return new PageCursor(sortField, direction, lastId, lastValue).encode();
+    }
+
+    /**
+     * Условие "строка идет после курсора" с учетом направления сортировки
+     *
+     * @param sortField поле сортировки
+     * @param direction направление сортировки
+     * @return условие
+     */
+    private static String after(SortField sortField, Sort.Direction direction) {
+        var operator = direction.isAscending() ? ">" : "<";
+        if (sortField == SortField.ID) {
+            return String.format("id %s :afterId", operator);
+        }
+        var column = sortField.getAttribute();
+        return String.format("(%1$s %2$s :afterValue OR (%1$s = :afterValue AND id %2$s :afterId))", column, operator);
+    }
+
+    /**
+     * Сортировка по полю и идентификатору
+     *
+     * @param sortField поле сортировки
+     * @param direction направление сортировки
+     * @return выражение ORDER BY без ключевого слова
+     */
+    private static String orderBy(SortField sortField, Sort.Direction direction) {
+        var order = direction.isAscending() ? " ASC" : " DESC";
+        return sortField == SortField.ID
+                ? "id" + order
+                : sortField.getAttribute() + order + ", id" + order;
+    }
+}
@@ -0,0 +1,79 @@
+package ru.easybot.easybottest.repository;
+
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Атомарное изменение остатков товаров одним запросом UPDATE без предварительного чтения строки.
+ * Списание выполняется только если остатка достаточно (WHERE quantity >= ?), поэтому остаток
+ * не становится отрицательным при любом кол-ве одновременных запросов
+ *
+ * @author Ilya Kaltygin
+ */
+@Repository
+@AllArgsConstructor
+public class StockJdbcRepository {
+
+    /**
+     * Шаблон JDBC
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Списать единицы товара, если их достаточно
+     *
+     * @param table  таблица категории
+     * @param id     идентификатор товара
+     * @param amount кол-во единиц
+     * @return кол-во обновленных строк: 1 если товар найден и остатка достаточно, иначе 0
+     */
+    public int decrement(String table, int id, int amount) {
+        return jdbcTemplate.update(String.format(
+                "UPDATE %s SET quantity = quantity - ?, version = version + 1 WHERE id = ? AND quantity >= ?", table),
+                amount, id, amount);
+    }
+
+    /**
+     * Добавить единицы товара
+     *
+     * @param table  таблица категории
+     * @param id     идентификатор товара
+     * @param amount кол-во единиц
+     * @return кол-во обновленных строк: 1 если товар найден, иначе 0
+     */
+    public int increment(String table, int id, int amount) {
+        return jdbcTemplate.update(String.format(
+                "UPDATE %s SET quantity = quantity + ?, version = version + 1 WHERE id = ?", table),
+                amount, id);
+    }
+
+    /**
+     * Добавить единицы нескольким товарам одним JDBC batch'ем
+     *
+     * @param table   таблица категории
+     * @param amounts кол-во единиц по идентификаторам товаров
+     */
+    public void incrementAll(String table, Map<Integer, Integer> amounts) {
+        jdbcTemplate.batchUpdate(
+                String.format("UPDATE %s SET quantity = quantity + ?, version = version + 1 WHERE id = ?", table),
+                amounts.entrySet().stream()
+                        .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Проверить, существует ли товар
+     *
+     * @param table таблица категории
+     * @param id    идентификатор товара
+     * @return true если товар существует
+     */
+    public boolean exists(String table, int id) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                String.format("SELECT EXISTS (SELECT 1 FROM %s WHERE id = ?)", table), Boolean.class, id));
+    }
+}
@@ -0,0 +1,86 @@
+package ru.easybot.easybottest.search;
+
+import java.util.Arrays;
+
+/**
+ * Список идентификаторов товаров по возрастанию в массиве примитивов без упаковки в Integer.
+ * Идентификаторы новых товаров растут, поэтому добавление обычно дописывает значение в конец
+ *
+ * @author Ilya Kaltygin
+ */
+final class IntPostings {
+
+    /**
+     * Идентификаторы, заполнены первые size элементов
+     */
+    private int[] ids = new int[4];
+
+    /**
+     * Кол-во идентификаторов
+     */
+    private int size;
+
+    /**
+     * Добавить идентификатор, если его еще нет
+     *
+     * @param id идентификатор
+     */
+    void add(int id) {
+        if (size > 0 && ids[size - 1] >= id) {
+            var index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            insert(-index - 1, id);
+        } else {
+            insert(size, id);
+        }
+    }
+
+    /**
+     * Удалить идентификатор, если он есть
+     *
+     * @param id идентификатор
+     */
+    void remove(int id) {
+        var index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Получить идентификатор по номеру
+     *
+     * @param index номер
+     * @return идентификатор
+     */
+    int get(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Получить кол-во идентификаторов
+     *
+     * @return кол-во идентификаторов
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Вставить идентификатор в заданную позицию, увеличив массив при необходимости
+     *
+     * @param index позиция
+     * @param id    идентификатор
+     */
+    private void insert(int index, int id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1));
+        }
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        ids[index] = id;
+        size++;
+    }
+}
@@ -0,0 +1,366 @@
+package ru.easybot.easybottest.search;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+import ru.easybot.easybottest.dto.ManufacturerSuggestionDTO;
+import ru.easybot.easybottest.dto.SearchHitDTO;
+import ru.easybot.easybottest.dto.SearchResultDTO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Индекс поиска товаров одной категории в памяти для подсказок при вводе, без запросов к базе данных.
+ * <p>
+ * Поиск по части серийного номера использует списки идентификаторов товаров по триграммам (тройкам соседних символов)
+ * серийного номера в массивах примитивов: кандидаты берутся из самого короткого списка среди триграмм строки поиска
+ * и проверяются по самому серийному номеру. Строки короче трех символов ищутся как начало серийного номера
+ * в отсортированном словаре. Производители подсказываются по началу названия от самых частых.
+ * Регистр не учитывается.
+ * <p>
+ * Индекс загружается из базы данных при старте приложения и обновляется после коммита транзакций,
+ * создающих и изменяющих товары. Загрузка выполняется под блокировкой записи, поэтому изменение,
+ * закоммиченное во время загрузки, применяется после нее и не перезаписывается прочитанной старой строкой
+ *
+ * @author Ilya Kaltygin
+ */
+public class SearchIndex {
+
+    /**
+     * Максимальное кол-во результатов каждого вида
+     */
+    public static final int MAX_LIMIT = 100;
+
+    /**
+     * Минимальная длина строки поиска по триграммам
+     */
+    private static final int GRAM = 3;
+
+    /**
+     * Категория товаров (имя таблицы)
+     */
+    private final String category;
+
+    /**
+     * Шаблон JDBC запросов для загрузки индекса
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Блокировка: поиск выполняется параллельно, изменения - по одному
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Проиндексированные товары по идентификатору
+     */
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    /**
+     * Идентификаторы товаров по триграммам серийного номера
+     */
+    private final Map<Long, IntPostings> trigrams = new HashMap<>();
+
+    /**
+     * Идентификаторы товаров по ключу "серийный номер в нижнем регистре, \0, идентификатор" для поиска по началу
+     */
+    private final TreeMap<String, Integer> serialNumbers = new TreeMap<>();
+
+    /**
+     * Производители и кол-во их товаров по названию в нижнем регистре
+     */
+    private final TreeMap<String, Manufacturer> manufacturers = new TreeMap<>();
+
+    public SearchIndex(String category, JdbcTemplate jdbcTemplate) {
+        this.category = category;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Заново загрузить индекс из таблицы категории
+     */
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            trigrams.clear();
+            serialNumbers.clear();
+            manufacturers.clear();
+            jdbcTemplate.query("SELECT id, serial_number, manufacturer FROM " + category,
+                    (RowCallbackHandler) rs -> add(rs.getInt(1), new Entry(rs.getString(2), rs.getString(3))));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Добавить или изменить товар в индексе после коммита текущей транзакции, или сразу, если транзакции нет
+     *
+     * @param id           идентификатор товара
+     * @param serialNumber серийный номер, null если не изменился
+     * @param manufacturer производитель, null если не изменился
+     */
+    public void putAfterCommit(int id, String serialNumber, String manufacturer) {
+        if (serialNumber == null && manufacturer == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(id, serialNumber, manufacturer);
+                }
+            });
+        } else {
+            put(id, serialNumber, manufacturer);
+        }
+    }
+
+    /**
+     * Добавить или изменить товар в индексе. Товар без известного серийного номера или производителя не индексируется
+     *
+     * @param id           идентификатор товара
+     * @param serialNumber серийный номер, null если не изменился
+     * @param manufacturer производитель, null если не изменился
+     */
+    public void put(int id, String serialNumber, String manufacturer) {
+        lock.writeLock().lock();
+        try {
+            var old = entries.get(id);
+            var entry = new Entry(
+                    serialNumber != null ? serialNumber : old == null ? null : old.serialNumber,
+                    manufacturer != null ? manufacturer : old == null ? null : old.manufacturer);
+            if (entry.serialNumber == null || entry.manufacturer == null) {
+                return;
+            }
+            if (old != null) {
+                remove(id, old);
+            }
+            add(id, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Найти товары по части серийного номера и производителей по началу названия
+     *
+     * @param query строка поиска
+     * @param limit максимальное кол-во результатов каждого вида, от 1 до {@link #MAX_LIMIT}
+     * @return найденные товары и производители
+     */
+    public SearchResultDTO search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Search query must not be blank");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    String.format("Search limit must be between 1 and %d", MAX_LIMIT));
+        }
+        var normalized = normalize(query.strip());
+        lock.readLock().lock();
+        try {
+            return new SearchResultDTO(findProducts(normalized, limit), findManufacturers(normalized, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Получить категорию товаров
+     *
+     * @return категория
+     */
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * Найти товары, серийный номер которых содержит строку поиска
+     *
+     * @param query строка поиска в нижнем регистре
+     * @param limit максимальное кол-во товаров
+     * @return найденные товары
+     */
+    private List<SearchHitDTO> findProducts(String query, int limit) {
+        var hits = new ArrayList<SearchHitDTO>();
+        if (query.length() < GRAM) {
+            for (var id : serialNumbers.subMap(query, query + Character.MAX_VALUE).values()) {
+                hits.add(hit(id, entries.get(id)));
+                if (hits.size() == limit) {
+                    break;
+                }
+            }
+            return hits;
+        }
+        IntPostings candidates = null;
+        for (var i = 0; i + GRAM <= query.length(); i++) {
+            var postings = trigrams.get(trigram(query, i));
+            if (postings == null) {
+                return hits;
+            }
+            if (candidates == null || postings.size() < candidates.size()) {
+                candidates = postings;
+            }
+        }
+        for (var i = 0; i < candidates.size() && hits.size() < limit; i++) {
+            var id = candidates.get(i);
+            var entry = entries.get(id);
+            if (entry.normalizedSerialNumber.contains(query)) {
+                hits.add(hit(id, entry));
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Найти производителей, название которых начинается со строки поиска, от самых частых
+     *
+     * @param query строка поиска в нижнем регистре
+     * @param limit максимальное кол-во производителей
+     * @return найденные производители
+     */
+    private List<ManufacturerSuggestionDTO> findManufacturers(String query, int limit) {
+        return manufacturers.subMap(query, query + Character.MAX_VALUE).values().stream()
+                .sorted(Comparator.comparingInt((Manufacturer manufacturer) -> manufacturer.count).reversed()
+                        .thenComparing(manufacturer -> manufacturer.name))
+                .limit(limit)
+                .map(manufacturer -> new ManufacturerSuggestionDTO(manufacturer.name, manufacturer.count))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Добавить товар во все структуры индекса
+     *
+     * @param id    идентификатор товара
+     * @param entry проиндексированные поля товара
+     */
+    private void add(int id, Entry entry) {
+        entries.put(id, entry);
+        var serialNumber = entry.normalizedSerialNumber;
+        serialNumbers.put(serialNumber + '\0' + id, id);
+        for (var i = 0; i + GRAM <= serialNumber.length(); i++) {
+            trigrams.computeIfAbsent(trigram(serialNumber, i), key -> new IntPostings()).add(id);
+        }
+        manufacturers.computeIfAbsent(normalize(entry.manufacturer), key -> new Manufacturer(entry.manufacturer))
+                .count++;
+    }
+
+    /**
+     * Удалить товар из всех структур индекса
+     *
+     * @param id    идентификатор товара
+     * @param entry проиндексированные поля товара
+     */
+    private void remove(int id, Entry entry) {
+        entries.remove(id);
+        var serialNumber = entry.normalizedSerialNumber;
+        serialNumbers.remove(serialNumber + '\0' + id);
+        for (var i = 0; i + GRAM <= serialNumber.length(); i++) {
+            var key = trigram(serialNumber, i);
+            var postings = trigrams.get(key);
+            if (postings != null) {
+                postings.remove(id);
+                if (postings.size() == 0) {
+                    trigrams.remove(key);
+                }
+            }
+        }
+        var manufacturerKey = normalize(entry.manufacturer);
+        var manufacturer = manufacturers.get(manufacturerKey);
+        if (manufacturer != null && --manufacturer.count == 0) {
+            manufacturers.remove(manufacturerKey);
+        }
+    }
+
+    /**
+     * Упаковать три символа строки, начиная с заданного, в одно число
+     *
+     * @param value строка
+     * @param start номер первого символа
+     * @return триграмма
+     */
+    private static long trigram(String value, int start) {
+        return (long) value.charAt(start) << 32 | (long) value.charAt(start + 1) << 16 | value.charAt(start + 2);
+    }
+
+    /**
+     * Привести строку к нижнему регистру
+     *
+     * @param value строка
+     * @return строка в нижнем регистре
+     */
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Найденный товар
+     *
+     * @param id    идентификатор товара
+     * @param entry проиндексированные поля товара
+     * @return найденный товар
+     */
+    private static SearchHitDTO hit(int id, Entry entry) {
+        return new SearchHitDTO(id, entry.serialNumber, entry.manufacturer);
+    }
+
+    /**
+     * Проиндексированные поля товара
+     */
+    private static final class Entry {
+
+        /**
+         * Серийный номер
+         */
+        private final String serialNumber;
+
+        /**
+         * Серийный номер в нижнем регистре
+         */
+        private final String normalizedSerialNumber;
+
+        /**
+         * Производитель
+         */
+        private final String manufacturer;
+
+        private Entry(String serialNumber, String manufacturer) {
+            this.serialNumber = serialNumber;
+            this.normalizedSerialNumber = serialNumber == null ? null : normalize(serialNumber);
+            this.manufacturer = manufacturer;
+        }
+    }
+
+    /**
+     * Производитель и кол-во его товаров
+     */
+    private static final class Manufacturer {
+
+        /**
+         * Название в том виде, в котором оно встретилось первым
+         */
+        private final String name;
+
+        /**
+         * Кол-во товаров
+         */
+        private int count;
+
+        private Manufacturer(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.easybot.easybottest.search;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Загрузка индексов поиска всех категорий при старте приложения, когда схема базы данных уже создана
+ *
+ * @author Ilya Kaltygin
+ */
+@Component
+@AllArgsConstructor
+public class SearchIndexLoader {
+
+    /**
+     * Индексы поиска всех категорий
+     */
+    private final List<SearchIndex> indexes;
+
+    /**
+     * Загрузить индексы из базы данных
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        indexes.forEach(SearchIndex::load);
+    }
+}
@@ -0,0 +1,164 @@
+package ru.easybot.easybottest.service;
+
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import ru.easybot.easybottest.dto.BulkItemResultDTO;
+import ru.easybot.easybottest.dto.BulkItemStatus;
+import ru.easybot.easybottest.dto.BulkResultDTO;
+import ru.easybot.easybottest.handler.ProblemException;
+
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Общая логика пакетного создания товаров.
+ * Каждый элемент валидируется отдельно, дубликаты серийных номеров отсеиваются до вставки
+ * одним запросом к базе данных, а остальные элементы сохраняются вместе, что позволяет Hibernate
+ * отправить их в базу данных JDBC batch'ами
+ *
+ * @author Ilya Kaltygin
+ */
+@Component
+@AllArgsConstructor
+public class BulkCreator {
+
+    /**
+     * Максимальное кол-во товаров в одном запросе
+     */
+    public static final int MAX_ITEMS = 1000;
+
+    /**
+     * Валидатор DTO
+     */
+    private final Validator validator;
+
+    /**
+     * Создать товары пакетом
+     *
+     * @param items                 товары
+     * @param serialNumber          получение серийного номера товара
+     * @param existingSerialNumbers поиск уже существующих серийных номеров
+     * @param save                  сохранение валидных товаров, возвращает сохраненные товары в том же порядке
+     * @param <T>                   тип DTO товара
+     * @return результат по каждому товару
+     */
+    public <T> BulkResultDTO<T> create(List<T> items,
+                                       Function<T, String> serialNumber,
+                                       Function<Collection<String>, Set<String>> existingSerialNumbers,
+                                       UnaryOperator<List<T>> save) {
+        return create(items, serialNumber, item -> { }, existingSerialNumbers, save);
+    }
+
+    /**
+     * Создать товары пакетом с дополнительной проверкой каждого товара
+     *
+     * @param items                 товары
+     * @param serialNumber          получение серийного номера товара
+     * @param check                 дополнительная проверка, выбрасывает ResponseStatusException или ProblemException для невалидного товара
+     * @param existingSerialNumbers поиск уже существующих серийных номеров
+     * @param save                  сохранение валидных товаров, возвращает сохраненные товары в том же порядке
+     * @param <T>                   тип DTO товара
+     * @return результат по каждому товару
+     */
+    public <T> BulkResultDTO<T> create(List<T> items,
+                                       Function<T, String> serialNumber,
+                                       Consumer<T> check,
+                                       Function<Collection<String>, Set<String>> existingSerialNumbers,
+                                       UnaryOperator<List<T>> save) {
+        if (items == null || items.isEmpty() || items.size() > MAX_ITEMS) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    String.format("The request must contain from 1 to %d items", MAX_ITEMS));
+        }
+        var results = new ArrayList<BulkItemResultDTO<T>>(items.size());
+        var candidates = new LinkedHashMap<String, Integer>();
+        for (int i = 0; i < items.size(); i++) {
+            var item = items.get(i);
+            var errors = validate(item, check);
+            if (!errors.isEmpty()) {
+                results.add(failed(i, BulkItemStatus.INVALID, errors));
+            } else if (candidates.putIfAbsent(serialNumber.apply(item), i) != null) {
+                results.add(failed(i, BulkItemStatus.DUPLICATE, List.of("Serial number is repeated in the request")));
+            } else {
+                results.add(null);
+            }
+        }
+        var existing = candidates.isEmpty() ? Set.<String>of() : existingSerialNumbers.apply(candidates.keySet());
+        var toSave = new ArrayList<T>(candidates.size());
+        var savedIndexes = new ArrayList<Integer>(candidates.size());
+        candidates.forEach((serial, index) -> {
+            if (existing.contains(serial)) {
+                results.set(index, failed(index, BulkItemStatus.DUPLICATE, List.of("Serial number already exists")));
+            } else {
+                toSave.add(items.get(index));
+                savedIndexes.add(index);
+            }
+        });
+        var saved = toSave.isEmpty() ? List.<T>of() : save.apply(toSave);
+        for (int i = 0; i < saved.size(); i++) {
+            int index = savedIndexes.get(i);
+            results.set(index, BulkItemResultDTO.<T>builder()
+                    .index(index)
+                    .status(BulkItemStatus.CREATED)
+                    .item(saved.get(i))
+                    .build());
+        }
+        return new BulkResultDTO<>(saved.size(), items.size() - saved.size(), results);
+    }
+
+    /**
+     * Провалидировать товар
+     *
+     * @param item  товар
+     * @param check дополнительная проверка
+     * @param <T>   тип DTO товара
+     * @return список ошибок, пустой если товар валиден
+     */
+    private <T> List<String> validate(T item, Consumer<T> check) {
+        if (item == null) {
+            return List.of("Item must be not null");
+        }
+        var violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> String.format("%s: %s. Actual value: %s", v.getPropertyPath(), v.getMessage(), v.getInvalidValue()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        try {
+            check.accept(item);
+        } catch (ResponseStatusException e) {
+            return List.of(e.getReason());
+        } catch (ProblemException e) {
+            return List.of(e.getMessage());
+        }
+        return List.of();
+    }
+
+    /**
+     * Результат для несохраненного товара
+     *
+     * @param index  позиция товара в запросе
+     * @param status результат
+     * @param errors ошибки
+     * @param <T>    тип DTO товара
+     * @return результат
+     */
+    private <T> BulkItemResultDTO<T> failed(int index, BulkItemStatus status, List<String> errors) {
+        return BulkItemResultDTO.<T>builder()
+                .index(index)
+                .status(status)
+                .errors(errors)
+                .build();
+    }
+}
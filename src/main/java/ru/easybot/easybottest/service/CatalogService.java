@@ -0,0 +1,22 @@
+package ru.easybot.easybottest.service;
+
+import ru.easybot.easybottest.dto.CatalogPageDTO;
+import ru.easybot.easybottest.filter.ProductFilter;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
+
+/**
+ * Сервис, описывющий бизнес-логику сводного каталога товаров всех категорий
+ *
+ * @author Ilya Kaltygin
+ */
+public interface CatalogService {
+
+    /**
+     * Получить отфильтрованную страницу сводного каталога
+     *
+     * @param pageRequest параметры запроса страницы
+     * @param filter      параметры фильтрации
+     * @return страница каталога
+     */
+    CatalogPageDTO findAll(KeysetPageRequest pageRequest, ProductFilter filter);
+}
@@ -0,0 +1,337 @@
+package ru.easybot.easybottest.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.modelmapper.ModelMapper;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import ru.easybot.easybottest.config.CatalogProperties;
+import ru.easybot.easybottest.dto.CatalogItemDTO;
+import ru.easybot.easybottest.dto.CatalogPageDTO;
+import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.dto.HddDTO;
+import ru.easybot.easybottest.dto.LaptopDTO;
+import ru.easybot.easybottest.dto.MonitorDTO;
+import ru.easybot.easybottest.filter.ProductFilter;
+import ru.easybot.easybottest.model.Product;
+import ru.easybot.easybottest.pagination.CatalogCursor;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
+import ru.easybot.easybottest.pagination.PageCursor;
+import ru.easybot.easybottest.pagination.SortField;
+import ru.easybot.easybottest.repository.ComputerRepository;
+import ru.easybot.easybottest.repository.HddRepository;
+import ru.easybot.easybottest.repository.KeysetRepository;
+import ru.easybot.easybottest.repository.LaptopRepository;
+import ru.easybot.easybottest.repository.MonitorRepository;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Реализация сервиса сводного каталога.
+ * Страницы всех категорий запрашиваются параллельно в ограниченном пуле потоков, поэтому время ответа
+ * определяется самой медленной категорией, а не суммой всех. Из каждой категории берется не больше size товаров,
+ * после чего они объединяются в порядке (поле сортировки, категория, id), и в ответ попадают первые size.
+ * Запрос категории ограничен отведенным временем и в базе данных, поэтому по его истечении запрос отменяется
+ * и поток пула вместе с соединением освобождаются. Категория, не ответившая за это время, пропускается:
+ * ее позиция в курсоре не меняется, ее товары будут запрошены снова на следующей странице, а страница
+ * помечается как неполная. Товары пропущенной категории, которые по порядку сортировки стояли бы
+ * на неполной странице, придут на следующих страницах
+ *
+ * @author Ilya Kaltygin
+ */
+@Service
+public class CatalogServiceImpl implements CatalogService {
+
+    /**
+     * Категории каталога в порядке, в котором они идут при равных значениях поля сортировки
+     */
+    private final List<Category> categories;
+
+    /**
+     * Преобразователь сущностей в DTO
+     */
+    private final ModelMapper modelMapper;
+
+    /**
+     * Пул потоков для запросов к категориям
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Время, отведенное на ответ одной категории, в миллисекундах
+     */
+    private final long timeoutMillis;
+
+    public CatalogServiceImpl(ComputerRepository computerRepository,
+                              HddRepository hddRepository,
+                              LaptopRepository laptopRepository,
+                              MonitorRepository monitorRepository,
+                              ModelMapper modelMapper,
+                              CatalogProperties properties) {
+        this.categories = List.of(
+                new Category("computer", computerRepository, ComputerDTO.class),
+                new Category("hdd", hddRepository, HddDTO.class),
+                new Category("laptop", laptopRepository, LaptopDTO.class),
+                new Category("monitor", monitorRepository, MonitorDTO.class));
+        this.modelMapper = modelMapper;
+        this.timeoutMillis = properties.getCategoryTimeoutMs();
+        this.executor = new ThreadPoolExecutor(
+                properties.getPoolSize(),
+                properties.getPoolSize(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                new CustomizableThreadFactory("catalog-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Получить отфильтрованную страницу сводного каталога.
+     * Если передан курсор, то сортировка берется из него, а параметры sort и direction игнорируются
+     *
+     * @param pageRequest параметры запроса страницы
+     * @param filter      параметры фильтрации
+     * @return страница каталога
+     */
+    @Override
+    public CatalogPageDTO findAll(KeysetPageRequest pageRequest, ProductFilter filter) {
+        var cursor = pageRequest.getCursor() == null || pageRequest.getCursor().isBlank()
+                ? CatalogCursor.start(pageRequest.sortField(), pageRequest.sortDirection(), categories.size())
+                : CatalogCursor.decode(pageRequest.getCursor(), categories.size());
+        var futures = new ArrayList<CompletableFuture<CursorPage<? extends Product>>>(categories.size());
+        for (int i = 0; i < categories.size(); i++) {
+            futures.add(fetch(categories.get(i), cursor, cursor.getPositions().get(i), pageRequest.getSize(), filter));
+        }
+
+        var pages = new ArrayList<CursorPage<? extends Product>>(categories.size());
+        var timedOut = new ArrayList<String>();
+        var candidates = new ArrayList<Candidate>();
+        for (int i = 0; i < categories.size(); i++) {
+            var page = await(futures.get(i));
+            pages.add(page);
+            if (page == null) {
+                timedOut.add(categories.get(i).getName());
+            } else {
+                for (var product : page.getContent()) {
+                    candidates.add(new Candidate(i, product));
+                }
+            }
+        }
+        candidates.sort(comparator(cursor));
+        var taken = candidates.subList(0, Math.min(pageRequest.getSize(), candidates.size()));
+
+        var nextCursor = next(cursor, pages, taken);
+        return CatalogPageDTO.builder()
+                .content(taken.stream()
+                        .map(candidate -> {
+                            var category = categories.get(candidate.getCategory());
+                            return new CatalogItemDTO(
+                                    category.getName(),
+                                    modelMapper.map(candidate.getProduct(), category.getDtoClass()));
+                        })
+                        .collect(Collectors.toList()))
+                .nextCursor(nextCursor.isExhausted() ? null : nextCursor.encode())
+                .timedOut(timedOut)
+                .partial(!timedOut.isEmpty())
+                .build();
+    }
+
+    /**
+     * Остановить пул потоков при остановке приложения
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Запросить страницу категории в пуле потоков
+     *
+     * @param category категория
+     * @param cursor   курсор каталога
+     * @param position позиция категории в курсоре
+     * @param size     размер страницы
+     * @param filter   параметры фильтрации
+     * @return будущая страница категории
+     */
+    private CompletableFuture<CursorPage<? extends Product>> fetch(Category category, CatalogCursor cursor,
+                                                                   String position, int size, ProductFilter filter) {
+        if (CatalogCursor.EXHAUSTED.equals(position)) {
+            return CompletableFuture.completedFuture(new CursorPage<>(List.of(), null));
+        }
+        var request = new KeysetPageRequest(
+                position.isEmpty() ? null : position,
+                size,
+                cursor.getSortField().getAttribute(),
+                cursor.getDirection().name());
+        try {
+            return CompletableFuture
+                    .<CursorPage<? extends Product>>supplyAsync(
+                            () -> findPage(category.getRepository(), request, filter, timeoutMillis), executor)
+                    .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "The catalog is overloaded, try again later");
+        }
+    }
+
+    /**
+     * Получить страницу категории
+     *
+     * @param repository    хранилище категории
+     * @param request       параметры запроса страницы
+     * @param filter        параметры фильтрации
+     * @param timeoutMillis время выполнения запроса в миллисекундах
+     * @param <T>           тип сущности товара
+     * @return страница категории
+     */
+    private static <T extends Product> CursorPage<T> findPage(KeysetRepository<T, Integer> repository,
+                                                              KeysetPageRequest request,
+                                                              ProductFilter filter,
+                                                              long timeoutMillis) {
+        return repository.findPage(request, filter.toSpecification(), timeoutMillis);
+    }
+
+    /**
+     * Дождаться страницы категории
+     *
+     * @param future будущая страница категории
+     * @return страница категории или null, если категория не ответила за отведенное время
+     * или база данных отменила ее запрос по таймауту
+     */
+    private CursorPage<? extends Product> await(CompletableFuture<CursorPage<? extends Product>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException || e.getCause() instanceof QueryTimeoutException) {
+                return null;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Порядок товаров каталога: по полю сортировки, затем по категории, затем по идентификатору.
+     * Внутри каждой категории он совпадает с порядком постраничного просмотра категории (поле сортировки, id)
+     *
+     * @param cursor курсор каталога
+     * @return порядок товаров
+     */
+    private Comparator<Candidate> comparator(CatalogCursor cursor) {
+        Comparator<Candidate> bySortValue = Comparator.comparing(
+                candidate -> sortValue(cursor.getSortField(), candidate.getProduct()));
+        Comparator<Candidate> byId = Comparator.comparingInt(candidate -> candidate.getProduct().getId());
+        if (!cursor.getDirection().isAscending()) {
+            bySortValue = bySortValue.reversed();
+            byId = byId.reversed();
+        }
+        return bySortValue
+                .thenComparingInt(Candidate::getCategory)
+                .thenComparing(byId);
+    }
+
+    /**
+     * Получить значение поля сортировки товара
+     *
+     * @param sortField поле сортировки
+     * @param product   товар
+     * @return значение поля сортировки
+     */
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> sortValue(SortField sortField, Product product) {
+        return (Comparable<Object>) (Comparable<?>) switch (sortField) {
+            case PRICE -> product.getPrice();
+            case MANUFACTURER -> product.getManufacturer();
+            default -> product.getId();
+        };
+    }
+
+    /**
+     * Построить курсор следующей страницы. Позиция категории сдвигается на последний отданный товар категории;
+     * категория считается просмотренной до конца, если у нее больше нет страниц и отданы все полученные товары
+     *
+     * @param cursor курсор текущей страницы
+     * @param pages  страницы категорий, null для не ответивших категорий
+     * @param taken  отданные товары
+     * @return курсор следующей страницы
+     */
+    private CatalogCursor next(CatalogCursor cursor, List<CursorPage<? extends Product>> pages, List<Candidate> taken) {
+        var positions = new ArrayList<>(cursor.getPositions());
+        var takenCount = new int[categories.size()];
+        for (var candidate : taken) {
+            var category = candidate.getCategory();
+            takenCount[category]++;
+            var product = candidate.getProduct();
+            positions.set(category, new PageCursor(
+                    cursor.getSortField(),
+                    cursor.getDirection(),
+                    product.getId(),
+                    sortValue(cursor.getSortField(), product)).encode());
+        }
+        for (int i = 0; i < categories.size(); i++) {
+            var page = pages.get(i);
+            if (page != null && page.getNextCursor() == null && takenCount[i] == page.getContent().size()) {
+                positions.set(i, CatalogCursor.EXHAUSTED);
+            }
+        }
+        return new CatalogCursor(cursor.getSortField(), cursor.getDirection(), positions);
+    }
+
+    /**
+     * Категория каталога
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class Category {
+
+        /**
+         * Имя категории
+         */
+        private final String name;
+
+        /**
+         * Хранилище товаров категории
+         */
+        private final KeysetRepository<? extends Product, Integer> repository;
+
+        /**
+         * Класс DTO товаров категории
+         */
+        private final Class<?> dtoClass;
+    }
+
+    /**
+     * Товар-кандидат на попадание в страницу каталога
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class Candidate {
+
+        /**
+         * Индекс категории товара
+         */
+        private final int category;
+
+        /**
+         * Товар
+         */
+        private final Product product;
+    }
+}
@@ -1,9 +1,20 @@
 package ru.easybot.easybottest.service;
 
+import ru.easybot.easybottest.cache.Versioned;
+import ru.easybot.easybottest.dto.BulkResultDTO;
 import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.dto.ImportResultDTO;
+import ru.easybot.easybottest.dto.MultiGetResultDTO;
+import ru.easybot.easybottest.dto.SearchResultDTO;
+import ru.easybot.easybottest.filter.ComputerFilter;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Сервис, описывющий бизнес-логику по работе с компьютерами
@@ -13,19 +24,47 @@ import java.util.Optional;
 public interface ComputerService {
 
     /**
-     * Получить список всех компьютеров
+     * Получить отфильтрованную страницу списка компьютеров
      *
-     * @return список компьютеров
+     * @param pageRequest параметры запроса страницы
+     * @param filter      параметры фильтрации
+     * @return страница компьютеров
      */
-    List<ComputerDTO> findAll();
+    CursorPage<ComputerDTO> findAll(KeysetPageRequest pageRequest, ComputerFilter filter);
 
     /**
-     * Получить компьютер по идентификатору
+     * Получить отфильтрованную страницу списка компьютеров, содержащую только заданные поля
+     *
+     * @param pageRequest параметры запроса страницы
+     * @param filter      параметры фильтрации
+     * @param fields      список полей через запятую
+     * @return страница значений полей компьютеров
+     */
+    CursorPage<Map<String, Object>> findAll(KeysetPageRequest pageRequest, ComputerFilter filter, String fields);
+
+    /**
+     * Получить компьютер вместе с версией строки по идентификатору
      *
      * @param id идентификатор компьютера
      * @return Optional.of(computer) если компьютер по заданному идентификатору найден, иначе Optional.empty()
      */
-    Optional<ComputerDTO> findById(int id);
+    Optional<Versioned<ComputerDTO>> findById(int id);
+
+    /**
+     * Получить несколько компьютеров по идентификаторам или по серийным номерам (передается ровно один из списков)
+     *
+     * @param ids           идентификаторы
+     * @param serialNumbers серийные номера
+     * @return результат по каждому ключу в порядке запроса, включая ненайденные
+     */
+    MultiGetResultDTO<ComputerDTO> findMany(List<Integer> ids, List<String> serialNumbers);
+
+    /**
+     * Получить версию категории компьютеров, которая меняется при каждом создании или изменении компьютера
+     *
+     * @return версия категории
+     */
+    long getCategoryVersion();
 
     /**
      * Сохранить компьютер
@@ -35,6 +74,14 @@ public interface ComputerService {
      */
     ComputerDTO create(ComputerDTO computer);
 
+    /**
+     * Сохранить компьютеры пакетом
+     *
+     * @param computers компьютеры
+     * @return результат сохранения по каждому элементу
+     */
+    BulkResultDTO<ComputerDTO> createAll(List<ComputerDTO> computers);
+
     /**
      * Обновить компьютер
      *
@@ -43,4 +90,37 @@ public interface ComputerService {
      * @return true если компьютер обновлен успешно, иначе false
      */
     boolean update(ComputerDTO computer, int id);
+
+    /**
+     * Частично обновить компьютер: изменяются только переданные поля
+     *
+     * @param fields новые значения полей по их именам
+     * @param id     идентификатор компьютера
+     * @return true если компьютер обновлен успешно, иначе false
+     */
+    boolean patch(Map<String, Object> fields, int id);
+
+    /**
+     * Выгрузить все компьютеры, передавая их по одному получателю в порядке возрастания идентификатора
+     *
+     * @param consumer получатель компьютеров
+     */
+    void export(Consumer<ComputerDTO> consumer);
+
+    /**
+     * Импортировать компьютеры из CSV файла, не загружая его в память
+     *
+     * @param input содержимое CSV файла с заголовком из имен полей
+     * @return результат импорта
+     */
+    ImportResultDTO importCsv(InputStream input);
+
+    /**
+     * Найти компьютеры по части серийного номера и производителей по началу названия
+     *
+     * @param query строка поиска
+     * @param limit максимальное кол-во результатов каждого вида
+     * @return найденные компьютеры и производители
+     */
+    SearchResultDTO search(String query, int limit);
 }
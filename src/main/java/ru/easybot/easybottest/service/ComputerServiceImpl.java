@@ -2,17 +2,34 @@ package ru.easybot.easybottest.service;
 
 import lombok.AllArgsConstructor;
 import org.modelmapper.ModelMapper;
-import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.transaction.annotation.Transactional;
+import ru.easybot.easybottest.bloom.SerialNumberFilter;
+import ru.easybot.easybottest.cache.DetailCache;
+import ru.easybot.easybottest.cache.Versioned;
+import ru.easybot.easybottest.csv.CsvImporter;
+import ru.easybot.easybottest.dto.BulkResultDTO;
 import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.dto.ImportResultDTO;
+import ru.easybot.easybottest.dto.MultiGetResultDTO;
+import ru.easybot.easybottest.dto.SearchResultDTO;
+import ru.easybot.easybottest.filter.ComputerFilter;
 import ru.easybot.easybottest.model.Computer;
-import ru.easybot.easybottest.model.Type;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
+import ru.easybot.easybottest.projection.FieldSelection;
+import ru.easybot.easybottest.repository.CategoryVersionRepository;
 import ru.easybot.easybottest.repository.ComputerRepository;
+import ru.easybot.easybottest.repository.ProductJdbcReader;
+import ru.easybot.easybottest.search.SearchIndex;
 
-import java.util.Arrays;
+import javax.persistence.EntityManager;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -24,81 +41,286 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class ComputerServiceImpl implements ComputerService {
 
+    /**
+     * Категория товаров в таблице версий категорий
+     */
+    private static final String CATEGORY = "computer";
+
     /**
      * Хранилище компьютеров
      */
     private final ComputerRepository computerRepository;
 
     /**
-     * Получить список всех компьютеров
+     * Преобразователь сущностей в DTO и обратно
+     */
+    private final ModelMapper modelMapper;
+
+    /**
+     * Менеджер сущностей
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * Пакетное создание товаров
+     */
+    private final BulkCreator bulkCreator;
+
+    /**
+     * Частичное обновление товаров
+     */
+    private final PartialUpdater partialUpdater;
+
+    /**
+     * Кэш компьютеров по идентификатору
+     */
+    private final DetailCache<Integer, Versioned<ComputerDTO>> computerCache;
+
+    /**
+     * Хранилище версий категорий товаров
+     */
+    private final CategoryVersionRepository categoryVersionRepository;
+
+    /**
+     * Чтение компьютеров через JDBC
+     */
+    private final ProductJdbcReader<ComputerDTO> computerReader;
+
+    /**
+     * Импорт товаров из CSV
+     */
+    private final CsvImporter csvImporter;
+
+    /**
+     * Индекс поиска компьютеров
+     */
+    private final SearchIndex computerIndex;
+
+    /**
+     * Фильтр серийных номеров компьютеров
+     */
+    private final SerialNumberFilter computerSerialNumbers;
+
+    /**
+     * Сервис изменения остатков
+     */
+    private final StockService stockService;
+
+    /**
+     * Получить отфильтрованную страницу списка компьютеров. Строки читаются через JDBC сразу в DTO
+     *
+     * @param pageRequest параметры запроса страницы
+     * @param filter      параметры фильтрации
+     * @return страница компьютеров
+     */
+    @Override
+    public CursorPage<ComputerDTO> findAll(KeysetPageRequest pageRequest, ComputerFilter filter) {
+        return computerReader.findPage(pageRequest, filter);
+    }
+
+    /**
+     * Получить отфильтрованную страницу списка компьютеров, содержащую только заданные поля.
+     * Выбираются только столбцы заданных полей, сущности не создаются и не преобразуются
      *
-     * @return список компьютеров
+     * @param pageRequest параметры запроса страницы
+     * @param filter      параметры фильтрации
+     * @param fields      список полей через запятую
+     * @return страница значений полей компьютеров
      */
     @Override
-    public List<ComputerDTO> findAll() {
-        return computerRepository.findAll().stream()
-                .map(computer -> new ModelMapper().map(computer, ComputerDTO.class))
-                .collect(Collectors.toList());
+    public CursorPage<Map<String, Object>> findAll(KeysetPageRequest pageRequest, ComputerFilter filter, String fields) {
+        return computerRepository.findPage(pageRequest, filter.toSpecification(), FieldSelection.parse(fields, ComputerDTO.class));
     }
 
     /**
-     * Получить компьютер по идентификатору
+     * Получить компьютер по идентификатору. Найденные товары кэшируются вместе с версией строки до их изменения,
+     * промах кэша читается через JDBC сразу в DTO
      *
      * @param id идентификатор компьютера
      * @return Optional.of(computer) если компьютер по заданному идентификатору найден, иначе Optional.empty()
      */
     @Override
-    public Optional<ComputerDTO> findById(int id) {
-        return computerRepository.findById(id)
-                .map(computer -> new ModelMapper().map(computer, ComputerDTO.class));
+    public Optional<Versioned<ComputerDTO>> findById(int id) {
+        return computerCache.get(id, computerReader::findById);
+    }
+
+    /**
+     * Получить несколько компьютеров по идентификаторам или по серийным номерам.
+     * Идентификаторы сначала ищутся в кэше, а отсутствующие в нем читаются одним запросом WHERE id IN (...)
+     * и кладутся в кэш. Серийные номера читаются одним запросом WHERE serial_number IN (...)
+     *
+     * @param ids           идентификаторы
+     * @param serialNumbers серийные номера
+     * @return результат по каждому ключу в порядке запроса, включая ненайденные
+     */
+    @Override
+    public MultiGetResultDTO<ComputerDTO> findMany(List<Integer> ids, List<String> serialNumbers) {
+        return MultiGet.find(ids, serialNumbers,
+                keys -> Versioned.values(computerCache.getAll(keys, computerReader::findAllByIds)),
+                computerReader::findAllBySerialNumbers);
+    }
+
+    /**
+     * Получить версию категории компьютеров
+     *
+     * @return версия категории
+     */
+    @Override
+    public long getCategoryVersion() {
+        return categoryVersionRepository.findVersion(CATEGORY);
     }
 
     /**
-     * Сохранить компьютер
+     * Выгрузить все компьютеры, передавая их по одному получателю в порядке возрастания идентификатора.
+     * Каждая сущность отсоединяется от контекста персистентности сразу после преобразования,
+     * поэтому потребление памяти не зависит от размера таблицы
+     *
+     * @param consumer получатель компьютеров
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void export(Consumer<ComputerDTO> consumer) {
+        try (var computers = computerRepository.streamAllByOrderByIdAsc()) {
+            computers.forEach(computer -> {
+                consumer.accept(modelMapper.map(computer, ComputerDTO.class));
+                entityManager.detach(computer);
+            });
+        }
+    }
+
+    /**
+     * Импортировать компьютеры из CSV файла. Строки валидируются параллельно теми же ограничениями, что и ComputerDTO и проверкой типа,
+     * и записываются JDBC batch'ами, ошибки записываются в отчет.
+     * Сохраненные товары добавляются в индекс поиска и фильтр серийных номеров после коммита каждой порции
+     *
+     * @param input содержимое CSV файла с заголовком из имен полей
+     * @return результат импорта
+     */
+    @Override
+    public ImportResultDTO importCsv(InputStream input) {
+        return csvImporter.importCsv(input, CATEGORY, ComputerDTO.class, ComputerTypeValidator::check, (computerId, computer) -> {
+            computerIndex.put(computerId, computer.getSerialNumber(), computer.getManufacturer());
+            computerSerialNumbers.put(computer.getSerialNumber());
+        });
+    }
+
+    /**
+     * Найти компьютеры по части серийного номера и производителей по началу названия в индексе поиска,
+     * без запросов к базе данных
+     *
+     * @param query строка поиска
+     * @param limit максимальное кол-во результатов каждого вида
+     * @return найденные компьютеры и производители
+     */
+    @Override
+    public SearchResultDTO search(String query, int limit) {
+        return computerIndex.search(query, limit);
+    }
+
+    /**
+     * Сохранить компьютер. Дубликат серийного номера отклоняется до INSERT: серийный номер, которого точно нет
+     * в фильтре, не проверяется, а возможный дубликат проверяется запросом по уникальному индексу
      *
      * @param computer компьютер
      * @return сохраненный компьютер
      */
     @Override
+    @Transactional
     public ComputerDTO create(ComputerDTO computer) {
-        checkComputerType(computer);
-        var computerFromDTO = new ModelMapper().map(computer, Computer.class);
+        ComputerTypeValidator.check(computer);
+        computerSerialNumbers.checkNew(computer.getSerialNumber(), computerRepository::findExistingSerialNumbers);
+        var computerFromDTO = modelMapper.map(computer, Computer.class);
         var savedComputer = computerRepository.save(computerFromDTO);
-        return new ModelMapper().map(savedComputer, ComputerDTO.class);
+        computerCache.invalidateAfterCommit(savedComputer.getId());
+        computerIndex.putAfterCommit(savedComputer.getId(), savedComputer.getSerialNumber(), savedComputer.getManufacturer());
+        computerSerialNumbers.putAfterCommit(savedComputer.getSerialNumber());
+        categoryVersionRepository.increment(CATEGORY);
+        return modelMapper.map(savedComputer, ComputerDTO.class);
     }
 
     /**
-     * Обновить компьютер
+     * Сохранить компьютеры пакетом. Невалидные элементы и дубликаты серийных номеров пропускаются,
+     * остальные сохраняются в одной транзакции JDBC batch'ами
+     *
+     * @param computers компьютеры
+     * @return результат сохранения по каждому элементу
+     */
+    @Override
+    @Transactional
+    public BulkResultDTO<ComputerDTO> createAll(List<ComputerDTO> computers) {
+        var result = bulkCreator.create(
+                computers,
+                ComputerDTO::getSerialNumber,
+                ComputerTypeValidator::check,
+                serialNumbers -> computerSerialNumbers.findExisting(serialNumbers, computerRepository::findExistingSerialNumbers),
+                valid -> computerRepository.saveAll(valid.stream()
+                                .map(computer -> modelMapper.map(computer, Computer.class))
+                                .collect(Collectors.toList()))
+                        .stream()
+                        .map(computer -> {
+                            computerIndex.putAfterCommit(computer.getId(), computer.getSerialNumber(), computer.getManufacturer());
+                            computerSerialNumbers.putAfterCommit(computer.getSerialNumber());
+                            return modelMapper.map(computer, ComputerDTO.class);
+                        })
+                        .collect(Collectors.toList()));
+        if (result.getCreated() > 0) {
+            categoryVersionRepository.increment(CATEGORY);
+        }
+        return result;
+    }
+
+    /**
+     * Обновить компьютер одним запросом UPDATE. Результат определяется по кол-ву обновленных строк,
+     * поэтому между проверкой существования и записью нет гонки. Остаток записывается абсолютным значением,
+     * поэтому резерв остатка закрывается
      *
      * @param computer компьютер
      * @param id       идентификатор компьютера
      * @return true если компьютер обновлен успешно, иначе false
      */
     @Override
+    @Transactional
     public boolean update(ComputerDTO computer, int id) {
-        checkComputerType(computer);
-        var computerFromDTO = new ModelMapper().map(computer, Computer.class);
-        computerFromDTO.setId(id);
-        boolean result = false;
-        if (computerRepository.existsById(id)) {
-            computerRepository.save(computerFromDTO);
-            result = true;
+        ComputerTypeValidator.check(computer);
+        stockService.discardReserve(CATEGORY, id);
+        var computerFromDTO = modelMapper.map(computer, Computer.class);
+        var updated = computerRepository.updateById(computerFromDTO, id) > 0;
+        if (updated) {
+            computerCache.invalidateAfterCommit(id);
+            computerIndex.putAfterCommit(id, computer.getSerialNumber(), computer.getManufacturer());
+            computerSerialNumbers.putAfterCommit(computer.getSerialNumber());
+            categoryVersionRepository.increment(CATEGORY);
         }
-        return result;
+        return updated;
     }
 
     /**
-     *   Проверкить тип компьютера. Если тип компьютера не совпадает с одним из типов (ONOBLOCK, NETTOP, DESKTOP),
-     *   то выбрасывается исключение  ResponseStatusException
-     * @param computer компютер
+     * Частично обновить компьютер одним запросом UPDATE, который записывает только переданные поля.
+     * Валидируются также только переданные поля. Если передан остаток, то резерв остатка закрывается
+     *
+     * @param fields новые значения полей по их именам
+     * @param id     идентификатор компьютера
+     * @return true если компьютер обновлен успешно, иначе false
      */
-    private void checkComputerType(ComputerDTO computer) {
-        var count = Arrays.stream(Type.values()).filter(type -> type.name().equals(computer.getType())).count();
-        if (count == 0) {
-            throw new ResponseStatusException(
-                    HttpStatus.BAD_REQUEST,
-                    String.format("The computer must be of type: MONOBLOCK, NETTOP, DESKTOP. But you indicated %s",
-                            computer.getType()));
+    @Override
+    @Transactional
+    public boolean patch(Map<String, Object> fields, int id) {
+        if (fields.containsKey("quantity")) {
+            stockService.discardReserve(CATEGORY, id);
+        }
+        var updated = partialUpdater.update(id, fields, ComputerDTO.class, Computer.class, computer -> {
+            if (fields.containsKey("type")) {
+                ComputerTypeValidator.check(computer);
+            }
+        }) > 0;
+        if (updated) {
+            computerCache.invalidateAfterCommit(id);
+            computerIndex.putAfterCommit(id,
+                    Objects.toString(fields.get("serialNumber"), null),
+                    Objects.toString(fields.get("manufacturer"), null));
+            computerSerialNumbers.putAfterCommit(Objects.toString(fields.get("serialNumber"), null));
+            categoryVersionRepository.increment(CATEGORY);
         }
+        return updated;
     }
 }
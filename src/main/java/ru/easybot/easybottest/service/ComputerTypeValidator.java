@@ -0,0 +1,47 @@
+package ru.easybot.easybottest.service;
+
+import org.springframework.http.HttpStatus;
+import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.handler.Problem;
+import ru.easybot.easybottest.model.Type;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Проверка типа компьютера. Не зависит от хранилищ и кэшей, поэтому используется и сервисом,
+ * и бенчмарком без создания сервиса
+ *
+ * @author Ilya Kaltygin
+ */
+final class ComputerTypeValidator {
+
+    /**
+     * Имена типов компьютеров
+     */
+    private static final Set<String> TYPES = Arrays.stream(Type.values())
+            .map(Type::name)
+            .collect(Collectors.toUnmodifiableSet());
+
+    /**
+     * Ответ на неверный тип компьютера
+     */
+    private static final Problem INVALID_TYPE = Problem.of(
+            HttpStatus.BAD_REQUEST, "The computer must be of type: MONOBLOCK, NETTOP, DESKTOP");
+
+    private ComputerTypeValidator() {
+    }
+
+    /**
+     * Проверить тип компьютера. Если тип компьютера не совпадает с одним из типов (MONOBLOCK, NETTOP, DESKTOP),
+     * то выбрасывается заранее созданное исключение ProblemException со статусом BAD_REQUEST
+     *
+     * @param computer компьютер
+     */
+    static void check(ComputerDTO computer) {
+        if (computer.getType() == null || !TYPES.contains(computer.getType())) {
+            throw INVALID_TYPE.getException();
+        }
+    }
+}
@@ -1,9 +1,20 @@
 package ru.easybot.easybottest.service;
 
+import ru.easybot.easybottest.cache.Versioned;
+import ru.easybot.easybottest.dto.BulkResultDTO;
 import ru.easybot.easybottest.dto.HddDTO;
+import ru.easybot.easybottest.dto.ImportResultDTO;
+import ru.easybot.easybottest.dto.MultiGetResultDTO;
+import ru.easybot.easybottest.dto.SearchResultDTO;
+import ru.easybot.easybottest.filter.HddFilter;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Сервис, описывющий бизнес-логику по работе с жесткими дисками
@@ -13,19 +24,47 @@ import java.util.Optional;
 public interface HddService {
 
     /**
-     * Получить список всех жестких дисков
+     * Получить отфильтрованную страницу списка жестких дисков
      *
-     * @return список жестких дисков
+     * @param pageRequest параметры запроса страницы
+     * @param filter      параметры фильтрации
+     * @return страница жестких дисков
      */
-    List<HddDTO> findAll();
+    CursorPage<HddDTO> findAll(KeysetPageRequest pageRequest, HddFilter filter);
 
     /**
-     * Получить жесткий диск по идентификатору
+     * Получить отфильтрованную страницу списка жестких дисков, содержащую только заданные поля
+     *
+     * @param pageRequest параметры запроса страницы
+     * @param filter      параметры фильтрации
+     * @param fields      список полей через запятую
+     * @return страница значений полей жестких дисков
+     */
+    CursorPage<Map<String, Object>> findAll(KeysetPageRequest pageRequest, HddFilter filter, String fields);
+
+    /**
+     * Получить жесткий диск вместе с версией строки по идентификатору
      *
      * @param id идентификатор жесткого диска
      * @return Optional.of(hdd) если жесткий диск по заданному идентификатору найден, иначе Optional.empty()
      */
-    Optional<HddDTO> findById(int id);
+    Optional<Versioned<HddDTO>> findById(int id);
+
+    /**
+     * Получить несколько жестких дисков по идентификаторам или по серийным номерам (передается ровно один из списков)
+     *
+     * @param ids           идентификаторы
+     * @param serialNumbers серийные номера
+     * @return результат по каждому ключу в порядке запроса, включая ненайденные
+     */
+    MultiGetResultDTO<HddDTO> findMany(List<Integer> ids, List<String> serialNumbers);
+
+    /**
+     * Получить версию категории жестких дисков, которая меняется при каждом создании или изменении жесткого диска
+     *
+     * @return версия категории
+     */
+    long getCategoryVersion();
 
     /**
      * Сохранить жесткий диск
@@ -35,6 +74,14 @@ public interface HddService {
      */
     HddDTO create(HddDTO hddDTO);
 
+    /**
+     * Сохранить жесткие диски пакетом
+     *
+     * @param hdds жесткие диски
+     * @return результат сохранения по каждому элементу
+     */
+    BulkResultDTO<HddDTO> createAll(List<HddDTO> hdds);
+
     /**
      * Обновить жесткий диск
      *
@@ -43,4 +90,37 @@ public interface HddService {
      * @return true если жесткий диск обновлен успешно, иначе false
      */
     boolean update(HddDTO hddDTO, int id);
+
+    /**
+     * Частично обновить жесткий диск: изменяются только переданные поля
+     *
+     * @param fields новые значения полей по их именам
+     * @param id     идентификатор жесткого диска
+     * @return true если жесткий диск обновлен успешно, иначе false
+     */
+    boolean patch(Map<String, Object> fields, int id);
+
+    /**
+     * Выгрузить все жесткие диски, передавая их по одному получателю в порядке возрастания идентификатора
+     *
+     * @param consumer получатель жестких дисков
+     */
+    void export(Consumer<HddDTO> consumer);
+
+    /**
+     * Импортировать жесткие диски из CSV файла, не загружая его в память
+     *
+     * @param input содержимое CSV файла с заголовком из имен полей
+     * @return результат импорта
+     */
+    ImportResultDTO importCsv(InputStream input);
+
+    /**
+     * Найти жесткие диски по части серийного номера и производителей по началу названия
+     *
+     * @param query строка поиска
+     * @param limit максимальное кол-во результатов каждого вида
+     * @return найденные жесткие диски и производители
+     */
+    SearchResultDTO search(String query, int limit);
 }
@@ -3,12 +3,33 @@ package ru.easybot.easybottest.service;
 import lombok.AllArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.easybot.easybottest.bloom.SerialNumberFilter;
+import ru.easybot.easybottest.cache.DetailCache;
+import ru.easybot.easybottest.cache.Versioned;
+import ru.easybot.easybottest.csv.CsvImporter;
+import ru.easybot.easybottest.dto.BulkResultDTO;
 import ru.easybot.easybottest.dto.HddDTO;
+import ru.easybot.easybottest.dto.ImportResultDTO;
+import ru.easybot.easybottest.dto.MultiGetResultDTO;
+import ru.easybot.easybottest.dto.SearchResultDTO;
+import ru.easybot.easybottest.filter.HddFilter;
 import ru.easybot.easybottest.model.Hdd;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
+import ru.easybot.easybottest.projection.FieldSelection;
+import ru.easybot.easybottest.repository.CategoryVersionRepository;
 import ru.easybot.easybottest.repository.HddRepository;
+import ru.easybot.easybottest.repository.ProductJdbcReader;
+import ru.easybot.easybottest.search.SearchIndex;
 
+import javax.persistence.EntityManager;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -20,64 +41,279 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class HddServiceImpl implements HddService {
 
+    /**
+     * Категория товаров в таблице версий категорий
+     */
+    private static final String CATEGORY = "hdd";
+
     /**
      * Хранилище жестких дисков
      */
     private final HddRepository hddRepository;
 
     /**
-     * Получить список всех жестких дисков
+     * Преобразователь сущностей в DTO и обратно
+     */
+    private final ModelMapper modelMapper;
+
+    /**
+     * Менеджер сущностей
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * Пакетное создание товаров
+     */
+    private final BulkCreator bulkCreator;
+
+    /**
+     * Частичное обновление товаров
+     */
+    private final PartialUpdater partialUpdater;
+
+    /**
+     * Кэш жестких дисков по идентификатору
+     */
+    private final DetailCache<Integer, Versioned<HddDTO>> hddCache;
+
+    /**
+     * Хранилище версий категорий товаров
+     */
+    private final CategoryVersionRepository categoryVersionRepository;
+
+    /**
+     * Чтение жестких дисков через JDBC
+     */
+    private final ProductJdbcReader<HddDTO> hddReader;
+
+    /**
+     * Импорт товаров из CSV
+     */
+    private final CsvImporter csvImporter;
+
+    /**
+     * Индекс поиска жестких дисков
+     */
+    private final SearchIndex hddIndex;
+
+    /**
+     * Фильтр серийных номеров жестких дисков
+     */
+    private final SerialNumberFilter hddSerialNumbers;
+
+    /**
+     * Сервис изменения остатков
+     */
+    private final StockService stockService;
+
+    /**
+     * Получить отфильтрованную страницу списка жестких дисков. Строки читаются через JDBC сразу в DTO
      *
-     * @return список жестких дисков
+     * @param pageRequest параметры запроса страницы
+     * @param filter      параметры фильтрации
+     * @return страница жестких дисков
      */
     @Override
-    public List<HddDTO> findAll() {
-        return hddRepository.findAll().stream()
-                .map(hdd -> new ModelMapper().map(hdd, HddDTO.class))
-                .collect(Collectors.toList());
+    public CursorPage<HddDTO> findAll(KeysetPageRequest pageRequest, HddFilter filter) {
+        return hddReader.findPage(pageRequest, filter);
     }
 
     /**
-     * Получить жесткий диск по идентификатору
+     * Получить отфильтрованную страницу списка жестких дисков, содержащую только заданные поля.
+     * Выбираются только столбцы заданных полей, сущности не создаются и не преобразуются
+     *
+     * @param pageRequest параметры запроса страницы
+     * @param filter      параметры фильтрации
+     * @param fields      список полей через запятую
+     * @return страница значений полей жестких дисков
+     */
+    @Override
+    public CursorPage<Map<String, Object>> findAll(KeysetPageRequest pageRequest, HddFilter filter, String fields) {
+        return hddRepository.findPage(pageRequest, filter.toSpecification(), FieldSelection.parse(fields, HddDTO.class));
+    }
+
+    /**
+     * Получить жесткий диск по идентификатору. Найденные товары кэшируются вместе с версией строки до их изменения,
+     * промах кэша читается через JDBC сразу в DTO
      *
      * @param id идентификатор жесткого диска
      * @return Optional.of(hdd) если жесткий диск по заданному идентификатору найден, иначе Optional.empty()
      */
     @Override
-    public Optional<HddDTO> findById(int id) {
-        return hddRepository.findById(id)
-                .map(hdd -> new ModelMapper().map(hdd, HddDTO.class));
+    public Optional<Versioned<HddDTO>> findById(int id) {
+        return hddCache.get(id, hddReader::findById);
+    }
+
+    /**
+     * Получить несколько жестких дисков по идентификаторам или по серийным номерам.
+     * Идентификаторы сначала ищутся в кэше, а отсутствующие в нем читаются одним запросом WHERE id IN (...)
+     * и кладутся в кэш. Серийные номера читаются одним запросом WHERE serial_number IN (...)
+     *
+     * @param ids           идентификаторы
+     * @param serialNumbers серийные номера
+     * @return результат по каждому ключу в порядке запроса, включая ненайденные
+     */
+    @Override
+    public MultiGetResultDTO<HddDTO> findMany(List<Integer> ids, List<String> serialNumbers) {
+        return MultiGet.find(ids, serialNumbers,
+                keys -> Versioned.values(hddCache.getAll(keys, hddReader::findAllByIds)),
+                hddReader::findAllBySerialNumbers);
+    }
+
+    /**
+     * Получить версию категории жестких дисков
+     *
+     * @return версия категории
+     */
+    @Override
+    public long getCategoryVersion() {
+        return categoryVersionRepository.findVersion(CATEGORY);
+    }
+
+    /**
+     * Выгрузить все жесткие диски, передавая их по одному получателю в порядке возрастания идентификатора.
+     * Каждая сущность отсоединяется от контекста персистентности сразу после преобразования,
+     * поэтому потребление памяти не зависит от размера таблицы
+     *
+     * @param consumer получатель жестких дисков
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void export(Consumer<HddDTO> consumer) {
+        try (var hdds = hddRepository.streamAllByOrderByIdAsc()) {
+            hdds.forEach(hdd -> {
+                consumer.accept(modelMapper.map(hdd, HddDTO.class));
+                entityManager.detach(hdd);
+            });
+        }
+    }
+
+    /**
+     * Импортировать жесткие диски из CSV файла. Строки валидируются параллельно теми же ограничениями, что и HddDTO,
+     * и записываются JDBC batch'ами, ошибки записываются в отчет.
+     * Сохраненные товары добавляются в индекс поиска и фильтр серийных номеров после коммита каждой порции
+     *
+     * @param input содержимое CSV файла с заголовком из имен полей
+     * @return результат импорта
+     */
+    @Override
+    public ImportResultDTO importCsv(InputStream input) {
+        return csvImporter.importCsv(input, CATEGORY, HddDTO.class, (hddId, hdd) -> {
+            hddIndex.put(hddId, hdd.getSerialNumber(), hdd.getManufacturer());
+            hddSerialNumbers.put(hdd.getSerialNumber());
+        });
+    }
+
+    /**
+     * Найти жесткие диски по части серийного номера и производителей по началу названия в индексе поиска,
+     * без запросов к базе данных
+     *
+     * @param query строка поиска
+     * @param limit максимальное кол-во результатов каждого вида
+     * @return найденные жесткие диски и производители
+     */
+    @Override
+    public SearchResultDTO search(String query, int limit) {
+        return hddIndex.search(query, limit);
     }
 
     /**
-     * Сохранить жесткий диск
+     * Сохранить жесткий диск. Дубликат серийного номера отклоняется до INSERT: серийный номер, которого точно нет
+     * в фильтре, не проверяется, а возможный дубликат проверяется запросом по уникальному индексу
      *
      * @param hddDTO жесткий диск
      * @return сохраненный жесткий диск
      */
     @Override
+    @Transactional
     public HddDTO create(HddDTO hddDTO) {
-        var hddFromDTO = new ModelMapper().map(hddDTO, Hdd.class);
+        hddSerialNumbers.checkNew(hddDTO.getSerialNumber(), hddRepository::findExistingSerialNumbers);
+        var hddFromDTO = modelMapper.map(hddDTO, Hdd.class);
         var savedHdd = hddRepository.save(hddFromDTO);
-        return new ModelMapper().map(savedHdd, HddDTO.class);
+        hddCache.invalidateAfterCommit(savedHdd.getId());
+        hddIndex.putAfterCommit(savedHdd.getId(), savedHdd.getSerialNumber(), savedHdd.getManufacturer());
+        hddSerialNumbers.putAfterCommit(savedHdd.getSerialNumber());
+        categoryVersionRepository.increment(CATEGORY);
+        return modelMapper.map(savedHdd, HddDTO.class);
+    }
+
+    /**
+     * Сохранить жесткие диски пакетом. Невалидные элементы и дубликаты серийных номеров пропускаются,
+     * остальные сохраняются в одной транзакции JDBC batch'ами
+     *
+     * @param hdds жесткие диски
+     * @return результат сохранения по каждому элементу
+     */
+    @Override
+    @Transactional
+    public BulkResultDTO<HddDTO> createAll(List<HddDTO> hdds) {
+        var result = bulkCreator.create(
+                hdds,
+                HddDTO::getSerialNumber,
+                serialNumbers -> hddSerialNumbers.findExisting(serialNumbers, hddRepository::findExistingSerialNumbers),
+                valid -> hddRepository.saveAll(valid.stream()
+                                .map(hdd -> modelMapper.map(hdd, Hdd.class))
+                                .collect(Collectors.toList()))
+                        .stream()
+                        .map(hdd -> {
+                            hddIndex.putAfterCommit(hdd.getId(), hdd.getSerialNumber(), hdd.getManufacturer());
+                            hddSerialNumbers.putAfterCommit(hdd.getSerialNumber());
+                            return modelMapper.map(hdd, HddDTO.class);
+                        })
+                        .collect(Collectors.toList()));
+        if (result.getCreated() > 0) {
+            categoryVersionRepository.increment(CATEGORY);
+        }
+        return result;
     }
 
     /**
-     * Обновить жесткий диск
+     * Обновить жесткий диск одним запросом UPDATE. Результат определяется по кол-ву обновленных строк,
+     * поэтому между проверкой существования и записью нет гонки. Остаток записывается абсолютным значением,
+     * поэтому резерв остатка закрывается
      *
      * @param hddDTO жесткий диск
      * @param id     идентификатор жесткого диска
      * @return true если жесткий диск обновлен успешно, иначе false
      */
     @Override
+    @Transactional
     public boolean update(HddDTO hddDTO, int id) {
-        var hddFromDTO = new ModelMapper().map(hddDTO, Hdd.class);
-        hddFromDTO.setId(id);
-        boolean result = false;
-        if (hddRepository.existsById(id)) {
-            hddRepository.save(hddFromDTO);
-            result = true;
+        stockService.discardReserve(CATEGORY, id);
+        var hddFromDTO = modelMapper.map(hddDTO, Hdd.class);
+        var updated = hddRepository.updateById(hddFromDTO, id) > 0;
+        if (updated) {
+            hddCache.invalidateAfterCommit(id);
+            hddIndex.putAfterCommit(id, hddDTO.getSerialNumber(), hddDTO.getManufacturer());
+            hddSerialNumbers.putAfterCommit(hddDTO.getSerialNumber());
+            categoryVersionRepository.increment(CATEGORY);
         }
-        return result;
+        return updated;
+    }
+
+    /**
+     * Частично обновить жесткий диск одним запросом UPDATE, который записывает только переданные поля.
+     * Валидируются также только переданные поля. Если передан остаток, то резерв остатка закрывается
+     *
+     * @param fields новые значения полей по их именам
+     * @param id     идентификатор жесткого диска
+     * @return true если жесткий диск обновлен успешно, иначе false
+     */
+    @Override
+    @Transactional
+    public boolean patch(Map<String, Object> fields, int id) {
+        if (fields.containsKey("quantity")) {
+            stockService.discardReserve(CATEGORY, id);
+        }
+        var updated = partialUpdater.update(id, fields, HddDTO.class, Hdd.class) > 0;
+        if (updated) {
+            hddCache.invalidateAfterCommit(id);
+            hddIndex.putAfterCommit(id,
+                    Objects.toString(fields.get("serialNumber"), null),
+                    Objects.toString(fields.get("manufacturer"), null));
+            hddSerialNumbers.putAfterCommit(Objects.toString(fields.get("serialNumber"), null));
+            categoryVersionRepository.increment(CATEGORY);
+        }
+        return updated;
     }
 }
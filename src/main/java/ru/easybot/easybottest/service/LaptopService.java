@@ -1,9 +1,20 @@
 package ru.easybot.easybottest.service;
 
+import ru.easybot.easybottest.cache.Versioned;
+import ru.easybot.easybottest.dto.BulkResultDTO;
+import ru.easybot.easybottest.dto.ImportResultDTO;
 import ru.easybot.easybottest.dto.LaptopDTO;
+import ru.easybot.easybottest.dto.MultiGetResultDTO;
+import ru.easybot.easybottest.dto.SearchResultDTO;
+import ru.easybot.easybottest.filter.LaptopFilter;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Сервис, описывющий бизнес-логику по работе с ноутбуками
@@ -13,19 +24,47 @@ import java.util.Optional;
 public interface LaptopService {
 
     /**
-     * Получить список всех ноутбуков
+     * Получить отфильтрованную страницу списка ноутбуков
      *
-     * @return список ноутбуков
+     * @param pageRequest параметры запроса страницы
+     * @param filter      параметры фильтрации
+     * @return страница ноутбуков
      */
-    List<LaptopDTO> findAll();
+    CursorPage<LaptopDTO> findAll(KeysetPageRequest pageRequest, LaptopFilter filter);
 
     /**
-     * Получить ноутбук по идентификатору
+     * Получить отфильтрованную страницу списка ноутбуков, содержащую только заданные поля
+     *
+     * @param pageRequest параметры запроса страницы
+     * @param filter      параметры фильтрации
+     * @param fields      список полей через запятую
+     * @return страница значений полей ноутбуков
+     */
+    CursorPage<Map<String, Object>> findAll(KeysetPageRequest pageRequest, LaptopFilter filter, String fields);
+
+    /**
+     * Получить ноутбук вместе с версией строки по идентификатору
      *
      * @param id идентификатор ноутбука
      * @return Optional.of(laptop) если ноутбук по заданному идентификатору найден, иначе Optional.empty()
      */
-    Optional<LaptopDTO> findById(int id);
+    Optional<Versioned<LaptopDTO>> findById(int id);
+
+    /**
+     * Получить несколько ноутбуков по идентификаторам или по серийным номерам (передается ровно один из списков)
+     *
+     * @param ids           идентификаторы
+     * @param serialNumbers серийные номера
+     * @return результат по каждому ключу в порядке запроса, включая ненайденные
+     */
+    MultiGetResultDTO<LaptopDTO> findMany(List<Integer> ids, List<String> serialNumbers);
+
+    /**
+     * Получить версию категории ноутбуков, которая меняется при каждом создании или изменении ноутбука
+     *
+     * @return версия категории
+     */
+    long getCategoryVersion();
 
     /**
      * Сохранить ноутбук
@@ -35,6 +74,14 @@ public interface LaptopService {
      */
     LaptopDTO create(LaptopDTO laptopDTO);
 
+    /**
+     * Сохранить ноутбуки пакетом
+     *
+     * @param laptops ноутбуки
+     * @return результат сохранения по каждому элементу
+     */
+    BulkResultDTO<LaptopDTO> createAll(List<LaptopDTO> laptops);
+
     /**
      * Обновить ноутбук
      *
@@ -43,4 +90,37 @@ public interface LaptopService {
      * @return true если ноутбук обновлен успешно, иначе false
      */
     boolean update(LaptopDTO laptopDTO, int id);
+
+    /**
+     * Частично обновить ноутбук: изменяются только переданные поля
+     *
+     * @param fields новые значения полей по их именам
+     * @param id     идентификатор ноутбука
+     * @return true если ноутбук обновлен успешно, иначе false
+     */
+    boolean patch(Map<String, Object> fields, int id);
+
+    /**
+     * Выгрузить все ноутбуки, передавая их по одному получателю в порядке возрастания идентификатора
+     *
+     * @param consumer получатель ноутбуков
+     */
+    void export(Consumer<LaptopDTO> consumer);
+
+    /**
+     * Импортировать ноутбуки из CSV файла, не загружая его в память
+     *
+     * @param input содержимое CSV файла с заголовком из имен полей
+     * @return результат импорта
+     */
+    ImportResultDTO importCsv(InputStream input);
+
+    /**
+     * Найти ноутбуки по части серийного номера и производителей по началу названия
+     *
+     * @param query строка поиска
+     * @param limit максимальное кол-во результатов каждого вида
+     * @return найденные ноутбуки и производители
+     */
+    SearchResultDTO search(String query, int limit);
 }
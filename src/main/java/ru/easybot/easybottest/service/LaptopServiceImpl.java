@@ -3,12 +3,33 @@ package ru.easybot.easybottest.service;
 import lombok.AllArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.easybot.easybottest.bloom.SerialNumberFilter;
+import ru.easybot.easybottest.cache.DetailCache;
+import ru.easybot.easybottest.cache.Versioned;
+import ru.easybot.easybottest.csv.CsvImporter;
+import ru.easybot.easybottest.dto.BulkResultDTO;
+import ru.easybot.easybottest.dto.ImportResultDTO;
 import ru.easybot.easybottest.dto.LaptopDTO;
+import ru.easybot.easybottest.dto.MultiGetResultDTO;
+import ru.easybot.easybottest.dto.SearchResultDTO;
+import ru.easybot.easybottest.filter.LaptopFilter;
 import ru.easybot.easybottest.model.Laptop;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
+import ru.easybot.easybottest.projection.FieldSelection;
+import ru.easybot.easybottest.repository.CategoryVersionRepository;
 import ru.easybot.easybottest.repository.LaptopRepository;
+import ru.easybot.easybottest.repository.ProductJdbcReader;
+import ru.easybot.easybottest.search.SearchIndex;
 
+import javax.persistence.EntityManager;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -20,64 +41,279 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class LaptopServiceImpl implements LaptopService {
 
+    /**
+     * Категория товаров в таблице версий категорий
+     */
+    private static final String CATEGORY = "laptop";
+
     /**
      * Хранилище ноутбуков
      */
     private final LaptopRepository laptopRepository;
 
     /**
-     * Получить список всех ноутбуков
+     * Преобразователь сущностей в DTO и обратно
+     */
+    private final ModelMapper modelMapper;
+
+    /**
+     * Менеджер сущностей
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * Пакетное создание товаров
+     */
+    private final BulkCreator bulkCreator;
+
+    /**
+     * Частичное обновление товаров
+     */
+    private final PartialUpdater partialUpdater;
+
+    /**
+     * Кэш ноутбуков по идентификатору
+     */
+    private final DetailCache<Integer, Versioned<LaptopDTO>> laptopCache;
+
+    /**
+     * Хранилище версий категорий товаров
+     */
+    private final CategoryVersionRepository categoryVersionRepository;
+
+    /**
+     * Чтение ноутбуков через JDBC
+     */
+    private final ProductJdbcReader<LaptopDTO> laptopReader;
+
+    /**
+     * Импорт товаров из CSV
+     */
+    private final CsvImporter csvImporter;
+
+    /**
+     * Индекс поиска ноутбуков
+     */
+    private final SearchIndex laptopIndex;
+
+    /**
+     * Фильтр серийных номеров ноутбуков
+     */
+    private final SerialNumberFilter laptopSerialNumbers;
+
+    /**
+     * Сервис изменения остатков
+     */
+    private final StockService stockService;
+
+    /**
+     * Получить отфильтрованную страницу списка ноутбуков. Строки читаются через JDBC сразу в DTO
      *
-     * @return список жноутбуков
+     * @param pageRequest параметры запроса страницы
+     * @param filter      параметры фильтрации
+     * @return страница ноутбуков
      */
     @Override
-    public List<LaptopDTO> findAll() {
-        return laptopRepository.findAll().stream()
-                .map(laptop -> new ModelMapper().map(laptop, LaptopDTO.class))
-                .collect(Collectors.toList());
+    public CursorPage<LaptopDTO> findAll(KeysetPageRequest pageRequest, LaptopFilter filter) {
+        return laptopReader.findPage(pageRequest, filter);
     }
 
     /**
-     * Получить ноутбук по идентификатору
+     * Получить отфильтрованную страницу списка ноутбуков, содержащую только заданные поля.
+     * Выбираются только столбцы заданных полей, сущности не создаются и не преобразуются
+     *
+     * @param pageRequest параметры запроса страницы
+     * @param filter      параметры фильтрации
+     * @param fields      список полей через запятую
+     * @return страница значений полей ноутбуков
+     */
+    @Override
+    public CursorPage<Map<String, Object>> findAll(KeysetPageRequest pageRequest, LaptopFilter filter, String fields) {
+        return laptopRepository.findPage(pageRequest, filter.toSpecification(), FieldSelection.parse(fields, LaptopDTO.class));
+    }
+
+    /**
+     * Получить ноутбук по идентификатору. Найденные товары кэшируются вместе с версией строки до их изменения,
+     * промах кэша читается через JDBC сразу в DTO
      *
      * @param id идентификатор ноутбука
      * @return Optional.of(laptop) если ноутбук по заданному идентификатору найден, иначе Optional.empty()
      */
     @Override
-    public Optional<LaptopDTO> findById(int id) {
-        return laptopRepository.findById(id)
-                .map(laptop -> new ModelMapper().map(laptop, LaptopDTO.class));
+    public Optional<Versioned<LaptopDTO>> findById(int id) {
+        return laptopCache.get(id, laptopReader::findById);
+    }
+
+    /**
+     * Получить несколько ноутбуков по идентификаторам или по серийным номерам.
+     * Идентификаторы сначала ищутся в кэше, а отсутствующие в нем читаются одним запросом WHERE id IN (...)
+     * и кладутся в кэш. Серийные номера читаются одним запросом WHERE serial_number IN (...)
+     *
+     * @param ids           идентификаторы
+     * @param serialNumbers серийные номера
+     * @return результат по каждому ключу в порядке запроса, включая ненайденные
+     */
+    @Override
+    public MultiGetResultDTO<LaptopDTO> findMany(List<Integer> ids, List<String> serialNumbers) {
+        return MultiGet.find(ids, serialNumbers,
+                keys -> Versioned.values(laptopCache.getAll(keys, laptopReader::findAllByIds)),
+                laptopReader::findAllBySerialNumbers);
+    }
+
+    /**
+     * Получить версию категории ноутбуков
+     *
+     * @return версия категории
+     */
+    @Override
+    public long getCategoryVersion() {
+        return categoryVersionRepository.findVersion(CATEGORY);
+    }
+
+    /**
+     * Выгрузить все ноутбуки, передавая их по одному получателю в порядке возрастания идентификатора.
+     * Каждая сущность отсоединяется от контекста персистентности сразу после преобразования,
+     * поэтому потребление памяти не зависит от размера таблицы
+     *
+     * @param consumer получатель ноутбуков
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void export(Consumer<LaptopDTO> consumer) {
+        try (var laptops = laptopRepository.streamAllByOrderByIdAsc()) {
+            laptops.forEach(laptop -> {
+                consumer.accept(modelMapper.map(laptop, LaptopDTO.class));
+                entityManager.detach(laptop);
+            });
+        }
+    }
+
+    /**
+     * Импортировать ноутбуки из CSV файла. Строки валидируются параллельно теми же ограничениями, что и LaptopDTO,
+     * и записываются JDBC batch'ами, ошибки записываются в отчет.
+     * Сохраненные товары добавляются в индекс поиска и фильтр серийных номеров после коммита каждой порции
+     *
+     * @param input содержимое CSV файла с заголовком из имен полей
+     * @return результат импорта
+     */
+    @Override
+    public ImportResultDTO importCsv(InputStream input) {
+        return csvImporter.importCsv(input, CATEGORY, LaptopDTO.class, (laptopId, laptop) -> {
+            laptopIndex.put(laptopId, laptop.getSerialNumber(), laptop.getManufacturer());
+            laptopSerialNumbers.put(laptop.getSerialNumber());
+        });
+    }
+
+    /**
+     * Найти ноутбуки по части серийного номера и производителей по началу названия в индексе поиска,
+     * без запросов к базе данных
+     *
+     * @param query строка поиска
+     * @param limit максимальное кол-во результатов каждого вида
+     * @return найденные ноутбуки и производители
+     */
+    @Override
+    public SearchResultDTO search(String query, int limit) {
+        return laptopIndex.search(query, limit);
     }
 
     /**
-     * Сохранить ноутбук
+     * Сохранить ноутбук. Дубликат серийного номера отклоняется до INSERT: серийный номер, которого точно нет
+     * в фильтре, не проверяется, а возможный дубликат проверяется запросом по уникальному индексу
      *
      * @param laptopDTO ноутбук
      * @return сохраненный ноутбук
      */
     @Override
+    @Transactional
     public LaptopDTO create(LaptopDTO laptopDTO) {
-        var laptopFromDTO = new ModelMapper().map(laptopDTO, Laptop.class);
+        laptopSerialNumbers.checkNew(laptopDTO.getSerialNumber(), laptopRepository::findExistingSerialNumbers);
+        var laptopFromDTO = modelMapper.map(laptopDTO, Laptop.class);
         var savedLaptop = laptopRepository.save(laptopFromDTO);
-        return new ModelMapper().map(savedLaptop, LaptopDTO.class);
+        laptopCache.invalidateAfterCommit(savedLaptop.getId());
+        laptopIndex.putAfterCommit(savedLaptop.getId(), savedLaptop.getSerialNumber(), savedLaptop.getManufacturer());
+        laptopSerialNumbers.putAfterCommit(savedLaptop.getSerialNumber());
+        categoryVersionRepository.increment(CATEGORY);
+        return modelMapper.map(savedLaptop, LaptopDTO.class);
+    }
+
+    /**
+     * Сохранить ноутбуки пакетом. Невалидные элементы и дубликаты серийных номеров пропускаются,
+     * остальные сохраняются в одной транзакции JDBC batch'ами
+     *
+     * @param laptops ноутбуки
+     * @return результат сохранения по каждому элементу
+     */
+    @Override
+    @Transactional
+    public BulkResultDTO<LaptopDTO> createAll(List<LaptopDTO> laptops) {
+        var result = bulkCreator.create(
+                laptops,
+                LaptopDTO::getSerialNumber,
+                serialNumbers -> laptopSerialNumbers.findExisting(serialNumbers, laptopRepository::findExistingSerialNumbers),
+                valid -> laptopRepository.saveAll(valid.stream()
+                                .map(laptop -> modelMapper.map(laptop, Laptop.class))
+                                .collect(Collectors.toList()))
+                        .stream()
+                        .map(laptop -> {
+                            laptopIndex.putAfterCommit(laptop.getId(), laptop.getSerialNumber(), laptop.getManufacturer());
+                            laptopSerialNumbers.putAfterCommit(laptop.getSerialNumber());
+                            return modelMapper.map(laptop, LaptopDTO.class);
+                        })
+                        .collect(Collectors.toList()));
+        if (result.getCreated() > 0) {
+            categoryVersionRepository.increment(CATEGORY);
+        }
+        return result;
     }
 
     /**
-     * Обновить жесткий диск
+     * Обновить ноутбук одним запросом UPDATE. Результат определяется по кол-ву обновленных строк,
+     * поэтому между проверкой существования и записью нет гонки. Остаток записывается абсолютным значением,
+     * поэтому резерв остатка закрывается
      *
      * @param laptopDTO ноутбук
      * @param id     идентификатор ноутбука
      * @return true если ноутбук обновлен успешно, иначе false
      */
     @Override
+    @Transactional
     public boolean update(LaptopDTO laptopDTO, int id) {
-        var laptopFromDTO = new ModelMapper().map(laptopDTO, Laptop.class);
-        laptopFromDTO.setId(id);
-        boolean result = false;
-        if (laptopRepository.existsById(id)) {
-            laptopRepository.save(laptopFromDTO);
-            result = true;
+        stockService.discardReserve(CATEGORY, id);
+        var laptopFromDTO = modelMapper.map(laptopDTO, Laptop.class);
+        var updated = laptopRepository.updateById(laptopFromDTO, id) > 0;
+        if (updated) {
+            laptopCache.invalidateAfterCommit(id);
+            laptopIndex.putAfterCommit(id, laptopDTO.getSerialNumber(), laptopDTO.getManufacturer());
+            laptopSerialNumbers.putAfterCommit(laptopDTO.getSerialNumber());
+            categoryVersionRepository.increment(CATEGORY);
         }
-        return result;
+        return updated;
+    }
+
+    /**
+     * Частично обновить ноутбук одним запросом UPDATE, который записывает только переданные поля.
+     * Валидируются также только переданные поля. Если передан остаток, то резерв остатка закрывается
+     *
+     * @param fields новые значения полей по их именам
+     * @param id     идентификатор ноутбука
+     * @return true если ноутбук обновлен успешно, иначе false
+     */
+    @Override
+    @Transactional
+    public boolean patch(Map<String, Object> fields, int id) {
+        if (fields.containsKey("quantity")) {
+            stockService.discardReserve(CATEGORY, id);
+        }
+        var updated = partialUpdater.update(id, fields, LaptopDTO.class, Laptop.class) > 0;
+        if (updated) {
+            laptopCache.invalidateAfterCommit(id);
+            laptopIndex.putAfterCommit(id,
+                    Objects.toString(fields.get("serialNumber"), null),
+                    Objects.toString(fields.get("manufacturer"), null));
+            laptopSerialNumbers.putAfterCommit(Objects.toString(fields.get("serialNumber"), null));
+            categoryVersionRepository.increment(CATEGORY);
+        }
+        return updated;
     }
 }
@@ -1,9 +1,20 @@
 package ru.easybot.easybottest.service;
 
+import ru.easybot.easybottest.cache.Versioned;
+import ru.easybot.easybottest.dto.BulkResultDTO;
+import ru.easybot.easybottest.dto.ImportResultDTO;
 import ru.easybot.easybottest.dto.MonitorDTO;
+import ru.easybot.easybottest.dto.MultiGetResultDTO;
+import ru.easybot.easybottest.dto.SearchResultDTO;
+import ru.easybot.easybottest.filter.MonitorFilter;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Сервис, описывющий бизнес-логику по работе с мониторами
@@ -13,19 +24,47 @@ import java.util.Optional;
 public interface MonitorService {
 
     /**
-     * Получить список всех мониторов
+     * Получить отфильтрованную страницу списка мониторов
      *
-     * @return список мониторов
+     * @param pageRequest параметры запроса страницы
+     * @param filter      параметры фильтрации
+     * @return страница мониторов
      */
-    List<MonitorDTO> findAll();
+    CursorPage<MonitorDTO> findAll(KeysetPageRequest pageRequest, MonitorFilter filter);
 
     /**
-     * Получить монитор по идентификатору
+     * Получить отфильтрованную страницу списка мониторов, содержащую только заданные поля
+     *
+     * @param pageRequest параметры запроса страницы
+     * @param filter      параметры фильтрации
+     * @param fields      список полей через запятую
+     * @return страница значений полей мониторов
+     */
+    CursorPage<Map<String, Object>> findAll(KeysetPageRequest pageRequest, MonitorFilter filter, String fields);
+
+    /**
+     * Получить монитор вместе с версией строки по идентификатору
      *
      * @param id идентификатор монитора
      * @return Optional.of(monitor) если монитор по заданному идентификатору найден, иначе Optional.empty()
      */
-    Optional<MonitorDTO> findById(int id);
+    Optional<Versioned<MonitorDTO>> findById(int id);
+
+    /**
+     * Получить несколько мониторов по идентификаторам или по серийным номерам (передается ровно один из списков)
+     *
+     * @param ids           идентификаторы
+     * @param serialNumbers серийные номера
+     * @return результат по каждому ключу в порядке запроса, включая ненайденные
+     */
+    MultiGetResultDTO<MonitorDTO> findMany(List<Integer> ids, List<String> serialNumbers);
+
+    /**
+     * Получить версию категории мониторов, которая меняется при каждом создании или изменении монитора
+     *
+     * @return версия категории
+     */
+    long getCategoryVersion();
 
     /**
      * Сохранить монитор
@@ -35,6 +74,14 @@ public interface MonitorService {
      */
     MonitorDTO create(MonitorDTO monitorDTO);
 
+    /**
+     * Сохранить мониторы пакетом
+     *
+     * @param monitors мониторы
+     * @return результат сохранения по каждому элементу
+     */
+    BulkResultDTO<MonitorDTO> createAll(List<MonitorDTO> monitors);
+
     /**
      * Обновить монитор
      *
@@ -43,4 +90,37 @@ public interface MonitorService {
      * @return true если монитор обновлен успешно, иначе false
      */
     boolean update(MonitorDTO monitorDTO, int id);
+
+    /**
+     * Частично обновить монитор: изменяются только переданные поля
+     *
+     * @param fields новые значения полей по их именам
+     * @param id     идентификатор монитора
+     * @return true если монитор обновлен успешно, иначе false
+     */
+    boolean patch(Map<String, Object> fields, int id);
+
+    /**
+     * Выгрузить все мониторы, передавая их по одному получателю в порядке возрастания идентификатора
+     *
+     * @param consumer получатель мониторов
+     */
+    void export(Consumer<MonitorDTO> consumer);
+
+    /**
+     * Импортировать мониторы из CSV файла, не загружая его в память
+     *
+     * @param input содержимое CSV файла с заголовком из имен полей
+     * @return результат импорта
+     */
+    ImportResultDTO importCsv(InputStream input);
+
+    /**
+     * Найти мониторы по части серийного номера и производителей по началу названия
+     *
+     * @param query строка поиска
+     * @param limit максимальное кол-во результатов каждого вида
+     * @return найденные мониторы и производители
+     */
+    SearchResultDTO search(String query, int limit);
 }
@@ -3,12 +3,33 @@ package ru.easybot.easybottest.service;
 import lombok.AllArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.easybot.easybottest.bloom.SerialNumberFilter;
+import ru.easybot.easybottest.cache.DetailCache;
+import ru.easybot.easybottest.cache.Versioned;
+import ru.easybot.easybottest.csv.CsvImporter;
+import ru.easybot.easybottest.dto.BulkResultDTO;
+import ru.easybot.easybottest.dto.ImportResultDTO;
 import ru.easybot.easybottest.dto.MonitorDTO;
+import ru.easybot.easybottest.dto.MultiGetResultDTO;
+import ru.easybot.easybottest.dto.SearchResultDTO;
+import ru.easybot.easybottest.filter.MonitorFilter;
 import ru.easybot.easybottest.model.Monitor;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
+import ru.easybot.easybottest.projection.FieldSelection;
+import ru.easybot.easybottest.repository.CategoryVersionRepository;
 import ru.easybot.easybottest.repository.MonitorRepository;
+import ru.easybot.easybottest.repository.ProductJdbcReader;
+import ru.easybot.easybottest.search.SearchIndex;
 
+import javax.persistence.EntityManager;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -20,64 +41,279 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class MonitorServiceImpl implements MonitorService {
 
+    /**
+     * Категория товаров в таблице версий категорий
+     */
+    private static final String CATEGORY = "monitor";
+
     /**
      * Хранилище мониторов
      */
     private final MonitorRepository monitorRepository;
 
     /**
-     * Получить список всех мониторов
+     * Преобразователь сущностей в DTO и обратно
+     */
+    private final ModelMapper modelMapper;
+
+    /**
+     * Менеджер сущностей
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * Пакетное создание товаров
+     */
+    private final BulkCreator bulkCreator;
+
+    /**
+     * Частичное обновление товаров
+     */
+    private final PartialUpdater partialUpdater;
+
+    /**
+     * Кэш мониторов по идентификатору
+     */
+    private final DetailCache<Integer, Versioned<MonitorDTO>> monitorCache;
+
+    /**
+     * Хранилище версий категорий товаров
+     */
+    private final CategoryVersionRepository categoryVersionRepository;
+
+    /**
+     * Чтение мониторов через JDBC
+     */
+    private final ProductJdbcReader<MonitorDTO> monitorReader;
+
+    /**
+     * Импорт товаров из CSV
+     */
+    private final CsvImporter csvImporter;
+
+    /**
+     * Индекс поиска мониторов
+     */
+    private final SearchIndex monitorIndex;
+
+    /**
+     * Фильтр серийных номеров мониторов
+     */
+    private final SerialNumberFilter monitorSerialNumbers;
+
+    /**
+     * Сервис изменения остатков
+     */
+    private final StockService stockService;
+
+    /**
+     * Получить отфильтрованную страницу списка мониторов. Строки читаются через JDBC сразу в DTO
      *
-     * @return список мониторов
+     * @param pageRequest параметры запроса страницы
+     * @param filter      параметры фильтрации
+     * @return страница мониторов
      */
     @Override
-    public List<MonitorDTO> findAll() {
-        return monitorRepository.findAll().stream()
-                .map(monitor -> new ModelMapper().map(monitor, MonitorDTO.class))
-                .collect(Collectors.toList());
+    public CursorPage<MonitorDTO> findAll(KeysetPageRequest pageRequest, MonitorFilter filter) {
+        return monitorReader.findPage(pageRequest, filter);
     }
 
     /**
-     * Получить монитор по идентификатору
+     * Получить отфильтрованную страницу списка мониторов, содержащую только заданные поля.
+     * Выбираются только столбцы заданных полей, сущности не создаются и не преобразуются
+     *
+     * @param pageRequest параметры запроса страницы
+     * @param filter      параметры фильтрации
+     * @param fields      список полей через запятую
+     * @return страница значений полей мониторов
+     */
+    @Override
+    public CursorPage<Map<String, Object>> findAll(KeysetPageRequest pageRequest, MonitorFilter filter, String fields) {
+        return monitorRepository.findPage(pageRequest, filter.toSpecification(), FieldSelection.parse(fields, MonitorDTO.class));
+    }
+
+    /**
+     * Получить монитор по идентификатору. Найденные товары кэшируются вместе с версией строки до их изменения,
+     * промах кэша читается через JDBC сразу в DTO
      *
      * @param id идентификатор монитора
      * @return Optional.of(monitor) если монитор по заданному идентификатору найден, иначе Optional.empty()
      */
     @Override
-    public Optional<MonitorDTO> findById(int id) {
-        return monitorRepository.findById(id)
-                .map(monitor -> new ModelMapper().map(monitor, MonitorDTO.class));
+    public Optional<Versioned<MonitorDTO>> findById(int id) {
+        return monitorCache.get(id, monitorReader::findById);
     }
 
     /**
-     * Сохранить монитор
+     * Получить несколько мониторов по идентификаторам или по серийным номерам.
+     * Идентификаторы сначала ищутся в кэше, а отсутствующие в нем читаются одним запросом WHERE id IN (...)
+     * и кладутся в кэш. Серийные номера читаются одним запросом WHERE serial_number IN (...)
+     *
+     * @param ids           идентификаторы
+     * @param serialNumbers серийные номера
+     * @return результат по каждому ключу в порядке запроса, включая ненайденные
+     */
+    @Override
+    public MultiGetResultDTO<MonitorDTO> findMany(List<Integer> ids, List<String> serialNumbers) {
+        return MultiGet.find(ids, serialNumbers,
+                keys -> Versioned.values(monitorCache.getAll(keys, monitorReader::findAllByIds)),
+                monitorReader::findAllBySerialNumbers);
+    }
+
+    /**
+     * Получить версию категории мониторов
+     *
+     * @return версия категории
+     */
+    @Override
+    public long getCategoryVersion() {
+        return categoryVersionRepository.findVersion(CATEGORY);
+    }
+
+    /**
+     * Выгрузить все мониторы, передавая их по одному получателю в порядке возрастания идентификатора.
+     * Каждая сущность отсоединяется от контекста персистентности сразу после преобразования,
+     * поэтому потребление памяти не зависит от размера таблицы
+     *
+     * @param consumer получатель мониторов
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void export(Consumer<MonitorDTO> consumer) {
+        try (var monitors = monitorRepository.streamAllByOrderByIdAsc()) {
+            monitors.forEach(monitor -> {
+                consumer.accept(modelMapper.map(monitor, MonitorDTO.class));
+                entityManager.detach(monitor);
+            });
+        }
+    }
+
+    /**
+     * Импортировать мониторы из CSV файла. Строки валидируются параллельно теми же ограничениями, что и MonitorDTO,
+     * и записываются JDBC batch'ами, ошибки записываются в отчет.
+     * Сохраненные товары добавляются в индекс поиска и фильтр серийных номеров после коммита каждой порции
+     *
+     * @param input содержимое CSV файла с заголовком из имен полей
+     * @return результат импорта
+     */
+    @Override
+    public ImportResultDTO importCsv(InputStream input) {
+        return csvImporter.importCsv(input, CATEGORY, MonitorDTO.class, (monitorId, monitor) -> {
+            monitorIndex.put(monitorId, monitor.getSerialNumber(), monitor.getManufacturer());
+            monitorSerialNumbers.put(monitor.getSerialNumber());
+        });
+    }
+
+    /**
+     * Найти мониторы по части серийного номера и производителей по началу названия в индексе поиска,
+     * без запросов к базе данных
+     *
+     * @param query строка поиска
+     * @param limit максимальное кол-во результатов каждого вида
+     * @return найденные мониторы и производители
+     */
+    @Override
+    public SearchResultDTO search(String query, int limit) {
+        return monitorIndex.search(query, limit);
+    }
+
+    /**
+     * Сохранить монитор. Дубликат серийного номера отклоняется до INSERT: серийный номер, которого точно нет
+     * в фильтре, не проверяется, а возможный дубликат проверяется запросом по уникальному индексу
      *
      * @param monitorDTO монитор
      * @return сохраненный монитор
      */
     @Override
+    @Transactional
     public MonitorDTO create(MonitorDTO monitorDTO) {
-        var monitorFromDTO = new ModelMapper().map(monitorDTO, Monitor.class);
+        monitorSerialNumbers.checkNew(monitorDTO.getSerialNumber(), monitorRepository::findExistingSerialNumbers);
+        var monitorFromDTO = modelMapper.map(monitorDTO, Monitor.class);
         var savedMonitor = monitorRepository.save(monitorFromDTO);
-        return new ModelMapper().map(savedMonitor, MonitorDTO.class);
+        monitorCache.invalidateAfterCommit(savedMonitor.getId());
+        monitorIndex.putAfterCommit(savedMonitor.getId(), savedMonitor.getSerialNumber(), savedMonitor.getManufacturer());
+        monitorSerialNumbers.putAfterCommit(savedMonitor.getSerialNumber());
+        categoryVersionRepository.increment(CATEGORY);
+        return modelMapper.map(savedMonitor, MonitorDTO.class);
+    }
+
+    /**
+     * Сохранить мониторы пакетом. Невалидные элементы и дубликаты серийных номеров пропускаются,
+     * остальные сохраняются в одной транзакции JDBC batch'ами
+     *
+     * @param monitors мониторы
+     * @return результат сохранения по каждому элементу
+     */
+    @Override
+    @Transactional
+    public BulkResultDTO<MonitorDTO> createAll(List<MonitorDTO> monitors) {
+        var result = bulkCreator.create(
+                monitors,
+                MonitorDTO::getSerialNumber,
+                serialNumbers -> monitorSerialNumbers.findExisting(serialNumbers, monitorRepository::findExistingSerialNumbers),
+                valid -> monitorRepository.saveAll(valid.stream()
+                                .map(monitor -> modelMapper.map(monitor, Monitor.class))
+                                .collect(Collectors.toList()))
+                        .stream()
+                        .map(monitor -> {
+                            monitorIndex.putAfterCommit(monitor.getId(), monitor.getSerialNumber(), monitor.getManufacturer());
+                            monitorSerialNumbers.putAfterCommit(monitor.getSerialNumber());
+                            return modelMapper.map(monitor, MonitorDTO.class);
+                        })
+                        .collect(Collectors.toList()));
+        if (result.getCreated() > 0) {
+            categoryVersionRepository.increment(CATEGORY);
+        }
+        return result;
     }
 
     /**
-     * Обновить монитор
+     * Обновить монитор одним запросом UPDATE. Результат определяется по кол-ву обновленных строк,
+     * поэтому между проверкой существования и записью нет гонки. Остаток записывается абсолютным значением,
+     * поэтому резерв остатка закрывается
      *
      * @param monitorDTO монитор
      * @param id         идентификатор монитора
      * @return true если монитор обновлен успешно, иначе false
      */
     @Override
+    @Transactional
     public boolean update(MonitorDTO monitorDTO, int id) {
-        var monitorFromDTO = new ModelMapper().map(monitorDTO, Monitor.class);
-        monitorFromDTO.setId(id);
-        boolean result = false;
-        if (monitorRepository.existsById(id)) {
-            monitorRepository.save(monitorFromDTO);
-            result = true;
+        stockService.discardReserve(CATEGORY, id);
+        var monitorFromDTO = modelMapper.map(monitorDTO, Monitor.class);
+        var updated = monitorRepository.updateById(monitorFromDTO, id) > 0;
+        if (updated) {
+            monitorCache.invalidateAfterCommit(id);
+            monitorIndex.putAfterCommit(id, monitorDTO.getSerialNumber(), monitorDTO.getManufacturer());
+            monitorSerialNumbers.putAfterCommit(monitorDTO.getSerialNumber());
+            categoryVersionRepository.increment(CATEGORY);
         }
-        return result;
+        return updated;
+    }
+
+    /**
+     * Частично обновить монитор одним запросом UPDATE, который записывает только переданные поля.
+     * Валидируются также только переданные поля. Если передан остаток, то резерв остатка закрывается
+     *
+     * @param fields новые значения полей по их именам
+     * @param id     идентификатор монитора
+     * @return true если монитор обновлен успешно, иначе false
+     */
+    @Override
+    @Transactional
+    public boolean patch(Map<String, Object> fields, int id) {
+        if (fields.containsKey("quantity")) {
+            stockService.discardReserve(CATEGORY, id);
+        }
+        var updated = partialUpdater.update(id, fields, MonitorDTO.class, Monitor.class) > 0;
+        if (updated) {
+            monitorCache.invalidateAfterCommit(id);
+            monitorIndex.putAfterCommit(id,
+                    Objects.toString(fields.get("serialNumber"), null),
+                    Objects.toString(fields.get("manufacturer"), null));
+            monitorSerialNumbers.putAfterCommit(Objects.toString(fields.get("serialNumber"), null));
+            categoryVersionRepository.increment(CATEGORY);
+        }
+        return updated;
     }
 }
@@ -0,0 +1,80 @@
+package ru.easybot.easybottest.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import ru.easybot.easybottest.dto.MultiGetItemDTO;
+import ru.easybot.easybottest.dto.MultiGetResultDTO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Получение нескольких товаров одной категории по списку идентификаторов или серийных номеров.
+ * Повторяющиеся ключи загружаются один раз, а результат возвращается по каждому ключу в порядке запроса,
+ * включая ненайденные
+ *
+ * @author Ilya Kaltygin
+ */
+final class MultiGet {
+
+    /**
+     * Максимальное кол-во ключей в одном запросе
+     */
+    static final int MAX_KEYS = 100;
+
+    private MultiGet() {
+    }
+
+    /**
+     * Найти товары по идентификаторам или по серийным номерам: должен быть передан ровно один из списков
+     *
+     * @param ids             идентификаторы
+     * @param serialNumbers   серийные номера
+     * @param byIds           загрузка товаров по идентификаторам
+     * @param bySerialNumbers загрузка товаров по серийным номерам
+     * @param <D>             тип DTO товара
+     * @return результат по каждому ключу в порядке запроса
+     */
+    static <D> MultiGetResultDTO<D> find(List<Integer> ids,
+                                         List<String> serialNumbers,
+                                         Function<Collection<Integer>, Map<Integer, D>> byIds,
+                                         Function<Collection<String>, Map<String, D>> bySerialNumbers) {
+        var hasIds = ids != null && !ids.isEmpty();
+        var hasSerialNumbers = serialNumbers != null && !serialNumbers.isEmpty();
+        if (hasIds == hasSerialNumbers) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Either ids or serialNumbers must be specified");
+        }
+        return hasIds ? find(ids, byIds) : find(serialNumbers, bySerialNumbers);
+    }
+
+    /**
+     * Загрузить товары по ключам без повторов и собрать результат в порядке запроса
+     *
+     * @param keys   ключи из запроса
+     * @param loader загрузка товаров по ключам
+     * @param <K>    тип ключа
+     * @param <D>    тип DTO товара
+     * @return результат по каждому ключу
+     */
+    private static <K, D> MultiGetResultDTO<D> find(List<K> keys, Function<Collection<K>, Map<K, D>> loader) {
+        if (keys.size() > MAX_KEYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    String.format("At most %d products can be requested at once", MAX_KEYS));
+        }
+        var products = loader.apply(new LinkedHashSet<>(keys));
+        var items = new ArrayList<MultiGetItemDTO<D>>(keys.size());
+        var found = 0;
+        for (var i = 0; i < keys.size(); i++) {
+            var product = products.get(keys.get(i));
+            if (product != null) {
+                found++;
+            }
+            items.add(new MultiGetItemDTO<>(i, String.valueOf(keys.get(i)), product != null, product));
+        }
+        return new MultiGetResultDTO<>(found, keys.size() - found, items);
+    }
+}
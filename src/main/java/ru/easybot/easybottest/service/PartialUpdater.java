@@ -0,0 +1,132 @@
+package ru.easybot.easybottest.service;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.Path;
+import javax.validation.Validator;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Общая логика частичного обновления товаров.
+ * Валидируются только переданные поля, а запрос UPDATE строится динамически и записывает
+ * только соответствующие им столбцы (и версию строки), без предварительной загрузки товара
+ *
+ * @author Ilya Kaltygin
+ */
+@Component
+@AllArgsConstructor
+public class PartialUpdater {
+
+    /**
+     * Валидатор DTO
+     */
+    private final Validator validator;
+
+    /**
+     * Преобразователь значений полей JSON в DTO
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Преобразователь DTO в сущности
+     */
+    private final ModelMapper modelMapper;
+
+    /**
+     * Менеджер сущностей
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * Частично обновить товар
+     *
+     * @param id          идентификатор товара
+     * @param fields      новые значения полей DTO по их именам
+     * @param dtoClass    класс DTO товара
+     * @param entityClass класс сущности товара
+     * @param <T>         тип DTO товара
+     * @param <E>         тип сущности товара
+     * @return кол-во обновленных строк: 1 если товар найден, иначе 0
+     */
+    public <T, E> int update(int id, Map<String, Object> fields, Class<T> dtoClass, Class<E> entityClass) {
+        return update(id, fields, dtoClass, entityClass, item -> { });
+    }
+
+    /**
+     * Частично обновить товар с дополнительной проверкой
+     *
+     * @param id          идентификатор товара
+     * @param fields      новые значения полей DTO по их именам
+     * @param dtoClass    класс DTO товара
+     * @param entityClass класс сущности товара
+     * @param check       дополнительная проверка DTO, заполненного только переданными полями
+     * @param <T>         тип DTO товара
+     * @param <E>         тип сущности товара
+     * @return кол-во обновленных строк: 1 если товар найден, иначе 0
+     */
+    public <T, E> int update(int id, Map<String, Object> fields, Class<T> dtoClass, Class<E> entityClass,
+                             Consumer<T> check) {
+        if (fields == null || fields.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The request must contain at least one field");
+        }
+        fields.keySet().forEach(field -> {
+            var descriptor = BeanUtils.getPropertyDescriptor(dtoClass, field);
+            if (descriptor == null || descriptor.getWriteMethod() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.format("Unknown field: %s", field));
+            }
+        });
+        var item = convert(fields, dtoClass);
+        var errors = fields.keySet().stream()
+                .flatMap(field -> validator.validateProperty(item, field).stream())
+                .map(v -> String.format("%s: %s. Actual value: %s", v.getPropertyPath(), v.getMessage(), v.getInvalidValue()))
+                .sorted()
+                .collect(Collectors.joining("; "));
+        if (!errors.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, errors);
+        }
+        check.accept(item);
+
+        var entity = new BeanWrapperImpl(modelMapper.map(item, entityClass));
+        var builder = entityManager.getCriteriaBuilder();
+        var update = builder.createCriteriaUpdate(entityClass);
+        var root = update.from(entityClass);
+        fields.keySet().forEach(field -> update.set(field, entity.getPropertyValue(field)));
+        Path<Long> version = root.get("version");
+        update.set(version, builder.sum(version, 1L));
+        update.where(builder.equal(root.get("id"), id));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    /**
+     * Преобразовать значения полей в DTO. Непереданные поля остаются со значениями по умолчанию
+     *
+     * @param fields   значения полей по их именам
+     * @param dtoClass класс DTO
+     * @param <T>      тип DTO
+     * @return DTO
+     */
+    private <T> T convert(Map<String, Object> fields, Class<T> dtoClass) {
+        try {
+            return objectMapper.convertValue(fields, dtoClass);
+        } catch (IllegalArgumentException e) {
+            if (e.getCause() instanceof JsonMappingException mappingException && !mappingException.getPath().isEmpty()) {
+                var path = mappingException.getPath();
+                throw new ResponseStatusException(
+                        HttpStatus.BAD_REQUEST,
+                        String.format("Invalid value of field: %s", path.get(path.size() - 1).getFieldName()));
+            }
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid field value");
+        }
+    }
+}
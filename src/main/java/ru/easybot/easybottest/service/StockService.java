@@ -0,0 +1,39 @@
+package ru.easybot.easybottest.service;
+
+/**
+ * Сервис, описывающий атомарное изменение остатков товаров на складе
+ *
+ * @author Ilya Kaltygin
+ */
+public interface StockService {
+
+    /**
+     * Списать единицы товара. Остаток никогда не становится отрицательным.
+     * Если товар не найден, то выбрасывается ResponseStatusException со статусом NOT_FOUND,
+     * если остатка недостаточно - со статусом CONFLICT
+     *
+     * @param category категория товара
+     * @param id       идентификатор товара
+     * @param amount   кол-во единиц, не меньше 1
+     */
+    void decrement(String category, int id, int amount);
+
+    /**
+     * Добавить единицы товара. Если товар не найден, то выбрасывается ResponseStatusException
+     * со статусом NOT_FOUND
+     *
+     * @param category категория товара
+     * @param id       идентификатор товара
+     * @param amount   кол-во единиц, не меньше 1
+     */
+    void increment(String category, int id, int amount);
+
+    /**
+     * Отказаться от резерва товара перед тем, как его остаток будет перезаписан абсолютным значением
+     * (PUT или PATCH поля quantity). Вызывается в транзакции записи до запроса UPDATE
+     *
+     * @param category категория товара
+     * @param id       идентификатор товара
+     */
+    void discardReserve(String category, int id);
+}
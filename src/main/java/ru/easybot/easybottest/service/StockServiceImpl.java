@@ -0,0 +1,355 @@
+package ru.easybot.easybottest.service;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import ru.easybot.easybottest.cache.DetailCache;
+import ru.easybot.easybottest.config.StockProperties;
+import ru.easybot.easybottest.repository.CategoryVersionRepository;
+import ru.easybot.easybottest.repository.StockJdbcRepository;
+import ru.easybot.easybottest.stock.StripedStock;
+
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Реализация сервиса изменения остатков товаров.
+ * <p>
+ * Каждое списание выполняется одним запросом UPDATE ... WHERE quantity >= ?, поэтому одновременные запросы
+ * не теряют обновлений и не продают больше остатка. Если включено резервирование (easybot.stock.reservation-enabled),
+ * то товар, списываемый чаще порога за интервал сброса, начинает резервироваться: из базы данных списывается
+ * сразу reservation-chunk единиц, а дальнейшие списания выполняются в памяти из {@link StripedStock} без
+ * блокировки строки. Раз в интервал сброса неизрасходованный резерв возвращается в базу данных одним
+ * JDBC batch'ем на категорию. Пока товар зарезервирован, его остаток в базе данных меньше фактического
+ * не больше чем на размер резерва, поэтому списание, которому не хватило единиц в одной ячейке резерва,
+ * сначала забирает весь резерв и только недостающие единицы списывает в базе данных.
+ * <p>
+ * Каждое изменение остатка в базе данных увеличивает версию строки тем же запросом UPDATE и удаляет товар
+ * из кэша после коммита, а версия категории увеличивается не в транзакции списания, а один раз за интервал
+ * сброса для всех измененных категорий. Иначе каждое списание блокировало бы одну строку версии категории
+ * до конца своей транзакции. Версия категории, а с ней и ETag списков, отстает от остатков не больше
+ * чем на интервал сброса.
+ * <p>
+ * PUT и PATCH поля quantity записывают остаток абсолютным значением, которое не учитывает резерв, поэтому
+ * перед записью резерв товара закрывается и после коммита не возвращается в базу данных
+ *
+ * @author Ilya Kaltygin
+ */
+@Service
+public class StockServiceImpl implements StockService {
+
+    /**
+     * Хранилище остатков
+     */
+    private final StockJdbcRepository stockRepository;
+
+    /**
+     * Хранилище версий категорий товаров
+     */
+    private final CategoryVersionRepository categoryVersionRepository;
+
+    /**
+     * Кэши товаров по категориям
+     */
+    private final Map<String, DetailCache<Integer, ?>> caches;
+
+    /**
+     * Настройки изменения остатков
+     */
+    private final StockProperties properties;
+
+    /**
+     * Шаблон транзакций для списаний, которые не удалось выполнить из резерва
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Резервы товаров в памяти
+     */
+    private final Map<StockKey, StripedStock> reserves = new ConcurrentHashMap<>();
+
+    /**
+     * Кол-во списаний через базу данных за текущий интервал сброса
+     */
+    private final Map<StockKey, LongAdder> decrements = new ConcurrentHashMap<>();
+
+    /**
+     * Категории, остатки которых изменились с прошлого увеличения версии категории
+     */
+    private final Set<String> changedCategories = ConcurrentHashMap.newKeySet();
+
+    public StockServiceImpl(StockJdbcRepository stockRepository,
+                            CategoryVersionRepository categoryVersionRepository,
+                            List<DetailCache<Integer, ?>> caches,
+                            StockProperties properties,
+                            TransactionTemplate transactionTemplate) {
+        this.stockRepository = stockRepository;
+        this.categoryVersionRepository = categoryVersionRepository;
+        this.caches = caches.stream().collect(Collectors.toMap(DetailCache::getName, Function.identity()));
+        this.properties = properties;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Списать единицы товара: из резерва в памяти, если товар зарезервирован, иначе одним запросом UPDATE.
+     * Списание из резерва не открывает транзакцию и не обращается к базе данных. Если в ячейке резерва
+     * единиц не хватает, то забирается весь резерв, а недостающие единицы вместе с новым резервом списываются
+     * из базы данных. Новый резерв добавляется в память только после коммита. Если не хватает и в базе данных,
+     * то забранный резерв возвращается, поэтому остатком товара всегда считается сумма базы данных и резерва
+     *
+     * @param category категория товара
+     * @param id       идентификатор товара
+     * @param amount   кол-во единиц, не меньше 1
+     */
+    @Override
+    public void decrement(String category, int id, int amount) {
+        check(category, amount);
+        var key = new StockKey(category, id);
+        var reserve = reserves.get(key);
+        if (reserve != null && reserve.tryTake(amount)) {
+            return;
+        }
+        var pooled = reserve == null ? 0 : reserve.drain();
+        if (pooled >= amount) {
+            restore(category, id, reserve, pooled - amount);
+            return;
+        }
+        var needed = amount - pooled;
+        var chunk = reserve == null ? 0 : Math.max(0, properties.getReservationChunk() - needed);
+        var taken = transactionTemplate.execute(status -> take(category, id, needed, chunk));
+        if (taken == null || taken == 0) {
+            restore(category, id, reserve, pooled);
+            if (!stockRepository.exists(category, id)) {
+                throw new ResponseStatusException(
+                        HttpStatus.NOT_FOUND, String.format("The %s with the specified ID was not found.", category));
+            }
+            throw new ResponseStatusException(HttpStatus.CONFLICT, String.format("Not enough %s in stock", category));
+        }
+        if (taken > needed) {
+            restore(category, id, reserve, taken - needed);
+        } else if (properties.isReservationEnabled()) {
+            decrements.computeIfAbsent(key, k -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Добавить единицы товара одним запросом UPDATE
+     *
+     * @param category категория товара
+     * @param id       идентификатор товара
+     * @param amount   кол-во единиц, не меньше 1
+     */
+    @Override
+    @Transactional
+    public void increment(String category, int id, int amount) {
+        check(category, amount);
+        if (stockRepository.increment(category, id, amount) == 0) {
+            throw new ResponseStatusException(
+                    HttpStatus.NOT_FOUND, String.format("The %s with the specified ID was not found.", category));
+        }
+        changed(category, id);
+    }
+
+    /**
+     * Закрыть резерв товара, остаток которого перезаписывается абсолютным значением. Единицы резерва уже
+     * списаны в базе данных, а новое значение их не учитывает, поэтому после коммита они не возвращаются.
+     * Если транзакция записи откатится, то единицы резерва возвращаются в базу данных, как при сбросе
+     *
+     * @param category категория товара
+     * @param id       идентификатор товара
+     */
+    @Override
+    public void discardReserve(String category, int id) {
+        var key = new StockKey(category, id);
+        decrements.remove(key);
+        var reserve = reserves.remove(key);
+        if (reserve == null) {
+            return;
+        }
+        var units = reserve.close();
+        if (units > 0 && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        stockRepository.increment(category, id, units);
+                        changed(category, id);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Сбросить резервы: зарезервировать товары, списанные чаще порога, вернуть в базу данных
+     * неизрасходованный резерв и освободить резервы товаров, которые не списывались за интервал.
+     * Резерв уже списан в базе данных, поэтому возврат выполняется вне транзакции: при ошибке единицы
+     * не будут проданы, но и не будут проданы дважды. Затем увеличивается версия каждой категории,
+     * остатки которой изменились за интервал. Новые резервы создаются последними, чтобы их не освободила
+     * проверка неиспользованных резервов в том же сбросе
+     */
+    @Scheduled(fixedDelayString = "${easybot.stock.flush-interval-ms:1000}")
+    public void flush() {
+        var returned = new HashMap<String, Map<Integer, Integer>>();
+        reserves.forEach((key, reserve) -> {
+            var units = reserve.checkUsed() || !reserves.remove(key, reserve) ? reserve.drain() : reserve.close();
+            if (units > 0) {
+                returned.computeIfAbsent(key.getCategory(), category -> new HashMap<>()).merge(key.getId(), units, Integer::sum);
+            }
+        });
+        returned.forEach((category, amounts) -> {
+            stockRepository.incrementAll(category, amounts);
+            amounts.keySet().forEach(id -> changed(category, id));
+        });
+        for (var category : changedCategories) {
+            changedCategories.remove(category);
+            categoryVersionRepository.increment(category);
+        }
+        if (properties.isReservationEnabled()) {
+            promoteHotItems();
+        }
+    }
+
+    /**
+     * Вернуть весь резерв в базу данных при остановке приложения
+     */
+    @PreDestroy
+    public void close() {
+        reserves.forEach((key, reserve) -> {
+            var units = reserve.close();
+            if (units > 0) {
+                stockRepository.increment(key.getCategory(), key.getId(), units);
+            }
+        });
+        reserves.clear();
+    }
+
+    /**
+     * Зарезервировать товары, списанные через базу данных не меньше hot-threshold раз за интервал,
+     * и начать новый интервал
+     */
+    private void promoteHotItems() {
+        var stripes = properties.getStripes() > 0 ? properties.getStripes() : Runtime.getRuntime().availableProcessors();
+        decrements.forEach((key, count) -> {
+            decrements.remove(key);
+            if (count.sum() >= properties.getHotThreshold() && reserves.size() < properties.getMaxHotItems()) {
+                reserves.putIfAbsent(key, new StripedStock(stripes));
+            }
+        });
+    }
+
+    /**
+     * Списать в базе данных единицы запроса вместе с новым резервом, а если остатка на резерв не хватает -
+     * только единицы запроса
+     *
+     * @param category категория товара
+     * @param id       идентификатор товара
+     * @param amount   кол-во единиц запроса
+     * @param chunk    кол-во единиц нового резерва
+     * @return кол-во списанных единиц, 0 если товар не найден или остатка недостаточно
+     */
+    private int take(String category, int id, int amount, int chunk) {
+        if (chunk > 0 && stockRepository.decrement(category, id, amount + chunk) > 0) {
+            changed(category, id);
+            return amount + chunk;
+        }
+        if (stockRepository.decrement(category, id, amount) > 0) {
+            changed(category, id);
+            return amount;
+        }
+        return 0;
+    }
+
+    /**
+     * Вернуть забранные единицы в резерв, а если резерв уже закрыт - в базу данных
+     *
+     * @param category категория товара
+     * @param id       идентификатор товара
+     * @param reserve  резерв товара или null, если товар не зарезервирован
+     * @param units    кол-во единиц
+     */
+    private void restore(String category, int id, StripedStock reserve, int units) {
+        if (reserve == null || units == 0) {
+            return;
+        }
+        var overflow = reserve.add(units);
+        if (overflow > 0) {
+            transactionTemplate.executeWithoutResult(status -> increment(category, id, overflow));
+        }
+    }
+
+    /**
+     * Учесть изменение остатка в базе данных: удалить товар из кэша после коммита и отметить категорию,
+     * версия которой увеличится при следующем сбросе. Версия строки уже увеличена запросом UPDATE
+     *
+     * @param category категория товара
+     * @param id       идентификатор товара
+     */
+    private void changed(String category, int id) {
+        cache(category).invalidateAfterCommit(id);
+        changedCategories.add(category);
+    }
+
+    /**
+     * Получить кэш категории
+     *
+     * @param category категория товара
+     * @return кэш товаров категории
+     */
+    private DetailCache<Integer, ?> cache(String category) {
+        var cache = caches.get(category);
+        if (cache == null) {
+            throw new IllegalArgumentException(String.format("Unknown category: %s", category));
+        }
+        return cache;
+    }
+
+    /**
+     * Проверить категорию и кол-во единиц. Имя категории подставляется в запрос как имя таблицы,
+     * поэтому допускаются только категории, для которых есть кэш
+     *
+     * @param category категория товара
+     * @param amount   кол-во единиц
+     */
+    private void check(String category, int amount) {
+        cache(category);
+        if (amount < 1) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST, String.format("The amount must be at least 1. Actual value: %d", amount));
+        }
+    }
+
+    /**
+     * Товар категории
+     */
+    @Getter
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class StockKey {
+
+        /**
+         * Категория товара
+         */
+        private final String category;
+
+        /**
+         * Идентификатор товара
+         */
+        private final int id;
+    }
+}
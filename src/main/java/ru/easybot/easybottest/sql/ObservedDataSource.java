@@ -0,0 +1,213 @@
+package ru.easybot.easybottest.sql;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Источник данных, сообщающий {@link SqlObserver} о каждом выполненном запросе.
+ * Соединения и запросы оборачиваются в динамические прокси: у запроса запоминаются текст и типы параметров,
+ * а вызовы execute* замеряются. Остальные вызовы передаются исходным объектам без изменений
+ *
+ * @author Ilya Kaltygin
+ */
+public class ObservedDataSource extends DelegatingDataSource {
+
+    /**
+     * Методы соединения, создающие запросы
+     */
+    private static final Set<String> STATEMENT_FACTORIES = Set.of("createStatement", "prepareStatement", "prepareCall");
+
+    /**
+     * Наблюдатель за запросами
+     */
+    private final SqlObserver observer;
+
+    public ObservedDataSource(DataSource targetDataSource, SqlObserver observer) {
+        super(targetDataSource);
+        this.observer = observer;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return observe(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return observe(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    /**
+     * Обернуть соединение
+     *
+     * @param connection соединение
+     * @return соединение, запросы которого учитываются наблюдателем
+     */
+    private Connection observe(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                ObservedDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    /**
+     * Вызвать метод исходного объекта, пробросив исключение без обертки
+     *
+     * @param target исходный объект
+     * @param method метод
+     * @param args   аргументы
+     * @return результат вызова
+     * @throws Throwable исключение, выброшенное методом
+     */
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * Обработчик вызовов соединения: оборачивает созданные запросы
+     */
+    private class ConnectionHandler implements InvocationHandler {
+
+        /**
+         * Исходное соединение
+         */
+        private final Connection connection;
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ("equals".equals(method.getName())) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(method.getName())) {
+                return System.identityHashCode(proxy);
+            }
+            var result = ObservedDataSource.invoke(connection, method, args);
+            if (!STATEMENT_FACTORIES.contains(method.getName())) {
+                return result;
+            }
+            var sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+            return Proxy.newProxyInstance(
+                    ObservedDataSource.class.getClassLoader(),
+                    new Class<?>[]{method.getReturnType()},
+                    new StatementHandler((Statement) result, sql));
+        }
+    }
+
+    /**
+     * Обработчик вызовов запроса: запоминает типы параметров и замеряет выполнение
+     */
+    private class StatementHandler implements InvocationHandler {
+
+        /**
+         * Исходный запрос
+         */
+        private final Statement statement;
+
+        /**
+         * Текст подготовленного запроса, null для Statement, текст которого передается в execute*
+         */
+        private final String sql;
+
+        /**
+         * Типы параметров по номерам, начиная с нулевого
+         */
+        private final List<String> parameterTypes = new ArrayList<>();
+
+        /**
+         * Кол-во наборов параметров, добавленных в пакет
+         */
+        private int batchSize;
+
+        StatementHandler(Statement statement, String sql) {
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            var name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                setParameterType(index, parameterType(name, args[1]));
+            } else if ("clearParameters".equals(name)) {
+                parameterTypes.clear();
+            } else if ("addBatch".equals(name)) {
+                batchSize++;
+            } else if ("clearBatch".equals(name)) {
+                batchSize = 0;
+            }
+            return ObservedDataSource.invoke(statement, method, args);
+        }
+
+        /**
+         * Выполнить запрос и сообщить о нем наблюдателю
+         *
+         * @param method метод execute*
+         * @param args   аргументы
+         * @return результат выполнения
+         * @throws Throwable исключение, выброшенное методом
+         */
+        private Object execute(Method method, Object[] args) throws Throwable {
+            var text = args != null && args.length > 0 && args[0] instanceof String executed ? executed : sql;
+            var start = System.nanoTime();
+            try {
+                return ObservedDataSource.invoke(statement, method, args);
+            } finally {
+                observer.record(text, parameterTypes, batchSize, System.nanoTime() - start);
+                batchSize = 0;
+            }
+        }
+
+        /**
+         * Запомнить тип параметра
+         *
+         * @param index номер параметра, начиная с первого
+         * @param type  тип параметра
+         */
+        private void setParameterType(int index, String type) {
+            if (parameterTypes.size() < index) {
+                parameterTypes.addAll(Collections.nCopies(index - parameterTypes.size(), "?"));
+            }
+            parameterTypes.set(index - 1, type);
+        }
+
+        /**
+         * Получить тип параметра по имени метода set* и значению
+         *
+         * @param setter имя метода
+         * @param value  значение
+         * @return тип параметра
+         */
+        private String parameterType(String setter, Object value) {
+            if ("setNull".equals(setter) || value == null) {
+                return "null";
+            }
+            if ("setObject".equals(setter)) {
+                return value.getClass().getSimpleName();
+            }
+            return setter.substring("set".length());
+        }
+    }
+}
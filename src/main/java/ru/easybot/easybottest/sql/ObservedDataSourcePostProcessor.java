@@ -0,0 +1,37 @@
+package ru.easybot.easybottest.sql;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Оборачивает источники данных приложения в {@link ObservedDataSource}.
+ * Наблюдатель получается лениво, чтобы сам обработчик не создавал бины раньше времени.
+ * Отключается свойством easybot.sql.observe=false
+ *
+ * @author Ilya Kaltygin
+ */
+@Component
+@ConditionalOnProperty(name = "easybot.sql.observe", havingValue = "true", matchIfMissing = true)
+public class ObservedDataSourcePostProcessor implements BeanPostProcessor {
+
+    /**
+     * Наблюдатель за запросами
+     */
+    private final ObjectProvider<SqlObserver> observer;
+
+    public ObservedDataSourcePostProcessor(ObjectProvider<SqlObserver> observer) {
+        this.observer = observer;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ObservedDataSource)) {
+            return new ObservedDataSource(dataSource, observer.getObject());
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,36 @@
+package ru.easybot.easybottest.sql;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * @author Ilya Kaltygin
+ */
+@Schema(description = "Медленный SQL запрос")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SlowStatement {
+
+    @Schema(description = "Текст запроса")
+    private String sql;
+
+    @Schema(description = "Типы параметров запроса по порядку, без значений")
+    private List<String> parameterTypes;
+
+    @Schema(description = "Кол-во наборов параметров, если запрос выполнялся пакетом")
+    private int batchSize;
+
+    @Schema(description = "Время выполнения в миллисекундах")
+    private double durationMs;
+
+    @Schema(description = "Время завершения")
+    private Instant finishedAt;
+}
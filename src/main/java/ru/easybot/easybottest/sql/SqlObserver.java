@@ -0,0 +1,132 @@
+package ru.easybot.easybottest.sql;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Наблюдатель за SQL запросами, которые выполняются через {@link ObservedDataSource}.
+ * Считает запросы в целом и по текущему потоку, а из запросов дольше порога хранит easybot.sql.slow-log-size
+ * самых медленных в куче, вершина которой - самый быстрый из сохраненных. Новый запрос вытесняет вершину,
+ * только если он медленнее, а запросы не медленнее вершины отсеиваются без блокировки.
+ * Размер 0 отключает журнал медленных запросов.
+ * Значения параметров не сохраняются, только их типы
+ *
+ * @author Ilya Kaltygin
+ */
+@Component
+public class SqlObserver {
+
+    /**
+     * Кол-во запросов, выполненных текущим потоком. Счетчик не сбрасывается,
+     * поэтому кол-во запросов за период считается как разность двух значений
+     */
+    private static final ThreadLocal<long[]> THREAD_STATEMENTS = ThreadLocal.withInitial(() -> new long[1]);
+
+    /**
+     * Кол-во запросов с момента старта приложения
+     */
+    private final LongAdder statements = new LongAdder();
+
+    /**
+     * Порог, начиная с которого запрос считается медленным, в наносекундах
+     */
+    private final long slowThresholdNanos;
+
+    /**
+     * Максимальное кол-во сохраняемых медленных запросов
+     */
+    private final int slowLogSize;
+
+    /**
+     * Самые медленные запросы, на вершине - самый быстрый из них
+     */
+    private final PriorityQueue<SlowStatement> slowStatements;
+
+    /**
+     * Время самого быстрого из сохраненных запросов в миллисекундах, когда куча заполнена, иначе 0.
+     * Запросы не дольше этого времени в кучу не попадут, поэтому отсеиваются без блокировки
+     */
+    private volatile double minSlowMs;
+
+    public SqlObserver(@Value("${easybot.sql.slow-threshold-ms:100}") long slowThresholdMs,
+                       @Value("${easybot.sql.slow-log-size:100}") int slowLogSize) {
+        if (slowLogSize < 0) {
+            throw new IllegalArgumentException("easybot.sql.slow-log-size must be 0 or greater, but was " + slowLogSize);
+        }
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.slowLogSize = slowLogSize;
+        this.slowStatements = new PriorityQueue<>(Math.max(slowLogSize, 1),
+                Comparator.comparingDouble(SlowStatement::getDurationMs));
+    }
+
+    /**
+     * Учесть выполненный запрос
+     *
+     * @param sql            текст запроса
+     * @param parameterTypes типы параметров запроса
+     * @param batchSize      кол-во наборов параметров пакета, 0 если запрос выполнялся не пакетом
+     * @param durationNanos  время выполнения в наносекундах
+     */
+    public void record(String sql, List<String> parameterTypes, int batchSize, long durationNanos) {
+        statements.increment();
+        THREAD_STATEMENTS.get()[0]++;
+        var durationMs = durationNanos / 1_000_000.0;
+        if (slowLogSize == 0 || durationNanos < slowThresholdNanos || durationMs <= minSlowMs) {
+            return;
+        }
+        var statement = SlowStatement.builder()
+                .sql(sql)
+                .parameterTypes(List.copyOf(parameterTypes))
+                .batchSize(batchSize)
+                .durationMs(durationMs)
+                .finishedAt(Instant.now())
+                .build();
+        synchronized (slowStatements) {
+            if (slowStatements.size() == slowLogSize) {
+                if (durationMs <= slowStatements.peek().getDurationMs()) {
+                    return;
+                }
+                slowStatements.poll();
+            }
+            slowStatements.add(statement);
+            if (slowStatements.size() == slowLogSize) {
+                minSlowMs = slowStatements.peek().getDurationMs();
+            }
+        }
+    }
+
+    /**
+     * Получить кол-во запросов, выполненных текущим потоком с момента его создания
+     *
+     * @return кол-во запросов
+     */
+    public long threadStatements() {
+        return THREAD_STATEMENTS.get()[0];
+    }
+
+    /**
+     * Получить статистику запросов
+     *
+     * @return статистика запросов с самыми медленными запросами, отсортированными по убыванию времени
+     */
+    public SqlStats stats() {
+        List<SlowStatement> slowest;
+        synchronized (slowStatements) {
+            slowest = new ArrayList<>(slowStatements);
+        }
+        slowest.sort(Comparator.comparingDouble(SlowStatement::getDurationMs).reversed());
+        return SqlStats.builder()
+                .statements(statements.sum())
+                .slowThresholdMs(TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos))
+                .slowest(slowest)
+                .build();
+    }
+}
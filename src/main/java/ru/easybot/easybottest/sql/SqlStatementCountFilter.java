@@ -0,0 +1,62 @@
+package ru.easybot.easybottest.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Считает SQL запросы, выполненные потоком обработки HTTP запроса, и пишет их кол-во в распределение
+ * easybot.sql.statements с тегами uri (шаблон пути) и method. Рост кол-ва запросов на один вызов
+ * (например, N+1 при загрузке связей) виден по этому распределению без включения show-sql.
+ * Запросы, выполненные в других потоках (например, в пуле сводного каталога), сюда не попадают.
+ * В реактивном режиме фильтр не регистрируется: запрос обрабатывается разными потоками
+ *
+ * @author Ilya Kaltygin
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@AllArgsConstructor
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+
+    /**
+     * Имя распределения кол-ва запросов
+     */
+    public static final String SUMMARY_NAME = "easybot.sql.statements";
+
+    /**
+     * Наблюдатель за запросами
+     */
+    private final SqlObserver observer;
+
+    /**
+     * Реестр метрик
+     */
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        var before = observer.threadStatements();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            var pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder(SUMMARY_NAME)
+                    .description("SQL statements executed per HTTP request")
+                    .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                    .tag("method", request.getMethod())
+                    .register(meterRegistry)
+                    .record(observer.threadStatements() - before);
+        }
+    }
+}
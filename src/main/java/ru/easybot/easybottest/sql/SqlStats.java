@@ -0,0 +1,29 @@
+package ru.easybot.easybottest.sql;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * @author Ilya Kaltygin
+ */
+@Schema(description = "Статистика SQL запросов")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SqlStats {
+
+    @Schema(description = "Кол-во выполненных запросов с момента старта приложения")
+    private long statements;
+
+    @Schema(description = "Порог, начиная с которого запрос считается медленным, в миллисекундах")
+    private long slowThresholdMs;
+
+    @Schema(description = "Самые медленные запросы, от самого медленного")
+    private List<SlowStatement> slowest;
+}
@@ -0,0 +1,126 @@
+package ru.easybot.easybottest.stock;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Зарезервированный в памяти остаток одного товара, разделенный на ячейки.
+ * Единицы уже списаны в базе данных, поэтому выдача из резерва не может привести к продаже сверх остатка.
+ * Каждый поток списывает из своей ячейки, поэтому потоки не конкурируют за одну переменную,
+ * а при нехватке единиц в своей ячейке просматривает остальные.
+ * Ячейки разнесены по разным строкам кэша процессора, чтобы запись в одну не сбрасывала соседние
+ *
+ * @author Ilya Kaltygin
+ */
+public class StripedStock {
+
+    /**
+     * Расстояние между ячейками в элементах массива: 16 int = 64 байта, одна строка кэша
+     */
+    private static final int PADDING = 16;
+
+    /**
+     * Ячейки остатка
+     */
+    private final AtomicIntegerArray cells;
+
+    /**
+     * Маска номера ячейки, кол-во ячеек - степень двойки
+     */
+    private final int mask;
+
+    /**
+     * Резерв закрыт: из него больше не выдаются единицы, а добавленные возвращаются вызывающему
+     */
+    private volatile boolean closed;
+
+    /**
+     * Были ли списания из резерва с последней проверки
+     */
+    private volatile boolean used;
+
+    public StripedStock(int stripes) {
+        var size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.mask = size - 1;
+        this.cells = new AtomicIntegerArray(size * PADDING);
+    }
+
+    /**
+     * Списать единицы из резерва, начиная с ячейки текущего потока
+     *
+     * @param amount кол-во единиц
+     * @return true если единицы списаны, false если в резерве их недостаточно или резерв закрыт
+     */
+    public boolean tryTake(int amount) {
+        if (closed) {
+            return false;
+        }
+        var start = stripe();
+        for (var i = 0; i <= mask; i++) {
+            var index = ((start + i) & mask) * PADDING;
+            var available = cells.get(index);
+            while (available >= amount) {
+                if (cells.compareAndSet(index, available, available - amount)) {
+                    used = true;
+                    return true;
+                }
+                available = cells.get(index);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Добавить единицы в ячейку текущего потока
+     *
+     * @param amount кол-во единиц
+     * @return кол-во единиц, которые нужно вернуть в базу данных, потому что резерв уже закрыт
+     */
+    public int add(int amount) {
+        cells.addAndGet(stripe() * PADDING, amount);
+        return closed ? drain() : 0;
+    }
+
+    /**
+     * Забрать все единицы из ячеек
+     *
+     * @return кол-во забранных единиц
+     */
+    public int drain() {
+        var total = 0;
+        for (var i = 0; i <= mask; i++) {
+            total += cells.getAndSet(i * PADDING, 0);
+        }
+        return total;
+    }
+
+    /**
+     * Закрыть резерв и забрать все единицы
+     *
+     * @return кол-во забранных единиц
+     */
+    public int close() {
+        closed = true;
+        return drain();
+    }
+
+    /**
+     * Проверить, были ли списания с прошлой проверки, и сбросить признак
+     *
+     * @return true если из резерва списывались единицы
+     */
+    public boolean checkUsed() {
+        var result = used;
+        used = false;
+        return result;
+    }
+
+    /**
+     * Номер ячейки текущего потока
+     *
+     * @return номер ячейки
+     */
+    private int stripe() {
+        var hash = (int) Thread.currentThread().getId() * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,11 @@
+CREATE INDEX IF NOT EXISTS computer_price_id_idx ON computer (price, id);
+CREATE INDEX IF NOT EXISTS computer_manufacturer_id_idx ON computer (manufacturer, id);
+
+CREATE INDEX IF NOT EXISTS hdd_price_id_idx ON hdd (price, id);
+CREATE INDEX IF NOT EXISTS hdd_manufacturer_id_idx ON hdd (manufacturer, id);
+
+CREATE INDEX IF NOT EXISTS laptop_price_id_idx ON laptop (price, id);
+CREATE INDEX IF NOT EXISTS laptop_manufacturer_id_idx ON laptop (manufacturer, id);
+
+CREATE INDEX IF NOT EXISTS monitor_price_id_idx ON monitor (price, id);
+CREATE INDEX IF NOT EXISTS monitor_manufacturer_id_idx ON monitor (manufacturer, id);
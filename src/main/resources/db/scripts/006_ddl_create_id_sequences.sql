@@ -0,0 +1,20 @@
+CREATE SEQUENCE IF NOT EXISTS computer_seq START WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM computer) INCREMENT BY 50;
+ALTER TABLE computer ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE computer ALTER COLUMN id SET DEFAULT NEXT VALUE FOR computer_seq;
+
+CREATE SEQUENCE IF NOT EXISTS hdd_seq START WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM hdd) INCREMENT BY 50;
+ALTER TABLE hdd ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE hdd ALTER COLUMN id SET DEFAULT NEXT VALUE FOR hdd_seq;
+
+CREATE SEQUENCE IF NOT EXISTS laptop_seq START WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM laptop) INCREMENT BY 50;
+ALTER TABLE laptop ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE laptop ALTER COLUMN id SET DEFAULT NEXT VALUE FOR laptop_seq;
+
+CREATE SEQUENCE IF NOT EXISTS monitor_seq START WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM monitor) INCREMENT BY 50;
+ALTER TABLE monitor ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE monitor ALTER COLUMN id SET DEFAULT NEXT VALUE FOR monitor_seq;
+
+comment on sequence computer_seq is 'Идентификаторы компьютеров, выдаются блоками по 50 (pooled-lo)';
+comment on sequence hdd_seq is 'Идентификаторы жестких дисков, выдаются блоками по 50 (pooled-lo)';
+comment on sequence laptop_seq is 'Идентификаторы ноутбуков, выдаются блоками по 50 (pooled-lo)';
+comment on sequence monitor_seq is 'Идентификаторы мониторов, выдаются блоками по 50 (pooled-lo)';
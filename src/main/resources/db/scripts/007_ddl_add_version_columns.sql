@@ -0,0 +1,24 @@
+ALTER TABLE computer ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE hdd ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE laptop ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE monitor ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS category_version
+(
+    category VARCHAR PRIMARY KEY,
+    version  BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO category_version (category, version)
+VALUES ('computer', 0),
+       ('hdd', 0),
+       ('laptop', 0),
+       ('monitor', 0);
+
+comment on column computer.version is 'Версия строки, увеличивается при каждом изменении';
+comment on column hdd.version is 'Версия строки, увеличивается при каждом изменении';
+comment on column laptop.version is 'Версия строки, увеличивается при каждом изменении';
+comment on column monitor.version is 'Версия строки, увеличивается при каждом изменении';
+comment on table category_version is 'Таблица версий категорий товаров';
+comment on column category_version.category is 'Категория товаров';
+comment on column category_version.version is 'Версия категории, увеличивается при каждом создании или изменении товара категории';
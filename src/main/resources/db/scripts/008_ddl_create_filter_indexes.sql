@@ -0,0 +1,11 @@
+CREATE INDEX IF NOT EXISTS computer_manufacturer_price_idx ON computer (manufacturer, price);
+CREATE INDEX IF NOT EXISTS computer_type_id_idx ON computer (type, id);
+
+CREATE INDEX IF NOT EXISTS hdd_manufacturer_price_idx ON hdd (manufacturer, price);
+CREATE INDEX IF NOT EXISTS hdd_capacity_id_idx ON hdd (capacity, id);
+
+CREATE INDEX IF NOT EXISTS laptop_manufacturer_price_idx ON laptop (manufacturer, price);
+CREATE INDEX IF NOT EXISTS laptop_size_id_idx ON laptop (size, id);
+
+CREATE INDEX IF NOT EXISTS monitor_manufacturer_price_idx ON monitor (manufacturer, price);
+CREATE INDEX IF NOT EXISTS monitor_diagonal_id_idx ON monitor (diagonal, id);
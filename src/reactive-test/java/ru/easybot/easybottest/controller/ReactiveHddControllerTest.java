@@ -0,0 +1,186 @@
+package ru.easybot.easybottest.controller;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import ru.easybot.easybottest.EasybotTestApplication;
+import ru.easybot.easybottest.dto.HddDTO;
+import ru.easybot.easybottest.service.HddService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тесты для контроллера ReactiveHddController. Чтение выполняется через R2DBC из базы данных,
+ * заполненной через JDBC, а сервис записи заменен заглушкой
+ *
+ * @author Ilya Kaltygin
+ */
+@SpringBootTest(
+        classes = EasybotTestApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:reactive-test",
+                "spring.r2dbc.url=r2dbc:h2:mem:///reactive-test"
+        })
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+class ReactiveHddControllerTest {
+
+    /**
+     * Клиент для отправки запросов на тестируемый контроллер
+     */
+    @Autowired
+    private WebTestClient webTestClient;
+
+    /**
+     * Заполняет таблицу жестких дисков
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Заглушка сервиса
+     */
+    @MockBean
+    private HddService hddService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM hdd");
+        for (var id = 1; id <= 3; id++) {
+            jdbcTemplate.update(
+                    "INSERT INTO hdd (id, serial_number, manufacturer, price, quantity, capacity) VALUES (?, ?, ?, ?, ?, ?)",
+                    id, "SERIAL" + id, "MANUFACTURER" + id, 1000 * id, id, 500L * id);
+        }
+    }
+
+    /**
+     * Тест на метод findAll: страница из двух дисков и курсор следующей страницы
+     */
+    @Test
+    void whenFindAllThenShouldBeReturnPageWithNextCursor() {
+        webTestClient.get()
+                .uri("/api/v1/hdd/?size=2&sort=price&direction=desc")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(2)
+                .jsonPath("$.content[0].serialNumber").isEqualTo("SERIAL3")
+                .jsonPath("$.content[1].capacity").isEqualTo(1000)
+                .jsonPath("$.nextCursor").isNotEmpty();
+    }
+
+    /**
+     * Тест на метод findAll с ответом в формате CBOR
+     */
+    @Test
+    void whenAcceptCborThenPageShouldBeReturnedInCbor() throws Exception {
+        var body = webTestClient.get()
+                .uri("/api/v1/hdd/?size=2&sort=price&direction=desc")
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        var page = new CBORMapper().readTree(body);
+        assertThat(page.get("content").size(), is(2));
+        assertThat(page.get("content").get(0).get("serialNumber").asText(), is("SERIAL3"));
+    }
+
+    /**
+     * Тест на метод stream: все диски, удовлетворяющие фильтру, по одному на строку
+     */
+    @Test
+    void whenStreamThenShouldBeReturnFilteredHddsAsNdjson() {
+        var hdds = webTestClient.get()
+                .uri("/api/v1/hdd/?minPrice=2000")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(HddDTO.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(hdds.size(), is(2));
+        assertThat(hdds.get(0).getSerialNumber(), is("SERIAL2"));
+    }
+
+    /**
+     * Тест на метод findById
+     */
+    @Test
+    void whenFindByIdThenShouldBeReturnHdd() {
+        webTestClient.get()
+                .uri("/api/v1/hdd/{id}", 1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.serialNumber").isEqualTo("SERIAL1")
+                .jsonPath("$.capacity").isEqualTo(500);
+    }
+
+    /**
+     * Тест на метод findById, когда жесткий диск не найден
+     */
+    @Test
+    void whenFindByIdNotExistingHddThenShouldBeReturnNotFound() {
+        webTestClient.get()
+                .uri("/api/v1/hdd/{id}", Integer.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    /**
+     * Тест на метод findById, когда жесткий диск не найден: ответ содержит заранее созданное тело ошибки
+     */
+    @Test
+    void whenFindByIdNotExistingHddThenShouldBeReturnProblem() {
+        webTestClient.get()
+                .uri("/api/v1/hdd/{id}", Integer.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.detail").isEqualTo("The hdd with the specified ID was not found.");
+    }
+
+    /**
+     * Тест на метод update, когда обновить жесткий диск не удалось
+     */
+    @Test
+    void whenUpdateFailedThenShouldBeReturnBadRequest() {
+        when(hddService.update(any(HddDTO.class), anyInt())).thenReturn(false);
+
+        webTestClient.put()
+                .uri("/api/v1/hdd/{id}", 1)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("""
+                        {
+                            "serialNumber": "SERIAL1",
+                            "manufacturer": "MANUFACTURER1",
+                            "price": 1000,
+                            "quantity": 1,
+                            "capacity": 500
+                        }
+                        """)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
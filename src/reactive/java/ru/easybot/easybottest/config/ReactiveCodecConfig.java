@@ -0,0 +1,101 @@
+package ru.easybot.easybottest.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.accept.HeaderContentTypeResolver;
+import org.springframework.web.reactive.accept.RequestedContentTypeResolver;
+import org.springframework.web.reactive.accept.RequestedContentTypeResolverBuilder;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ReactiveCodecConfig - конфигурационный класс двоичных форматов реактивного режима (профиль reactive).
+ * Кодеки Smile WebFlux регистрирует сам, кодеки CBOR регистрируются здесь только для типа application/cbor,
+ * иначе они перехватили бы и запросы с JSON. Пользовательские кодеки WebFlux ставит раньше стандартных,
+ * поэтому без заголовка Accept ответ явно выбирается в JSON, как и в обычном режиме
+ *
+ * @author Ilya Kaltygin
+ */
+@Profile("reactive")
+@Configuration
+public class ReactiveCodecConfig {
+
+    /**
+     * Кодеки CBOR для реактивного режима
+     *
+     * @param builder построитель сериализатора
+     * @return настройка кодеков
+     */
+    @Bean
+    public CodecCustomizer cborCodecCustomizer(Jackson2ObjectMapperBuilder builder) {
+        var mapper = builder.factory(new CBORFactory()).build();
+        return configurer -> {
+            configurer.customCodecs().register(new CborEncoder(mapper));
+            configurer.customCodecs().register(new Jackson2CborDecoder(mapper, MediaType.APPLICATION_CBOR));
+        };
+    }
+
+    /**
+     * Выбор формата ответа по заголовку Accept, если заголовка нет или он допускает любой тип - JSON
+     *
+     * @return настройка WebFlux
+     */
+    @Bean
+    public WebFluxConfigurer jsonByDefaultConfigurer() {
+        var headerResolver = new HeaderContentTypeResolver();
+        return new WebFluxConfigurer() {
+            @Override
+            public void configureContentTypeResolver(RequestedContentTypeResolverBuilder builder) {
+                builder.resolver(exchange -> {
+                    var mediaTypes = headerResolver.resolveMediaTypes(exchange);
+                    return RequestedContentTypeResolver.MEDIA_TYPE_ALL_LIST.equals(mediaTypes)
+                            ? List.of(MediaType.APPLICATION_JSON, MediaType.ALL)
+                            : mediaTypes;
+                });
+            }
+        };
+    }
+
+    /**
+     * Кодировщик CBOR ответов контроллеров. Jackson2CborEncoder кодирует только отдельные значения,
+     * поэтому значение Mono кодируется целиком, а элементы Flux - одним массивом
+     */
+    private static class CborEncoder extends Jackson2CborEncoder {
+
+        CborEncoder(ObjectMapper mapper) {
+            super(mapper, MediaType.APPLICATION_CBOR);
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+            if (inputStream instanceof Mono) {
+                return Mono.from(inputStream)
+                        .map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints))
+                        .flux();
+            }
+            return Flux.from(inputStream)
+                    .collectList()
+                    .map(values -> encodeValue(values, bufferFactory,
+                            ResolvableType.forClassWithGenerics(List.class, elementType), mimeType, hints))
+                    .flux();
+        }
+    }
+}
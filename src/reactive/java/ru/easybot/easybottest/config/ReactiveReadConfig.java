@@ -0,0 +1,62 @@
+package ru.easybot.easybottest.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.dto.HddDTO;
+import ru.easybot.easybottest.dto.LaptopDTO;
+import ru.easybot.easybottest.dto.MonitorDTO;
+import ru.easybot.easybottest.repository.ReactiveProductReader;
+
+/**
+ * ReactiveReadConfig - конфигурационный класс неблокирующего чтения товаров через R2DBC (профиль reactive).
+ * Преобразователи строк повторяют {@link JdbcReadConfig}, но номера столбцов R2DBC начинаются с нуля
+ *
+ * @author Ilya Kaltygin
+ */
+@Profile("reactive")
+@Configuration
+public class ReactiveReadConfig {
+
+    @Bean
+    public ReactiveProductReader<ComputerDTO> reactiveComputerReader(DatabaseClient databaseClient) {
+        return new ReactiveProductReader<>(databaseClient, "computer", "type", (row, metadata) -> new ComputerDTO(
+                row.get(1, String.class),
+                row.get(2, String.class),
+                row.get(3, Integer.class),
+                row.get(4, Integer.class),
+                row.get(5, String.class)));
+    }
+
+    @Bean
+    public ReactiveProductReader<HddDTO> reactiveHddReader(DatabaseClient databaseClient) {
+        return new ReactiveProductReader<>(databaseClient, "hdd", "capacity", (row, metadata) -> new HddDTO(
+                row.get(1, String.class),
+                row.get(2, String.class),
+                row.get(3, Integer.class),
+                row.get(4, Integer.class),
+                row.get(5, Long.class)));
+    }
+
+    @Bean
+    public ReactiveProductReader<LaptopDTO> reactiveLaptopReader(DatabaseClient databaseClient) {
+        return new ReactiveProductReader<>(databaseClient, "laptop", "size", (row, metadata) -> new LaptopDTO(
+                row.get(1, String.class),
+                row.get(2, String.class),
+                row.get(3, Integer.class),
+                row.get(4, Integer.class),
+                row.get(5, Integer.class)));
+    }
+
+    @Bean
+    public ReactiveProductReader<MonitorDTO> reactiveMonitorReader(DatabaseClient databaseClient) {
+        return new ReactiveProductReader<>(databaseClient, "monitor", "diagonal", (row, metadata) -> new MonitorDTO(
+                row.get(1, String.class),
+                row.get(2, String.class),
+                row.get(3, Integer.class),
+                row.get(4, Integer.class),
+                row.get(5, Integer.class)));
+    }
+}
@@ -0,0 +1,62 @@
+package ru.easybot.easybottest.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.sql.DataSource;
+
+/**
+ * ReactiveStorageConfig - конфигурационный класс источников данных реактивного режима (профиль reactive).
+ * Spring Boot не создает источник данных JDBC, если есть фабрика соединений R2DBC, а запись, импорт, индексы
+ * и фильтры в реактивном режиме по-прежнему работают через JDBC и JPA, поэтому источник данных создается явно
+ * из настроек spring.datasource.*. В профиле prod источник данных создает {@link DurableStorageConfig},
+ * а пул соединений R2DBC подключается к той же базе данных по адресу из {@link StorageProperties}
+ *
+ * @author Ilya Kaltygin
+ */
+@Profile("reactive")
+@Configuration
+@EnableConfigurationProperties({DataSourceProperties.class, R2dbcProperties.class})
+public class ReactiveStorageConfig {
+
+    /**
+     * Создает пул соединений JDBC
+     *
+     * @param dataSourceProperties настройки источника данных spring.datasource.*
+     * @return пул соединений
+     */
+    @Bean
+    @Profile("!prod")
+    public DataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().build();
+    }
+
+    /**
+     * Создает пул соединений R2DBC к постоянной базе данных. Имя пользователя и пароль те же, что у JDBC,
+     * размер пула задается свойством spring.r2dbc.pool.max-size
+     *
+     * @param dataSourceProperties настройки источника данных spring.datasource.*
+     * @param r2dbcProperties      настройки R2DBC spring.r2dbc.*
+     * @param storageProperties    настройки хранилища
+     * @return пул соединений
+     */
+    @Bean(destroyMethod = "dispose")
+    @Profile("prod")
+    public ConnectionPool connectionFactory(DataSourceProperties dataSourceProperties, R2dbcProperties r2dbcProperties,
+                                            StorageProperties storageProperties) {
+        var connectionFactory = ConnectionFactoryBuilder.withUrl(storageProperties.r2dbcUrl())
+                .username(dataSourceProperties.getUsername())
+                .password(dataSourceProperties.getPassword())
+                .build();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .maxSize(r2dbcProperties.getPool().getMaxSize())
+                .build());
+    }
+}
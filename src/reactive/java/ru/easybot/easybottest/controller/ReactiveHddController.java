@@ -0,0 +1,259 @@
+package ru.easybot.easybottest.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springdoc.api.annotations.ParameterObject;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.easybot.easybottest.config.BinaryFormatConfig;
+import ru.easybot.easybottest.dto.BulkResultDTO;
+import ru.easybot.easybottest.dto.HddDTO;
+import ru.easybot.easybottest.dto.MultiGetResultDTO;
+import ru.easybot.easybottest.dto.SearchResultDTO;
+import ru.easybot.easybottest.filter.HddFilter;
+import ru.easybot.easybottest.handler.Problem;
+import ru.easybot.easybottest.idempotency.IdempotencyStore;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
+import ru.easybot.easybottest.repository.ReactiveProductReader;
+import ru.easybot.easybottest.service.HddService;
+import ru.easybot.easybottest.service.StockService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Реактивный контроллер жесткие диски для профиля reactive: те же маршруты и DTO, что у {@link HddController}.
+ * Чтение выполняется через R2DBC без блокировки потоков, а запись - через {@link HddService}
+ * в пуле boundedElastic, чтобы блокирующие вызовы JPA не занимали потоки обработки запросов
+ *
+ * @author Ilya Kaltygin
+ */
+@Tag(name = "ReactiveHddController", description = "Реактивный контроллер, выполняющий обработку входящих запросов связанных с жесткими дисками")
+@Profile("reactive")
+@RestController
+@RequestMapping("api/v1/hdd")
+@AllArgsConstructor
+public class ReactiveHddController {
+
+    /**
+     * Ответ на запрос товара, которого нет
+     */
+    private static final Problem NOT_FOUND = Problem.of(
+            HttpStatus.NOT_FOUND, "The hdd with the specified ID was not found.");
+
+    /**
+     * Неблокирующее чтение жестких дисков
+     */
+    private final ReactiveProductReader<HddDTO> hddReader;
+
+    /**
+     * Сервис по работе с жесткими дисками
+     */
+    private final HddService hddService;
+
+    /**
+     * Сервис изменения остатков товаров
+     */
+    private final StockService stockService;
+
+    /**
+     * Хранилище ответов на запросы с заголовком Idempotency-Key
+     */
+    private final IdempotencyStore idempotencyStore;
+
+    @Operation(
+            summary = "Получить страницу списка жестких дисков",
+            description = """
+                    Метод возвращает страницу списка жестких дисков, отсортированного по полю sort (id, price, manufacturer)
+                    в направлении direction (asc, desc), и курсор следующей страницы nextCursor.
+                    Параметры страницы и фильтра (capacity (объем)) те же, что в обычном режиме.
+                    Параметр fields и заголовок ETag в реактивном режиме не поддерживаются.
+                    Ответ может быть получен в двоичном формате CBOR (application/cbor) или Smile (application/x-jackson-smile).
+                    """)
+    @GetMapping(value = "/", produces = {
+            MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE,
+            BinaryFormatConfig.APPLICATION_SMILE_VALUE})
+    public Mono<CursorPage<HddDTO>> findAll(@ParameterObject @Validated KeysetPageRequest pageRequest,
+                                            @ParameterObject @Validated HddFilter filter) {
+        return hddReader.findPage(pageRequest, filter);
+    }
+
+    @Operation(
+            summary = "Получить поток жестких дисков",
+            description = """
+                    Если запрос содержит заголовок Accept: application/x-ndjson, то метод возвращает все жесткие диски,
+                    удовлетворяющие фильтру, по одному JSON объекту на строку в порядке возрастания идентификатора.
+                    Строки читаются из базы данных по мере отправки клиенту, поэтому медленный клиент
+                    не заставляет держать в памяти весь список
+                    """)
+    @GetMapping(value = "/", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<HddDTO> stream(@ParameterObject @Validated HddFilter filter) {
+        return hddReader.findAll(filter);
+    }
+
+    @Operation(
+            summary = "Получить несколько жестких дисков",
+            description = """
+                    Метод возвращает до 100 жестких дисков по списку идентификаторов ids (например, ids=1,2,3)
+                    или по списку серийных номеров serialNumbers, передается ровно один из списков.
+                    Товары читаются одним запросом к базе данных, а по идентификаторам - сначала из кэша.
+                    Ответ содержит результат по каждому ключу в порядке запроса: найденный товар
+                    или found=false, если товар не найден. Повторяющиеся ключи загружаются один раз.
+                    Если не передан ни один из списков, переданы оба или ключей больше 100,
+                    то возвращается статус BAD_REQUEST.
+                    Запрос выполняется в пуле boundedElastic, как и запись
+                    """
+    )
+    @GetMapping("/batch")
+    public Mono<MultiGetResultDTO<HddDTO>> findMany(@RequestParam(required = false) List<Integer> ids,
+                                                    @RequestParam(required = false) List<String> serialNumbers) {
+        return Mono.fromCallable(() -> hddService.findMany(ids, serialNumbers))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Operation(
+            summary = "Найти жесткие диски для подсказок при вводе",
+            description = """
+                    Метод ищет жесткие диски, серийный номер которых содержит строку q без учета регистра
+                    (строка короче трех символов ищется как начало серийного номера), и производителей,
+                    название которых начинается с q, от самых частых. Поиск выполняется по индексу в памяти
+                    без запросов к базе данных. Параметр limit (от 1 до 100, по умолчанию 10) ограничивает
+                    кол-во результатов каждого вида. Если строка q пустая или limit вне диапазона,
+                    то возвращается статус BAD_REQUEST.
+                    Поиск не блокирует потоки обработки запросов
+                    """
+    )
+    @GetMapping("/search")
+    public Mono<SearchResultDTO> search(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        return Mono.fromSupplier(() -> hddService.search(q, limit));
+    }
+
+    @Operation(
+            summary = "Получить жесткий диск по идентификатору",
+            description = """
+                    Если жесткий диск по заданному идентификатору найден, то метод возвращает объект типа HddDTO.
+                    Иначе завершается заранее созданной ошибкой ProblemException без стека вызовов,
+                    и возвращается статус NOT_FOUND с телом ошибки ProblemDTO
+                    """
+    )
+    @GetMapping("/{id}")
+    public Mono<HddDTO> findById(@PathVariable int id) {
+        return hddReader.findById(id)
+                .switchIfEmpty(Mono.error(NOT_FOUND.getException()));
+    }
+
+    @Operation(
+            summary = "Сохранить жесткий диск",
+            description = """
+                    Метод сохранят жесткий диск в базу данных и возвращает созданный объект типа HddDTO
+                    и статус ответа CREATED.
+                    Если передан заголовок Idempotency-Key, то повтор запроса с тем же ключом возвращает сохраненный ответ
+                    первого запроса с заголовком Idempotent-Replayed, не обращаясь к базе данных, а повтор, пришедший
+                    во время выполнения первого запроса, ждет его ответа. Тот же ключ с другим телом запроса
+                    отклоняется со статусом UNPROCESSABLE_ENTITY. Если товар с таким серийным номером уже есть,
+                    то возвращается статус CONFLICT
+                    """
+    )
+    @PostMapping("/")
+    public Mono<ResponseEntity<HddDTO>> create(@Validated @RequestBody HddDTO hddDTO,
+                                               @RequestHeader(value = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey) {
+        return Mono.fromCallable(() -> idempotencyStore.execute("hdd", idempotencyKey, hddDTO,
+                        () -> new ResponseEntity<>(hddService.create(hddDTO), HttpStatus.CREATED)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Operation(
+            summary = "Сохранить жесткие диски пакетом",
+            description = """
+                    Метод сохраняет до 1000 товаров за один запрос и возвращает объект типа BulkResultDTO
+                    с результатом по каждому элементу: CREATED, INVALID или DUPLICATE.
+                    Если передан заголовок Idempotency-Key, то повтор запроса с тем же ключом возвращает сохраненный ответ
+                    первого запроса с заголовком Idempotent-Replayed, не обращаясь к базе данных, а повтор, пришедший
+                    во время выполнения первого запроса, ждет его ответа. Тот же ключ с другим телом запроса
+                    отклоняется со статусом UNPROCESSABLE_ENTITY
+                    """
+    )
+    @PostMapping("/bulk")
+    public Mono<ResponseEntity<BulkResultDTO<HddDTO>>> createAll(@RequestBody List<HddDTO> hdds,
+                                                                 @RequestHeader(value = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey) {
+        return Mono.fromCallable(() -> idempotencyStore.execute("hdd", idempotencyKey, hdds,
+                        () -> new ResponseEntity<>(hddService.createAll(hdds), HttpStatus.OK)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Operation(
+            summary = "Обновить жесткий диск",
+            description = """
+                    Если обновление жесткого диска будет успешным, то метод вернет статус ответа OK.
+                    Иначе завершается ошибкой ResponseStatusException со статусом BAD_REQUEST"""
+    )
+    @PutMapping("/{id}")
+    public Mono<Void> update(@PathVariable int id, @Validated @RequestBody HddDTO hddDTO) {
+        return updated(() -> hddService.update(hddDTO, id));
+    }
+
+    @Operation(
+            summary = "Частично обновить жесткий диск",
+            description = """
+                    Метод изменяет только переданные в теле запроса поля. Если обновление будет успешным,
+                    то метод вернет статус ответа OK. Иначе завершается ошибкой ResponseStatusException
+                    со статусом BAD_REQUEST"""
+    )
+    @PatchMapping("/{id}")
+    public Mono<Void> patch(@PathVariable int id, @RequestBody Map<String, Object> fields) {
+        return updated(() -> hddService.patch(fields, id));
+    }
+
+    @Operation(
+            summary = "Списать остаток жесткого диска",
+            description = """
+                    Метод атомарно списывает amount единиц жесткого диска (по умолчанию 1) одним запросом
+                    UPDATE ... SET quantity = quantity - amount WHERE quantity >= amount, без чтения и перезаписи строки,
+                    поэтому одновременные списания не теряются и остаток не становится отрицательным.
+                    Если товар не найден, то возвращается статус NOT_FOUND,
+                    если остатка недостаточно - статус CONFLICT"""
+    )
+    @PostMapping("/{id}/stock/decrement")
+    public Mono<Void> decrementStock(@PathVariable int id, @RequestParam(defaultValue = "1") int amount) {
+        return Mono.<Void>fromRunnable(() -> stockService.decrement("hdd", id, amount))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Operation(
+            summary = "Пополнить остаток жесткого диска",
+            description = """
+                    Метод атомарно добавляет amount единиц жесткого диска (по умолчанию 1) одним запросом UPDATE.
+                    Если товар не найден, то возвращается статус NOT_FOUND"""
+    )
+    @PostMapping("/{id}/stock/increment")
+    public Mono<Void> incrementStock(@PathVariable int id, @RequestParam(defaultValue = "1") int amount) {
+        return Mono.<Void>fromRunnable(() -> stockService.increment("hdd", id, amount))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Выполнить блокирующее обновление в пуле boundedElastic
+     *
+     * @param update обновление, возвращающее true в случае успеха
+     * @return пустой результат или ошибка BAD_REQUEST, если обновить не удалось
+     */
+    private Mono<Void> updated(Callable<Boolean> update) {
+        return Mono.fromCallable(update)
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(success -> success
+                        ? Mono.<Void>empty()
+                        : Mono.<Void>error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Failed to update hdd")));
+    }
+}
@@ -0,0 +1,259 @@
+package ru.easybot.easybottest.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springdoc.api.annotations.ParameterObject;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.easybot.easybottest.config.BinaryFormatConfig;
+import ru.easybot.easybottest.dto.BulkResultDTO;
+import ru.easybot.easybottest.dto.LaptopDTO;
+import ru.easybot.easybottest.dto.MultiGetResultDTO;
+import ru.easybot.easybottest.dto.SearchResultDTO;
+import ru.easybot.easybottest.filter.LaptopFilter;
+import ru.easybot.easybottest.handler.Problem;
+import ru.easybot.easybottest.idempotency.IdempotencyStore;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
+import ru.easybot.easybottest.repository.ReactiveProductReader;
+import ru.easybot.easybottest.service.LaptopService;
+import ru.easybot.easybottest.service.StockService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Реактивный контроллер ноутбуки для профиля reactive: те же маршруты и DTO, что у {@link LaptopController}.
+ * Чтение выполняется через R2DBC без блокировки потоков, а запись - через {@link LaptopService}
+ * в пуле boundedElastic, чтобы блокирующие вызовы JPA не занимали потоки обработки запросов
+ *
+ * @author Ilya Kaltygin
+ */
+@Tag(name = "ReactiveLaptopController", description = "Реактивный контроллер, выполняющий обработку входящих запросов связанных с ноутбуками")
+@Profile("reactive")
+@RestController
+@RequestMapping("api/v1/laptop")
+@AllArgsConstructor
+public class ReactiveLaptopController {
+
+    /**
+     * Ответ на запрос товара, которого нет
+     */
+    private static final Problem NOT_FOUND = Problem.of(
+            HttpStatus.NOT_FOUND, "The laptop with the specified ID was not found.");
+
+    /**
+     * Неблокирующее чтение ноутбуков
+     */
+    private final ReactiveProductReader<LaptopDTO> laptopReader;
+
+    /**
+     * Сервис по работе с ноутбуками
+     */
+    private final LaptopService laptopService;
+
+    /**
+     * Сервис изменения остатков товаров
+     */
+    private final StockService stockService;
+
+    /**
+     * Хранилище ответов на запросы с заголовком Idempotency-Key
+     */
+    private final IdempotencyStore idempotencyStore;
+
+    @Operation(
+            summary = "Получить страницу списка ноутбуков",
+            description = """
+                    Метод возвращает страницу списка ноутбуков, отсортированного по полю sort (id, price, manufacturer)
+                    в направлении direction (asc, desc), и курсор следующей страницы nextCursor.
+                    Параметры страницы и фильтра (size (размер экрана)) те же, что в обычном режиме.
+                    Параметр fields и заголовок ETag в реактивном режиме не поддерживаются.
+                    Ответ может быть получен в двоичном формате CBOR (application/cbor) или Smile (application/x-jackson-smile).
+                    """)
+    @GetMapping(value = "/", produces = {
+            MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE,
+            BinaryFormatConfig.APPLICATION_SMILE_VALUE})
+    public Mono<CursorPage<LaptopDTO>> findAll(@ParameterObject @Validated KeysetPageRequest pageRequest,
+                                            @ParameterObject @Validated LaptopFilter filter) {
+        return laptopReader.findPage(pageRequest, filter);
+    }
+
+    @Operation(
+            summary = "Получить поток ноутбуков",
+            description = """
+                    Если запрос содержит заголовок Accept: application/x-ndjson, то метод возвращает все ноутбуки,
+                    удовлетворяющие фильтру, по одному JSON объекту на строку в порядке возрастания идентификатора.
+                    Строки читаются из базы данных по мере отправки клиенту, поэтому медленный клиент
+                    не заставляет держать в памяти весь список
+                    """)
+    @GetMapping(value = "/", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<LaptopDTO> stream(@ParameterObject @Validated LaptopFilter filter) {
+        return laptopReader.findAll(filter);
+    }
+
+    @Operation(
+            summary = "Получить несколько ноутбуков",
+            description = """
+                    Метод возвращает до 100 ноутбуков по списку идентификаторов ids (например, ids=1,2,3)
+                    или по списку серийных номеров serialNumbers, передается ровно один из списков.
+                    Товары читаются одним запросом к базе данных, а по идентификаторам - сначала из кэша.
+                    Ответ содержит результат по каждому ключу в порядке запроса: найденный товар
+                    или found=false, если товар не найден. Повторяющиеся ключи загружаются один раз.
+                    Если не передан ни один из списков, переданы оба или ключей больше 100,
+                    то возвращается статус BAD_REQUEST.
+                    Запрос выполняется в пуле boundedElastic, как и запись
+                    """
+    )
+    @GetMapping("/batch")
+    public Mono<MultiGetResultDTO<LaptopDTO>> findMany(@RequestParam(required = false) List<Integer> ids,
+                                                       @RequestParam(required = false) List<String> serialNumbers) {
+        return Mono.fromCallable(() -> laptopService.findMany(ids, serialNumbers))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Operation(
+            summary = "Найти ноутбуки для подсказок при вводе",
+            description = """
+                    Метод ищет ноутбуки, серийный номер которых содержит строку q без учета регистра
+                    (строка короче трех символов ищется как начало серийного номера), и производителей,
+                    название которых начинается с q, от самых частых. Поиск выполняется по индексу в памяти
+                    без запросов к базе данных. Параметр limit (от 1 до 100, по умолчанию 10) ограничивает
+                    кол-во результатов каждого вида. Если строка q пустая или limit вне диапазона,
+                    то возвращается статус BAD_REQUEST.
+                    Поиск не блокирует потоки обработки запросов
+                    """
+    )
+    @GetMapping("/search")
+    public Mono<SearchResultDTO> search(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        return Mono.fromSupplier(() -> laptopService.search(q, limit));
+    }
+
+    @Operation(
+            summary = "Получить ноутбук по идентификатору",
+            description = """
+                    Если ноутбук по заданному идентификатору найден, то метод возвращает объект типа LaptopDTO.
+                    Иначе завершается заранее созданной ошибкой ProblemException без стека вызовов,
+                    и возвращается статус NOT_FOUND с телом ошибки ProblemDTO
+                    """
+    )
+    @GetMapping("/{id}")
+    public Mono<LaptopDTO> findById(@PathVariable int id) {
+        return laptopReader.findById(id)
+                .switchIfEmpty(Mono.error(NOT_FOUND.getException()));
+    }
+
+    @Operation(
+            summary = "Сохранить ноутбук",
+            description = """
+                    Метод сохранят ноутбук в базу данных и возвращает созданный объект типа LaptopDTO
+                    и статус ответа CREATED.
+                    Если передан заголовок Idempotency-Key, то повтор запроса с тем же ключом возвращает сохраненный ответ
+                    первого запроса с заголовком Idempotent-Replayed, не обращаясь к базе данных, а повтор, пришедший
+                    во время выполнения первого запроса, ждет его ответа. Тот же ключ с другим телом запроса
+                    отклоняется со статусом UNPROCESSABLE_ENTITY. Если товар с таким серийным номером уже есть,
+                    то возвращается статус CONFLICT
+                    """
+    )
+    @PostMapping("/")
+    public Mono<ResponseEntity<LaptopDTO>> create(@Validated @RequestBody LaptopDTO laptopDTO,
+                                                  @RequestHeader(value = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey) {
+        return Mono.fromCallable(() -> idempotencyStore.execute("laptop", idempotencyKey, laptopDTO,
+                        () -> new ResponseEntity<>(laptopService.create(laptopDTO), HttpStatus.CREATED)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Operation(
+            summary = "Сохранить ноутбуки пакетом",
+            description = """
+                    Метод сохраняет до 1000 товаров за один запрос и возвращает объект типа BulkResultDTO
+                    с результатом по каждому элементу: CREATED, INVALID или DUPLICATE.
+                    Если передан заголовок Idempotency-Key, то повтор запроса с тем же ключом возвращает сохраненный ответ
+                    первого запроса с заголовком Idempotent-Replayed, не обращаясь к базе данных, а повтор, пришедший
+                    во время выполнения первого запроса, ждет его ответа. Тот же ключ с другим телом запроса
+                    отклоняется со статусом UNPROCESSABLE_ENTITY
+                    """
+    )
+    @PostMapping("/bulk")
+    public Mono<ResponseEntity<BulkResultDTO<LaptopDTO>>> createAll(@RequestBody List<LaptopDTO> laptops,
+                                                                    @RequestHeader(value = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey) {
+        return Mono.fromCallable(() -> idempotencyStore.execute("laptop", idempotencyKey, laptops,
+                        () -> new ResponseEntity<>(laptopService.createAll(laptops), HttpStatus.OK)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Operation(
+            summary = "Обновить ноутбук",
+            description = """
+                    Если обновление ноутбука будет успешным, то метод вернет статус ответа OK.
+                    Иначе завершается ошибкой ResponseStatusException со статусом BAD_REQUEST"""
+    )
+    @PutMapping("/{id}")
+    public Mono<Void> update(@PathVariable int id, @Validated @RequestBody LaptopDTO laptopDTO) {
+        return updated(() -> laptopService.update(laptopDTO, id));
+    }
+
+    @Operation(
+            summary = "Частично обновить ноутбук",
+            description = """
+                    Метод изменяет только переданные в теле запроса поля. Если обновление будет успешным,
+                    то метод вернет статус ответа OK. Иначе завершается ошибкой ResponseStatusException
+                    со статусом BAD_REQUEST"""
+    )
+    @PatchMapping("/{id}")
+    public Mono<Void> patch(@PathVariable int id, @RequestBody Map<String, Object> fields) {
+        return updated(() -> laptopService.patch(fields, id));
+    }
+
+    @Operation(
+            summary = "Списать остаток ноутбука",
+            description = """
+                    Метод атомарно списывает amount единиц ноутбука (по умолчанию 1) одним запросом
+                    UPDATE ... SET quantity = quantity - amount WHERE quantity >= amount, без чтения и перезаписи строки,
+                    поэтому одновременные списания не теряются и остаток не становится отрицательным.
+                    Если товар не найден, то возвращается статус NOT_FOUND,
+                    если остатка недостаточно - статус CONFLICT"""
+    )
+    @PostMapping("/{id}/stock/decrement")
+    public Mono<Void> decrementStock(@PathVariable int id, @RequestParam(defaultValue = "1") int amount) {
+        return Mono.<Void>fromRunnable(() -> stockService.decrement("laptop", id, amount))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Operation(
+            summary = "Пополнить остаток ноутбука",
+            description = """
+                    Метод атомарно добавляет amount единиц ноутбука (по умолчанию 1) одним запросом UPDATE.
+                    Если товар не найден, то возвращается статус NOT_FOUND"""
+    )
+    @PostMapping("/{id}/stock/increment")
+    public Mono<Void> incrementStock(@PathVariable int id, @RequestParam(defaultValue = "1") int amount) {
+        return Mono.<Void>fromRunnable(() -> stockService.increment("laptop", id, amount))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Выполнить блокирующее обновление в пуле boundedElastic
+     *
+     * @param update обновление, возвращающее true в случае успеха
+     * @return пустой результат или ошибка BAD_REQUEST, если обновить не удалось
+     */
+    private Mono<Void> updated(Callable<Boolean> update) {
+        return Mono.fromCallable(update)
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(success -> success
+                        ? Mono.<Void>empty()
+                        : Mono.<Void>error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Failed to update laptop")));
+    }
+}
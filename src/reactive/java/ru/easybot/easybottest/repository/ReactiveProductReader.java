@@ -0,0 +1,156 @@
+package ru.easybot.easybottest.repository;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.easybot.easybottest.filter.ProductFilter;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Неблокирующее чтение товаров одной категории через R2DBC для реактивного режима (профиль reactive).
+ * Запросы, порядок строк и курсоры те же, что у {@link ProductJdbcReader}: запрос строится {@link ProductQuery},
+ * а преобразователь строки читает столбцы по номерам, начиная с нулевого
+ *
+ * @param <D> тип DTO товара
+ * @author Ilya Kaltygin
+ */
+public class ReactiveProductReader<D> {
+
+    /**
+     * Клиент базы данных R2DBC
+     */
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Начало запроса: выбираемые столбцы и таблица
+     */
+    private final String select;
+
+    /**
+     * Преобразователь строки в DTO
+     */
+    private final BiFunction<Row, RowMetadata, D> rowMapper;
+
+    public ReactiveProductReader(DatabaseClient databaseClient, String table, String attribute,
+                                 BiFunction<Row, RowMetadata, D> rowMapper) {
+        this.databaseClient = databaseClient;
+        this.select = ProductQuery.select(table, attribute);
+        this.rowMapper = rowMapper;
+    }
+
+    /**
+     * Получить страницу товаров, удовлетворяющих фильтру и следующих за позицией курсора
+     *
+     * @param request параметры запроса страницы
+     * @param filter  параметры фильтрации
+     * @return страница товаров и курсор следующей страницы
+     */
+    public Mono<CursorPage<D>> findPage(KeysetPageRequest request, ProductFilter filter) {
+        var query = ProductQuery.page(select, request, filter);
+        var sortColumn = query.sortColumn();
+        return bind(query)
+                .map((row, metadata) -> new PageRow<>(
+                        row.get(0, Integer.class),
+                        (Comparable<?>) row.get(sortColumn),
+                        rowMapper.apply(row, metadata)))
+                .all()
+                .collectList()
+                .map(rows -> page(rows, query));
+    }
+
+    /**
+     * Получить все товары, удовлетворяющие фильтру, по возрастанию идентификатора.
+     * Строки читаются по мере запроса их подписчиком, поэтому медленный клиент не заставляет
+     * держать в памяти весь результат
+     *
+     * @param filter параметры фильтрации
+     * @return поток товаров
+     */
+    public Flux<D> findAll(ProductFilter filter) {
+        return bind(ProductQuery.all(select, filter))
+                .map(rowMapper)
+                .all();
+    }
+
+    /**
+     * Получить товар по идентификатору
+     *
+     * @param id идентификатор
+     * @return товар или пустой результат, если товар не найден
+     */
+    public Mono<D> findById(int id) {
+        return databaseClient.sql(select + " WHERE id = :id")
+                .bind("id", id)
+                .map(rowMapper)
+                .one();
+    }
+
+    /**
+     * Подставить в запрос значения параметров
+     *
+     * @param query запрос
+     * @return запрос, готовый к выполнению
+     */
+    private DatabaseClient.GenericExecuteSpec bind(ProductQuery query) {
+        var spec = databaseClient.sql(query.getSql());
+        var parameters = query.getParameters();
+        for (var name : parameters.getParameterNames()) {
+            spec = spec.bind(name, parameters.getValue(name));
+        }
+        return spec;
+    }
+
+    /**
+     * Собрать страницу из size + 1 выбранных строк: лишняя строка отбрасывается и означает, что есть следующая страница
+     *
+     * @param rows  выбранные строки
+     * @param query запрос страницы
+     * @return страница
+     */
+    private CursorPage<D> page(List<PageRow<D>> rows, ProductQuery query) {
+        var size = query.getSize();
+        var content = rows.stream()
+                .limit(size)
+                .map(PageRow::getProduct)
+                .collect(Collectors.toList());
+        if (rows.size() <= size) {
+            return new CursorPage<>(content, null);
+        }
+        var last = rows.get(size - 1);
+        return new CursorPage<>(content, query.nextCursor(last.getId(), last.getSortValue()));
+    }
+
+    /**
+     * Строка страницы: товар и значения, нужные для курсора
+     *
+     * @param <D> тип DTO товара
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class PageRow<D> {
+
+        /**
+         * Идентификатор
+         */
+        private final int id;
+
+        /**
+         * Значение поля сортировки
+         */
+        private final Comparable<?> sortValue;
+
+        /**
+         * Товар
+         */
+        private final D product;
+    }
+}
@@ -0,0 +1,102 @@
+package ru.easybot.easybottest.bloom;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * Тесты для фильтра Блума BloomFilter
+ *
+ * @author Ilya Kaltygin
+ */
+class BloomFilterTest {
+
+    /**
+     * Кол-во добавляемых строк
+     */
+    private static final int INSERTIONS = 10_000;
+
+    /**
+     * Кол-во проверяемых строк, которые не добавлялись
+     */
+    private static final int PROBES = 100_000;
+
+    /**
+     * Все добавленные строки найдены, а доля ложноположительных ответов для недобавленных строк
+     * не больше удвоенной заданной при ожидаемом кол-ве строк
+     */
+    @Test
+    void whenExpectedInsertionsAddedThenNoFalseNegativesAndFalsePositiveRateShouldBeBounded() {
+        for (var falsePositiveRate : new double[] {0.01, 0.001}) {
+            var filter = new BloomFilter(INSERTIONS, falsePositiveRate);
+            for (var i = 0; i < INSERTIONS; i++) {
+                filter.put("SN-" + i);
+            }
+
+            for (var i = 0; i < INSERTIONS; i++) {
+                assertThat("SN-" + i, filter.mightContain("SN-" + i), is(true));
+            }
+            var falsePositives = 0;
+            for (var i = 0; i < PROBES; i++) {
+                if (filter.mightContain("OTHER-" + i)) {
+                    falsePositives++;
+                }
+            }
+            assertThat("rate " + falsePositiveRate, (double) falsePositives / PROBES,
+                    lessThanOrEqualTo(2 * falsePositiveRate));
+        }
+    }
+
+    /**
+     * Размер битового массива кратен 64 и не меньше оптимального для ожидаемого кол-ва строк
+     */
+    @Test
+    void whenCreateThenBitCountShouldFitExpectedInsertions() {
+        var filter = new BloomFilter(INSERTIONS, 0.01);
+        var optimal = -INSERTIONS * Math.log(0.01) / (Math.log(2) * Math.log(2));
+
+        assertThat(filter.bitCount() % Long.SIZE, is(0L));
+        assertThat((double) filter.bitCount(), greaterThanOrEqualTo(optimal));
+        assertThat(new BloomFilter(0, 0.01).bitCount(), is((long) Long.SIZE));
+    }
+
+    /**
+     * Строки, добавленные параллельно из нескольких потоков в одни и те же слова, не теряются
+     */
+    @Test
+    void whenPutConcurrentlyThenNoValueShouldBeLost() throws Exception {
+        var filter = new BloomFilter(INSERTIONS, 0.01);
+        var threads = 4;
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            var tasks = new ArrayList<Callable<Void>>();
+            for (var t = 0; t < threads; t++) {
+                var thread = t;
+                tasks.add(() -> {
+                    for (var i = thread; i < INSERTIONS; i += threads) {
+                        filter.put("SN-" + i);
+                    }
+                    return null;
+                });
+            }
+            for (var future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+
+        for (var i = 0; i < INSERTIONS; i++) {
+            assertThat("SN-" + i, filter.mightContain("SN-" + i), is(true));
+        }
+    }
+}
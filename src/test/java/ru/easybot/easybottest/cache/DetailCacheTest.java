@@ -0,0 +1,130 @@
+package ru.easybot.easybottest.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Тесты для кэша DetailCache
+ *
+ * @author Ilya Kaltygin
+ */
+class DetailCacheTest {
+
+    @Test
+    public void whenKeyInvalidatedDuringLoadThenLoadedValueShouldNotBeCached() {
+        var cache = new DetailCache<Integer, String>("hdd", 10);
+
+        cache.get(1, id -> {
+            cache.invalidate(1);
+            return Optional.of("old");
+        });
+
+        assertThat(cache.get(1, id -> Optional.of("new")), is(Optional.of("new")));
+        assertThat(cache.stats().getMisses(), is(2L));
+    }
+
+    @Test
+    public void whenOtherKeyInvalidatedDuringLoadThenLoadedValueShouldBeCached() {
+        var cache = new DetailCache<Integer, String>("hdd", 10);
+
+        cache.get(1, id -> {
+            cache.invalidate(2);
+            return Optional.of("first");
+        });
+        cache.getAll(List.of(2, 3), ids -> {
+            cache.invalidate(1);
+            return Map.of(2, "second", 3, "third");
+        });
+
+        assertThat(cache.get(2, id -> Optional.empty()), is(Optional.of("second")));
+        assertThat(cache.get(3, id -> Optional.empty()), is(Optional.of("third")));
+        assertThat(cache.get(1, id -> Optional.empty()), is(Optional.empty()));
+    }
+
+    @Test
+    public void whenGetAllThenOnlyMissingKeysShouldBeLoadedInOneCall() {
+        var cache = new DetailCache<Integer, String>("hdd", 10);
+        cache.get(1, id -> Optional.of("first"));
+        var loaded = new ArrayList<Collection<Integer>>();
+
+        var found = cache.getAll(List.of(1, 2, 3), ids -> {
+            loaded.add(List.copyOf(ids));
+            return Map.of(2, "second");
+        });
+
+        assertThat(found, is(Map.of(1, "first", 2, "second")));
+        assertThat(loaded.size(), is(1));
+        assertThat(Set.copyOf(loaded.get(0)), is(Set.of(2, 3)));
+        assertThat(cache.stats().getHits(), is(1L));
+        assertThat(cache.stats().getMisses(), is(3L));
+    }
+
+    @Test
+    public void whenGetAllTwiceThenSecondCallShouldNotLoadFoundKeys() {
+        var cache = new DetailCache<Integer, String>("hdd", 10);
+        cache.getAll(List.of(1, 2, 3), ids -> Map.of(1, "first", 2, "second"));
+
+        var found = cache.getAll(List.of(1, 2, 3), ids -> {
+            assertThat(List.copyOf(ids), is(List.of(3)));
+            return Map.of();
+        });
+
+        assertThat(found, is(Map.of(1, "first", 2, "second")));
+        assertThat(cache.getAll(List.of(1, 2), ids -> {
+            throw new AssertionError("Cached values should not be loaded again");
+        }), is(Map.of(1, "first", 2, "second")));
+    }
+
+    @Test
+    public void whenGetAllLoaderFailsThenKeysShouldBeLoadedAgain() {
+        var cache = new DetailCache<Integer, String>("hdd", 10);
+
+        assertThrows(IllegalStateException.class, () -> cache.getAll(List.of(1, 2), ids -> {
+            throw new IllegalStateException();
+        }));
+
+        assertThat(cache.getAll(List.of(1, 2), ids -> Map.of(1, "first", 2, "second")),
+                is(Map.of(1, "first", 2, "second")));
+        assertThat(cache.stats().getSize(), is(2));
+    }
+
+    @Test
+    public void whenLoaderFailsThenNextGetShouldLoadAgain() {
+        var cache = new DetailCache<Integer, String>("hdd", 10);
+
+        assertThrows(IllegalStateException.class, () -> cache.get(1, id -> {
+            throw new IllegalStateException();
+        }));
+
+        assertThat(cache.get(1, id -> Optional.of("loaded")), is(Optional.of("loaded")));
+        assertThat(cache.stats().getSize(), is(1));
+    }
+
+    @Test
+    public void whenSizeExceededThenLeastRecentlyUsedShouldBeEvicted() throws InterruptedException {
+        var cache = new DetailCache<Integer, String>("hdd", 2);
+
+        cache.get(1, id -> Optional.of("first"));
+        Thread.sleep(1);
+        cache.get(2, id -> Optional.of("second"));
+        Thread.sleep(1);
+        cache.get(1, id -> Optional.empty());
+        Thread.sleep(1);
+        cache.get(3, id -> Optional.of("third"));
+
+        assertThat(cache.stats().getSize(), is(2));
+        assertThat(cache.stats().getEvictions(), is(1L));
+        assertThat(cache.get(1, id -> Optional.empty()), is(Optional.of("first")));
+        assertThat(cache.get(2, id -> Optional.empty()), is(Optional.empty()));
+    }
+}
@@ -0,0 +1,93 @@
+package ru.easybot.easybottest.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.easybot.easybottest.EasybotTestApplication;
+import ru.easybot.easybottest.repository.ProductRows;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Тесты двоичных форматов CBOR и Smile на эндпоинтах всех категорий товаров
+ *
+ * @author Ilya Kaltygin
+ */
+@SpringBootTest(classes = EasybotTestApplication.class)
+@AutoConfigureMockMvc
+class BinaryFormatConfigTest {
+
+    /**
+     * Обеспечивает возможность отправки запросов на контроллеры и проверки их ответов
+     */
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * Читает идентификаторы созданных товаров
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Товар, созданный запросом в формате Smile, читается по идентификатору и списком в формате CBOR
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenCreateWithSmileBodyThenProductShouldBeReadInCbor(String category) throws Exception {
+        var serialNumber = "BINARY-" + category;
+        var attribute = ProductRows.attribute(category);
+        var attributeValue = ProductRows.attributeValue(category);
+        var product = ProductRows.fields(category, serialNumber, "BINARY-MANUFACTURER", 10000, 10);
+
+        mockMvc.perform(post("/api/v1/{category}/", category)
+                        .contentType(BinaryFormatConfig.APPLICATION_SMILE_VALUE)
+                        .content(new SmileMapper().writeValueAsBytes(product)))
+                .andDo(print())
+                .andExpect(status().isCreated());
+        var id = jdbcTemplate.queryForObject(
+                String.format("SELECT id FROM %s WHERE serial_number = ?", category), Integer.class, serialNumber);
+
+        var detail = readCbor(get("/api/v1/{category}/{id}", category, id));
+        assertThat(detail.get("serialNumber").asText(), is(serialNumber));
+        assertThat(detail.get(attribute).asText(), is(attributeValue.toString()));
+
+        var page = readCbor(get("/api/v1/{category}/", category).param("manufacturer", "BINARY-MANUFACTURER"));
+        assertThat(page.get("content").size(), is(1));
+        assertThat(page.get("content").get(0).get("serialNumber").asText(), is(serialNumber));
+    }
+
+    /**
+     * Выполнить запрос с заголовком Accept: application/cbor и прочитать ответ
+     *
+     * @param request запрос
+     * @return дерево ответа
+     * @throws Exception при ошибке запроса или чтения ответа
+     */
+    private JsonNode readCbor(MockHttpServletRequestBuilder request) throws Exception {
+        var body = mockMvc.perform(request.accept(MediaType.APPLICATION_CBOR))
+                .andDo(print())
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        return new CBORMapper().readTree(body);
+    }
+}
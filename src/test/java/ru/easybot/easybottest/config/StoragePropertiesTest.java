@@ -0,0 +1,35 @@
+package ru.easybot.easybottest.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Тесты для настроек хранилища StorageProperties
+ *
+ * @author Ilya Kaltygin
+ */
+class StoragePropertiesTest {
+
+    @Test
+    public void whenFileModeThenUrlsShouldPointToSameFile() {
+        var properties = new StorageProperties();
+        properties.setFile("/data/easybot");
+
+        assertThat(properties.jdbcUrl(), is("jdbc:h2:file:/data/easybot"
+                + ";CACHE_SIZE=65536;QUERY_CACHE_SIZE=64;WRITE_DELAY=500;DB_CLOSE_ON_EXIT=FALSE"));
+        assertThat(properties.r2dbcUrl(), is("r2dbc:h2:file:////data/easybot"));
+    }
+
+    @Test
+    public void whenTcpModeThenUrlsShouldPointToSameServer() {
+        var properties = new StorageProperties();
+        properties.setMode(StorageProperties.Mode.TCP);
+        properties.setTcpAddress("db:9092");
+
+        assertThat(properties.jdbcUrl(), is("jdbc:h2:tcp://db:9092/./data/easybot"
+                + ";CACHE_SIZE=65536;QUERY_CACHE_SIZE=64;WRITE_DELAY=500"));
+        assertThat(properties.r2dbcUrl(), is("r2dbc:h2:tcp://db:9092/./data/easybot"));
+    }
+}
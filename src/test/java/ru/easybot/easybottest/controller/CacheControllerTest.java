@@ -0,0 +1,79 @@
+package ru.easybot.easybottest.controller;
+
+import org.json.JSONArray;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.easybot.easybottest.EasybotTestApplication;
+import ru.easybot.easybottest.cache.DetailCache;
+import ru.easybot.easybottest.cache.Versioned;
+import ru.easybot.easybottest.dto.MonitorDTO;
+
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Тесты для контроллера CacheController
+ *
+ * @author Ilya Kaltygin
+ */
+@SpringBootTest(classes = EasybotTestApplication.class)
+@AutoConfigureMockMvc
+class CacheControllerTest {
+
+    /**
+     * Обеспечивает возможность отправки запрсоов на тестируемый контроллер и проверки его ответов
+     */
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * Кэш мониторов
+     */
+    @Autowired
+    private DetailCache<Integer, Versioned<MonitorDTO>> monitorCache;
+
+    /**
+     * Контекст приложения общий для тестов, поэтому кэш мониторов может быть заполнен другими тестами:
+     * проверяется прирост статистики после одного промаха и одного попадания
+     */
+    @Test
+    public void whenGetStatsThenShouldBeReturnHitsAndMissesPerCategory() throws Exception {
+        var monitor = MonitorDTO.builder()
+                .serialNumber("1")
+                .manufacturer("Samsung")
+                .price(10000)
+                .quantity(1)
+                .diagonal(24)
+                .build();
+        monitorCache.invalidate(-1);
+        var before = monitorCache.stats();
+        monitorCache.get(-1, id -> Optional.of(new Versioned<>(monitor, 1L)));
+        monitorCache.get(-1, id -> Optional.empty());
+
+        var response = mockMvc.perform(get("/api/v1/cache/stats"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        var stats = new JSONArray(response);
+        assertThat(stats.length(), is(4));
+        for (var i = 0; i < stats.length(); i++) {
+            var cache = stats.getJSONObject(i);
+            if ("monitor".equals(cache.getString("name"))) {
+                assertThat(cache.getInt("size"), is(before.getSize() + 1));
+                assertThat(cache.getLong("hits"), is(before.getHits() + 1));
+                assertThat(cache.getLong("misses"), is(before.getMisses() + 1));
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package ru.easybot.easybottest.controller;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.easybot.easybottest.EasybotTestApplication;
+import ru.easybot.easybottest.dto.CatalogItemDTO;
+import ru.easybot.easybottest.dto.CatalogPageDTO;
+import ru.easybot.easybottest.dto.HddDTO;
+import ru.easybot.easybottest.dto.MonitorDTO;
+import ru.easybot.easybottest.filter.ProductFilter;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
+import ru.easybot.easybottest.service.CatalogService;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Тесты для контроллера CatalogController
+ *
+ * @author Ilya Kaltygin
+ */
+@SpringBootTest(classes = EasybotTestApplication.class)
+@AutoConfigureMockMvc
+class CatalogControllerTest {
+
+    /**
+     * Обеспечивает возможность отправки запрсоов на тестируемый контроллер и проверки его ответов
+     */
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * Заглушка сервиса
+     */
+    @MockBean
+    private CatalogService catalogService;
+
+    /**
+     * Тест на метод findAll. Товары разных категорий возвращаются одной страницей
+     */
+    @Test
+    void whenFindAllThenShouldBeReturnProductsOfAllCategories() throws Exception {
+        var hdd = HddDTO.builder()
+                .serialNumber("SERIAL")
+                .manufacturer("MANUFACTURER1")
+                .price(5000)
+                .quantity(10)
+                .capacity(500)
+                .build();
+
+        var monitor = MonitorDTO.builder()
+                .serialNumber("SERIAL2")
+                .manufacturer("MANUFACTURER1")
+                .price(10000)
+                .quantity(3)
+                .diagonal(27)
+                .build();
+
+        ArgumentCaptor<ProductFilter> argumentCaptor = ArgumentCaptor.forClass(ProductFilter.class);
+        when(catalogService.findAll(any(KeysetPageRequest.class), argumentCaptor.capture()))
+                .thenReturn(new CatalogPageDTO(
+                        List.of(new CatalogItemDTO("hdd", hdd), new CatalogItemDTO("monitor", monitor)),
+                        "NEXT",
+                        List.of("laptop"),
+                        true));
+
+        mockMvc.perform(get("/api/v1/catalog")
+                        .param("sort", "price")
+                        .param("manufacturer", "MANUFACTURER1"))
+                .andDo(print())
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentType(MediaType.APPLICATION_JSON),
+                        content().json("""
+                                {
+                                "content": [
+                                {
+                                    "category": "hdd",
+                                    "product": {
+                                        "serialNumber": "SERIAL",
+                                        "manufacturer": "MANUFACTURER1",
+                                        "price": 5000,
+                                        "quantity": 10,
+                                        "capacity": 500
+                                    }
+                                },
+                                {
+                                    "category": "monitor",
+                                    "product": {
+                                        "serialNumber": "SERIAL2",
+                                        "manufacturer": "MANUFACTURER1",
+                                        "price": 10000,
+                                        "quantity": 3,
+                                        "diagonal": 27
+                                    }
+                                }
+                                ],
+                                "nextCursor": "NEXT",
+                                "timedOut": ["laptop"],
+                                "partial": true
+                                }
+                                """)
+                );
+
+        assertThat(argumentCaptor.getValue().getManufacturer(), is("MANUFACTURER1"));
+    }
+
+    /**
+     * Тест на метод findAll. Когда запрошен размер страницы меньше допустимого
+     */
+    @Test
+    void whenPageSizeIsZeroThenShouldBeReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/catalog").param("size", "0"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verify(catalogService, never()).findAll(any(KeysetPageRequest.class), any(ProductFilter.class));
+    }
+}
@@ -1,5 +1,8 @@
 package ru.easybot.easybottest.controller;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -7,25 +10,41 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.server.ResponseStatusException;
 import ru.easybot.easybottest.EasybotTestApplication;
+import ru.easybot.easybottest.cache.Versioned;
+import ru.easybot.easybottest.dto.BulkItemResultDTO;
+import ru.easybot.easybottest.dto.BulkItemStatus;
+import ru.easybot.easybottest.dto.BulkResultDTO;
 import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.filter.ComputerFilter;
+import ru.easybot.easybottest.handler.GlobalExceptionHandler;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
 import ru.easybot.easybottest.service.ComputerService;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -49,6 +68,12 @@ class ComputerControllerTest {
     @MockBean
     private ComputerService computerService;
 
+    /**
+     * Реестр метрик
+     */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     /**
      * Тест на метод findAll
      */
@@ -78,7 +103,8 @@ class ComputerControllerTest {
                 .type("MONOBLOCK")
                 .build();
 
-        when(computerService.findAll()).thenReturn(List.of(computer1, computer2, computer3));
+        when(computerService.findAll(any(KeysetPageRequest.class), any(ComputerFilter.class)))
+                .thenReturn(new CursorPage<>(List.of(computer1, computer2, computer3), "NEXT"));
 
         mockMvc.perform(get("/api/v1/computer/"))
                 .andDo(print())
@@ -86,7 +112,8 @@ class ComputerControllerTest {
                         status().isOk(),
                         content().contentType(MediaType.APPLICATION_JSON),
                         content().json("""
-                                [
+                                {
+                                "content": [
                                 {
                                     "serialNumber": "SERIAL",
                                     "manufacturer": "MANUFACTURER1",
@@ -108,11 +135,181 @@ class ComputerControllerTest {
                                     "quantity": 155,
                                     "type": "MONOBLOCK"
                                 }
+                                ],
+                                "nextCursor": "NEXT"
+                                }
+                                """)
+                );
+    }
+
+    /**
+     * Тест на метод findAll. Когда запрошен размер страницы больше допустимого
+     */
+    @Test
+    void whenPageSizeExceedsLimitThenShouldBeReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/computer/").param("size", "501"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verify(computerService, never()).findAll(any(KeysetPageRequest.class), any(ComputerFilter.class));
+    }
+
+    /**
+     * Тест на метод findAll. Когда заданы параметры фильтрации
+     */
+    @Test
+    void whenFindAllWithFilterThenShouldBePassedToService() throws Exception {
+        ArgumentCaptor<ComputerFilter> argumentCaptor = ArgumentCaptor.forClass(ComputerFilter.class);
+        when(computerService.findAll(any(KeysetPageRequest.class), argumentCaptor.capture()))
+                .thenReturn(new CursorPage<>(List.of(), null));
+
+        mockMvc.perform(get("/api/v1/computer/")
+                        .param("manufacturer", "MANUFACTURER1")
+                        .param("minPrice", "10000")
+                        .param("maxPrice", "20000")
+                        .param("inStock", "true")
+                        .param("type", "DESKTOP"))
+                .andDo(print())
+                .andExpect(status().isOk());
+
+        var filter = argumentCaptor.getValue();
+        assertThat(filter.getManufacturer(), is("MANUFACTURER1"));
+        assertThat(filter.getMinPrice(), is(10000));
+        assertThat(filter.getMaxPrice(), is(20000));
+        assertThat(filter.getInStock(), is(true));
+        assertThat(filter.getType(), is("DESKTOP"));
+    }
+
+    /**
+     * Тест на метод findAll. Когда минимальная цена отрицательная
+     */
+    @Test
+    void whenMinPriceIsNegativeThenShouldBeReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/computer/").param("minPrice", "-1"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verify(computerService, never()).findAll(any(KeysetPageRequest.class), any(ComputerFilter.class));
+    }
+
+    /**
+     * Тест на метод findAll. Ошибка валидации учитывается в счетчике ошибок
+     */
+    @Test
+    void whenBadRequestThenShouldBeCountedInErrorMetrics() throws Exception {
+        var before = badRequestErrors();
+
+        mockMvc.perform(get("/api/v1/computer/").param("minPrice", "-1"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        assertThat(badRequestErrors(), is(before + 1));
+    }
+
+    /**
+     * Тест на метод findAll. Когда версия категории совпадает с заголовком If-None-Match
+     */
+    @Test
+    void whenCategoryNotModifiedThenShouldBeReturnNotModified() throws Exception {
+        when(computerService.getCategoryVersion()).thenReturn(7L);
+
+        mockMvc.perform(get("/api/v1/computer/").header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andDo(print())
+                .andExpectAll(
+                        status().isNotModified(),
+                        header().string(HttpHeaders.ETAG, "\"7\""),
+                        content().string("")
+                );
+
+        verify(computerService, never()).findAll(any(KeysetPageRequest.class), any(ComputerFilter.class));
+    }
+
+    /**
+     * Тест на метод export. Выгрузка компьютеров в формате JSON массива
+     */
+    @Test
+    void whenExportThenShouldBeReturnJsonArray() throws Exception {
+        var computer1 = ComputerDTO.builder()
+                .serialNumber("SERIAL")
+                .manufacturer("MANUFACTURER1")
+                .price(10000)
+                .quantity(10)
+                .type("NETTOP")
+                .build();
+
+        var computer2 = ComputerDTO.builder()
+                .serialNumber("SERIAL2")
+                .manufacturer("MANUFACTURER1")
+                .price(10000)
+                .quantity(200)
+                .type("DESKTOP")
+                .build();
+
+        doAnswer(invocation -> {
+            Consumer<ComputerDTO> consumer = invocation.getArgument(0);
+            consumer.accept(computer1);
+            consumer.accept(computer2);
+            return null;
+        }).when(computerService).export(any());
+
+        mockMvc.perform(get("/api/v1/computer/export"))
+                .andDo(print())
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentType(MediaType.APPLICATION_JSON),
+                        content().json("""
+                                [
+                                {
+                                    "serialNumber": "SERIAL",
+                                    "manufacturer": "MANUFACTURER1",
+                                    "price": 10000,
+                                    "quantity": 10,
+                                    "type": "NETTOP"
+                                },
+                                {
+                                    "serialNumber": "SERIAL2",
+                                    "manufacturer": "MANUFACTURER1",
+                                    "price": 10000,
+                                    "quantity": 200,
+                                    "type": "DESKTOP"
+                                }
                                 ]
                                 """)
                 );
     }
 
+    /**
+     * Тест на метод export. Выгрузка компьютеров в формате NDJSON
+     */
+    @Test
+    void whenExportNdjsonThenShouldBeReturnOneComputerPerLine() throws Exception {
+        var computer1 = ComputerDTO.builder()
+                .serialNumber("SERIAL")
+                .manufacturer("MANUFACTURER1")
+                .price(10000)
+                .quantity(10)
+                .type("NETTOP")
+                .build();
+
+        doAnswer(invocation -> {
+            Consumer<ComputerDTO> consumer = invocation.getArgument(0);
+            consumer.accept(computer1);
+            consumer.accept(computer1);
+            return null;
+        }).when(computerService).export(any());
+
+        var line = "{\"serialNumber\":\"SERIAL\",\"manufacturer\":\"MANUFACTURER1\","
+                + "\"price\":10000,\"quantity\":10,\"type\":\"NETTOP\"}\n";
+
+        mockMvc.perform(get("/api/v1/computer/export").param("format", "ndjson"))
+                .andDo(print())
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentType("application/x-ndjson"),
+                        content().string(line + line)
+                );
+    }
+
     /**
      * Тест на метод FindById(int id). Когда компьютер по заданному идентификатору найден.
      */
@@ -127,12 +324,14 @@ class ComputerControllerTest {
                 .build();
 
         ArgumentCaptor<Integer> argumentCaptor = ArgumentCaptor.forClass(Integer.class);
-        when(computerService.findById(argumentCaptor.capture())).thenReturn(Optional.of(computer1));
+        when(computerService.findById(argumentCaptor.capture())).thenReturn(Optional.of(new Versioned<>(computer1, 3L)));
 
         mockMvc.perform(get("/api/v1/computer/1"))
                 .andDo(print())
                 .andExpectAll(
                         status().isOk(),
+                        header().string(HttpHeaders.ETAG, "\"3\""),
+                        header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT),
                         content().contentType(MediaType.APPLICATION_JSON),
                         content().json("""
                                 {
@@ -167,6 +366,75 @@ class ComputerControllerTest {
         assertThat(argumentCaptor.getValue(), is(1));
     }
 
+    /**
+     * Тест на метод FindById(int id). Когда версия компьютера совпадает с заголовком If-None-Match
+     */
+    @Test
+    void whenNotModifiedByIdThenShouldBeReturnNotModified() throws Exception {
+        when(computerService.findById(1)).thenReturn(Optional.of(new Versioned<>(ComputerDTO.builder().build(), 3L)));
+
+        mockMvc.perform(get("/api/v1/computer/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andDo(print())
+                .andExpectAll(
+                        status().isNotModified(),
+                        header().string(HttpHeaders.ETAG, "\"3\""),
+                        header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT),
+                        content().string("")
+                );
+    }
+
+    /**
+     * Тест на метод findAll. Когда запрошены только некоторые поля
+     */
+    @Test
+    void whenFindAllWithFieldsThenShouldBeReturnOnlyTheseFields() throws Exception {
+        when(computerService.findAll(any(KeysetPageRequest.class), any(ComputerFilter.class), eq("serialNumber,price")))
+                .thenReturn(new CursorPage<>(List.of(Map.of("serialNumber", "SERIAL", "price", 10000)), null));
+
+        mockMvc.perform(get("/api/v1/computer/").param("fields", "serialNumber,price"))
+                .andDo(print())
+                .andExpectAll(
+                        status().isOk(),
+                        content().json("""
+                                {
+                                "content": [
+                                {
+                                    "serialNumber": "SERIAL",
+                                    "price": 10000
+                                }
+                                ],
+                                "nextCursor": null
+                                }
+                                """, true)
+                );
+
+        verify(computerService, never()).findAll(any(KeysetPageRequest.class), any(ComputerFilter.class));
+    }
+
+    /**
+     * Тест на метод FindById(int id). Когда запрошены только некоторые поля
+     */
+    @Test
+    void whenFindByIdWithFieldsThenShouldBeReturnOnlyTheseFields() throws Exception {
+        var computer = ComputerDTO.builder()
+                .serialNumber("SERIAL")
+                .manufacturer("MANUFACTURER1")
+                .build();
+        when(computerService.findById(1)).thenReturn(Optional.of(new Versioned<>(computer, 3L)));
+
+        mockMvc.perform(get("/api/v1/computer/1").param("fields", "manufacturer"))
+                .andDo(print())
+                .andExpectAll(
+                        status().isOk(),
+                        content().json("""
+                                {
+                                    "manufacturer": "MANUFACTURER1"
+                                }
+                                """, true),
+                        header().string(HttpHeaders.ETAG, not("\"3\""))
+                );
+    }
+
     /**
      * Тест на метод Save(ComputerDTO computerDTO). Когда добавление компьютера прошло успешно
      */
@@ -248,6 +516,83 @@ class ComputerControllerTest {
         assertThat(argumentCaptor.getValue(), is(savedComputer));
     }
 
+    /**
+     * Тест на метод createAll. Один товар сохранен, второй - дубликат
+     */
+    @Test
+    void whenCreateAllThenShouldBeReturnResultPerItem() throws Exception {
+        var computer1 = ComputerDTO.builder()
+                .serialNumber("SERIAL")
+                .manufacturer("MANUFACTURER1")
+                .price(10000)
+                .quantity(10)
+                .type("NETTOP")
+                .build();
+
+        var result = BulkResultDTO.<ComputerDTO>builder()
+                .created(1)
+                .failed(1)
+                .items(List.of(
+                        BulkItemResultDTO.<ComputerDTO>builder()
+                                .index(0)
+                                .status(BulkItemStatus.CREATED)
+                                .item(computer1)
+                                .build(),
+                        BulkItemResultDTO.<ComputerDTO>builder()
+                                .index(1)
+                                .status(BulkItemStatus.DUPLICATE)
+                                .errors(List.of("Serial number is repeated in the request"))
+                                .build()))
+                .build();
+
+        ArgumentCaptor<List<ComputerDTO>> argumentCaptor = ArgumentCaptor.forClass(List.class);
+        when(computerService.createAll(argumentCaptor.capture())).thenReturn(result);
+
+        var jsonObject = new JSONObject();
+        jsonObject.put("serialNumber", "SERIAL");
+        jsonObject.put("manufacturer", "MANUFACTURER1");
+        jsonObject.put("price", 10000);
+        jsonObject.put("quantity", 10);
+        jsonObject.put("type", "NETTOP");
+
+        mockMvc.perform(post("/api/v1/computer/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new JSONArray(List.of(jsonObject, jsonObject)).toString()))
+                .andDo(print())
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentType(MediaType.APPLICATION_JSON),
+                        content().json("""
+                                {
+                                    "created": 1,
+                                    "failed": 1,
+                                    "items": [
+                                    {
+                                        "index": 0,
+                                        "status": "CREATED",
+                                        "item": {
+                                            "serialNumber": "SERIAL",
+                                            "manufacturer": "MANUFACTURER1",
+                                            "price": 10000,
+                                            "quantity": 10,
+                                            "type": "NETTOP"
+                                        }
+                                    },
+                                    {
+                                        "index": 1,
+                                        "status": "DUPLICATE",
+                                        "errors": ["Serial number is repeated in the request"]
+                                    }
+                                    ]
+                                }
+                                """)
+                );
+
+        verify(computerService).createAll(argumentCaptor.capture());
+
+        assertThat(argumentCaptor.getValue(), is(List.of(computer1, computer1)));
+    }
+
     /**
      * Тест на метод update(ComputerDTO computer). Когда обновление прошло успешно
      */
@@ -317,4 +662,54 @@ class ComputerControllerTest {
 
         assertThat(argumentCaptor.getValue(), is(updatedComputer));
     }
-}
\ No newline at end of file
+
+    /**
+     * Тест на метод patch(Map<String, Object> fields). Когда передано только изменяемое поле
+     */
+    @Test
+    void whenPatchIsSuccessfulThenShouldReturnOk() throws Exception {
+        var jsonObject = new JSONObject();
+        jsonObject.put("quantity", 5);
+
+        ArgumentCaptor<Map<String, Object>> argumentCaptor = ArgumentCaptor.forClass(Map.class);
+        when(computerService.patch(argumentCaptor.capture(), eq(1))).thenReturn(true);
+
+        mockMvc.perform(patch("/api/v1/computer/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonObject.toString()))
+                .andDo(print())
+                .andExpect(status().isOk());
+
+        verify(computerService).patch(argumentCaptor.capture(), eq(1));
+
+        assertThat(argumentCaptor.getValue(), is(Map.of("quantity", 5)));
+    }
+
+    /**
+     * Тест на метод patch(Map<String, Object> fields). Когда компьютера с заданным идентификатором нет
+     */
+    @Test
+    void whenPatchFailsThenShouldBeReturnBadRequest() throws Exception {
+        when(computerService.patch(any(), eq(1))).thenReturn(false);
+
+        mockMvc.perform(patch("/api/v1/computer/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\": 100}"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Получить кол-во ошибок со статусом 400, учтенных в счетчике ошибок
+     *
+     * @return кол-во ошибок
+     */
+    private double badRequestErrors() {
+        return meterRegistry.find(GlobalExceptionHandler.COUNTER_NAME)
+                .tag("status", "400")
+                .counters()
+                .stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+}
@@ -1,5 +1,6 @@
 package ru.easybot.easybottest.controller;
 
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -7,23 +8,48 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.easybot.easybottest.EasybotTestApplication;
+import ru.easybot.easybottest.cache.Versioned;
+import ru.easybot.easybottest.dto.BulkItemResultDTO;
+import ru.easybot.easybottest.dto.BulkItemStatus;
+import ru.easybot.easybottest.dto.BulkResultDTO;
 import ru.easybot.easybottest.dto.HddDTO;
+import ru.easybot.easybottest.dto.ManufacturerSuggestionDTO;
+import ru.easybot.easybottest.dto.MultiGetItemDTO;
+import ru.easybot.easybottest.dto.MultiGetResultDTO;
+import ru.easybot.easybottest.dto.SearchHitDTO;
+import ru.easybot.easybottest.dto.SearchResultDTO;
+import ru.easybot.easybottest.filter.HddFilter;
+import ru.easybot.easybottest.idempotency.IdempotencyStore;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
 import ru.easybot.easybottest.service.HddService;
 
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -47,6 +73,12 @@ class HddControllerTest {
     @MockBean
     private HddService hddService;
 
+    /**
+     * Заполняет таблицу жестких дисков для тестов остатков
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     /**
      * Тест на метод findAll
      */
@@ -76,7 +108,8 @@ class HddControllerTest {
                 .capacity(30)
                 .build();
 
-        when(hddService.findAll()).thenReturn(List.of(hdd1, hdd2, hdd3));
+        when(hddService.findAll(any(KeysetPageRequest.class), any(HddFilter.class)))
+                .thenReturn(new CursorPage<>(List.of(hdd1, hdd2, hdd3), "NEXT"));
 
         mockMvc.perform(get("/api/v1/hdd/"))
                 .andDo(print())
@@ -84,7 +117,8 @@ class HddControllerTest {
                         status().isOk(),
                         content().contentType(MediaType.APPLICATION_JSON),
                         content().json("""
-                                [
+                                {
+                                "content": [
                                 {
                                     "serialNumber": "SERIAL",
                                     "manufacturer": "MANUFACTURER1",
@@ -106,6 +140,130 @@ class HddControllerTest {
                                     "quantity": 155,
                                     "capacity": 30
                                 }
+                                ],
+                                "nextCursor": "NEXT"
+                                }
+                                """)
+                );
+    }
+
+    /**
+     * Тест на метод findAll. Когда запрошен размер страницы больше допустимого
+     */
+    @Test
+    void whenPageSizeExceedsLimitThenShouldBeReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/hdd/").param("size", "501"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verify(hddService, never()).findAll(any(KeysetPageRequest.class), any(HddFilter.class));
+    }
+
+    /**
+     * Тест на метод findAll. Когда заданы параметры фильтрации
+     */
+    @Test
+    void whenFindAllWithFilterThenShouldBePassedToService() throws Exception {
+        ArgumentCaptor<HddFilter> argumentCaptor = ArgumentCaptor.forClass(HddFilter.class);
+        when(hddService.findAll(any(KeysetPageRequest.class), argumentCaptor.capture()))
+                .thenReturn(new CursorPage<>(List.of(), null));
+
+        mockMvc.perform(get("/api/v1/hdd/")
+                        .param("manufacturer", "MANUFACTURER1")
+                        .param("minPrice", "10000")
+                        .param("maxPrice", "20000")
+                        .param("inStock", "true")
+                        .param("capacity", "500"))
+                .andDo(print())
+                .andExpect(status().isOk());
+
+        var filter = argumentCaptor.getValue();
+        assertThat(filter.getManufacturer(), is("MANUFACTURER1"));
+        assertThat(filter.getMinPrice(), is(10000));
+        assertThat(filter.getMaxPrice(), is(20000));
+        assertThat(filter.getInStock(), is(true));
+        assertThat(filter.getCapacity(), is(500L));
+    }
+
+    /**
+     * Тест на метод findAll. Когда минимальная цена отрицательная
+     */
+    @Test
+    void whenMinPriceIsNegativeThenShouldBeReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/hdd/").param("minPrice", "-1"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verify(hddService, never()).findAll(any(KeysetPageRequest.class), any(HddFilter.class));
+    }
+
+    /**
+     * Тест на метод findAll. Когда версия категории совпадает с заголовком If-None-Match
+     */
+    @Test
+    void whenCategoryNotModifiedThenShouldBeReturnNotModified() throws Exception {
+        when(hddService.getCategoryVersion()).thenReturn(7L);
+
+        mockMvc.perform(get("/api/v1/hdd/").header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andDo(print())
+                .andExpectAll(
+                        status().isNotModified(),
+                        header().string(HttpHeaders.ETAG, "\"7\""),
+                        content().string("")
+                );
+
+        verify(hddService, never()).findAll(any(KeysetPageRequest.class), any(HddFilter.class));
+    }
+
+    /**
+     * Тест на метод export. Выгрузка жестких дисков в формате JSON массива
+     */
+    @Test
+    void whenExportThenShouldBeReturnJsonArray() throws Exception {
+        var hdd1 = HddDTO.builder()
+                .serialNumber("SERIAL")
+                .manufacturer("MANUFACTURER1")
+                .price(10000)
+                .quantity(10)
+                .capacity(10)
+                .build();
+
+        var hdd2 = HddDTO.builder()
+                .serialNumber("SERIAL2")
+                .manufacturer("MANUFACTURER1")
+                .price(10000)
+                .quantity(200)
+                .capacity(20)
+                .build();
+
+        doAnswer(invocation -> {
+            Consumer<HddDTO> consumer = invocation.getArgument(0);
+            consumer.accept(hdd1);
+            consumer.accept(hdd2);
+            return null;
+        }).when(hddService).export(any());
+
+        mockMvc.perform(get("/api/v1/hdd/export"))
+                .andDo(print())
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentType(MediaType.APPLICATION_JSON),
+                        content().json("""
+                                [
+                                {
+                                    "serialNumber": "SERIAL",
+                                    "manufacturer": "MANUFACTURER1",
+                                    "price": 10000,
+                                    "quantity": 10,
+                                    "capacity": 10
+                                },
+                                {
+                                    "serialNumber": "SERIAL2",
+                                    "manufacturer": "MANUFACTURER1",
+                                    "price": 10000,
+                                    "quantity": 200,
+                                    "capacity": 20
+                                }
                                 ]
                                 """)
                 );
@@ -125,12 +283,14 @@ class HddControllerTest {
                 .build();
 
         ArgumentCaptor<Integer> argumentCaptor = ArgumentCaptor.forClass(Integer.class);
-        when(hddService.findById(argumentCaptor.capture())).thenReturn(Optional.of(hdd1));
+        when(hddService.findById(argumentCaptor.capture())).thenReturn(Optional.of(new Versioned<>(hdd1, 3L)));
 
         mockMvc.perform(get("/api/v1/hdd/1"))
                 .andDo(print())
                 .andExpectAll(
                         status().isOk(),
+                        header().string(HttpHeaders.ETAG, "\"3\""),
+                        header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT),
                         content().contentType(MediaType.APPLICATION_JSON),
                         content().json("""
                                 {
@@ -165,6 +325,121 @@ class HddControllerTest {
         assertThat(argumentCaptor.getValue(), is(1));
     }
 
+    /**
+     * Тест на метод FindById(int id). Ответ на ненайденный жесткий диск содержит тело ошибки в формате application/problem+json
+     */
+    @Test
+    void whenHddNotFoundByIdThenShouldBeReturnProblem() throws Exception {
+        when(hddService.findById(1)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v1/hdd/1"))
+                .andDo(print())
+                .andExpectAll(
+                        status().isNotFound(),
+                        content().contentType(MediaType.APPLICATION_PROBLEM_JSON),
+                        content().json("""
+                                {
+                                    "type": "about:blank",
+                                    "title": "Not Found",
+                                    "status": 404,
+                                    "detail": "The hdd with the specified ID was not found."
+                                }
+                                """)
+                );
+    }
+
+    /**
+     * Тест на метод FindById(int id). Когда версия жесткого диска совпадает с заголовком If-None-Match
+     */
+    @Test
+    void whenNotModifiedByIdThenShouldBeReturnNotModified() throws Exception {
+        when(hddService.findById(1)).thenReturn(Optional.of(new Versioned<>(HddDTO.builder().build(), 3L)));
+
+        mockMvc.perform(get("/api/v1/hdd/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andDo(print())
+                .andExpectAll(
+                        status().isNotModified(),
+                        header().string(HttpHeaders.ETAG, "\"3\""),
+                        header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT),
+                        content().string("")
+                );
+    }
+
+    /**
+     * Тест на метод FindById(int id). ETag ответа в другом формате не совпадает с ETag ответа в JSON
+     */
+    @Test
+    void whenNotModifiedByIdWithOtherAcceptThenShouldBeReturnOk() throws Exception {
+        var hdd = HddDTO.builder()
+                .serialNumber("SERIAL")
+                .manufacturer("MANUFACTURER1")
+                .build();
+        when(hddService.findById(1)).thenReturn(Optional.of(new Versioned<>(hdd, 3L)));
+
+        mockMvc.perform(get("/api/v1/hdd/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andDo(print())
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentType(MediaType.APPLICATION_CBOR),
+                        header().string(HttpHeaders.ETAG, not("\"3\"")),
+                        header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                );
+    }
+
+    /**
+     * Тест на метод findAll. Когда запрошены только некоторые поля
+     */
+    @Test
+    void whenFindAllWithFieldsThenShouldBeReturnOnlyTheseFields() throws Exception {
+        when(hddService.findAll(any(KeysetPageRequest.class), any(HddFilter.class), eq("serialNumber,price")))
+                .thenReturn(new CursorPage<>(List.of(Map.of("serialNumber", "SERIAL", "price", 10000)), null));
+
+        mockMvc.perform(get("/api/v1/hdd/").param("fields", "serialNumber,price"))
+                .andDo(print())
+                .andExpectAll(
+                        status().isOk(),
+                        content().json("""
+                                {
+                                "content": [
+                                {
+                                    "serialNumber": "SERIAL",
+                                    "price": 10000
+                                }
+                                ],
+                                "nextCursor": null
+                                }
+                                """, true)
+                );
+
+        verify(hddService, never()).findAll(any(KeysetPageRequest.class), any(HddFilter.class));
+    }
+
+    /**
+     * Тест на метод FindById(int id). Когда запрошены только некоторые поля
+     */
+    @Test
+    void whenFindByIdWithFieldsThenShouldBeReturnOnlyTheseFields() throws Exception {
+        var hdd = HddDTO.builder()
+                .serialNumber("SERIAL")
+                .manufacturer("MANUFACTURER1")
+                .build();
+        when(hddService.findById(1)).thenReturn(Optional.of(new Versioned<>(hdd, 3L)));
+
+        mockMvc.perform(get("/api/v1/hdd/1").param("fields", "manufacturer"))
+                .andDo(print())
+                .andExpectAll(
+                        status().isOk(),
+                        content().json("""
+                                {
+                                    "manufacturer": "MANUFACTURER1"
+                                }
+                                """, true),
+                        header().string(HttpHeaders.ETAG, not("\"3\""))
+                );
+    }
+
     /**
      * Тест на метод Save(HddDTO hdd). Когда добавление жесткого диска прошло успешно
      */
@@ -228,6 +503,83 @@ class HddControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    /**
+     * Тест на метод createAll. Один товар сохранен, второй - дубликат
+     */
+    @Test
+    void whenCreateAllThenShouldBeReturnResultPerItem() throws Exception {
+        var hdd1 = HddDTO.builder()
+                .serialNumber("SERIAL")
+                .manufacturer("MANUFACTURER1")
+                .price(10000)
+                .quantity(10)
+                .capacity(10)
+                .build();
+
+        var result = BulkResultDTO.<HddDTO>builder()
+                .created(1)
+                .failed(1)
+                .items(List.of(
+                        BulkItemResultDTO.<HddDTO>builder()
+                                .index(0)
+                                .status(BulkItemStatus.CREATED)
+                                .item(hdd1)
+                                .build(),
+                        BulkItemResultDTO.<HddDTO>builder()
+                                .index(1)
+                                .status(BulkItemStatus.DUPLICATE)
+                                .errors(List.of("Serial number is repeated in the request"))
+                                .build()))
+                .build();
+
+        ArgumentCaptor<List<HddDTO>> argumentCaptor = ArgumentCaptor.forClass(List.class);
+        when(hddService.createAll(argumentCaptor.capture())).thenReturn(result);
+
+        var jsonObject = new JSONObject();
+        jsonObject.put("serialNumber", "SERIAL");
+        jsonObject.put("manufacturer", "MANUFACTURER1");
+        jsonObject.put("price", 10000);
+        jsonObject.put("quantity", 10);
+        jsonObject.put("capacity", 10);
+
+        mockMvc.perform(post("/api/v1/hdd/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new JSONArray(List.of(jsonObject, jsonObject)).toString()))
+                .andDo(print())
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentType(MediaType.APPLICATION_JSON),
+                        content().json("""
+                                {
+                                    "created": 1,
+                                    "failed": 1,
+                                    "items": [
+                                    {
+                                        "index": 0,
+                                        "status": "CREATED",
+                                        "item": {
+                                            "serialNumber": "SERIAL",
+                                            "manufacturer": "MANUFACTURER1",
+                                            "price": 10000,
+                                            "quantity": 10,
+                                            "capacity": 10
+                                        }
+                                    },
+                                    {
+                                        "index": 1,
+                                        "status": "DUPLICATE",
+                                        "errors": ["Serial number is repeated in the request"]
+                                    }
+                                    ]
+                                }
+                                """)
+                );
+
+        verify(hddService).createAll(argumentCaptor.capture());
+
+        assertThat(argumentCaptor.getValue(), is(List.of(hdd1, hdd1)));
+    }
+
     /**
      * Тест на метод update(HddDTO hdd). Когда обновление прошло успешно
      */
@@ -297,4 +649,258 @@ class HddControllerTest {
 
         assertThat(argumentCaptor.getValue(), is(updatedHdd));
     }
-}
\ No newline at end of file
+
+    /**
+     * Тест на метод update(HddDTO hdd). Когда база данных отклонила дубликат серийного номера,
+     * возвращается заранее созданный ответ CONFLICT без сообщения базы данных
+     */
+    @Test
+    void whenUpdateViolatesUniqueSerialNumberThenShouldBeReturnConflictProblem() throws Exception {
+        var message = "Unique index or primary key violation: PUBLIC.CONSTRAINT_INDEX_1 ON PUBLIC.HDD(SERIAL_NUMBER)";
+        when(hddService.update(any(HddDTO.class), eq(1))).thenThrow(new DataIntegrityViolationException(
+                message, new SQLIntegrityConstraintViolationException(message, "23505")));
+
+        mockMvc.perform(put("/api/v1/hdd/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "serialNumber": "SERIAL",
+                                    "manufacturer": "MANUFACTURER1",
+                                    "price": 10000,
+                                    "quantity": 10,
+                                    "capacity": 10
+                                }
+                                """))
+                .andDo(print())
+                .andExpectAll(
+                        status().isConflict(),
+                        content().contentType(MediaType.APPLICATION_PROBLEM_JSON),
+                        content().json("""
+                                {
+                                    "status": 409,
+                                    "detail": "A product with the specified serial number already exists"
+                                }
+                                """)
+                );
+    }
+
+    /**
+     * Тест на метод patch(Map<String, Object> fields). Когда передано только изменяемое поле
+     */
+    @Test
+    void whenPatchIsSuccessfulThenShouldReturnOk() throws Exception {
+        var jsonObject = new JSONObject();
+        jsonObject.put("quantity", 5);
+
+        ArgumentCaptor<Map<String, Object>> argumentCaptor = ArgumentCaptor.forClass(Map.class);
+        when(hddService.patch(argumentCaptor.capture(), eq(1))).thenReturn(true);
+
+        mockMvc.perform(patch("/api/v1/hdd/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonObject.toString()))
+                .andDo(print())
+                .andExpect(status().isOk());
+
+        verify(hddService).patch(argumentCaptor.capture(), eq(1));
+
+        assertThat(argumentCaptor.getValue(), is(Map.of("quantity", 5)));
+    }
+
+    /**
+     * Тест на метод patch(Map<String, Object> fields). Когда жесткого диска с заданным идентификатором нет
+     */
+    @Test
+    void whenPatchFailsThenShouldBeReturnBadRequest() throws Exception {
+        when(hddService.patch(any(), eq(1))).thenReturn(false);
+
+        mockMvc.perform(patch("/api/v1/hdd/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\": 100}"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Тест на метод decrementStock
+     */
+    @Test
+    void whenDecrementStockThenQuantityShouldBeDecreased() throws Exception {
+        insertHdd(1_000_001, 10);
+
+        mockMvc.perform(post("/api/v1/hdd/{id}/stock/decrement", 1_000_001).param("amount", "3"))
+                .andDo(print())
+                .andExpect(status().isOk());
+
+        assertThat(quantity(1_000_001), is(7));
+    }
+
+    /**
+     * Тест на метод decrementStock, когда остатка недостаточно
+     */
+    @Test
+    void whenDecrementMoreThanStockThenShouldBeReturnConflict() throws Exception {
+        insertHdd(1_000_002, 2);
+
+        mockMvc.perform(post("/api/v1/hdd/{id}/stock/decrement", 1_000_002).param("amount", "3"))
+                .andDo(print())
+                .andExpect(status().isConflict());
+
+        assertThat(quantity(1_000_002), is(2));
+    }
+
+    /**
+     * Тест на метод decrementStock, когда жесткого диска с заданным идентификатором нет
+     */
+    @Test
+    void whenDecrementStockOfNotExistingHddThenShouldBeReturnNotFound() throws Exception {
+        mockMvc.perform(post("/api/v1/hdd/{id}/stock/decrement", Integer.MAX_VALUE))
+                .andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Тест на метод incrementStock
+     */
+    @Test
+    void whenIncrementStockThenQuantityShouldBeIncreased() throws Exception {
+        insertHdd(1_000_003, 1);
+
+        mockMvc.perform(post("/api/v1/hdd/{id}/stock/increment", 1_000_003).param("amount", "4"))
+                .andDo(print())
+                .andExpect(status().isOk());
+
+        assertThat(quantity(1_000_003), is(5));
+    }
+
+    /**
+     * Повтор создания с тем же Idempotency-Key возвращает сохраненный ответ без повторного вызова сервиса
+     */
+    @Test
+    void whenCreateRetriedWithSameIdempotencyKeyThenResponseShouldBeReplayed() throws Exception {
+        var hdd = HddDTO.builder()
+                .serialNumber("IDEMPOTENT1")
+                .manufacturer("MANUFACTURER1")
+                .price(10000)
+                .quantity(10)
+                .capacity(10)
+                .build();
+        when(hddService.create(any(HddDTO.class))).thenReturn(hdd);
+        var body = """
+                {
+                    "serialNumber": "IDEMPOTENT1",
+                    "manufacturer": "MANUFACTURER1",
+                    "price": 10000,
+                    "quantity": 10,
+                    "capacity": 10
+                }
+                """;
+
+        mockMvc.perform(post("/api/v1/hdd/")
+                        .header(IdempotencyStore.KEY_HEADER, "create-hdd-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyStore.REPLAYED_HEADER));
+        mockMvc.perform(post("/api/v1/hdd/")
+                        .header(IdempotencyStore.KEY_HEADER, "create-hdd-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andDo(print())
+                .andExpectAll(
+                        status().isCreated(),
+                        header().string(IdempotencyStore.REPLAYED_HEADER, "true"),
+                        content().json(body));
+
+        verify(hddService, times(1)).create(any(HddDTO.class));
+    }
+
+    /**
+     * Тот же Idempotency-Key с другим телом запроса отклоняется
+     */
+    @Test
+    void whenIdempotencyKeyReusedWithDifferentBodyThenShouldBeReturnUnprocessableEntity() throws Exception {
+        when(hddService.create(any(HddDTO.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        mockMvc.perform(post("/api/v1/hdd/")
+                        .header(IdempotencyStore.KEY_HEADER, "create-hdd-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"serialNumber": "IDEMPOTENT2", "manufacturer": "M", "price": 1, "quantity": 1, "capacity": 1}
+                                """))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/v1/hdd/")
+                        .header(IdempotencyStore.KEY_HEADER, "create-hdd-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"serialNumber": "IDEMPOTENT3", "manufacturer": "M", "price": 1, "quantity": 1, "capacity": 1}
+                                """))
+                .andDo(print())
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    /**
+     * Тест на метод findMany
+     */
+    @Test
+    void whenFindManyThenShouldBeReturnItemsInRequestOrderWithMisses() throws Exception {
+        var hdd = HddDTO.builder()
+                .serialNumber("SERIAL3")
+                .manufacturer("MANUFACTURER3")
+                .price(10000)
+                .quantity(10)
+                .capacity(10)
+                .build();
+        when(hddService.findMany(List.of(3, 1), null)).thenReturn(new MultiGetResultDTO<>(1, 1, List.of(
+                new MultiGetItemDTO<>(0, "3", true, hdd),
+                new MultiGetItemDTO<>(1, "1", false, null))));
+
+        var response = mockMvc.perform(get("/api/v1/hdd/batch").param("ids", "3,1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        var result = new JSONObject(response);
+        assertThat(result.getInt("found"), is(1));
+        assertThat(result.getInt("missing"), is(1));
+        var items = result.getJSONArray("items");
+        assertThat(items.getJSONObject(0).getString("key"), is("3"));
+        assertThat(items.getJSONObject(0).getJSONObject("item").getString("serialNumber"), is("SERIAL3"));
+        assertThat(items.getJSONObject(1).getString("key"), is("1"));
+        assertThat(items.getJSONObject(1).getBoolean("found"), is(false));
+    }
+
+    /**
+     * Тест на метод search
+     */
+    @Test
+    void whenSearchThenShouldBeReturnProductsAndManufacturers() throws Exception {
+        when(hddService.search("sea", 5)).thenReturn(new SearchResultDTO(
+                List.of(new SearchHitDTO(7, "SEA-001", "Seagate")),
+                List.of(new ManufacturerSuggestionDTO("Seagate", 3))));
+
+        var response = mockMvc.perform(get("/api/v1/hdd/search").param("q", "sea").param("limit", "5"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        var result = new JSONObject(response);
+        assertThat(result.getJSONArray("products").getJSONObject(0).getInt("id"), is(7));
+        assertThat(result.getJSONArray("products").getJSONObject(0).getString("serialNumber"), is("SEA-001"));
+        assertThat(result.getJSONArray("manufacturers").getJSONObject(0).getInt("count"), is(3));
+    }
+
+    private void insertHdd(int id, int quantity) {
+        jdbcTemplate.update(
+                "INSERT INTO hdd (id, serial_number, manufacturer, price, quantity, capacity) VALUES (?, ?, ?, ?, ?, ?)",
+                id, "STOCK" + id, "MANUFACTURER", 1000, quantity, 500L);
+    }
+
+    private int quantity(int id) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM hdd WHERE id = ?", Integer.class, id);
+    }
+}
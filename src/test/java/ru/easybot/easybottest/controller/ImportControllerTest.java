@@ -0,0 +1,211 @@
+package ru.easybot.easybottest.controller;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.easybot.easybottest.EasybotTestApplication;
+import ru.easybot.easybottest.repository.MonitorRepository;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Тесты для импорта товаров из CSV и контроллера ImportController
+ *
+ * @author Ilya Kaltygin
+ */
+@SpringBootTest(classes = EasybotTestApplication.class)
+@AutoConfigureMockMvc
+class ImportControllerTest {
+
+    /**
+     * Обеспечивает возможность отправки запрсоов на тестируемый контроллер и проверки его ответов
+     */
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * Хранилище мониторов
+     */
+    @Autowired
+    private MonitorRepository monitorRepository;
+
+    /**
+     * Шаблон JDBC для подготовки данных
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Тест на импорт: валидные строки сохраняются, а невалидные строки и дубликаты попадают в отчет
+     */
+    @Test
+    void whenImportCsvThenValidRowsShouldBeSavedAndErrorsShouldBeReported() throws Exception {
+        var csv = """
+                price,serialNumber,manufacturer,quantity,diagonal
+                100,IMPORT-1,"MANUFACTURER, INC",5,27
+                200,IMPORT-2,MANUFACTURER,3,24
+                abc,IMPORT-3,MANUFACTURER,3,24
+                300,IMPORT-4,MANUFACTURER,0,24
+                400,IMPORT-1,MANUFACTURER,1,24
+                500,IMPORT-5,MANUFACTURER,1
+                """;
+
+        var response = mockMvc.perform(post("/api/v1/monitor/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        var result = new JSONObject(response);
+        assertThat(result.getLong("total"), is(6L));
+        assertThat(result.getLong("imported"), is(2L));
+        assertThat(result.getLong("failed"), is(4L));
+        var saved = monitorRepository.findAll().stream()
+                .filter(monitor -> "IMPORT-1".equals(monitor.getSerialNumber()))
+                .findFirst()
+                .orElseThrow();
+        assertThat(saved.getManufacturer(), is("MANUFACTURER, INC"));
+        assertThat(saved.getDiagonal(), is(27));
+
+        var report = mockMvc.perform(get("/api/v1/import/{id}/report", result.getString("reportId")))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThat(report, containsString("4,IMPORT-3,Invalid value of field: price"));
+        assertThat(report, containsString("5,IMPORT-4,quantity: The quantity of the product cannot be less than 0"));
+        assertThat(report, containsString("6,IMPORT-1,Serial number is repeated in the file"));
+        assertThat(report, containsString("7,IMPORT-5,\"Expected 5 values, but found 4\""));
+    }
+
+    /**
+     * Тест на импорт: идентификаторы порции берутся из одного блока последовательности,
+     * а сохраненные товары сразу находятся поиском
+     */
+    @Test
+    void whenImportCsvThenIdsShouldBeTakenFromOneBlockAndProductsShouldBeSearchable() throws Exception {
+        var response = mockMvc.perform(post("/api/v1/hdd/import")
+                        .contentType("text/csv")
+                        .content("""
+                                serialNumber,manufacturer,price,quantity,capacity
+                                IMPORT-BLOCK-1,IMPORTED,100,1,500
+                                IMPORT-BLOCK-2,IMPORTED,200,1,500
+                                IMPORT-BLOCK-3,IMPORTED,300,1,500
+                                """))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThat(new JSONObject(response).getLong("imported"), is(3L));
+        var ids = jdbcTemplate.queryForList(
+                "SELECT id FROM hdd WHERE serial_number LIKE 'IMPORT-BLOCK-%' ORDER BY serial_number", Integer.class);
+        assertThat(ids, is(List.of(ids.get(0), ids.get(0) + 1, ids.get(0) + 2)));
+        mockMvc.perform(get("/api/v1/hdd/search").param("q", "IMPORT-BLOCK-2"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].id").value(ids.get(1)));
+    }
+
+    /**
+     * Тест на импорт, когда база данных отклонила порцию: строки записываются по одной,
+     * и в отчет попадает только отклоненная строка
+     */
+    @Test
+    void whenBatchRejectedThenOnlyRejectedRowsShouldBeReported() throws Exception {
+        var next = jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'LAPTOP_SEQ'", Integer.class);
+        jdbcTemplate.update("INSERT INTO laptop (id, serial_number, manufacturer, price, quantity, size) "
+                + "VALUES (?, 'IMPORT-TAKEN', 'MANUFACTURER', 100, 1, 15)", next + 1);
+
+        var response = mockMvc.perform(post("/api/v1/laptop/import")
+                        .contentType("text/csv")
+                        .content("""
+                                serialNumber,manufacturer,price,quantity,size
+                                IMPORT-RETRY-1,MANUFACTURER,100,1,15
+                                IMPORT-RETRY-2,MANUFACTURER,100,1,15
+                                IMPORT-RETRY-3,MANUFACTURER,100,1,15
+                                """))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        var result = new JSONObject(response);
+        assertThat(result.getLong("imported"), is(2L));
+        assertThat(result.getLong("failed"), is(1L));
+        var report = mockMvc.perform(get("/api/v1/import/{id}/report", result.getString("reportId")))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        assertThat(report, containsString("3,IMPORT-RETRY-2,The row was rejected by the database"));
+        assertThat(report, not(containsString("IMPORT-RETRY-1")));
+        assertThat(report, not(containsString("IMPORT-RETRY-3")));
+    }
+
+    /**
+     * Тест на импорт компьютеров с неизвестным типом
+     */
+    @Test
+    void whenImportComputerWithUnknownTypeThenRowShouldBeReported() throws Exception {
+        var response = mockMvc.perform(post("/api/v1/computer/import")
+                        .contentType("text/csv")
+                        .content("""
+                                serialNumber,manufacturer,price,quantity,type
+                                IMPORT-COMPUTER-1,MANUFACTURER,100,1,SERVER
+                                """))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        var result = new JSONObject(response);
+        assertThat(result.getLong("imported"), is(0L));
+        assertThat(result.getLong("failed"), is(1L));
+    }
+
+    /**
+     * Тест на импорт файла с неверным заголовком
+     */
+    @Test
+    void whenHeaderIsInvalidThenShouldBeReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/hdd/import")
+                        .contentType("text/csv")
+                        .content("serialNumber,manufacturer\nIMPORT-HDD-1,MANUFACTURER\n"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Тест на метод report, когда отчет не найден
+     */
+    @Test
+    void whenReportNotFoundThenShouldBeReturnNotFound() throws Exception {
+        mockMvc.perform(get("/api/v1/import/{id}/report", "unknown"))
+                .andDo(print())
+                .andExpect(status().isNotFound());
+    }
+}
@@ -1,5 +1,6 @@
 package ru.easybot.easybottest.controller;
 
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -7,23 +8,38 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.easybot.easybottest.EasybotTestApplication;
+import ru.easybot.easybottest.cache.Versioned;
+import ru.easybot.easybottest.dto.BulkItemResultDTO;
+import ru.easybot.easybottest.dto.BulkItemStatus;
+import ru.easybot.easybottest.dto.BulkResultDTO;
 import ru.easybot.easybottest.dto.LaptopDTO;
+import ru.easybot.easybottest.filter.LaptopFilter;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
 import ru.easybot.easybottest.service.LaptopService;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -77,7 +93,8 @@ class LaptopControllerTest {
                 .size(13)
                 .build();
 
-        when(laptopService.findAll()).thenReturn(List.of(laptop1, laptop2, laptop3));
+        when(laptopService.findAll(any(KeysetPageRequest.class), any(LaptopFilter.class)))
+                .thenReturn(new CursorPage<>(List.of(laptop1, laptop2, laptop3), "NEXT"));
 
         mockMvc.perform(get("/api/v1/laptop/"))
                 .andDo(print())
@@ -85,7 +102,8 @@ class LaptopControllerTest {
                         status().isOk(),
                         content().contentType(MediaType.APPLICATION_JSON),
                         content().json("""
-                                [
+                                {
+                                "content": [
                                 {
                                     "serialNumber": "SERIAL",
                                     "manufacturer": "MANUFACTURER1",
@@ -107,6 +125,130 @@ class LaptopControllerTest {
                                     "quantity": 155,
                                     "size": 13
                                 }
+                                ],
+                                "nextCursor": "NEXT"
+                                }
+                                """)
+                );
+    }
+
+    /**
+     * Тест на метод findAll. Когда запрошен размер страницы больше допустимого
+     */
+    @Test
+    void whenPageSizeExceedsLimitThenShouldBeReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/laptop/").param("size", "501"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verify(laptopService, never()).findAll(any(KeysetPageRequest.class), any(LaptopFilter.class));
+    }
+
+    /**
+     * Тест на метод findAll. Когда заданы параметры фильтрации
+     */
+    @Test
+    void whenFindAllWithFilterThenShouldBePassedToService() throws Exception {
+        ArgumentCaptor<LaptopFilter> argumentCaptor = ArgumentCaptor.forClass(LaptopFilter.class);
+        when(laptopService.findAll(any(KeysetPageRequest.class), argumentCaptor.capture()))
+                .thenReturn(new CursorPage<>(List.of(), null));
+
+        mockMvc.perform(get("/api/v1/laptop/")
+                        .param("manufacturer", "MANUFACTURER1")
+                        .param("minPrice", "10000")
+                        .param("maxPrice", "20000")
+                        .param("inStock", "true")
+                        .param("screenSize", "15"))
+                .andDo(print())
+                .andExpect(status().isOk());
+
+        var filter = argumentCaptor.getValue();
+        assertThat(filter.getManufacturer(), is("MANUFACTURER1"));
+        assertThat(filter.getMinPrice(), is(10000));
+        assertThat(filter.getMaxPrice(), is(20000));
+        assertThat(filter.getInStock(), is(true));
+        assertThat(filter.getScreenSize(), is(15));
+    }
+
+    /**
+     * Тест на метод findAll. Когда минимальная цена отрицательная
+     */
+    @Test
+    void whenMinPriceIsNegativeThenShouldBeReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/laptop/").param("minPrice", "-1"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verify(laptopService, never()).findAll(any(KeysetPageRequest.class), any(LaptopFilter.class));
+    }
+
+    /**
+     * Тест на метод findAll. Когда версия категории совпадает с заголовком If-None-Match
+     */
+    @Test
+    void whenCategoryNotModifiedThenShouldBeReturnNotModified() throws Exception {
+        when(laptopService.getCategoryVersion()).thenReturn(7L);
+
+        mockMvc.perform(get("/api/v1/laptop/").header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andDo(print())
+                .andExpectAll(
+                        status().isNotModified(),
+                        header().string(HttpHeaders.ETAG, "\"7\""),
+                        content().string("")
+                );
+
+        verify(laptopService, never()).findAll(any(KeysetPageRequest.class), any(LaptopFilter.class));
+    }
+
+    /**
+     * Тест на метод export. Выгрузка ноутбуков в формате JSON массива
+     */
+    @Test
+    void whenExportThenShouldBeReturnJsonArray() throws Exception {
+        var laptop1 = LaptopDTO.builder()
+                .serialNumber("SERIAL")
+                .manufacturer("MANUFACTURER1")
+                .price(10000)
+                .quantity(10)
+                .size(13)
+                .build();
+
+        var laptop2 = LaptopDTO.builder()
+                .serialNumber("SERIAL2")
+                .manufacturer("MANUFACTURER1")
+                .price(10000)
+                .quantity(200)
+                .size(15)
+                .build();
+
+        doAnswer(invocation -> {
+            Consumer<LaptopDTO> consumer = invocation.getArgument(0);
+            consumer.accept(laptop1);
+            consumer.accept(laptop2);
+            return null;
+        }).when(laptopService).export(any());
+
+        mockMvc.perform(get("/api/v1/laptop/export"))
+                .andDo(print())
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentType(MediaType.APPLICATION_JSON),
+                        content().json("""
+                                [
+                                {
+                                    "serialNumber": "SERIAL",
+                                    "manufacturer": "MANUFACTURER1",
+                                    "price": 10000,
+                                    "quantity": 10,
+                                    "size": 13
+                                },
+                                {
+                                    "serialNumber": "SERIAL2",
+                                    "manufacturer": "MANUFACTURER1",
+                                    "price": 10000,
+                                    "quantity": 200,
+                                    "size": 15
+                                }
                                 ]
                                 """)
                 );
@@ -126,12 +268,14 @@ class LaptopControllerTest {
                 .build();
 
         ArgumentCaptor<Integer> argumentCaptor = ArgumentCaptor.forClass(Integer.class);
-        when(laptopService.findById(argumentCaptor.capture())).thenReturn(Optional.of(laptop1));
+        when(laptopService.findById(argumentCaptor.capture())).thenReturn(Optional.of(new Versioned<>(laptop1, 3L)));
 
         mockMvc.perform(get("/api/v1/laptop/1"))
                 .andDo(print())
                 .andExpectAll(
                         status().isOk(),
+                        header().string(HttpHeaders.ETAG, "\"3\""),
+                        header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT),
                         content().contentType(MediaType.APPLICATION_JSON),
                         content().json("""
                                 {
@@ -166,6 +310,75 @@ class LaptopControllerTest {
         assertThat(argumentCaptor.getValue(), is(1));
     }
 
+    /**
+     * Тест на метод FindById(int id). Когда версия ноутбука совпадает с заголовком If-None-Match
+     */
+    @Test
+    void whenNotModifiedByIdThenShouldBeReturnNotModified() throws Exception {
+        when(laptopService.findById(1)).thenReturn(Optional.of(new Versioned<>(LaptopDTO.builder().build(), 3L)));
+
+        mockMvc.perform(get("/api/v1/laptop/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andDo(print())
+                .andExpectAll(
+                        status().isNotModified(),
+                        header().string(HttpHeaders.ETAG, "\"3\""),
+                        header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT),
+                        content().string("")
+                );
+    }
+
+    /**
+     * Тест на метод findAll. Когда запрошены только некоторые поля
+     */
+    @Test
+    void whenFindAllWithFieldsThenShouldBeReturnOnlyTheseFields() throws Exception {
+        when(laptopService.findAll(any(KeysetPageRequest.class), any(LaptopFilter.class), eq("serialNumber,price")))
+                .thenReturn(new CursorPage<>(List.of(Map.of("serialNumber", "SERIAL", "price", 10000)), null));
+
+        mockMvc.perform(get("/api/v1/laptop/").param("fields", "serialNumber,price"))
+                .andDo(print())
+                .andExpectAll(
+                        status().isOk(),
+                        content().json("""
+                                {
+                                "content": [
+                                {
+                                    "serialNumber": "SERIAL",
+                                    "price": 10000
+                                }
+                                ],
+                                "nextCursor": null
+                                }
+                                """, true)
+                );
+
+        verify(laptopService, never()).findAll(any(KeysetPageRequest.class), any(LaptopFilter.class));
+    }
+
+    /**
+     * Тест на метод FindById(int id). Когда запрошены только некоторые поля
+     */
+    @Test
+    void whenFindByIdWithFieldsThenShouldBeReturnOnlyTheseFields() throws Exception {
+        var laptop = LaptopDTO.builder()
+                .serialNumber("SERIAL")
+                .manufacturer("MANUFACTURER1")
+                .build();
+        when(laptopService.findById(1)).thenReturn(Optional.of(new Versioned<>(laptop, 3L)));
+
+        mockMvc.perform(get("/api/v1/laptop/1").param("fields", "manufacturer"))
+                .andDo(print())
+                .andExpectAll(
+                        status().isOk(),
+                        content().json("""
+                                {
+                                    "manufacturer": "MANUFACTURER1"
+                                }
+                                """, true),
+                        header().string(HttpHeaders.ETAG, not("\"3\""))
+                );
+    }
+
     /**
      * Тест на метод Save(LaptopDTO laptop). Когда добавление ноутбука прошло успешно
      */
@@ -229,6 +442,83 @@ class LaptopControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    /**
+     * Тест на метод createAll. Один товар сохранен, второй - дубликат
+     */
+    @Test
+    void whenCreateAllThenShouldBeReturnResultPerItem() throws Exception {
+        var laptop1 = LaptopDTO.builder()
+                .serialNumber("SERIAL")
+                .manufacturer("MANUFACTURER1")
+                .price(10000)
+                .quantity(10)
+                .size(13)
+                .build();
+
+        var result = BulkResultDTO.<LaptopDTO>builder()
+                .created(1)
+                .failed(1)
+                .items(List.of(
+                        BulkItemResultDTO.<LaptopDTO>builder()
+                                .index(0)
+                                .status(BulkItemStatus.CREATED)
+                                .item(laptop1)
+                                .build(),
+                        BulkItemResultDTO.<LaptopDTO>builder()
+                                .index(1)
+                                .status(BulkItemStatus.DUPLICATE)
+                                .errors(List.of("Serial number is repeated in the request"))
+                                .build()))
+                .build();
+
+        ArgumentCaptor<List<LaptopDTO>> argumentCaptor = ArgumentCaptor.forClass(List.class);
+        when(laptopService.createAll(argumentCaptor.capture())).thenReturn(result);
+
+        var jsonObject = new JSONObject();
+        jsonObject.put("serialNumber", "SERIAL");
+        jsonObject.put("manufacturer", "MANUFACTURER1");
+        jsonObject.put("price", 10000);
+        jsonObject.put("quantity", 10);
+        jsonObject.put("size", 13);
+
+        mockMvc.perform(post("/api/v1/laptop/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new JSONArray(List.of(jsonObject, jsonObject)).toString()))
+                .andDo(print())
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentType(MediaType.APPLICATION_JSON),
+                        content().json("""
+                                {
+                                    "created": 1,
+                                    "failed": 1,
+                                    "items": [
+                                    {
+                                        "index": 0,
+                                        "status": "CREATED",
+                                        "item": {
+                                            "serialNumber": "SERIAL",
+                                            "manufacturer": "MANUFACTURER1",
+                                            "price": 10000,
+                                            "quantity": 10,
+                                            "size": 13
+                                        }
+                                    },
+                                    {
+                                        "index": 1,
+                                        "status": "DUPLICATE",
+                                        "errors": ["Serial number is repeated in the request"]
+                                    }
+                                    ]
+                                }
+                                """)
+                );
+
+        verify(laptopService).createAll(argumentCaptor.capture());
+
+        assertThat(argumentCaptor.getValue(), is(List.of(laptop1, laptop1)));
+    }
+
     /**
      * Тест на метод update(LaptopDTO laptop). Когда обновление прошло успешно
      */
@@ -299,4 +589,40 @@ class LaptopControllerTest {
         assertThat(argumentCaptor.getValue(), is(updatedLaptop));
     }
 
-}
\ No newline at end of file
+
+    /**
+     * Тест на метод patch(Map<String, Object> fields). Когда передано только изменяемое поле
+     */
+    @Test
+    void whenPatchIsSuccessfulThenShouldReturnOk() throws Exception {
+        var jsonObject = new JSONObject();
+        jsonObject.put("quantity", 5);
+
+        ArgumentCaptor<Map<String, Object>> argumentCaptor = ArgumentCaptor.forClass(Map.class);
+        when(laptopService.patch(argumentCaptor.capture(), eq(1))).thenReturn(true);
+
+        mockMvc.perform(patch("/api/v1/laptop/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonObject.toString()))
+                .andDo(print())
+                .andExpect(status().isOk());
+
+        verify(laptopService).patch(argumentCaptor.capture(), eq(1));
+
+        assertThat(argumentCaptor.getValue(), is(Map.of("quantity", 5)));
+    }
+
+    /**
+     * Тест на метод patch(Map<String, Object> fields). Когда ноутбука с заданным идентификатором нет
+     */
+    @Test
+    void whenPatchFailsThenShouldBeReturnBadRequest() throws Exception {
+        when(laptopService.patch(any(), eq(1))).thenReturn(false);
+
+        mockMvc.perform(patch("/api/v1/laptop/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\": 100}"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+}
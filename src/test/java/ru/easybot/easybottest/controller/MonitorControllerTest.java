@@ -1,5 +1,6 @@
 package ru.easybot.easybottest.controller;
 
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -7,23 +8,38 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.easybot.easybottest.EasybotTestApplication;
+import ru.easybot.easybottest.cache.Versioned;
+import ru.easybot.easybottest.dto.BulkItemResultDTO;
+import ru.easybot.easybottest.dto.BulkItemStatus;
+import ru.easybot.easybottest.dto.BulkResultDTO;
 import ru.easybot.easybottest.dto.MonitorDTO;
+import ru.easybot.easybottest.filter.MonitorFilter;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
 import ru.easybot.easybottest.service.MonitorService;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -76,7 +92,8 @@ class MonitorControllerTest {
                 .diagonal(22)
                 .build();
 
-        when(monitorService.findAll()).thenReturn(List.of(monitor1, monitor2, monitor3));
+        when(monitorService.findAll(any(KeysetPageRequest.class), any(MonitorFilter.class)))
+                .thenReturn(new CursorPage<>(List.of(monitor1, monitor2, monitor3), "NEXT"));
 
         mockMvc.perform(get("/api/v1/monitor/"))
                 .andDo(print())
@@ -84,7 +101,8 @@ class MonitorControllerTest {
                         status().isOk(),
                         content().contentType(MediaType.APPLICATION_JSON),
                         content().json("""
-                                [
+                                {
+                                "content": [
                                 {
                                     "serialNumber": "SERIAL",
                                     "manufacturer": "MANUFACTURER1",
@@ -106,6 +124,130 @@ class MonitorControllerTest {
                                     "quantity": 155,
                                     "diagonal": 22
                                 }
+                                ],
+                                "nextCursor": "NEXT"
+                                }
+                                """)
+                );
+    }
+
+    /**
+     * Тест на метод findAll. Когда запрошен размер страницы больше допустимого
+     */
+    @Test
+    void whenPageSizeExceedsLimitThenShouldBeReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/monitor/").param("size", "501"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verify(monitorService, never()).findAll(any(KeysetPageRequest.class), any(MonitorFilter.class));
+    }
+
+    /**
+     * Тест на метод findAll. Когда заданы параметры фильтрации
+     */
+    @Test
+    void whenFindAllWithFilterThenShouldBePassedToService() throws Exception {
+        ArgumentCaptor<MonitorFilter> argumentCaptor = ArgumentCaptor.forClass(MonitorFilter.class);
+        when(monitorService.findAll(any(KeysetPageRequest.class), argumentCaptor.capture()))
+                .thenReturn(new CursorPage<>(List.of(), null));
+
+        mockMvc.perform(get("/api/v1/monitor/")
+                        .param("manufacturer", "MANUFACTURER1")
+                        .param("minPrice", "10000")
+                        .param("maxPrice", "20000")
+                        .param("inStock", "true")
+                        .param("diagonal", "27"))
+                .andDo(print())
+                .andExpect(status().isOk());
+
+        var filter = argumentCaptor.getValue();
+        assertThat(filter.getManufacturer(), is("MANUFACTURER1"));
+        assertThat(filter.getMinPrice(), is(10000));
+        assertThat(filter.getMaxPrice(), is(20000));
+        assertThat(filter.getInStock(), is(true));
+        assertThat(filter.getDiagonal(), is(27));
+    }
+
+    /**
+     * Тест на метод findAll. Когда минимальная цена отрицательная
+     */
+    @Test
+    void whenMinPriceIsNegativeThenShouldBeReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/monitor/").param("minPrice", "-1"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verify(monitorService, never()).findAll(any(KeysetPageRequest.class), any(MonitorFilter.class));
+    }
+
+    /**
+     * Тест на метод findAll. Когда версия категории совпадает с заголовком If-None-Match
+     */
+    @Test
+    void whenCategoryNotModifiedThenShouldBeReturnNotModified() throws Exception {
+        when(monitorService.getCategoryVersion()).thenReturn(7L);
+
+        mockMvc.perform(get("/api/v1/monitor/").header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andDo(print())
+                .andExpectAll(
+                        status().isNotModified(),
+                        header().string(HttpHeaders.ETAG, "\"7\""),
+                        content().string("")
+                );
+
+        verify(monitorService, never()).findAll(any(KeysetPageRequest.class), any(MonitorFilter.class));
+    }
+
+    /**
+     * Тест на метод export. Выгрузка мониторов в формате JSON массива
+     */
+    @Test
+    void whenExportThenShouldBeReturnJsonArray() throws Exception {
+        var monitor1 = MonitorDTO.builder()
+                .serialNumber("SERIAL")
+                .manufacturer("MANUFACTURER1")
+                .price(10000)
+                .quantity(10)
+                .diagonal(24)
+                .build();
+
+        var monitor2 = MonitorDTO.builder()
+                .serialNumber("SERIAL2")
+                .manufacturer("MANUFACTURER1")
+                .price(10000)
+                .quantity(200)
+                .diagonal(27)
+                .build();
+
+        doAnswer(invocation -> {
+            Consumer<MonitorDTO> consumer = invocation.getArgument(0);
+            consumer.accept(monitor1);
+            consumer.accept(monitor2);
+            return null;
+        }).when(monitorService).export(any());
+
+        mockMvc.perform(get("/api/v1/monitor/export"))
+                .andDo(print())
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentType(MediaType.APPLICATION_JSON),
+                        content().json("""
+                                [
+                                {
+                                    "serialNumber": "SERIAL",
+                                    "manufacturer": "MANUFACTURER1",
+                                    "price": 10000,
+                                    "quantity": 10,
+                                    "diagonal": 24
+                                },
+                                {
+                                    "serialNumber": "SERIAL2",
+                                    "manufacturer": "MANUFACTURER1",
+                                    "price": 10000,
+                                    "quantity": 200,
+                                    "diagonal": 27
+                                }
                                 ]
                                 """)
                 );
@@ -125,12 +267,14 @@ class MonitorControllerTest {
                 .build();
 
         ArgumentCaptor<Integer> argumentCaptor = ArgumentCaptor.forClass(Integer.class);
-        when(monitorService.findById(argumentCaptor.capture())).thenReturn(Optional.of(monitor));
+        when(monitorService.findById(argumentCaptor.capture())).thenReturn(Optional.of(new Versioned<>(monitor, 3L)));
 
         mockMvc.perform(get("/api/v1/monitor/1"))
                 .andDo(print())
                 .andExpectAll(
                         status().isOk(),
+                        header().string(HttpHeaders.ETAG, "\"3\""),
+                        header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT),
                         content().contentType(MediaType.APPLICATION_JSON),
                         content().json("""
                                 {
@@ -165,6 +309,75 @@ class MonitorControllerTest {
         assertThat(argumentCaptor.getValue(), is(1));
     }
 
+    /**
+     * Тест на метод FindById(int id). Когда версия монитора совпадает с заголовком If-None-Match
+     */
+    @Test
+    void whenNotModifiedByIdThenShouldBeReturnNotModified() throws Exception {
+        when(monitorService.findById(1)).thenReturn(Optional.of(new Versioned<>(MonitorDTO.builder().build(), 3L)));
+
+        mockMvc.perform(get("/api/v1/monitor/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andDo(print())
+                .andExpectAll(
+                        status().isNotModified(),
+                        header().string(HttpHeaders.ETAG, "\"3\""),
+                        header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT),
+                        content().string("")
+                );
+    }
+
+    /**
+     * Тест на метод findAll. Когда запрошены только некоторые поля
+     */
+    @Test
+    void whenFindAllWithFieldsThenShouldBeReturnOnlyTheseFields() throws Exception {
+        when(monitorService.findAll(any(KeysetPageRequest.class), any(MonitorFilter.class), eq("serialNumber,price")))
+                .thenReturn(new CursorPage<>(List.of(Map.of("serialNumber", "SERIAL", "price", 10000)), null));
+
+        mockMvc.perform(get("/api/v1/monitor/").param("fields", "serialNumber,price"))
+                .andDo(print())
+                .andExpectAll(
+                        status().isOk(),
+                        content().json("""
+                                {
+                                "content": [
+                                {
+                                    "serialNumber": "SERIAL",
+                                    "price": 10000
+                                }
+                                ],
+                                "nextCursor": null
+                                }
+                                """, true)
+                );
+
+        verify(monitorService, never()).findAll(any(KeysetPageRequest.class), any(MonitorFilter.class));
+    }
+
+    /**
+     * Тест на метод FindById(int id). Когда запрошены только некоторые поля
+     */
+    @Test
+    void whenFindByIdWithFieldsThenShouldBeReturnOnlyTheseFields() throws Exception {
+        var monitor = MonitorDTO.builder()
+                .serialNumber("SERIAL")
+                .manufacturer("MANUFACTURER1")
+                .build();
+        when(monitorService.findById(1)).thenReturn(Optional.of(new Versioned<>(monitor, 3L)));
+
+        mockMvc.perform(get("/api/v1/monitor/1").param("fields", "manufacturer"))
+                .andDo(print())
+                .andExpectAll(
+                        status().isOk(),
+                        content().json("""
+                                {
+                                    "manufacturer": "MANUFACTURER1"
+                                }
+                                """, true),
+                        header().string(HttpHeaders.ETAG, not("\"3\""))
+                );
+    }
+
     /**
      * Тест на метод Save(MonitorDTO monitor). Когда добавление монитора прошло успешно
      */
@@ -228,6 +441,83 @@ class MonitorControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    /**
+     * Тест на метод createAll. Один товар сохранен, второй - дубликат
+     */
+    @Test
+    void whenCreateAllThenShouldBeReturnResultPerItem() throws Exception {
+        var monitor1 = MonitorDTO.builder()
+                .serialNumber("SERIAL")
+                .manufacturer("MANUFACTURER1")
+                .price(10000)
+                .quantity(10)
+                .diagonal(24)
+                .build();
+
+        var result = BulkResultDTO.<MonitorDTO>builder()
+                .created(1)
+                .failed(1)
+                .items(List.of(
+                        BulkItemResultDTO.<MonitorDTO>builder()
+                                .index(0)
+                                .status(BulkItemStatus.CREATED)
+                                .item(monitor1)
+                                .build(),
+                        BulkItemResultDTO.<MonitorDTO>builder()
+                                .index(1)
+                                .status(BulkItemStatus.DUPLICATE)
+                                .errors(List.of("Serial number is repeated in the request"))
+                                .build()))
+                .build();
+
+        ArgumentCaptor<List<MonitorDTO>> argumentCaptor = ArgumentCaptor.forClass(List.class);
+        when(monitorService.createAll(argumentCaptor.capture())).thenReturn(result);
+
+        var jsonObject = new JSONObject();
+        jsonObject.put("serialNumber", "SERIAL");
+        jsonObject.put("manufacturer", "MANUFACTURER1");
+        jsonObject.put("price", 10000);
+        jsonObject.put("quantity", 10);
+        jsonObject.put("diagonal", 24);
+
+        mockMvc.perform(post("/api/v1/monitor/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new JSONArray(List.of(jsonObject, jsonObject)).toString()))
+                .andDo(print())
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentType(MediaType.APPLICATION_JSON),
+                        content().json("""
+                                {
+                                    "created": 1,
+                                    "failed": 1,
+                                    "items": [
+                                    {
+                                        "index": 0,
+                                        "status": "CREATED",
+                                        "item": {
+                                            "serialNumber": "SERIAL",
+                                            "manufacturer": "MANUFACTURER1",
+                                            "price": 10000,
+                                            "quantity": 10,
+                                            "diagonal": 24
+                                        }
+                                    },
+                                    {
+                                        "index": 1,
+                                        "status": "DUPLICATE",
+                                        "errors": ["Serial number is repeated in the request"]
+                                    }
+                                    ]
+                                }
+                                """)
+                );
+
+        verify(monitorService).createAll(argumentCaptor.capture());
+
+        assertThat(argumentCaptor.getValue(), is(List.of(monitor1, monitor1)));
+    }
+
     /**
      * Тест на метод update(MonitorDTO monitor). Когда обновление прошло успешно
      */
@@ -297,4 +587,40 @@ class MonitorControllerTest {
 
         assertThat(argumentCaptor.getValue(), is(updatedMonitor));
     }
-}
\ No newline at end of file
+
+    /**
+     * Тест на метод patch(Map<String, Object> fields). Когда передано только изменяемое поле
+     */
+    @Test
+    void whenPatchIsSuccessfulThenShouldReturnOk() throws Exception {
+        var jsonObject = new JSONObject();
+        jsonObject.put("quantity", 5);
+
+        ArgumentCaptor<Map<String, Object>> argumentCaptor = ArgumentCaptor.forClass(Map.class);
+        when(monitorService.patch(argumentCaptor.capture(), eq(1))).thenReturn(true);
+
+        mockMvc.perform(patch("/api/v1/monitor/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonObject.toString()))
+                .andDo(print())
+                .andExpect(status().isOk());
+
+        verify(monitorService).patch(argumentCaptor.capture(), eq(1));
+
+        assertThat(argumentCaptor.getValue(), is(Map.of("quantity", 5)));
+    }
+
+    /**
+     * Тест на метод patch(Map<String, Object> fields). Когда монитора с заданным идентификатором нет
+     */
+    @Test
+    void whenPatchFailsThenShouldBeReturnBadRequest() throws Exception {
+        when(monitorService.patch(any(), eq(1))).thenReturn(false);
+
+        mockMvc.perform(patch("/api/v1/monitor/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\": 100}"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,153 @@
+package ru.easybot.easybottest.controller;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.easybot.easybottest.EasybotTestApplication;
+import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.repository.ComputerRepository;
+import ru.easybot.easybottest.service.ComputerService;
+import ru.easybot.easybottest.sql.SqlObserver;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.easybot.easybottest.sql.SqlAssertions.assertMaxStatements;
+
+/**
+ * Тесты для контроллера SqlController и кол-ва SQL запросов, выполняемых контроллерами товаров.
+ * Порог медленных запросов равен нулю, поэтому в буфер попадает каждый запрос
+ *
+ * @author Ilya Kaltygin
+ */
+@SpringBootTest(classes = EasybotTestApplication.class, properties = "easybot.sql.slow-threshold-ms=0")
+@AutoConfigureMockMvc
+class SqlControllerTest {
+
+    /**
+     * Обеспечивает возможность отправки запрсоов на тестируемый контроллер и проверки его ответов
+     */
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * Наблюдатель за SQL запросами
+     */
+    @Autowired
+    private SqlObserver sqlObserver;
+
+    /**
+     * Сервис компьютеров
+     */
+    @Autowired
+    private ComputerService computerService;
+
+    /**
+     * Хранилище компьютеров
+     */
+    @Autowired
+    private ComputerRepository computerRepository;
+
+    /**
+     * Тест на метод stats
+     */
+    @Test
+    void whenGetStatsThenShouldBeReturnStatementsWithParameterTypes() throws Exception {
+        mockMvc.perform(get("/api/v1/computer/{id}", Integer.MAX_VALUE))
+                .andExpect(status().isNotFound());
+
+        var response = mockMvc.perform(get("/api/v1/sql/stats"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        var stats = new JSONObject(response);
+        assertThat(stats.getLong("statements"), greaterThan(0L));
+        assertThat(stats.getLong("slowThresholdMs"), is(0L));
+        var slowest = stats.getJSONArray("slowest");
+        assertThat(slowest.length(), greaterThan(0));
+        var found = false;
+        for (var i = 0; i < slowest.length(); i++) {
+            var statement = slowest.getJSONObject(i);
+            var sql = statement.getString("sql");
+            if (sql.contains("FROM computer WHERE id = ?")) {
+                assertThat(statement.getJSONArray("parameterTypes").getString(0), is("Integer"));
+                found = true;
+            }
+        }
+        assertThat(found, is(true));
+    }
+
+    /**
+     * Обновление компьютера выполняет два запроса: UPDATE компьютера и увеличение версии категории
+     */
+    @Test
+    void whenUpdateComputerThenShouldBeExecutedAtMostTwoStatements() throws Exception {
+        computerService.create(ComputerDTO.builder()
+                .serialNumber("SQL-OBSERVER-1")
+                .manufacturer("MANUFACTURER1")
+                .price(10000)
+                .quantity(10)
+                .type("NETTOP")
+                .build());
+        var id = computerRepository.findAll().stream()
+                .filter(computer -> "SQL-OBSERVER-1".equals(computer.getSerialNumber()))
+                .findFirst()
+                .orElseThrow()
+                .getId();
+
+        assertMaxStatements(sqlObserver, 2, () -> mockMvc.perform(put("/api/v1/computer/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "serialNumber": "SQL-OBSERVER-1",
+                                    "manufacturer": "MANUFACTURER2",
+                                    "price": 20000,
+                                    "quantity": 5,
+                                    "type": "DESKTOP"
+                                }
+                                """))
+                .andDo(print())
+                .andExpect(status().isOk()));
+    }
+
+    /**
+     * Создание компьютера с существующим серийным номером выполняет только проверку серийного номера
+     * по уникальному индексу и отклоняется до INSERT
+     */
+    @Test
+    void whenCreateComputerWithDuplicateSerialNumberThenShouldBeConflictWithoutInsert() throws Exception {
+        computerService.create(ComputerDTO.builder()
+                .serialNumber("SQL-OBSERVER-2")
+                .manufacturer("MANUFACTURER1")
+                .price(10000)
+                .quantity(10)
+                .type("NETTOP")
+                .build());
+
+        assertMaxStatements(sqlObserver, 1, () -> mockMvc.perform(post("/api/v1/computer/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "serialNumber": "SQL-OBSERVER-2",
+                                    "manufacturer": "MANUFACTURER2",
+                                    "price": 20000,
+                                    "quantity": 5,
+                                    "type": "DESKTOP"
+                                }
+                                """))
+                .andDo(print())
+                .andExpect(status().isConflict()));
+    }
+}
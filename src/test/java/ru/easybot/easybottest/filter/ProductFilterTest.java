@@ -0,0 +1,265 @@
+package ru.easybot.easybottest.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import ru.easybot.easybottest.config.JdbcReadConfig;
+import ru.easybot.easybottest.config.JpaConfig;
+import ru.easybot.easybottest.config.LiquibaseConfig;
+import ru.easybot.easybottest.model.Computer;
+import ru.easybot.easybottest.model.Product;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
+import ru.easybot.easybottest.repository.ComputerRepository;
+import ru.easybot.easybottest.repository.HddRepository;
+import ru.easybot.easybottest.repository.KeysetRepository;
+import ru.easybot.easybottest.repository.LaptopRepository;
+import ru.easybot.easybottest.repository.MonitorRepository;
+import ru.easybot.easybottest.repository.ProductJdbcReader;
+import ru.easybot.easybottest.repository.ProductRows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Тесты фильтров списка товаров на базе данных H2 со схемой из Liquibase: условие выборки JPA и условия SQL
+ * одного фильтра выбирают одни и те же строки
+ *
+ * @author Ilya Kaltygin
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@Import({JpaConfig.class, LiquibaseConfig.class})
+class ProductFilterTest {
+
+    /**
+     * Производители товаров 1..6
+     */
+    private static final String[] MANUFACTURERS = {"A", "A", "B", "B", "A", "C"};
+
+    /**
+     * Цены товаров 1..6
+     */
+    private static final int[] PRICES = {100, 200, 300, 100, 300, 200};
+
+    /**
+     * Кол-во единиц на складе товаров 1..6: товаров 1 и 4 нет в наличии
+     */
+    private static final int[] QUANTITIES = {0, 3, 5, 0, 2, 1};
+
+    /**
+     * Заполняет таблицы товаров
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Шаблон запросов читателей
+     */
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private ComputerRepository computerRepository;
+
+    @Autowired
+    private HddRepository hddRepository;
+
+    @Autowired
+    private LaptopRepository laptopRepository;
+
+    @Autowired
+    private MonitorRepository monitorRepository;
+
+    /**
+     * Каждый параметр фильтра и их сочетание выбирают одни и те же товары через JPA и через JDBC,
+     * в том числе при переходе по страницам, когда фильтр передается повторно
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenFilterThenSpecificationAndSqlConditionsShouldSelectSameRows(String category) {
+        insertRows(category);
+
+        assertFiltered(category, filter -> { }, List.of(1, 4, 2, 6, 3, 5));
+        assertFiltered(category, filter -> filter.setManufacturer("A"), List.of(1, 2, 5));
+        assertFiltered(category, filter -> filter.setMinPrice(200), List.of(2, 6, 3, 5));
+        assertFiltered(category, filter -> filter.setMaxPrice(200), List.of(1, 4, 2, 6));
+        assertFiltered(category, filter -> {
+            filter.setMinPrice(200);
+            filter.setMaxPrice(200);
+        }, List.of(2, 6));
+        assertFiltered(category, filter -> filter.setInStock(true), List.of(2, 6, 3, 5));
+        assertFiltered(category, filter -> filter.setInStock(false), List.of(1, 4));
+        assertFiltered(category, filter -> new BeanWrapperImpl(filter)
+                .setPropertyValue(filterAttribute(category), otherAttributeValue(category)), List.of(4, 2, 6));
+        assertFiltered(category, filter -> {
+            filter.setManufacturer("A");
+            filter.setInStock(true);
+            new BeanWrapperImpl(filter).setPropertyValue(filterAttribute(category), ProductRows.attributeValue(category));
+        }, List.of(5));
+    }
+
+    /**
+     * Неизвестный тип компьютера отклоняется со статусом BAD_REQUEST и в условии выборки, и в условиях SQL
+     */
+    @Test
+    void whenComputerTypeUnknownThenBadRequestShouldBeThrown() {
+        var filter = new ComputerFilter();
+        filter.setType("SERVER");
+        Specification<Computer> specification = filter.toSpecification();
+
+        var sql = assertThrows(ResponseStatusException.class,
+                () -> filter.toSqlConditions(new MapSqlParameterSource()));
+        var jpa = assertThrows(ResponseStatusException.class,
+                () -> computerRepository.findPage(new KeysetPageRequest(null, 10, "id", "asc"), specification));
+
+        assertThat(sql.getStatus(), is(HttpStatus.BAD_REQUEST));
+        assertThat(jpa.getStatus(), is(HttpStatus.BAD_REQUEST));
+    }
+
+    /**
+     * Проверить, что фильтр выбирает ожидаемые товары через JPA и через JDBC
+     *
+     * @param category  категория товаров
+     * @param configure задание параметров фильтра
+     * @param expected  идентификаторы ожидаемых товаров в порядке (цена, id)
+     */
+    @SuppressWarnings("unchecked")
+    private void assertFiltered(String category, Consumer<ProductFilter> configure, List<Integer> expected) {
+        var filter = filter(category);
+        configure.accept(filter);
+        var repository = (KeysetRepository<Product, Integer>) repository(category);
+        var reader = reader(category);
+
+        var jpa = walk(request -> repository.findPage(request, filter.toSpecification()).map(Product::getId));
+        var jdbc = walk(request -> reader.findPage(request, filter).map(dto -> Integer.valueOf(
+                ((String) new BeanWrapperImpl(dto).getPropertyValue("serialNumber")).substring(5))));
+
+        assertThat(filter.toString(), jpa, is(expected));
+        assertThat(filter.toString(), jdbc, is(expected));
+    }
+
+    /**
+     * Пройти все страницы по два товара, отсортированные по цене
+     *
+     * @param findPage получение страницы идентификаторов
+     * @return идентификаторы всех страниц по порядку
+     */
+    private List<Integer> walk(Function<KeysetPageRequest, CursorPage<Integer>> findPage) {
+        var ids = new ArrayList<Integer>();
+        String cursor = null;
+        do {
+            var page = findPage.apply(new KeysetPageRequest(cursor, 2, "price", "asc"));
+            ids.addAll(page.getContent());
+            cursor = page.getNextCursor();
+        } while (cursor != null && ids.size() <= PRICES.length);
+        return ids;
+    }
+
+    /**
+     * Вставить товары 1..6 категории: у товаров 2, 4 и 6 другое значение атрибута категории
+     *
+     * @param category категория товаров
+     */
+    private void insertRows(String category) {
+        for (var id = 1; id <= PRICES.length; id++) {
+            ProductRows.insert(jdbcTemplate, category, id, "STOCK" + id, MANUFACTURERS[id - 1], PRICES[id - 1],
+                    QUANTITIES[id - 1]);
+        }
+        jdbcTemplate.update(String.format("UPDATE %s SET %s = ? WHERE MOD(id, 2) = 0",
+                category, ProductRows.attribute(category)), otherAttributeValue(category));
+    }
+
+    /**
+     * Получить пустой фильтр категории
+     *
+     * @param category категория товаров
+     * @return фильтр
+     */
+    private static ProductFilter filter(String category) {
+        return switch (category) {
+            case "computer" -> new ComputerFilter();
+            case "hdd" -> new HddFilter();
+            case "laptop" -> new LaptopFilter();
+            case "monitor" -> new MonitorFilter();
+            default -> throw new IllegalArgumentException(String.format("Unknown category: %s", category));
+        };
+    }
+
+    /**
+     * Получить имя параметра фильтра по атрибуту категории
+     *
+     * @param category категория товаров
+     * @return имя свойства фильтра
+     */
+    private static String filterAttribute(String category) {
+        return "laptop".equals(category) ? "screenSize" : ProductRows.attribute(category);
+    }
+
+    /**
+     * Получить допустимое значение атрибута категории, отличное от {@link ProductRows#attributeValue(String)}
+     *
+     * @param category категория товаров
+     * @return значение атрибута
+     */
+    private static Object otherAttributeValue(String category) {
+        return switch (category) {
+            case "computer" -> "NETTOP";
+            case "hdd" -> 1000;
+            case "laptop" -> 13;
+            case "monitor" -> 24;
+            default -> throw new IllegalArgumentException(String.format("Unknown category: %s", category));
+        };
+    }
+
+    /**
+     * Получить хранилище категории
+     *
+     * @param category категория товаров
+     * @return хранилище
+     */
+    private KeysetRepository<? extends Product, Integer> repository(String category) {
+        return switch (category) {
+            case "computer" -> computerRepository;
+            case "hdd" -> hddRepository;
+            case "laptop" -> laptopRepository;
+            case "monitor" -> monitorRepository;
+            default -> throw new IllegalArgumentException(String.format("Unknown category: %s", category));
+        };
+    }
+
+    /**
+     * Создать читателя категории с преобразователем строк из конфигурации приложения
+     *
+     * @param category категория товаров
+     * @return читатель товаров категории
+     */
+    @SuppressWarnings("unchecked")
+    private ProductJdbcReader<Object> reader(String category) {
+        var config = new JdbcReadConfig();
+        var meterRegistry = new SimpleMeterRegistry();
+        return (ProductJdbcReader<Object>) switch (category) {
+            case "computer" -> config.computerReader(namedParameterJdbcTemplate, meterRegistry);
+            case "hdd" -> config.hddReader(namedParameterJdbcTemplate, meterRegistry);
+            case "laptop" -> config.laptopReader(namedParameterJdbcTemplate, meterRegistry);
+            case "monitor" -> config.monitorReader(namedParameterJdbcTemplate, meterRegistry);
+            default -> throw new IllegalArgumentException(String.format("Unknown category: %s", category));
+        };
+    }
+}
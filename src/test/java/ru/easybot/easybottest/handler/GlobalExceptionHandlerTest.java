@@ -0,0 +1,205 @@
+package ru.easybot.easybottest.handler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.MethodNotAllowedException;
+import ru.easybot.easybottest.EasybotTestApplication;
+import ru.easybot.easybottest.repository.ProductRows;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Тесты обработки ошибок GlobalExceptionHandler на запросах, доходящих до базы данных H2 без заглушек сервисов
+ *
+ * @author Ilya Kaltygin
+ */
+@SpringBootTest(classes = EasybotTestApplication.class)
+@AutoConfigureMockMvc
+class GlobalExceptionHandlerTest {
+
+    /**
+     * Идентификатор первого товара вне блоков идентификаторов последовательностей
+     */
+    private static final int ID = 100_000;
+
+    /**
+     * Обеспечивает возможность отправки запросов на контроллеры и проверки их ответов
+     */
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * Заполняет и читает таблицы товаров
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Реестр метрик со счетчиком ошибок
+     */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Обработчик исключений
+     */
+    @Autowired
+    private GlobalExceptionHandler globalExceptionHandler;
+
+    /**
+     * Контекст приложения и база данных общие для тестов, поэтому вставленные строки удаляются
+     */
+    @AfterEach
+    void deleteRows() {
+        jdbcTemplate.update("DELETE FROM computer WHERE serial_number LIKE 'HANDLER-%'");
+    }
+
+    /**
+     * Компьютер без производителя, серийного номера и цены отклоняется валидацией со статусом BAD_REQUEST
+     * и не доходит до ограничений NOT NULL базы данных
+     */
+    @Test
+    void whenCreateComputerWithNullFieldsThenShouldBeReturnBadRequest() throws Exception {
+        var conflicts = errors("409");
+        var rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM computer", Integer.class);
+
+        mockMvc.perform(post("/api/v1/computer/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "quantity": 10,
+                                    "type": "DESKTOP"
+                                }
+                                """))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM computer", Integer.class), is(rows));
+        assertThat(errors("409"), is(conflicts));
+    }
+
+    /**
+     * Обновление компьютера серийным номером другого компьютера нарушает уникальность в базе данных
+     * и возвращает ответ CONFLICT о дубликате серийного номера
+     */
+    @Test
+    void whenUpdateToExistingSerialNumberThenShouldBeReturnConflictProblem() throws Exception {
+        ProductRows.insert(jdbcTemplate, "computer", ID, "HANDLER-1", "MANUFACTURER", 1000, 1);
+        ProductRows.insert(jdbcTemplate, "computer", ID + 1, "HANDLER-2", "MANUFACTURER", 1000, 1);
+        var conflicts = errors("409");
+
+        mockMvc.perform(put("/api/v1/computer/{id}", ID + 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "serialNumber": "HANDLER-1",
+                                    "manufacturer": "MANUFACTURER",
+                                    "price": 1000,
+                                    "quantity": 1,
+                                    "type": "DESKTOP"
+                                }
+                                """))
+                .andDo(print())
+                .andExpectAll(
+                        status().isConflict(),
+                        content().contentType(MediaType.APPLICATION_PROBLEM_JSON),
+                        content().json("""
+                                {
+                                    "status": 409,
+                                    "detail": "A product with the specified serial number already exists"
+                                }
+                                """));
+
+        assertThat(errors("409"), is(conflicts + 1));
+    }
+
+    /**
+     * Нарушение ограничения NOT NULL, полученное от базы данных, возвращает BAD_REQUEST, а не ответ о дубликате
+     */
+    @Test
+    void whenNotNullViolatedThenShouldBeReturnBadRequestProblem() {
+        var e = assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "INSERT INTO computer (id, serial_number, manufacturer, price, quantity, type) VALUES (?, ?, NULL, ?, ?, ?)",
+                ID, "HANDLER-1", 1000, 1, "DESKTOP"));
+        var badRequests = errors("400");
+
+        var response = globalExceptionHandler.handleIntegrityViolation(e);
+
+        assertThat(response.getStatusCode(), is(HttpStatus.BAD_REQUEST));
+        assertThat(response.getBody().getDetail(), is("The product violates a database constraint"));
+        assertThat(errors("400"), is(badRequests + 1));
+    }
+
+    /**
+     * ResponseStatusException, выброшенное при разборе параметров запроса, учитывается в счетчике ошибок
+     * и возвращается ответом BAD_REQUEST с причиной исключения
+     */
+    @Test
+    void whenResponseStatusExceptionThrownThenShouldBeReturnProblemAndCounted() throws Exception {
+        var badRequests = errors("400");
+
+        mockMvc.perform(get("/api/v1/computer/").param("sort", "weight"))
+                .andDo(print())
+                .andExpectAll(
+                        status().isBadRequest(),
+                        content().contentType(MediaType.APPLICATION_PROBLEM_JSON),
+                        content().json("""
+                                {
+                                    "status": 400,
+                                    "detail": "Sorting is supported only by: id, price, manufacturer. But you indicated weight"
+                                }
+                                """));
+
+        assertThat(errors("400"), is(badRequests + 1));
+    }
+
+    /**
+     * Заголовки ResponseStatusException переносятся в ответ
+     */
+    @Test
+    void whenResponseStatusExceptionHasHeadersThenShouldBeCopiedToResponse() {
+        var response = globalExceptionHandler.handleResponseStatusException(
+                new MethodNotAllowedException(HttpMethod.POST, List.of(HttpMethod.GET)));
+
+        assertThat(response.getStatusCode(), is(HttpStatus.METHOD_NOT_ALLOWED));
+        assertThat(response.getHeaders().getAllow(), is(Set.of(HttpMethod.GET)));
+        assertThat(response.getHeaders().getContentType(), is(MediaType.APPLICATION_PROBLEM_JSON));
+    }
+
+    /**
+     * Получить кол-во ошибок с заданным статусом, учтенных в счетчике ошибок
+     *
+     * @param status статус ответа
+     * @return кол-во ошибок
+     */
+    private double errors(String status) {
+        return meterRegistry.find(GlobalExceptionHandler.COUNTER_NAME)
+                .tag("status", status)
+                .counters()
+                .stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+}
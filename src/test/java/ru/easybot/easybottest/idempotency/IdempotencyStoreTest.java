@@ -0,0 +1,216 @@
+package ru.easybot.easybottest.idempotency;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import ru.easybot.easybottest.config.IdempotencyProperties;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Тесты для хранилища ответов IdempotencyStore
+ *
+ * @author Ilya Kaltygin
+ */
+class IdempotencyStoreTest {
+
+    /**
+     * Настройки хранилища
+     */
+    private final IdempotencyProperties properties = new IdempotencyProperties();
+
+    /**
+     * Повтор, пришедший во время выполнения первого запроса, ждет его ответа
+     */
+    @Test
+    void whenConcurrentRetryThenItShouldBeCoalescedOntoInFlightRequest() throws Exception {
+        var idempotencyStore = new IdempotencyStore(properties);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var calls = new AtomicInteger();
+        Callable<ResponseEntity<String>> request = () -> idempotencyStore.execute("hdd", "coalesce-1", "body", () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            return new ResponseEntity<>("created", HttpStatus.CREATED);
+        });
+        var executor = Executors.newFixedThreadPool(2);
+        try {
+            var first = executor.submit(request);
+            started.await();
+            var retry = executor.submit(request);
+            release.countDown();
+
+            assertThat(first.get().getBody(), is("created"));
+            assertThat(retry.get().getBody(), is("created"));
+            assertThat(retry.get().getStatusCode(), is(HttpStatus.CREATED));
+            assertThat(retry.get().getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER), is("true"));
+            assertThat(calls.get(), is(1));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Ошибка первого запроса не сохраняется, и запрос с тем же ключом выполняется заново
+     */
+    @Test
+    void whenFirstRequestFailsThenKeyShouldBeExecutedAgain() {
+        var idempotencyStore = new IdempotencyStore(properties);
+
+        assertThrows(ResponseStatusException.class, () -> idempotencyStore.execute("hdd", "failed-1", "body", () -> {
+            throw new ResponseStatusException(HttpStatus.CONFLICT);
+        }));
+        var afterFailure = idempotencyStore.execute("hdd", "failed-1", "body", () -> ResponseEntity.ok("created"));
+
+        assertThat(afterFailure.getHeaders().containsKey(IdempotencyStore.REPLAYED_HEADER), is(false));
+        assertThat(idempotencyStore.size(), is(1));
+    }
+
+    /**
+     * Если первый запрос завершился Error, то запись удаляется, ожидавший повтор получает ту же ошибку,
+     * а следующий запрос с тем же ключом выполняется заново
+     */
+    @Test
+    void whenFirstRequestThrowsErrorThenWaitingRetryShouldFailAndKeyBeExecutedAgain() throws Exception {
+        var idempotencyStore = new IdempotencyStore(properties);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(2);
+        try {
+            var first = executor.submit(() -> idempotencyStore.execute("hdd", "error-1", "body", () -> {
+                started.countDown();
+                await(release);
+                throw new StackOverflowError();
+            }));
+            started.await();
+            var retryThread = new AtomicReference<Thread>();
+            var retry = executor.submit(() -> {
+                retryThread.set(Thread.currentThread());
+                return idempotencyStore.execute("hdd", "error-1", "body", () -> ResponseEntity.ok("retry"));
+            });
+            while (retryThread.get() == null || retryThread.get().getState() != Thread.State.TIMED_WAITING) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            var firstError = assertThrows(ExecutionException.class, first::get);
+            var retryError = assertThrows(ExecutionException.class, retry::get);
+            assertThat(firstError.getCause() instanceof StackOverflowError, is(true));
+            assertThat(retryError.getCause() instanceof CompletionException, is(true));
+            assertThat(retryError.getCause().getCause() instanceof StackOverflowError, is(true));
+        } finally {
+            executor.shutdown();
+        }
+        var again = idempotencyStore.execute("hdd", "error-1", "body", () -> ResponseEntity.ok("again"));
+
+        assertThat(again.getBody(), is("again"));
+        assertThat(idempotencyStore.size(), is(1));
+    }
+
+    /**
+     * Повтор ждет выполняющийся первый запрос не дольше wait-timeout-ms и затем отклоняется со статусом CONFLICT
+     */
+    @Test
+    void whenFirstRequestOutlastsWaitTimeoutThenRetryShouldBeRejectedWithConflict() throws Exception {
+        properties.setWaitTimeoutMs(50);
+        var idempotencyStore = new IdempotencyStore(properties);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            var first = executor.submit(() -> idempotencyStore.execute("hdd", "slow-1", "body", () -> {
+                started.countDown();
+                await(release);
+                return ResponseEntity.ok("created");
+            }));
+            started.await();
+
+            var retry = assertThrows(ResponseStatusException.class, () ->
+                    idempotencyStore.execute("hdd", "slow-1", "body", () -> ResponseEntity.ok("retry")));
+            release.countDown();
+
+            assertThat(retry.getStatus(), is(HttpStatus.CONFLICT));
+            assertThat(first.get().getBody(), is("created"));
+        } finally {
+            executor.shutdown();
+        }
+        var replayed = idempotencyStore.execute("hdd", "slow-1", "body", () -> ResponseEntity.ok("again"));
+
+        assertThat(replayed.getBody(), is("created"));
+    }
+
+    /**
+     * Ключи разных категорий не пересекаются: тот же ключ в другой категории выполняет запрос
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenSameKeyUsedInOtherCategoryThenRequestShouldBeExecuted(String category) {
+        var idempotencyStore = new IdempotencyStore(properties);
+        var other = "hdd".equals(category) ? "monitor" : "hdd";
+        idempotencyStore.execute(category, "create-1", "body", () -> ResponseEntity.ok(category));
+
+        var replayed = idempotencyStore.execute(category, "create-1", "body", () -> ResponseEntity.ok("again"));
+        var otherCategory = idempotencyStore.execute(other, "create-1", "body", () -> ResponseEntity.ok(other));
+
+        assertThat(replayed.getBody(), is(category));
+        assertThat(replayed.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER), is("true"));
+        assertThat(otherCategory.getBody(), is(other));
+        assertThat(otherCategory.getHeaders().containsKey(IdempotencyStore.REPLAYED_HEADER), is(false));
+    }
+
+    /**
+     * При превышении максимального кол-ва записей удаляется самая старая
+     */
+    @Test
+    void whenMaxEntriesExceededThenOldestKeyShouldBeEvicted() {
+        properties.setMaxEntries(2);
+        var idempotencyStore = new IdempotencyStore(properties);
+        idempotencyStore.execute("hdd", "first", "body", () -> ResponseEntity.ok("first"));
+        idempotencyStore.execute("hdd", "second", "body", () -> ResponseEntity.ok("second"));
+        idempotencyStore.execute("hdd", "third", "body", () -> ResponseEntity.ok("third"));
+
+        var second = idempotencyStore.execute("hdd", "second", "body", () -> ResponseEntity.ok("again"));
+        var first = idempotencyStore.execute("hdd", "first", "body", () -> ResponseEntity.ok("again"));
+
+        assertThat(second.getBody(), is("second"));
+        assertThat(first.getBody(), is("again"));
+    }
+
+    /**
+     * Истекшие записи удаляются, и запрос с тем же ключом выполняется заново
+     */
+    @Test
+    void whenTtlExpiredThenKeyShouldBeExecutedAgain() {
+        properties.setTtlSeconds(0);
+        var idempotencyStore = new IdempotencyStore(properties);
+        idempotencyStore.execute("hdd", "expired", "body", () -> ResponseEntity.ok("first"));
+
+        var again = idempotencyStore.execute("hdd", "expired", "body", () -> ResponseEntity.ok("again"));
+
+        assertThat(again.getBody(), is("again"));
+        assertThat(idempotencyStore.size(), is(1));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
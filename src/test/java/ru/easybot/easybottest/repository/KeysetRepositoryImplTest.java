@@ -0,0 +1,221 @@
+package ru.easybot.easybottest.repository;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.easybot.easybottest.config.JpaConfig;
+import ru.easybot.easybottest.config.LiquibaseConfig;
+import ru.easybot.easybottest.model.Product;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
+import ru.easybot.easybottest.pagination.SortField;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Тесты постраничного просмотра по ключу KeysetRepositoryImpl на базе данных H2 со схемой из Liquibase
+ *
+ * @author Ilya Kaltygin
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@Import({JpaConfig.class, LiquibaseConfig.class})
+class KeysetRepositoryImplTest {
+
+    /**
+     * Цены товаров 1..7: у нескольких товаров цены совпадают
+     */
+    private static final int[] PRICES = {300, 100, 200, 100, 300, 100, 200};
+
+    /**
+     * Производители товаров 1..7: у нескольких товаров производители совпадают
+     */
+    private static final String[] MANUFACTURERS = {"B", "A", "B", "A", "C", "A", "B"};
+
+    /**
+     * Размеры страниц: по одной строке, с неполной последней страницей, ровно все строки и больше всех строк
+     */
+    private static final int[] PAGE_SIZES = {1, 3, 7, 8};
+
+    /**
+     * Заполняет таблицы товаров
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ComputerRepository computerRepository;
+
+    @Autowired
+    private HddRepository hddRepository;
+
+    @Autowired
+    private LaptopRepository laptopRepository;
+
+    @Autowired
+    private MonitorRepository monitorRepository;
+
+    /**
+     * Страницы по курсорам для каждого поля, направления и размера страницы проходят все строки ровно один раз
+     * в порядке (поле, id), в том числе при одинаковых значениях поля на границе страниц,
+     * а у последней страницы нет курсора
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenWalkPagesThenEveryRowShouldBeReturnedOnceInKeyOrder(String category) {
+        insertRows(category);
+        var repository = repository(category);
+        for (var sortField : SortField.values()) {
+            for (var direction : Sort.Direction.values()) {
+                var expected = expectedIds(sortField, direction);
+                for (var size : PAGE_SIZES) {
+                    var ids = walk(size, sortField, direction,
+                            request -> repository.findPage(request).map(Product::getId));
+                    assertThat(sortField + " " + direction + " size " + size, ids, is(expected));
+                }
+            }
+        }
+    }
+
+    /**
+     * Страницы только заданных полей используют те же курсоры и тот же порядок, что и страницы сущностей
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenWalkFieldPagesThenOrderShouldMatchEntityPages(String category) {
+        insertRows(category);
+        var repository = repository(category);
+        for (var sortField : SortField.values()) {
+            for (var direction : Sort.Direction.values()) {
+                var expected = expectedIds(sortField, direction);
+                for (var size : PAGE_SIZES) {
+                    var ids = walk(size, sortField, direction,
+                            request -> repository.findPage(request, null, List.of("serialNumber"))
+                                    .map(fields -> Integer.valueOf(((String) fields.get("serialNumber")).substring(5))));
+                    assertThat(sortField + " " + direction + " size " + size, ids, is(expected));
+                }
+            }
+        }
+    }
+
+    /**
+     * Ограничение времени запроса в базе данных не меняет страницы и их порядок
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenWalkPagesWithTimeoutThenOrderShouldMatchPagesWithoutTimeout(String category) {
+        insertRows(category);
+        var repository = repository(category);
+        var expected = expectedIds(SortField.PRICE, Sort.Direction.ASC);
+
+        var ids = walk(3, SortField.PRICE, Sort.Direction.ASC,
+                request -> repository.findPage(request, null, 1L).map(Product::getId));
+
+        assertThat(ids, is(expected));
+    }
+
+    /**
+     * Курсор хранит сортировку первой страницы: параметры sort и direction следующих запросов не меняют порядок
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenCursorPassedThenSortOfRequestShouldBeIgnored(String category) {
+        insertRows(category);
+        var repository = repository(category);
+        var first = repository.findPage(new KeysetPageRequest(null, 2, "price", "desc"));
+
+        var second = repository.findPage(new KeysetPageRequest(first.getNextCursor(), 2, "id", "asc"));
+
+        var expected = expectedIds(SortField.PRICE, Sort.Direction.DESC);
+        assertThat(second.getContent().stream().map(Product::getId).collect(Collectors.toList()),
+                is(expected.subList(2, 4)));
+    }
+
+    /**
+     * Пройти все страницы
+     *
+     * @param size      размер страницы
+     * @param sortField поле сортировки
+     * @param direction направление сортировки
+     * @param findPage  получение страницы идентификаторов
+     * @return идентификаторы всех страниц по порядку
+     */
+    private List<Integer> walk(int size, SortField sortField, Sort.Direction direction,
+                               Function<KeysetPageRequest, CursorPage<Integer>> findPage) {
+        var ids = new ArrayList<Integer>();
+        String cursor = null;
+        var pages = 0;
+        do {
+            var page = findPage.apply(new KeysetPageRequest(cursor, size, sortField.getAttribute(), direction.name()));
+            ids.addAll(page.getContent());
+            cursor = page.getNextCursor();
+            pages++;
+            if (cursor != null) {
+                assertThat(page.getContent().size(), is(size));
+            }
+        } while (cursor != null && pages <= PRICES.length);
+        assertThat(cursor, nullValue());
+        assertThat(pages, is(Math.max(1, (PRICES.length + size - 1) / size)));
+        return ids;
+    }
+
+    /**
+     * Получить идентификаторы товаров в порядке (поле, id)
+     *
+     * @param sortField поле сортировки
+     * @param direction направление сортировки
+     * @return идентификаторы
+     */
+    private List<Integer> expectedIds(SortField sortField, Sort.Direction direction) {
+        Map<SortField, Comparator<Integer>> byField = Map.of(
+                SortField.ID, Comparator.naturalOrder(),
+                SortField.PRICE, Comparator.<Integer>comparingInt(id -> PRICES[id - 1]).thenComparing(id -> id),
+                SortField.MANUFACTURER, Comparator.<Integer, String>comparing(id -> MANUFACTURERS[id - 1])
+                        .thenComparing(id -> id));
+        var comparator = byField.get(sortField);
+        return IntStream.rangeClosed(1, PRICES.length)
+                .boxed()
+                .sorted(direction.isAscending() ? comparator : comparator.reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Вставить товары 1..7 категории
+     *
+     * @param category категория товаров
+     */
+    private void insertRows(String category) {
+        for (var id = 1; id <= PRICES.length; id++) {
+            ProductRows.insert(jdbcTemplate, category, id, "STOCK" + id, MANUFACTURERS[id - 1], PRICES[id - 1], 1);
+        }
+    }
+
+    /**
+     * Получить хранилище категории
+     *
+     * @param category категория товаров
+     * @return хранилище
+     */
+    private KeysetRepository<? extends Product, Integer> repository(String category) {
+        return switch (category) {
+            case "computer" -> computerRepository;
+            case "hdd" -> hddRepository;
+            case "laptop" -> laptopRepository;
+            case "monitor" -> monitorRepository;
+            default -> throw new IllegalArgumentException(String.format("Unknown category: %s", category));
+        };
+    }
+}
@@ -0,0 +1,229 @@
+package ru.easybot.easybottest.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.easybot.easybottest.cache.DetailCache;
+import ru.easybot.easybottest.cache.Versioned;
+import ru.easybot.easybottest.config.JdbcReadConfig;
+import ru.easybot.easybottest.config.JpaConfig;
+import ru.easybot.easybottest.config.LiquibaseConfig;
+import ru.easybot.easybottest.filter.ProductFilter;
+import ru.easybot.easybottest.model.Product;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
+import ru.easybot.easybottest.pagination.SortField;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Тесты для чтения товаров через JDBC ProductJdbcReader на базе данных H2 со схемой из Liquibase
+ *
+ * @author Ilya Kaltygin
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@Import({JpaConfig.class, LiquibaseConfig.class})
+class ProductJdbcReaderTest {
+
+    /**
+     * Цены товаров 1..7: у нескольких товаров цены совпадают
+     */
+    private static final int[] PRICES = {300, 100, 200, 100, 300, 100, 200};
+
+    /**
+     * Производители товаров 1..7: у нескольких товаров производители совпадают
+     */
+    private static final String[] MANUFACTURERS = {"B", "A", "B", "A", "C", "A", "B"};
+
+    /**
+     * Размеры страниц: по одной строке, с неполной последней страницей, ровно все строки и больше всех строк
+     */
+    private static final int[] PAGE_SIZES = {1, 3, 7, 8};
+
+    /**
+     * Заполняет таблицы товаров
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Шаблон запросов читателей
+     */
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private ComputerRepository computerRepository;
+
+    @Autowired
+    private HddRepository hddRepository;
+
+    @Autowired
+    private LaptopRepository laptopRepository;
+
+    @Autowired
+    private MonitorRepository monitorRepository;
+
+    /**
+     * Страницы читателя для каждого поля, направления и размера страницы совпадают со страницами
+     * KeysetRepositoryImpl по содержимому и курсорам, в том числе при одинаковых значениях поля на границе страниц
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenWalkPagesThenPagesAndCursorsShouldMatchKeysetRepository(String category) {
+        insertRows(category);
+        var reader = reader(category);
+        var repository = repository(category);
+        for (var sortField : SortField.values()) {
+            for (var direction : Sort.Direction.values()) {
+                for (var size : PAGE_SIZES) {
+                    var description = sortField + " " + direction + " size " + size;
+                    var ids = new ArrayList<Integer>();
+                    String cursor = null;
+                    do {
+                        var request = new KeysetPageRequest(cursor, size, sortField.getAttribute(), direction.name());
+                        var expected = repository.findPage(request).map(Product::getId);
+                        var page = reader.findPage(request, new ProductFilter()).map(ProductJdbcReaderTest::id);
+                        assertThat(description, page.getContent(), is(expected.getContent()));
+                        assertThat(description, page.getNextCursor(), is(expected.getNextCursor()));
+                        ids.addAll(page.getContent());
+                        cursor = page.getNextCursor();
+                    } while (cursor != null && ids.size() <= PRICES.length);
+                    assertThat(description, cursor, nullValue());
+                    assertThat(description, Set.copyOf(ids),
+                            is(IntStream.rangeClosed(1, PRICES.length).boxed().collect(Collectors.toSet())));
+                    assertThat(description, ids.size(), is(PRICES.length));
+                }
+            }
+        }
+    }
+
+    /**
+     * Товар читается по идентификатору вместе с текущей версией строки
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenFindByIdThenProductShouldBeReadWithRowVersion(String category) {
+        var reader = reader(category);
+        ProductRows.insert(jdbcTemplate, category, 1, 3);
+
+        var first = reader.findById(1).orElseThrow();
+        assertThat(first.getVersion(), is(0L));
+        assertThat(property(first.getValue(), "quantity"), is(3));
+
+        jdbcTemplate.update(String.format("UPDATE %s SET quantity = 4, version = version + 1 WHERE id = 1", category));
+        var second = reader.findById(1).orElseThrow();
+        assertThat(second.getVersion(), is(1L));
+        assertThat(property(second.getValue(), "quantity"), is(4));
+
+        assertThat(reader.findById(Integer.MAX_VALUE).isPresent(), is(false));
+    }
+
+    /**
+     * Несколько товаров читаются одним запросом, а при повторном запросе по идентификаторам берутся из кэша
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenGetAllByIdsTwiceThenSecondTimeShouldBeReadFromCache(String category) {
+        var reader = reader(category);
+        var cache = new DetailCache<Integer, Versioned<Object>>(category, 10);
+        ProductRows.insert(jdbcTemplate, category, 1, 3);
+        ProductRows.insert(jdbcTemplate, category, 2, 4);
+
+        var first = cache.getAll(List.of(1, 2, Integer.MAX_VALUE), reader::findAllByIds);
+        assertThat(first.keySet(), is(Set.of(1, 2)));
+        assertThat(property(first.get(2).getValue(), "quantity"), is(4));
+        assertThat(property(first.get(2).getValue(), ProductRows.attribute(category)).toString(),
+                is(ProductRows.attributeValue(category).toString()));
+
+        var second = cache.getAll(List.of(1, 2), keys -> {
+            throw new AssertionError("Cached products should not be loaded again");
+        });
+        assertThat(second, is(first));
+
+        var bySerialNumber = reader.findAllBySerialNumbers(List.of("STOCK1", "MISSING"));
+        assertThat(bySerialNumber.keySet(), is(Set.of("STOCK1")));
+        assertThat(property(bySerialNumber.get("STOCK1"), "quantity"), is(3));
+    }
+
+    /**
+     * Вставить товары 1..7 категории
+     *
+     * @param category категория товаров
+     */
+    private void insertRows(String category) {
+        for (var id = 1; id <= PRICES.length; id++) {
+            ProductRows.insert(jdbcTemplate, category, id, "STOCK" + id, MANUFACTURERS[id - 1], PRICES[id - 1], 1);
+        }
+    }
+
+    /**
+     * Получить хранилище категории
+     *
+     * @param category категория товаров
+     * @return хранилище
+     */
+    private KeysetRepository<? extends Product, Integer> repository(String category) {
+        return switch (category) {
+            case "computer" -> computerRepository;
+            case "hdd" -> hddRepository;
+            case "laptop" -> laptopRepository;
+            case "monitor" -> monitorRepository;
+            default -> throw new IllegalArgumentException(String.format("Unknown category: %s", category));
+        };
+    }
+
+    /**
+     * Создать читателя категории с преобразователем строк из конфигурации приложения
+     *
+     * @param category категория товаров
+     * @return читатель товаров категории
+     */
+    @SuppressWarnings("unchecked")
+    private ProductJdbcReader<Object> reader(String category) {
+        var config = new JdbcReadConfig();
+        var meterRegistry = new SimpleMeterRegistry();
+        return (ProductJdbcReader<Object>) switch (category) {
+            case "computer" -> config.computerReader(namedParameterJdbcTemplate, meterRegistry);
+            case "hdd" -> config.hddReader(namedParameterJdbcTemplate, meterRegistry);
+            case "laptop" -> config.laptopReader(namedParameterJdbcTemplate, meterRegistry);
+            case "monitor" -> config.monitorReader(namedParameterJdbcTemplate, meterRegistry);
+            default -> throw new IllegalArgumentException(String.format("Unknown category: %s", category));
+        };
+    }
+
+    /**
+     * Получить идентификатор товара по серийному номеру вида STOCK{id}
+     *
+     * @param dto DTO товара
+     * @return идентификатор
+     */
+    private static Integer id(Object dto) {
+        return Integer.valueOf(((String) property(dto, "serialNumber")).substring(5));
+    }
+
+    /**
+     * Получить значение свойства DTO
+     *
+     * @param dto      DTO товара
+     * @param property имя свойства
+     * @return значение свойства
+     */
+    private static Object property(Object dto, String property) {
+        return new BeanWrapperImpl(dto).getPropertyValue(property);
+    }
+}
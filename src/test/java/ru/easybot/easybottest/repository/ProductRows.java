@@ -0,0 +1,199 @@
+package ru.easybot.easybottest.repository;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseFactory;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import ru.easybot.easybottest.dto.ComputerDTO;
+import ru.easybot.easybottest.dto.HddDTO;
+import ru.easybot.easybottest.dto.LaptopDTO;
+import ru.easybot.easybottest.dto.MonitorDTO;
+import ru.easybot.easybottest.model.Computer;
+import ru.easybot.easybottest.model.Hdd;
+import ru.easybot.easybottest.model.Laptop;
+import ru.easybot.easybottest.model.Monitor;
+import ru.easybot.easybottest.model.Product;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * Строки товаров всех категорий для тестов, работающих с базой данных. Таблицы категорий отличаются
+ * только атрибутом категории, поэтому строка любой категории вставляется одним запросом
+ *
+ * @author Ilya Kaltygin
+ */
+public final class ProductRows {
+
+    private ProductRows() {
+    }
+
+    /**
+     * Создать встроенную базу данных H2 со схемой из скриптов Liquibase
+     *
+     * @return база данных, которую нужно закрыть методом shutdown()
+     */
+    public static EmbeddedDatabase database() {
+        Resource[] scripts;
+        try {
+            scripts = new PathMatchingResourcePatternResolver().getResources("classpath:db/scripts/*.sql");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Arrays.sort(scripts, Comparator.comparing(Resource::getFilename));
+        var populator = new ResourceDatabasePopulator(scripts);
+        populator.setSqlScriptEncoding("UTF-8");
+        var factory = new EmbeddedDatabaseFactory();
+        factory.setGenerateUniqueDatabaseName(true);
+        factory.setDatabaseType(EmbeddedDatabaseType.H2);
+        factory.setDatabasePopulator(populator);
+        return factory.getDatabase();
+    }
+
+    /**
+     * Вставить товар
+     *
+     * @param jdbcTemplate шаблон JDBC
+     * @param category     категория товара (имя таблицы)
+     * @param id           идентификатор
+     * @param serialNumber серийный номер
+     * @param manufacturer производитель
+     * @param price        цена
+     * @param quantity     кол-во единиц на складе
+     */
+    public static void insert(JdbcTemplate jdbcTemplate, String category, int id, String serialNumber,
+                              String manufacturer, int price, int quantity) {
+        jdbcTemplate.update(String.format(
+                        "INSERT INTO %s (id, serial_number, manufacturer, price, quantity, %s) VALUES (?, ?, ?, ?, ?, ?)",
+                        category, attribute(category)),
+                id, serialNumber, manufacturer, price, quantity, attributeValue(category));
+    }
+
+    /**
+     * Вставить товар с серийным номером по идентификатору
+     *
+     * @param jdbcTemplate шаблон JDBC
+     * @param category     категория товара (имя таблицы)
+     * @param id           идентификатор
+     * @param quantity     кол-во единиц на складе
+     */
+    public static void insert(JdbcTemplate jdbcTemplate, String category, int id, int quantity) {
+        insert(jdbcTemplate, category, id, "STOCK" + id, "MANUFACTURER", 1000, quantity);
+    }
+
+    /**
+     * Получить кол-во единиц товара на складе
+     *
+     * @param jdbcTemplate шаблон JDBC
+     * @param category     категория товара
+     * @param id           идентификатор
+     * @return кол-во единиц
+     */
+    public static int quantity(JdbcTemplate jdbcTemplate, String category, int id) {
+        return jdbcTemplate.queryForObject(
+                String.format("SELECT quantity FROM %s WHERE id = ?", category), Integer.class, id);
+    }
+
+    /**
+     * Получить версию строки товара
+     *
+     * @param jdbcTemplate шаблон JDBC
+     * @param category     категория товара
+     * @param id           идентификатор
+     * @return версия строки
+     */
+    public static long version(JdbcTemplate jdbcTemplate, String category, int id) {
+        return jdbcTemplate.queryForObject(
+                String.format("SELECT version FROM %s WHERE id = ?", category), Long.class, id);
+    }
+
+    /**
+     * Получить имя атрибута категории
+     *
+     * @param category категория товара
+     * @return имя столбца атрибута
+     */
+    public static String attribute(String category) {
+        return switch (category) {
+            case "computer" -> "type";
+            case "hdd" -> "capacity";
+            case "laptop" -> "size";
+            case "monitor" -> "diagonal";
+            default -> throw new IllegalArgumentException(String.format("Unknown category: %s", category));
+        };
+    }
+
+    /**
+     * Получить допустимое значение атрибута категории, с которым вставляются и создаются товары
+     *
+     * @param category категория товара
+     * @return значение атрибута
+     */
+    public static Object attributeValue(String category) {
+        return switch (category) {
+            case "computer" -> "DESKTOP";
+            case "hdd" -> 500;
+            case "laptop" -> 15;
+            case "monitor" -> 27;
+            default -> throw new IllegalArgumentException(String.format("Unknown category: %s", category));
+        };
+    }
+
+    /**
+     * Получить значения полей DTO товара по их именам
+     *
+     * @param category     категория товара
+     * @param serialNumber серийный номер
+     * @param manufacturer производитель
+     * @param price        цена
+     * @param quantity     кол-во единиц на складе
+     * @return значения полей по их именам
+     */
+    public static Map<String, Object> fields(String category, String serialNumber, String manufacturer, int price,
+                                             int quantity) {
+        return Map.of(
+                "serialNumber", serialNumber,
+                "manufacturer", manufacturer,
+                "price", price,
+                "quantity", quantity,
+                attribute(category), attributeValue(category));
+    }
+
+    /**
+     * Получить класс DTO категории
+     *
+     * @param category категория товара
+     * @return класс DTO
+     */
+    public static Class<?> dtoClass(String category) {
+        return switch (category) {
+            case "computer" -> ComputerDTO.class;
+            case "hdd" -> HddDTO.class;
+            case "laptop" -> LaptopDTO.class;
+            case "monitor" -> MonitorDTO.class;
+            default -> throw new IllegalArgumentException(String.format("Unknown category: %s", category));
+        };
+    }
+
+    /**
+     * Получить класс сущности категории
+     *
+     * @param category категория товара
+     * @return класс сущности
+     */
+    public static Class<? extends Product> entityClass(String category) {
+        return switch (category) {
+            case "computer" -> Computer.class;
+            case "hdd" -> Hdd.class;
+            case "laptop" -> Laptop.class;
+            case "monitor" -> Monitor.class;
+            default -> throw new IllegalArgumentException(String.format("Unknown category: %s", category));
+        };
+    }
+}
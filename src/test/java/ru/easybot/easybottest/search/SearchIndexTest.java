@@ -0,0 +1,94 @@
+package ru.easybot.easybottest.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import ru.easybot.easybottest.dto.ManufacturerSuggestionDTO;
+import ru.easybot.easybottest.dto.SearchHitDTO;
+import ru.easybot.easybottest.repository.ProductRows;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Тесты для индекса поиска SearchIndex
+ *
+ * @author Ilya Kaltygin
+ */
+class SearchIndexTest {
+
+    /**
+     * Индекс находит товары по части серийного номера без учета регистра, ранжирует производителей
+     * по кол-ву товаров и учитывает изменение серийного номера
+     */
+    @Test
+    void whenSearchThenShouldFindBySubstringAndRankManufacturersByFrequency() {
+        var index = new SearchIndex("hdd", null);
+        index.put(1, "SRCH-ALPHA-001", "SrchSeagate");
+        index.put(2, "SRCH-BETA-002", "SrchSeagate");
+        index.put(3, "srch-alpha-003", "SrchSamsung");
+
+        var alpha = index.search("Alpha", 10);
+        assertThat(alpha.getProducts().stream().map(SearchHitDTO::getId).collect(Collectors.toList()),
+                is(List.of(1, 3)));
+        var manufacturers = index.search("srch", 10).getManufacturers();
+        assertThat(manufacturers, is(List.of(
+                new ManufacturerSuggestionDTO("SrchSeagate", 2),
+                new ManufacturerSuggestionDTO("SrchSamsung", 1))));
+
+        index.put(2, "SRCH-GAMMA-002", null);
+
+        assertThat(index.search("beta-0", 10).getProducts().isEmpty(), is(true));
+        assertThat(index.search("gamma", 10).getProducts(),
+                is(List.of(new SearchHitDTO(2, "SRCH-GAMMA-002", "SrchSeagate"))));
+        assertThat(index.search("sr", 1).getProducts().size(), is(1));
+    }
+
+    /**
+     * Пустая строка поиска и слишком большой limit отклоняются со статусом BAD_REQUEST
+     */
+    @Test
+    void whenSearchQueryIsBlankOrLimitTooLargeThenShouldBeReturnBadRequest() {
+        var index = new SearchIndex("hdd", null);
+
+        var blank = assertThrows(ResponseStatusException.class, () -> index.search(" ", 10));
+        assertThat(blank.getStatus(), is(HttpStatus.BAD_REQUEST));
+        var tooLarge = assertThrows(ResponseStatusException.class,
+                () -> index.search("srch", SearchIndex.MAX_LIMIT + 1));
+        assertThat(tooLarge.getStatus(), is(HttpStatus.BAD_REQUEST));
+    }
+
+    /**
+     * Индекс загружается из таблицы своей категории и заменяет ранее добавленные товары
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenLoadThenIndexShouldContainOnlyRowsOfCategoryTable(String category) {
+        var database = ProductRows.database();
+        try {
+            var jdbcTemplate = new JdbcTemplate(database);
+            ProductRows.insert(jdbcTemplate, category, 1, "LOAD-001", "LoadSeagate", 1000, 1);
+            ProductRows.insert(jdbcTemplate, category, 2, "LOAD-002", "LoadSamsung", 1000, 1);
+            var other = "hdd".equals(category) ? "monitor" : "hdd";
+            ProductRows.insert(jdbcTemplate, other, 3, "LOAD-003", "LoadSeagate", 1000, 1);
+            var index = new SearchIndex(category, jdbcTemplate);
+            index.put(4, "LOAD-004", "LoadStale");
+
+            index.load();
+
+            assertThat(index.search("load-00", 10).getProducts(), is(List.of(
+                    new SearchHitDTO(1, "LOAD-001", "LoadSeagate"),
+                    new SearchHitDTO(2, "LOAD-002", "LoadSamsung"))));
+            assertThat(index.search("loadst", 10).getManufacturers().isEmpty(), is(true));
+        } finally {
+            database.shutdown();
+        }
+    }
+}
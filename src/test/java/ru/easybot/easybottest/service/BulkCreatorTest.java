@@ -0,0 +1,205 @@
+package ru.easybot.easybottest.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.easybot.easybottest.config.JpaConfig;
+import ru.easybot.easybottest.config.LiquibaseConfig;
+import ru.easybot.easybottest.config.ModelMapperConfig;
+import ru.easybot.easybottest.dto.BulkItemResultDTO;
+import ru.easybot.easybottest.dto.BulkItemStatus;
+import ru.easybot.easybottest.repository.ComputerRepository;
+import ru.easybot.easybottest.repository.HddRepository;
+import ru.easybot.easybottest.repository.LaptopRepository;
+import ru.easybot.easybottest.repository.MonitorRepository;
+import ru.easybot.easybottest.repository.ProductRows;
+
+import javax.validation.Validation;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Тесты пакетного создания товаров BulkCreator на базе данных H2 со схемой из Liquibase
+ *
+ * @author Ilya Kaltygin
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@Import({JpaConfig.class, LiquibaseConfig.class})
+class BulkCreatorTest {
+
+    /**
+     * Заполняет таблицы товаров
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ComputerRepository computerRepository;
+
+    @Autowired
+    private HddRepository hddRepository;
+
+    @Autowired
+    private LaptopRepository laptopRepository;
+
+    @Autowired
+    private MonitorRepository monitorRepository;
+
+    /**
+     * Пакетное создание товаров
+     */
+    private final BulkCreator bulkCreator = new BulkCreator(Validation.buildDefaultValidatorFactory().getValidator());
+
+    /**
+     * Преобразователь DTO в сущности и обратно
+     */
+    private final ModelMapper modelMapper = ModelMapperConfig.configure(new ModelMapper());
+
+    /**
+     * Создает DTO из значений полей
+     */
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Серийные номера, повторяющиеся в запросе или уже существующие в базе данных, и невалидные товары
+     * не сохраняются, а остальные товары сохраняются одним вызовом
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenCreateWithDuplicatesThenOnlyNewProductsShouldBeInserted(String category) {
+        ProductRows.insert(jdbcTemplate, category, 100_000, "BULK-EXISTING", "MANUFACTURER", 1000, 1);
+        var saves = new AtomicInteger();
+
+        var result = bulkCreator.create(
+                List.of(
+                        dto(category, "BULK-NEW-1", 1000),
+                        dto(category, "BULK-EXISTING", 1000),
+                        dto(category, "BULK-NEW-1", 2000),
+                        dto(category, "BULK-INVALID", 0),
+                        dto(category, "BULK-NEW-2", 1000)),
+                this::serialNumber,
+                existingSerialNumbers(category),
+                valid -> {
+                    saves.incrementAndGet();
+                    return save(category).apply(valid);
+                });
+
+        assertThat(result.getCreated(), is(2));
+        assertThat(result.getFailed(), is(3));
+        assertThat(result.getItems().stream().map(BulkItemResultDTO::getStatus).collect(Collectors.toList()), is(List.of(
+                BulkItemStatus.CREATED,
+                BulkItemStatus.DUPLICATE,
+                BulkItemStatus.DUPLICATE,
+                BulkItemStatus.INVALID,
+                BulkItemStatus.CREATED)));
+        assertThat(result.getItems().get(1).getErrors(), is(List.of("Serial number already exists")));
+        assertThat(result.getItems().get(2).getErrors(), is(List.of("Serial number is repeated in the request")));
+        assertThat(serialNumber(result.getItems().get(4).getItem()), is("BULK-NEW-2"));
+        assertThat(saves.get(), is(1));
+        assertThat(Set.copyOf(jdbcTemplate.queryForList(
+                        String.format("SELECT serial_number FROM %s WHERE serial_number LIKE 'BULK-%%'", category),
+                        String.class)),
+                is(Set.of("BULK-EXISTING", "BULK-NEW-1", "BULK-NEW-2")));
+        assertThat(jdbcTemplate.queryForObject(
+                        String.format("SELECT price FROM %s WHERE serial_number = 'BULK-NEW-1'", category), Integer.class),
+                is(1000));
+    }
+
+    /**
+     * Если все товары отклонены, то сохранение не вызывается
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenAllItemsAreDuplicatesThenNothingShouldBeSaved(String category) {
+        ProductRows.insert(jdbcTemplate, category, 100_000, "BULK-EXISTING", "MANUFACTURER", 1000, 1);
+
+        var result = bulkCreator.create(
+                List.of(dto(category, "BULK-EXISTING", 1000), dto(category, "BULK-EXISTING", 1000)),
+                this::serialNumber,
+                existingSerialNumbers(category),
+                valid -> {
+                    throw new AssertionError("Nothing should be saved");
+                });
+
+        assertThat(result.getCreated(), is(0));
+        assertThat(result.getItems().stream().map(BulkItemResultDTO::getStatus).collect(Collectors.toList()),
+                is(List.of(BulkItemStatus.DUPLICATE, BulkItemStatus.DUPLICATE)));
+    }
+
+    /**
+     * Создать DTO товара
+     *
+     * @param category     категория товара
+     * @param serialNumber серийный номер
+     * @param price        цена
+     * @return DTO
+     */
+    private Object dto(String category, String serialNumber, int price) {
+        return objectMapper.convertValue(
+                ProductRows.fields(category, serialNumber, "MANUFACTURER", price, 1), ProductRows.dtoClass(category));
+    }
+
+    /**
+     * Получить серийный номер DTO
+     *
+     * @param dto DTO товара
+     * @return серийный номер
+     */
+    private String serialNumber(Object dto) {
+        return (String) new BeanWrapperImpl(dto).getPropertyValue("serialNumber");
+    }
+
+    /**
+     * Получить поиск существующих серийных номеров категории
+     *
+     * @param category категория товара
+     * @return поиск существующих серийных номеров
+     */
+    private Function<Collection<String>, Set<String>> existingSerialNumbers(String category) {
+        return switch (category) {
+            case "computer" -> computerRepository::findExistingSerialNumbers;
+            case "hdd" -> hddRepository::findExistingSerialNumbers;
+            case "laptop" -> laptopRepository::findExistingSerialNumbers;
+            case "monitor" -> monitorRepository::findExistingSerialNumbers;
+            default -> throw new IllegalArgumentException(String.format("Unknown category: %s", category));
+        };
+    }
+
+    /**
+     * Получить сохранение товаров категории так же, как его выполняют сервисы
+     *
+     * @param category категория товара
+     * @return сохранение товаров, возвращает сохраненные товары в том же порядке
+     */
+    @SuppressWarnings("unchecked")
+    private UnaryOperator<List<Object>> save(String category) {
+        var repository = (JpaRepository<Object, Integer>) (JpaRepository<?, Integer>) switch (category) {
+            case "computer" -> computerRepository;
+            case "hdd" -> hddRepository;
+            case "laptop" -> laptopRepository;
+            case "monitor" -> monitorRepository;
+            default -> throw new IllegalArgumentException(String.format("Unknown category: %s", category));
+        };
+        return valid -> repository.saveAllAndFlush(valid.stream()
+                        .map(dto -> modelMapper.map(dto, ProductRows.entityClass(category)))
+                        .collect(Collectors.toList()))
+                .stream()
+                .map(entity -> modelMapper.map(entity, ProductRows.dtoClass(category)))
+                .collect(Collectors.toList());
+    }
+}
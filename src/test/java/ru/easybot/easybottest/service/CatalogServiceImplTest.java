@@ -0,0 +1,173 @@
+package ru.easybot.easybottest.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.OngoingStubbing;
+import org.modelmapper.ModelMapper;
+import org.springframework.dao.QueryTimeoutException;
+import ru.easybot.easybottest.config.CatalogProperties;
+import ru.easybot.easybottest.config.ModelMapperConfig;
+import ru.easybot.easybottest.filter.ProductFilter;
+import ru.easybot.easybottest.model.Hdd;
+import ru.easybot.easybottest.pagination.CatalogCursor;
+import ru.easybot.easybottest.pagination.CursorPage;
+import ru.easybot.easybottest.pagination.KeysetPageRequest;
+import ru.easybot.easybottest.repository.ComputerRepository;
+import ru.easybot.easybottest.repository.HddRepository;
+import ru.easybot.easybottest.repository.KeysetRepository;
+import ru.easybot.easybottest.repository.LaptopRepository;
+import ru.easybot.easybottest.repository.MonitorRepository;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тесты для сервиса CatalogServiceImpl с заглушками хранилищ категорий
+ *
+ * @author Ilya Kaltygin
+ */
+class CatalogServiceImplTest {
+
+    /**
+     * Время, отведенное на ответ одной категории, в миллисекундах
+     */
+    private static final long TIMEOUT_MILLIS = 200;
+
+    private final ComputerRepository computerRepository = mock(ComputerRepository.class);
+
+    private final HddRepository hddRepository = mock(HddRepository.class);
+
+    private final LaptopRepository laptopRepository = mock(LaptopRepository.class);
+
+    private final MonitorRepository monitorRepository = mock(MonitorRepository.class);
+
+    /**
+     * Удерживает запрос медленной категории до конца теста
+     */
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    /**
+     * Тестируемый сервис
+     */
+    private final CatalogServiceImpl catalogService = catalogService();
+
+    /**
+     * Остановить пул потоков сервиса и отпустить запрос медленной категории
+     */
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        catalogService.shutdown();
+    }
+
+    /**
+     * Запрос каждой категории ограничивается в базе данных отведенным временем,
+     * а страница без пропущенных категорий полная
+     */
+    @Test
+    void whenAllCategoriesAnswerThenQueriesShouldBeLimitedAndPageComplete() {
+        whenFindPage(hddRepository).thenReturn(new CursorPage<>(List.of(hdd(1, 100)), null));
+
+        var page = catalogService.findAll(new KeysetPageRequest(null, 10, "price", "asc"), new ProductFilter());
+
+        verify(computerRepository).findPage(any(KeysetPageRequest.class), any(), eq(TIMEOUT_MILLIS));
+        verify(hddRepository).findPage(any(KeysetPageRequest.class), any(), eq(TIMEOUT_MILLIS));
+        verify(laptopRepository).findPage(any(KeysetPageRequest.class), any(), eq(TIMEOUT_MILLIS));
+        verify(monitorRepository).findPage(any(KeysetPageRequest.class), any(), eq(TIMEOUT_MILLIS));
+        assertThat(page.getContent().size(), is(1));
+        assertThat(page.getTimedOut(), is(List.of()));
+        assertThat(page.isPartial(), is(false));
+        assertThat(page.getNextCursor(), is(nullValue()));
+    }
+
+    /**
+     * Категория, не ответившая за отведенное время, перечисляется в timedOut, страница помечается неполной,
+     * а позиция категории в курсоре не меняется
+     */
+    @Test
+    void whenCategoryTimedOutThenPageShouldBePartialAndCategoryPositionKept() {
+        whenFindPage(hddRepository).thenReturn(new CursorPage<>(List.of(hdd(1, 100)), "HDD"));
+        whenFindPage(laptopRepository).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return new CursorPage<>(List.of(), null);
+        });
+
+        var page = catalogService.findAll(new KeysetPageRequest(null, 1, "price", "asc"), new ProductFilter());
+
+        assertThat(page.getTimedOut(), is(List.of("laptop")));
+        assertThat(page.isPartial(), is(true));
+        var positions = CatalogCursor.decode(page.getNextCursor(), 4).getPositions();
+        assertThat(positions.get(2), is(""));
+        assertThat(positions.get(1).isEmpty(), is(false));
+    }
+
+    /**
+     * Запрос, отмененный базой данных по таймауту, пропускает категорию так же, как истекшее время ответа
+     */
+    @Test
+    void whenQueryCancelledByDatabaseThenCategoryShouldBeSkipped() {
+        whenFindPage(monitorRepository).thenThrow(new QueryTimeoutException("Query timed out"));
+
+        var page = catalogService.findAll(new KeysetPageRequest(null, 10, "price", "asc"), new ProductFilter());
+
+        assertThat(page.getTimedOut(), is(List.of("monitor")));
+        assertThat(page.isPartial(), is(true));
+        assertThat(CatalogCursor.decode(page.getNextCursor(), 4).getPositions().get(3), is(""));
+    }
+
+    /**
+     * Создать сервис, все хранилища которого по умолчанию возвращают пустую последнюю страницу
+     *
+     * @return сервис каталога
+     */
+    private CatalogServiceImpl catalogService() {
+        for (var repository : List.of(computerRepository, hddRepository, laptopRepository, monitorRepository)) {
+            when(repository.findPage(any(KeysetPageRequest.class), any(), anyLong()))
+                    .thenReturn(new CursorPage<>(List.of(), null));
+        }
+        var properties = new CatalogProperties();
+        properties.setCategoryTimeoutMs(TIMEOUT_MILLIS);
+        return new CatalogServiceImpl(computerRepository, hddRepository, laptopRepository, monitorRepository,
+                ModelMapperConfig.configure(new ModelMapper()), properties);
+    }
+
+    /**
+     * Задать ответ хранилища на запрос страницы с ограничением времени
+     *
+     * @param repository хранилище категории
+     * @return настройка ответа
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static OngoingStubbing<CursorPage> whenFindPage(KeysetRepository<?, Integer> repository) {
+        return when((CursorPage) repository.findPage(any(KeysetPageRequest.class), any(), anyLong()));
+    }
+
+    /**
+     * Создать жесткий диск
+     *
+     * @param id    идентификатор
+     * @param price цена
+     * @return жесткий диск
+     */
+    private static Hdd hdd(int id, int price) {
+        var hdd = new Hdd();
+        hdd.setId(id);
+        hdd.setSerialNumber("SN-" + id);
+        hdd.setManufacturer("MANUFACTURER");
+        hdd.setPrice(price);
+        hdd.setQuantity(1);
+        hdd.setCapacity(500);
+        return hdd;
+    }
+}
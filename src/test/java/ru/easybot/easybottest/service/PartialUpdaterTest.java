@@ -0,0 +1,121 @@
+package ru.easybot.easybottest.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import ru.easybot.easybottest.config.JpaConfig;
+import ru.easybot.easybottest.config.LiquibaseConfig;
+import ru.easybot.easybottest.config.ModelMapperConfig;
+import ru.easybot.easybottest.repository.ProductRows;
+
+import javax.persistence.EntityManager;
+import javax.validation.Validation;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Тесты частичного обновления товаров PartialUpdater на базе данных H2 со схемой из Liquibase
+ *
+ * @author Ilya Kaltygin
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@Import({JpaConfig.class, LiquibaseConfig.class})
+class PartialUpdaterTest {
+
+    /**
+     * Идентификатор товара вне блока идентификаторов последовательности
+     */
+    private static final int ID = 100_000;
+
+    /**
+     * Заполняет и читает таблицы товаров
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Менеджер сущностей
+     */
+    @Autowired
+    private EntityManager entityManager;
+
+    /**
+     * Каждое частичное обновление записывает только переданные поля и увеличивает версию строки на 1
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenUpdateThenOnlyGivenFieldsShouldBeWrittenAndVersionIncremented(String category) {
+        ProductRows.insert(jdbcTemplate, category, ID, "PATCH-1", "MANUFACTURER", 1000, 5);
+
+        assertThat(update(category, ID, Map.of("price", 2000)), is(1));
+        assertThat(ProductRows.version(jdbcTemplate, category, ID), is(1L));
+        assertThat(update(category, ID, Map.of("manufacturer", "PATCHED", "quantity", 7)), is(1));
+        assertThat(ProductRows.version(jdbcTemplate, category, ID), is(2L));
+
+        var row = jdbcTemplate.queryForMap(
+                String.format("SELECT serial_number, manufacturer, price, quantity, %s FROM %s WHERE id = ?",
+                        ProductRows.attribute(category), category), ID);
+        assertThat(row.get("SERIAL_NUMBER"), is("PATCH-1"));
+        assertThat(row.get("MANUFACTURER"), is("PATCHED"));
+        assertThat(row.get("PRICE"), is(2000));
+        assertThat(row.get("QUANTITY"), is(7));
+        assertThat(row.get(ProductRows.attribute(category).toUpperCase()).toString(),
+                is(ProductRows.attributeValue(category).toString()));
+    }
+
+    /**
+     * Обновление несуществующего товара ничего не меняет и возвращает 0
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenProductNotFoundThenNothingShouldBeUpdated(String category) {
+        ProductRows.insert(jdbcTemplate, category, ID, "PATCH-1", "MANUFACTURER", 1000, 5);
+
+        assertThat(update(category, ID + 1, Map.of("price", 2000)), is(0));
+        assertThat(ProductRows.version(jdbcTemplate, category, ID), is(0L));
+    }
+
+    /**
+     * Невалидное значение и неизвестное поле отклоняются со статусом BAD_REQUEST до запроса к базе данных
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenFieldInvalidThenBadRequestShouldBeThrownAndRowKept(String category) {
+        ProductRows.insert(jdbcTemplate, category, ID, "PATCH-1", "MANUFACTURER", 1000, 5);
+
+        var invalid = assertThrows(ResponseStatusException.class, () -> update(category, ID, Map.of("price", -1)));
+        var unknown = assertThrows(ResponseStatusException.class, () -> update(category, ID, Map.of("version", 10)));
+
+        assertThat(invalid.getStatus(), is(HttpStatus.BAD_REQUEST));
+        assertThat(unknown.getStatus(), is(HttpStatus.BAD_REQUEST));
+        assertThat(ProductRows.version(jdbcTemplate, category, ID), is(0L));
+        assertThat(ProductRows.quantity(jdbcTemplate, category, ID), is(5));
+    }
+
+    /**
+     * Частично обновить товар категории
+     *
+     * @param category категория товара
+     * @param id       идентификатор
+     * @param fields   новые значения полей
+     * @return кол-во обновленных строк
+     */
+    private int update(String category, int id, Map<String, Object> fields) {
+        var partialUpdater = new PartialUpdater(
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new ObjectMapper(),
+                ModelMapperConfig.configure(new ModelMapper()),
+                entityManager);
+        return partialUpdater.update(id, fields, ProductRows.dtoClass(category), ProductRows.entityClass(category));
+    }
+}
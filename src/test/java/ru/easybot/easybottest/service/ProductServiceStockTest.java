@@ -0,0 +1,142 @@
+package ru.easybot.easybottest.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.easybot.easybottest.EasybotTestApplication;
+import ru.easybot.easybottest.repository.ProductRows;
+
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Тесты записи остатка сервисами товаров, когда остаток товара зарезервирован StockServiceImpl.
+ * Сброс резервов по расписанию отключен большим интервалом, резервы сбрасываются из теста
+ *
+ * @author Ilya Kaltygin
+ */
+@SpringBootTest(classes = EasybotTestApplication.class, properties = {
+        "easybot.stock.reservation-enabled=true",
+        "easybot.stock.hot-threshold=1",
+        "easybot.stock.reservation-chunk=10",
+        "easybot.stock.stripes=1",
+        "easybot.stock.flush-interval-ms=3600000"})
+@AutoConfigureMockMvc
+class ProductServiceStockTest {
+
+    /**
+     * Идентификатор товара вне блоков идентификаторов последовательностей
+     */
+    private static final int ID = 100_000;
+
+    /**
+     * Обеспечивает возможность отправки запросов на контроллеры и проверки их ответов
+     */
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * Заполняет и читает таблицы товаров
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Сервис изменения остатков
+     */
+    @Autowired
+    private StockServiceImpl stockService;
+
+    /**
+     * Контекст приложения и база данных общие для тестов, поэтому вставленные строки удаляются
+     */
+    @AfterEach
+    void deleteRows() {
+        for (var category : new String[] {"computer", "hdd", "laptop", "monitor"}) {
+            jdbcTemplate.update(String.format("DELETE FROM %s WHERE id = ?", category), ID);
+        }
+    }
+
+    /**
+     * PUT остатка при активном резерве: после сброса в базе данных записанный остаток, а не остаток плюс резерв
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenPutQuantityWithActiveReserveThenFlushShouldKeepWrittenQuantity(String category) throws Exception {
+        reserve(category);
+
+        mockMvc.perform(put("/api/v1/{category}/{id}", category, ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(
+                                ProductRows.fields(category, "RESERVE-" + category, "MANUFACTURER", 1000, 50))))
+                .andDo(print())
+                .andExpect(status().isOk());
+        stockService.flush();
+
+        assertThat(ProductRows.quantity(jdbcTemplate, category, ID), is(50));
+    }
+
+    /**
+     * PATCH остатка при активном резерве: после сброса в базе данных записанный остаток
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenPatchQuantityWithActiveReserveThenFlushShouldKeepWrittenQuantity(String category) throws Exception {
+        reserve(category);
+
+        mockMvc.perform(patch("/api/v1/{category}/{id}", category, ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(Map.of("quantity", 50))))
+                .andDo(print())
+                .andExpect(status().isOk());
+        stockService.flush();
+
+        assertThat(ProductRows.quantity(jdbcTemplate, category, ID), is(50));
+    }
+
+    /**
+     * PATCH без остатка не трогает резерв: после сброса неизрасходованный резерв возвращается в базу данных
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenPatchWithoutQuantityThenReserveShouldBeReturnedOnFlush(String category) throws Exception {
+        reserve(category);
+
+        mockMvc.perform(patch("/api/v1/{category}/{id}", category, ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(Map.of("price", 2000))))
+                .andDo(print())
+                .andExpect(status().isOk());
+        stockService.flush();
+        stockService.flush();
+
+        assertThat(ProductRows.quantity(jdbcTemplate, category, ID), is(98));
+    }
+
+    /**
+     * Вставить товар с остатком 100 и зарезервировать его: продано 2 единицы, в резерве 9 единиц,
+     * в базе данных 89 единиц
+     *
+     * @param category категория товара
+     */
+    private void reserve(String category) {
+        ProductRows.insert(jdbcTemplate, category, ID, "RESERVE-" + category, "MANUFACTURER", 1000, 100);
+        stockService.decrement(category, ID, 1);
+        stockService.flush();
+        stockService.decrement(category, ID, 1);
+        assertThat(ProductRows.quantity(jdbcTemplate, category, ID), is(89));
+    }
+}
@@ -0,0 +1,345 @@
+package ru.easybot.easybottest.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import ru.easybot.easybottest.cache.DetailCache;
+import ru.easybot.easybottest.config.StockProperties;
+import ru.easybot.easybottest.repository.CategoryVersionRepository;
+import ru.easybot.easybottest.repository.ProductRows;
+import ru.easybot.easybottest.repository.StockJdbcRepository;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тесты для сервиса StockServiceImpl
+ *
+ * @author Ilya Kaltygin
+ */
+class StockServiceImplTest {
+
+    /**
+     * Хранилище остатков
+     */
+    private final StockJdbcRepository stockRepository = mock(StockJdbcRepository.class);
+
+    /**
+     * Хранилище версий категорий товаров
+     */
+    private final CategoryVersionRepository categoryVersionRepository = mock(CategoryVersionRepository.class);
+
+    /**
+     * Кэши товаров по категориям
+     */
+    private final List<DetailCache<Integer, ?>> caches = List.of(
+            new DetailCache<Integer, String>("computer", 10),
+            new DetailCache<Integer, String>("hdd", 10),
+            new DetailCache<Integer, String>("laptop", 10),
+            new DetailCache<Integer, String>("monitor", 10));
+
+    /**
+     * Настройки изменения остатков
+     */
+    private final StockProperties properties = new StockProperties();
+
+    /**
+     * Списание через базу данных удаляет товар из кэша, а версия категории увеличивается один раз при сбросе
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenDecrementThenCategoryVersionShouldBeIncrementedOnceOnFlush(String category) {
+        var stockService = stockService();
+        @SuppressWarnings("unchecked")
+        var cache = (DetailCache<Integer, String>) caches.stream()
+                .filter(detailCache -> detailCache.getName().equals(category))
+                .findFirst()
+                .orElseThrow();
+        cache.get(1, id -> Optional.of("cached"));
+        when(stockRepository.decrement(category, 1, 1)).thenReturn(1);
+
+        stockService.decrement(category, 1, 1);
+        stockService.decrement(category, 1, 1);
+
+        verify(categoryVersionRepository, never()).increment(anyString());
+        var loads = new AtomicInteger();
+        cache.get(1, id -> {
+            loads.incrementAndGet();
+            return Optional.of("reloaded");
+        });
+        assertThat(loads.get(), is(1));
+
+        stockService.flush();
+        stockService.flush();
+
+        verify(categoryVersionRepository, times(1)).increment(category);
+    }
+
+    /**
+     * Если единиц в резерве не хватает, то недостающие единицы списываются из базы данных,
+     * а не возвращается CONFLICT при достаточной сумме резерва и базы данных
+     */
+    @Test
+    void whenReserveIsNotEnoughThenMissingUnitsShouldBeTakenFromDatabase() {
+        var stockService = reservedStockService();
+        when(stockRepository.decrement("hdd", 1, 2)).thenReturn(1);
+
+        stockService.decrement("hdd", 1, 11);
+
+        verify(stockRepository).decrement("hdd", 1, 2);
+    }
+
+    /**
+     * Если не хватает и суммы резерва и базы данных, то возвращается CONFLICT, а забранный резерв
+     * остается доступным для следующих списаний
+     */
+    @Test
+    void whenReserveAndDatabaseAreNotEnoughThenReserveShouldBeKept() {
+        var stockService = reservedStockService();
+        when(stockRepository.exists("hdd", 1)).thenReturn(true);
+
+        var e = assertThrows(ResponseStatusException.class, () -> stockService.decrement("hdd", 1, 12));
+        assertThat(e.getStatus(), is(HttpStatus.CONFLICT));
+
+        stockService.decrement("hdd", 1, 9);
+
+        verify(stockRepository, never()).decrement("hdd", 1, 9);
+        verify(stockRepository, never()).increment(anyString(), anyInt(), anyInt());
+    }
+
+    /**
+     * Одновременные списания не продают больше остатка: успешных списаний ровно столько, сколько было единиц
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenConcurrentDecrementsThenStockShouldNotBeOversold(String category) throws Exception {
+        var database = ProductRows.database();
+        try {
+            var jdbcTemplate = new JdbcTemplate(database);
+            ProductRows.insert(jdbcTemplate, category, 1, 100);
+            var stockService = stockService(database);
+
+            var sold = decrementConcurrently(stockService, category, 160, () -> { });
+
+            assertThat(sold, is(100));
+            assertThat(ProductRows.quantity(jdbcTemplate, category, 1), is(0));
+        } finally {
+            database.shutdown();
+        }
+    }
+
+    /**
+     * Одновременные списания из резерва вместе со сбросами резервов не продают больше остатка и не теряют единиц:
+     * после возврата резерва в базе данных остаются ровно непроданные единицы
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenConcurrentDecrementsFromReserveThenStockShouldNotBeOversoldOrLost(String category) throws Exception {
+        properties.setReservationEnabled(true);
+        properties.setHotThreshold(1);
+        properties.setReservationChunk(10);
+        properties.setStripes(4);
+        var database = ProductRows.database();
+        try {
+            var jdbcTemplate = new JdbcTemplate(database);
+            ProductRows.insert(jdbcTemplate, category, 1, 100);
+            var stockService = stockService(database);
+            stockService.decrement(category, 1, 1);
+            stockService.flush();
+
+            var sold = 1 + decrementConcurrently(stockService, category, 160, stockService::flush);
+            stockService.close();
+
+            assertThat(sold <= 100, is(true));
+            assertThat(ProductRows.quantity(jdbcTemplate, category, 1), is(100 - sold));
+        } finally {
+            database.shutdown();
+        }
+    }
+
+    /**
+     * Остаток, записанный абсолютным значением при активном резерве, не увеличивается возвратом резерва
+     * при следующем сбросе, а новые списания идут из базы данных
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenQuantityOverwrittenWithActiveReserveThenFlushShouldKeepWrittenValue(String category) {
+        var database = ProductRows.database();
+        try {
+            var jdbcTemplate = new JdbcTemplate(database);
+            var stockService = reservedStockService(database, jdbcTemplate, category);
+
+            new TransactionTemplate(new DataSourceTransactionManager(database)).executeWithoutResult(status -> {
+                stockService.discardReserve(category, 1);
+                jdbcTemplate.update(String.format("UPDATE %s SET quantity = 50 WHERE id = 1", category));
+            });
+            stockService.flush();
+            stockService.close();
+            assertThat(ProductRows.quantity(jdbcTemplate, category, 1), is(50));
+
+            stockService.decrement(category, 1, 1);
+            assertThat(ProductRows.quantity(jdbcTemplate, category, 1), is(49));
+        } finally {
+            database.shutdown();
+        }
+    }
+
+    /**
+     * Если запись остатка откатилась, то закрытый резерв возвращается в базу данных и единицы не теряются
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"computer", "hdd", "laptop", "monitor"})
+    void whenQuantityOverwriteRolledBackThenReserveShouldBeReturned(String category) {
+        var database = ProductRows.database();
+        try {
+            var jdbcTemplate = new JdbcTemplate(database);
+            var stockService = reservedStockService(database, jdbcTemplate, category);
+
+            assertThrows(IllegalStateException.class, () ->
+                    new TransactionTemplate(new DataSourceTransactionManager(database)).executeWithoutResult(status -> {
+                        stockService.discardReserve(category, 1);
+                        jdbcTemplate.update(String.format("UPDATE %s SET quantity = 50 WHERE id = 1", category));
+                        throw new IllegalStateException("rollback");
+                    }));
+            stockService.flush();
+            stockService.close();
+
+            assertThat(ProductRows.quantity(jdbcTemplate, category, 1), is(98));
+        } finally {
+            database.shutdown();
+        }
+    }
+
+    /**
+     * Создать сервис
+     *
+     * @return сервис изменения остатков
+     */
+    private StockServiceImpl stockService() {
+        return new StockServiceImpl(stockRepository, categoryVersionRepository, caches, properties,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+    }
+
+    /**
+     * Создать сервис, списывающий остатки в базе данных
+     *
+     * @param dataSource база данных
+     * @return сервис изменения остатков
+     */
+    private StockServiceImpl stockService(DataSource dataSource) {
+        return new StockServiceImpl(new StockJdbcRepository(new JdbcTemplate(dataSource)), categoryVersionRepository,
+                caches, properties, new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+    }
+
+    /**
+     * Списывать по одной единице товара 1 из нескольких потоков, пока другой поток выполняет фоновое действие
+     *
+     * @param stockService сервис изменения остатков
+     * @param category     категория товара
+     * @param attempts     кол-во списаний
+     * @param background   фоновое действие, повторяется до окончания списаний
+     * @return кол-во успешных списаний
+     * @throws Exception при ошибке списания, отличной от CONFLICT
+     */
+    private int decrementConcurrently(StockServiceImpl stockService, String category, int attempts,
+                                      Runnable background) throws Exception {
+        var executor = Executors.newFixedThreadPool(9);
+        var sold = new AtomicInteger();
+        var done = new AtomicBoolean();
+        try {
+            var backgroundTask = executor.submit(() -> {
+                while (!done.get()) {
+                    background.run();
+                }
+            });
+            var tasks = IntStream.range(0, attempts)
+                    .mapToObj(i -> (Callable<Void>) () -> {
+                        try {
+                            stockService.decrement(category, 1, 1);
+                            sold.incrementAndGet();
+                        } catch (ResponseStatusException e) {
+                            assertThat(e.getStatus(), is(HttpStatus.CONFLICT));
+                        }
+                        return null;
+                    })
+                    .collect(Collectors.toList());
+            try {
+                for (var future : executor.invokeAll(tasks)) {
+                    future.get();
+                }
+            } finally {
+                done.set(true);
+            }
+            backgroundTask.get();
+        } finally {
+            executor.shutdown();
+        }
+        return sold.get();
+    }
+
+    /**
+     * Создать сервис, списывающий остатки в базе данных, в котором товар 1 с остатком 100 зарезервирован:
+     * продано 2 единицы, в резерве 9 единиц, в базе данных 89 единиц
+     *
+     * @param dataSource   база данных
+     * @param jdbcTemplate шаблон JDBC базы данных
+     * @param category     категория товара
+     * @return сервис изменения остатков
+     */
+    private StockServiceImpl reservedStockService(DataSource dataSource, JdbcTemplate jdbcTemplate, String category) {
+        properties.setReservationEnabled(true);
+        properties.setHotThreshold(1);
+        properties.setReservationChunk(10);
+        properties.setStripes(1);
+        ProductRows.insert(jdbcTemplate, category, 1, 100);
+        var stockService = stockService(dataSource);
+        stockService.decrement(category, 1, 1);
+        stockService.flush();
+        stockService.decrement(category, 1, 1);
+        assertThat(ProductRows.quantity(jdbcTemplate, category, 1), is(89));
+        return stockService;
+    }
+
+    /**
+     * Создать сервис, в котором жесткий диск 1 зарезервирован и в резерве 9 единиц
+     *
+     * @return сервис изменения остатков
+     */
+    private StockServiceImpl reservedStockService() {
+        properties.setReservationEnabled(true);
+        properties.setHotThreshold(1);
+        properties.setReservationChunk(10);
+        properties.setStripes(1);
+        var stockService = stockService();
+        when(stockRepository.decrement("hdd", 1, 1)).thenReturn(1);
+        when(stockRepository.decrement("hdd", 1, 10)).thenReturn(1, 0);
+        stockService.decrement("hdd", 1, 1);
+        stockService.flush();
+        stockService.decrement("hdd", 1, 1);
+        return stockService;
+    }
+}
@@ -0,0 +1,36 @@
+package ru.easybot.easybottest.sql;
+
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки кол-ва SQL запросов для тестов. Учитываются запросы, выполненные текущим потоком,
+ * поэтому вызов MockMvc проверяется целиком: фильтры, контроллер, сервис и хранилища
+ *
+ * @author Ilya Kaltygin
+ */
+public final class SqlAssertions {
+
+    private SqlAssertions() {
+    }
+
+    /**
+     * Выполнить вызов и проверить, что он выполнил не больше заданного кол-ва SQL запросов
+     *
+     * @param observer      наблюдатель за запросами
+     * @param maxStatements максимально допустимое кол-во запросов
+     * @param call          проверяемый вызов
+     * @param <T>           тип результата вызова
+     * @return результат вызова
+     * @throws Exception исключение, выброшенное вызовом
+     */
+    public static <T> T assertMaxStatements(SqlObserver observer, int maxStatements, Callable<T> call) throws Exception {
+        var before = observer.threadStatements();
+        var result = call.call();
+        var executed = observer.threadStatements() - before;
+        assertTrue(executed <= maxStatements,
+                String.format("Expected at most %d SQL statements, but %d were executed", maxStatements, executed));
+        return result;
+    }
+}
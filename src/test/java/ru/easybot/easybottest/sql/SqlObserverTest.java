@@ -0,0 +1,48 @@
+package ru.easybot.easybottest.sql;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Тесты для наблюдателя SqlObserver
+ *
+ * @author Ilya Kaltygin
+ */
+class SqlObserverTest {
+
+    @Test
+    public void whenSlowLogIsFullThenSlowestStatementsShouldBeKept() {
+        var observer = new SqlObserver(10, 3);
+
+        for (var ms : List.of(50, 20, 5, 70, 10, 30, 60, 40)) {
+            observer.record("SELECT " + ms, List.of(), 0, TimeUnit.MILLISECONDS.toNanos(ms));
+        }
+
+        var stats = observer.stats();
+        assertThat(stats.getStatements(), is(8L));
+        assertThat(stats.getSlowest().stream().map(SlowStatement::getSql).collect(Collectors.toList()),
+                is(List.of("SELECT 70", "SELECT 60", "SELECT 50")));
+    }
+
+    @Test
+    public void whenSlowLogSizeIsZeroThenStatementsShouldBeCountedWithoutSlowLog() {
+        var observer = new SqlObserver(0, 0);
+
+        observer.record("SELECT 1", List.of(), 0, TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertThat(observer.stats().getStatements(), is(1L));
+        assertThat(observer.stats().getSlowest().isEmpty(), is(true));
+    }
+
+    @Test
+    public void whenSlowLogSizeIsNegativeThenShouldBeThrownException() {
+        assertThrows(IllegalArgumentException.class, () -> new SqlObserver(100, -1));
+    }
+}